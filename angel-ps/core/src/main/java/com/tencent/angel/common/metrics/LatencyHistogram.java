@@ -0,0 +1,143 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with fixed log2 buckets in microseconds. Bucket i counts the latencies in
+ * [2^(i-1), 2^i) us, so recording a value only updates a few atomic counters and never allocates.
+ */
+public class LatencyHistogram {
+
+  /**
+   * Bucket number, the last bucket holds all the latencies that are larger than 2^38 us
+   */
+  public static final int BUCKET_NUM = 40;
+
+  private final AtomicLongArray buckets;
+  private final AtomicLong count;
+  private final AtomicLong sum;
+  private final AtomicLong max;
+
+  public LatencyHistogram() {
+    buckets = new AtomicLongArray(BUCKET_NUM);
+    count = new AtomicLong(0);
+    sum = new AtomicLong(0);
+    max = new AtomicLong(0);
+  }
+
+  /**
+   * Record a latency
+   *
+   * @param micros latency in microseconds
+   */
+  public void record(long micros) {
+    if (micros < 0) {
+      micros = 0;
+    }
+
+    buckets.incrementAndGet(bucketIndex(micros));
+    count.incrementAndGet();
+    sum.addAndGet(micros);
+
+    long current = max.get();
+    while (micros > current && !max.compareAndSet(current, micros)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Record a latency
+   *
+   * @param nanos latency in nanoseconds
+   */
+  public void recordNanos(long nanos) {
+    record(nanos / 1000);
+  }
+
+  static int bucketIndex(long micros) {
+    return Math.min(BUCKET_NUM - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Get the average latency
+   *
+   * @return average latency in microseconds
+   */
+  public double getMean() {
+    long num = count.get();
+    return num == 0 ? 0.0 : (double) sum.get() / num;
+  }
+
+  /**
+   * Get the upper bound of a quantile
+   *
+   * @param quantile quantile in [0, 1]
+   * @return upper bound of the quantile latency in microseconds
+   */
+  public long getQuantile(double quantile) {
+    long num = count.get();
+    if (num == 0) {
+      return 0;
+    }
+
+    long target = Math.max(1, (long) Math.ceil(quantile * num));
+    long accumulated = 0;
+    for (int i = 0; i < BUCKET_NUM; i++) {
+      accumulated += buckets.get(i);
+      if (accumulated >= target) {
+        return Math.min(upperBound(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  private static long upperBound(int index) {
+    return index == BUCKET_NUM - 1 ? Long.MAX_VALUE : (1L << index) - 1;
+  }
+
+  /**
+   * Clear all the counters
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_NUM; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d, avg=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, max=%.3fms",
+        getCount(), getMean() / 1000, getQuantile(0.5) / 1000.0, getQuantile(0.9) / 1000.0,
+        getQuantile(0.99) / 1000.0, getMax() / 1000.0);
+  }
+}
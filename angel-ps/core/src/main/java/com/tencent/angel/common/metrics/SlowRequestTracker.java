@@ -0,0 +1,196 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.common.metrics;
+
+import com.tencent.angel.ps.server.data.TransportMethod;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keep the slowest requests. A request is traced by the psagent id and the request seq id, they
+ * are sent in the head of every rpc, so the same request can be found on both psagent and ps.
+ *
+ * <p>The entries are allocated in advance and the requests that are faster than all the kept ones
+ * are dropped by a single volatile read, so only the slow requests take the lock.
+ */
+public class SlowRequestTracker {
+
+  /**
+   * Stage names, the stage costs of a request are in the same order
+   */
+  private final String[] stageNames;
+
+  /**
+   * Name of the request destination, for example matrix or ps
+   */
+  private final String targetName;
+
+  private final Entry[] entries;
+
+  /**
+   * Entry number in use
+   */
+  private int size;
+
+  /**
+   * The latency a request must exceed to be kept, it is the minimum kept latency once all the
+   * entries are in use
+   */
+  private volatile long threshold;
+
+  public SlowRequestTracker(int capacity, String targetName, String... stageNames) {
+    this.stageNames = stageNames;
+    this.targetName = targetName;
+    this.entries = new Entry[Math.max(1, capacity)];
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] = new Entry(stageNames.length);
+    }
+    this.size = 0;
+    this.threshold = -1;
+  }
+
+  /**
+   * Is the request slow enough to be kept
+   *
+   * @param totalMicros request latency in microseconds
+   * @return true means the request should be recorded
+   */
+  public boolean isSlow(long totalMicros) {
+    return totalMicros > threshold;
+  }
+
+  /**
+   * Record a request, it replaces the fastest kept request if all the entries are in use
+   *
+   * @param clientId psagent id
+   * @param seqId request seq id
+   * @param method request type
+   * @param target request destination
+   * @param totalMicros request latency in microseconds
+   * @param stageMicros stage costs in microseconds
+   */
+  public synchronized void record(int clientId, int seqId, TransportMethod method, int target,
+      long totalMicros, long[] stageMicros) {
+    if (!isSlow(totalMicros)) {
+      return;
+    }
+
+    Entry entry;
+    if (size < entries.length) {
+      entry = entries[size++];
+    } else {
+      entry = entries[0];
+      for (int i = 1; i < entries.length; i++) {
+        if (entries[i].totalMicros < entry.totalMicros) {
+          entry = entries[i];
+        }
+      }
+    }
+
+    entry.clientId = clientId;
+    entry.seqId = seqId;
+    entry.method = method;
+    entry.target = target;
+    entry.totalMicros = totalMicros;
+    entry.ts = System.currentTimeMillis();
+    System.arraycopy(stageMicros, 0, entry.stageMicros, 0,
+        Math.min(stageMicros.length, entry.stageMicros.length));
+
+    if (size == entries.length) {
+      long min = Long.MAX_VALUE;
+      for (int i = 0; i < entries.length; i++) {
+        min = Math.min(min, entries[i].totalMicros);
+      }
+      threshold = min;
+    }
+  }
+
+  /**
+   * Clear the kept requests
+   */
+  public synchronized void reset() {
+    size = 0;
+    threshold = -1;
+  }
+
+  /**
+   * Append the kept requests to a string builder, the slowest first
+   *
+   * @param sb string builder
+   */
+  public void report(StringBuilder sb) {
+    Entry[] sorted;
+    synchronized (this) {
+      sorted = new Entry[size];
+      for (int i = 0; i < size; i++) {
+        sorted[i] = entries[i].copy();
+      }
+    }
+
+    Arrays.sort(sorted, new Comparator<Entry>() {
+      @Override
+      public int compare(Entry o1, Entry o2) {
+        return Long.compare(o2.totalMicros, o1.totalMicros);
+      }
+    });
+
+    for (Entry entry : sorted) {
+      sb.append("trace=").append(entry.clientId).append('/').append(entry.seqId)
+          .append(", method=").append(entry.method)
+          .append(", ").append(targetName).append('=').append(entry.target)
+          .append(", ts=").append(entry.ts)
+          .append(", total=").append(toMs(entry.totalMicros)).append("ms");
+      for (int i = 0; i < stageNames.length; i++) {
+        sb.append(", ").append(stageNames[i]).append('=').append(toMs(entry.stageMicros[i]))
+            .append("ms");
+      }
+      sb.append('\n');
+    }
+  }
+
+  private static String toMs(long micros) {
+    return String.format("%.3f", micros / 1000.0);
+  }
+
+  static class Entry {
+    int clientId;
+    int seqId;
+    TransportMethod method;
+    int target;
+    long totalMicros;
+    long ts;
+    final long[] stageMicros;
+
+    Entry(int stageNum) {
+      stageMicros = new long[stageNum];
+    }
+
+    Entry copy() {
+      Entry entry = new Entry(stageMicros.length);
+      entry.clientId = clientId;
+      entry.seqId = seqId;
+      entry.method = method;
+      entry.target = target;
+      entry.totalMicros = totalMicros;
+      entry.ts = ts;
+      System.arraycopy(stageMicros, 0, entry.stageMicros, 0, stageMicros.length);
+      return entry;
+    }
+  }
+}
@@ -37,6 +37,11 @@ public class ChannelManager2 {
    */
   private final Bootstrap bootstrap;
 
+  /**
+   * netty client bootstrap for the in-process servers, see {@link LocalTransport}
+   */
+  private volatile Bootstrap localBootstrap;
+
   /**
    * Channel pool parameters
    */
@@ -136,6 +141,16 @@ public class ChannelManager2 {
     LOG.info("Channel manager stop");
   }
 
+  /**
+   * Set the netty client bootstrap for the in-process servers, it must be set before the channels
+   * are created
+   *
+   * @param localBootstrap netty client bootstrap for local channels
+   */
+  public void setLocalBootstrap(Bootstrap localBootstrap) {
+    this.localBootstrap = localBootstrap;
+  }
+
   /**
    * Get a channel to a server
    *
@@ -161,7 +176,8 @@ public class ChannelManager2 {
     throws TimeoutException, InterruptedException {
     ChannelPool pool = locToChannelPoolMap.get(loc);
     if (pool == null) {
-      pool = locToChannelPoolMap.putIfAbsent(loc, new ChannelPool(bootstrap, loc, poolParam));
+      pool = locToChannelPoolMap
+        .putIfAbsent(loc, new ChannelPool(bootstrap, localBootstrap, loc, poolParam));
       if (pool == null) {
         pool = locToChannelPoolMap.get(loc);
       }
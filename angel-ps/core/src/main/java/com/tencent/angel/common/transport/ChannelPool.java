@@ -22,6 +22,7 @@ import com.tencent.angel.common.location.Location;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.local.LocalAddress;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -46,6 +47,11 @@ public class ChannelPool {
    */
   private final Bootstrap bootstrap;
 
+  /**
+   * Netty client bootstrap for the in-process servers, null if local transport is disabled
+   */
+  private final Bootstrap localBootstrap;
+
   /**
    * Server location
    */
@@ -74,7 +80,21 @@ public class ChannelPool {
    * @param param     pool parameters
    */
   public ChannelPool(Bootstrap bootstrap, Location loc, ChannelPoolParam param) {
+    this(bootstrap, null, loc, param);
+  }
+
+  /**
+   * Create a channel pool
+   *
+   * @param bootstrap      netty client bootstrap
+   * @param localBootstrap netty client bootstrap for the in-process servers, it can be null
+   * @param loc            server location
+   * @param param          pool parameters
+   */
+  public ChannelPool(Bootstrap bootstrap, Bootstrap localBootstrap, Location loc,
+    ChannelPoolParam param) {
     this.bootstrap = bootstrap;
+    this.localBootstrap = localBootstrap;
     this.loc = loc;
     this.param = param;
     this.channels = new ArrayList<>();
@@ -142,7 +162,7 @@ public class ChannelPool {
   }
 
   /**
-   * Connect to the server to get a channel
+   * Connect to the server to get a channel, use the local channel if the server is in this JVM
    *
    * @param timeoutMs max wait time
    * @return a channel to the server
@@ -150,7 +170,13 @@ public class ChannelPool {
    * @throws TimeoutException
    */
   private Channel connect(long timeoutMs) throws InterruptedException, TimeoutException {
-    ChannelFuture connectFuture = bootstrap.connect(loc.getIp(), loc.getPort());
+    LocalAddress localAddr = LocalTransport.getLocalAddress(loc);
+    ChannelFuture connectFuture;
+    if (localBootstrap != null && localAddr != null) {
+      connectFuture = localBootstrap.connect(localAddr);
+    } else {
+      connectFuture = bootstrap.connect(loc.getIp(), loc.getPort());
+    }
     int ticks = Math.max(1, (int) (timeoutMs / 10));
     while (ticks-- >= 0) {
       if (connectFuture.isDone()) {
@@ -0,0 +1,97 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.common.transport;
+
+import com.tencent.angel.common.location.Location;
+import io.netty.channel.local.LocalAddress;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the in-process (netty local channel) servers. A server that runs in the same JVM as
+ * its clients registers a local address for its socket location, the clients connect to the local
+ * address instead of the socket, so the messages are passed to the server pipeline directly
+ * without socket I/O and frame encoding.
+ */
+public class LocalTransport {
+  /**
+   * Server socket location to local address map
+   */
+  private static final ConcurrentHashMap<Location, LocalAddress> locToLocalAddrMap =
+    new ConcurrentHashMap<>();
+
+  /**
+   * Local address to server socket location map
+   */
+  private static final ConcurrentHashMap<LocalAddress, Location> localAddrToLocMap =
+    new ConcurrentHashMap<>();
+
+  /**
+   * Create a local address for a server
+   *
+   * @param loc server socket location
+   * @return local address
+   */
+  public static LocalAddress newLocalAddress(Location loc) {
+    return new LocalAddress("angel-" + loc.getIp() + ":" + loc.getPort());
+  }
+
+  /**
+   * Register a local server
+   *
+   * @param loc       server socket location
+   * @param localAddr local address the server bound
+   */
+  public static void register(Location loc, LocalAddress localAddr) {
+    locToLocalAddrMap.put(loc, localAddr);
+    localAddrToLocMap.put(localAddr, loc);
+  }
+
+  /**
+   * Unregister a local server
+   *
+   * @param loc server socket location
+   */
+  public static void unregister(Location loc) {
+    LocalAddress localAddr = locToLocalAddrMap.remove(loc);
+    if (localAddr != null) {
+      localAddrToLocMap.remove(localAddr);
+    }
+  }
+
+  /**
+   * Get the local address of a server
+   *
+   * @param loc server socket location
+   * @return local address, null if the server is not in this JVM
+   */
+  public static LocalAddress getLocalAddress(Location loc) {
+    return locToLocalAddrMap.get(loc);
+  }
+
+  /**
+   * Get the socket location of a local server
+   *
+   * @param localAddr local address
+   * @return server socket location, null if the local address is not registered
+   */
+  public static Location getLocation(LocalAddress localAddr) {
+    return localAddrToLocMap.get(localAddr);
+  }
+}
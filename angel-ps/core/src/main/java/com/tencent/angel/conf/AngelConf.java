@@ -719,6 +719,28 @@ public class AngelConf extends Configuration {
       ANGEL_WORKER_PREFIX + "matrix.executors.num";
   public static final int DEFAULT_ANGEL_WORKER_MATRIX_EXECUTORS_NUM = 16;
 
+  /**
+   * The element number of a chunk in worker collective operations, a segment of the ring is sent
+   * as several chunks so that transferring and reducing can be pipelined
+   */
+  public static final String ANGEL_WORKER_COLLECTIVE_CHUNK_SIZE =
+      ANGEL_WORKER_PREFIX + "collective.chunk.size";
+  public static final int DEFAULT_ANGEL_WORKER_COLLECTIVE_CHUNK_SIZE = 65536;
+
+  /**
+   * The number of threads that send chunks to the neighbor worker in collective operations
+   */
+  public static final String ANGEL_WORKER_COLLECTIVE_SENDER_NUM =
+      ANGEL_WORKER_PREFIX + "collective.sender.num";
+  public static final int DEFAULT_ANGEL_WORKER_COLLECTIVE_SENDER_NUM = 4;
+
+  /**
+   * The time a worker waits for a chunk from its neighbor in collective operations
+   */
+  public static final String ANGEL_WORKER_COLLECTIVE_TIMEOUT_MS =
+      ANGEL_WORKER_PREFIX + "collective.timeout.ms";
+  public static final int DEFAULT_ANGEL_WORKER_COLLECTIVE_TIMEOUT_MS = 600000;
+
   // //////////////////////////////
   // Task Configs
   // //////////////////////////////
@@ -952,6 +974,14 @@ public class AngelConf extends Configuration {
       ANGEL_PS_PREFIX + "max.partition.number.single.file";
   public static final int DEFAULT_ANGEL_PS_MAX_PARTITION_NUM_SINGLE_FILE = 5;
 
+  /**
+   * Maximum element number in a data block of the bulk binary model format, it is also the
+   * element number a single load task handles
+   */
+  public static final String ANGEL_PS_IO_BLOCK_ELEMENT_NUM =
+      ANGEL_PS_PREFIX + "io.block.element.number";
+  public static final int DEFAULT_ANGEL_PS_IO_BLOCK_ELEMENT_NUM = 256 * 1024;
+
   /**
    * Server Partition source data Class
    */
@@ -985,6 +1015,48 @@ public class AngelConf extends Configuration {
       ANGEL_PS_PREFIX + "sparse.to.dense.factor";
   public static final float DEFAULT_ANGEL_PS_SPARSE_TO_DENSE_FACTOR = 0.25f;
 
+  /**
+   * Convert the storage of the sparse type rows between sparse and dense while training
+   */
+  public static final String ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_ENABLE =
+      ANGEL_PS_PREFIX + "online.adaptive.storage.enable";
+  public static final boolean DEFAULT_ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_ENABLE = false;
+
+  /**
+   * Row write number between two storage checks
+   */
+  public static final String ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_CHECK_INTERVAL =
+      ANGEL_PS_PREFIX + "online.adaptive.storage.check.interval";
+  public static final int DEFAULT_ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_CHECK_INTERVAL = 1000;
+
+  /**
+   * A dense storage row is converted to sparse storage if its non-zero ratio is smaller than this
+   * factor, it should be smaller than {@link #ANGEL_PS_SPARSE_TO_DENSE_FACTOR}
+   */
+  public static final String ANGEL_PS_DENSE_TO_SPARSE_FACTOR =
+      ANGEL_PS_PREFIX + "dense.to.sparse.factor";
+  public static final float DEFAULT_ANGEL_PS_DENSE_TO_SPARSE_FACTOR = 0.1f;
+
+  /**
+   * Check interval of the element evictor, see {@link MatrixConf#MATRIX_ELEMENT_EVICTION_TTL_MS}
+   */
+  public static final String ANGEL_PS_ELEMENT_EVICTION_INTERVAL_MS =
+      ANGEL_PS_PREFIX + "element.eviction.interval.ms";
+  public static final int DEFAULT_ANGEL_PS_ELEMENT_EVICTION_INTERVAL_MS = 60000;
+
+  /**
+   * Hot key number tracked for each row from the index get requests, 0 means do not track the hot
+   * keys. It must be positive if {@link #ANGEL_PSAGENT_HOT_KEY_CACHE_ENABLE} is true
+   */
+  public static final String ANGEL_PS_HOT_KEY_TOP_K = ANGEL_PS_PREFIX + "hot.key.top.k";
+  public static final int DEFAULT_ANGEL_PS_HOT_KEY_TOP_K = 0;
+
+  /**
+   * Only one in every this number keys of an index get request is counted for hot key tracking
+   */
+  public static final String ANGEL_PS_HOT_KEY_SAMPLE_STEP = ANGEL_PS_PREFIX + "hot.key.sample.step";
+  public static final int DEFAULT_ANGEL_PS_HOT_KEY_SAMPLE_STEP = 8;
+
   public static final String ANGEL_PS_JVM_DIRECT_FACTOR_USE_DIRECT_BUFF =
       ANGEL_PS_PREFIX + "jvm.direct.factor.use.direct.buff";
   public static final float DEFAULT_ANGEL_PS_JVM_DIRECT_FACTOR_USE_DIRECT_BUFF = 0.15f;
@@ -1315,6 +1387,13 @@ public class AngelConf extends Configuration {
       "angel.netty.matrixtransfer.server.channel.type";
   public static final String DEFAULT_ANGEL_NETTY_MATRIXTRANSFER_SERVER_CHANNEL_TYPE = "nio";
 
+  /**
+   * Use netty local channels between the PS and the PS clients in the same JVM or not
+   */
+  public static final String ANGEL_NETTY_MATRIXTRANSFER_LOCAL_ENABLE =
+      "angel.netty.matrixtransfer.local.enable";
+  public static final boolean DEFAULT_ANGEL_NETTY_MATRIXTRANSFER_LOCAL_ENABLE = false;
+
   /**
    * The eventgroup thread number for netty server for matrix transfer.
    */
@@ -1375,6 +1454,36 @@ public class AngelConf extends Configuration {
 
   public static final int DEFAULT_ANGEL_MATRIXTRANSFER_SERVER_TOKEN_TIMEOUT_MS = 10000;
 
+  /**
+   * The maximum credit bytes that a server(ps) has granted to all psagents but not received yet
+   */
+  public static final String ANGEL_MATRIXTRANSFER_SERVER_MAX_CREDIT_BYTES =
+      ANGEL_PREFIX + "matrixtransfer.server.max.credit.bytes";
+  public static final long DEFAULT_ANGEL_MATRIXTRANSFER_SERVER_MAX_CREDIT_BYTES =
+      1024L * 1024 * 1024;
+
+  /**
+   * The credit bytes a server(ps) grants in a single response
+   */
+  public static final String ANGEL_MATRIXTRANSFER_SERVER_CREDIT_GRANT_BYTES =
+      ANGEL_PREFIX + "matrixtransfer.server.credit.grant.bytes";
+  public static final int DEFAULT_ANGEL_MATRIXTRANSFER_SERVER_CREDIT_GRANT_BYTES = 4 * 1024 * 1024;
+
+  /**
+   * Enable the latency histograms and the slow request tracing of the rpcs on both server(ps) and
+   * psagent, they are shown on the webapp pages of ps and worker
+   */
+  public static final String ANGEL_MATRIXTRANSFER_METRICS_ENABLE =
+      ANGEL_PREFIX + "matrixtransfer.metrics.enable";
+  public static final boolean DEFAULT_ANGEL_MATRIXTRANSFER_METRICS_ENABLE = true;
+
+  /**
+   * The number of the slowest requests kept for tracing, it is kept for each ps in psagent
+   */
+  public static final String ANGEL_MATRIXTRANSFER_SLOW_REQUEST_NUM =
+      ANGEL_PREFIX + "matrixtransfer.slow.request.num";
+  public static final int DEFAULT_ANGEL_MATRIXTRANSFER_SLOW_REQUEST_NUM = 32;
+
   public static final String ANGEL_MATRIXTRANSFER_SERVER_RPC_LIMIT_FACTOR =
       ANGEL_PREFIX + "matrixtransfer.server.rpc.limit.factor";
   public static final float DEFAULT_ANGEL_MATRIXTRANSFER_SERVER_RPC_LIMIT_FACTOR = 128.0f;
@@ -1410,6 +1519,16 @@ public class AngelConf extends Configuration {
   public static final int DEFAULT_ANGEL_MATRIX_OPLOG_MERGER_POOL_SIZE =
       Math.max(8, (int) (Runtime.getRuntime().availableProcessors() * 0.25));
 
+  /**
+   * Update shard number of a matrix oplog. The merge workers merge the updates into different
+   * shards concurrently, and the shards are combined when the updates are flushed. Each shard may
+   * hold a full copy of the updated rows, so it should be used for sparse updates. 1 means all
+   * updates are merged into one matrix
+   */
+  public static final String ANGEL_MATRIX_OPLOG_SHARD_NUM =
+      ANGEL_PREFIX + "matrix.oplog.shard.num";
+  public static final int DEFAULT_ANGEL_MATRIX_OPLOG_SHARD_NUM = 1;
+
   /**
    * The maximum allowed number of matrix transfer requests which are sending to the servers(ps). It
    * used to flow-control between psagent and ps.
@@ -1505,6 +1624,22 @@ public class AngelConf extends Configuration {
       ANGEL_PSAGENT_PREFIX + "cache.sync.timeinterval.ms";
   public static final int DEFAULT_ANGEL_PSAGENT_CACHE_SYNC_TIMEINTERVAL_MS = 200;
 
+  /**
+   * Cache the hot keys of the rows read by index get in PSAgent. The hot keys and their values are
+   * pulled from pss regularly, and the index gets read them from the cache if the cached clock
+   * satisfies the staleness
+   */
+  public static final String ANGEL_PSAGENT_HOT_KEY_CACHE_ENABLE =
+      ANGEL_PSAGENT_PREFIX + "hot.key.cache.enable";
+  public static final boolean DEFAULT_ANGEL_PSAGENT_HOT_KEY_CACHE_ENABLE = false;
+
+  /**
+   * Hot key cache refresh time interval in milliseconds
+   */
+  public static final String ANGEL_PSAGENT_HOT_KEY_CACHE_REFRESH_INTERVAL_MS =
+      ANGEL_PSAGENT_PREFIX + "hot.key.cache.refresh.interval.ms";
+  public static final int DEFAULT_ANGEL_PSAGENT_HOT_KEY_CACHE_REFRESH_INTERVAL_MS = 1000;
+
   /**
    * The matrix caches synchronization policy
    */
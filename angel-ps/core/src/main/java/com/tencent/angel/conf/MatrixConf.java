@@ -102,6 +102,41 @@ public class MatrixConf {
   public static final String MATRIX_SAVE_PATH = "matrix.save.path";
   public static final String DEFAULT_MATRIX_SAVE_PATH = "";
 
+  /**
+   * Element admission policy for long-key sparse rows. "none" means every pushed element is
+   * stored, "count" means an element is stored only after it has been updated
+   * {@link #MATRIX_ELEMENT_ADMISSION_COUNT} times, "probability" means an element is stored with
+   * probability {@link #MATRIX_ELEMENT_ADMISSION_PROBABILITY} on each update until admitted
+   */
+  public static final String MATRIX_ELEMENT_ADMISSION_TYPE = "matrix.element.admission.type";
+  public static final String DEFAULT_MATRIX_ELEMENT_ADMISSION_TYPE = "none";
+
+  /**
+   * Update count needed before an element is admitted, used by "count" admission
+   */
+  public static final String MATRIX_ELEMENT_ADMISSION_COUNT = "matrix.element.admission.count";
+  public static final String DEFAULT_MATRIX_ELEMENT_ADMISSION_COUNT = "2";
+
+  /**
+   * Admission probability of an update, used by "probability" admission
+   */
+  public static final String MATRIX_ELEMENT_ADMISSION_PROBABILITY =
+      "matrix.element.admission.probability";
+  public static final String DEFAULT_MATRIX_ELEMENT_ADMISSION_PROBABILITY = "1.0";
+
+  /**
+   * Elements that have not been updated for this time are evicted, -1 means never
+   */
+  public static final String MATRIX_ELEMENT_EVICTION_TTL_MS = "matrix.element.eviction.ttl.ms";
+  public static final String DEFAULT_MATRIX_ELEMENT_EVICTION_TTL_MS = "-1";
+
+  /**
+   * Maximum element number of each partition, the least recently updated elements are evicted
+   * when it is exceeded, -1 means unlimited
+   */
+  public static final String MATRIX_ELEMENT_EVICTION_MAX_NUM = "matrix.element.eviction.max.num";
+  public static final String DEFAULT_MATRIX_ELEMENT_EVICTION_MAX_NUM = "-1";
+
   public static final String VALUE_TYPE_CLASSNANE = "matrix.value.type.classname";
 
   public static final String PS_MATRIX_PARTITION_CLASSNANE = "ps.matrix.partition.classname";
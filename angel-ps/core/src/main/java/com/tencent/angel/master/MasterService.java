@@ -170,6 +170,8 @@ import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.SaveFinishResp
 import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.SaveStartRequest;
 import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.SaveStartResponse;
 import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.TaskMatrixClock;
+import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetAllWorkerMetaInfoRequest;
+import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetAllWorkerMetaInfoResponse;
 import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetWorkerGroupMetaInfoRequest;
 import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetWorkerGroupMetaInfoResponse;
 import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetWorkerGroupSuccessNumRequest;
@@ -1112,6 +1114,22 @@ public class MasterService extends AbstractService implements MasterProtocol {
         .setSuccessNum(context.getWorkerManager().getSuccessWorkerGroupNum()).build();
   }
 
+  /**
+   * Get the locations and tasks of all running workers, workers use them to communicate with
+   * each other directly
+   *
+   * @param controller rpc controller of protobuf
+   * @param request empty
+   * @return the locations and tasks of all running workers
+   */
+  @Override
+  public GetAllWorkerMetaInfoResponse getAllWorkerMetaInfo(RpcController controller,
+      GetAllWorkerMetaInfoRequest request) throws ServiceException {
+    return ProtobufUtil.buildGetAllWorkerMetaResponse(
+        context.getWorkerManager().getWorkerGroupMap().values(),
+        context.getWorkerManager().getTotalTaskNumber());
+  }
+
   public List<MatrixMeta> getMatrics() {
     return matrics;
   }
@@ -24,6 +24,7 @@ import com.tencent.angel.ipc.TConnection;
 import com.tencent.angel.ipc.TConnectionManager;
 import com.tencent.angel.master.app.AMContext;
 import com.tencent.angel.protobuf.generated.MasterPSServiceProtos.GetThreadStackRequest;
+import com.tencent.angel.protobuf.generated.MasterPSServiceProtos.GetTransportMetricsRequest;
 import com.tencent.angel.ps.PSAttemptId;
 import com.tencent.angel.ps.server.control.PSProtocol;
 import org.apache.commons.logging.Log;
@@ -76,6 +77,11 @@ public class PSClient implements PSClientInterface {
     return pSProtocol.psThreadStack(null, request).getStack();
   }
 
+  @Override public String getTransportMetrics() throws ServiceException {
+    GetTransportMetricsRequest request = GetTransportMetricsRequest.newBuilder().build();
+    return getPS().psTransportMetrics(null, request).getMetrics();
+  }
+
   private PSProtocol getPS() {
     return ps;
   }
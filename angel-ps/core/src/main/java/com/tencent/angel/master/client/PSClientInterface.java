@@ -31,4 +31,12 @@ public interface PSClientInterface {
    * @throws ServiceException
    */
   public String getThreadStack() throws ServiceException;
+
+  /**
+   * Get rpc latency histograms and slowest requests of ps attempt
+   *
+   * @return rpc latency report
+   * @throws ServiceException
+   */
+  public String getTransportMetrics() throws ServiceException;
 }
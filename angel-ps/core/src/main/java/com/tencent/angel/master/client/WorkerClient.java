@@ -24,6 +24,7 @@ import com.tencent.angel.ipc.TConnection;
 import com.tencent.angel.ipc.TConnectionManager;
 import com.tencent.angel.master.app.AMContext;
 import com.tencent.angel.protobuf.generated.MasterWorkerServiceProtos.GetThreadStackRequest;
+import com.tencent.angel.protobuf.generated.MasterWorkerServiceProtos.GetTransportMetricsRequest;
 import com.tencent.angel.worker.WorkerAttemptId;
 import com.tencent.angel.worker.WorkerProtocol;
 import org.apache.commons.logging.Log;
@@ -74,6 +75,11 @@ public class WorkerClient implements WorkerClientInterface {
     return workerProtocol.workerThreadStack(null, request).getStack();
   }
 
+  @Override public String getTransportMetrics() throws ServiceException {
+    GetTransportMetricsRequest request = GetTransportMetricsRequest.newBuilder().build();
+    return getWorker().workerTransportMetrics(null, request).getMetrics();
+  }
+
   private WorkerProtocol getWorker() {
     return worker;
   }
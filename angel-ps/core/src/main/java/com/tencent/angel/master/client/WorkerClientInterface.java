@@ -31,4 +31,12 @@ public interface WorkerClientInterface {
    * @throws ServiceException
    */
   String getThreadStack() throws ServiceException;
+
+  /**
+   * Get rpc latency histograms and slowest requests of worker attempt
+   *
+   * @return rpc latency report
+   * @throws ServiceException
+   */
+  String getTransportMetrics() throws ServiceException;
 }
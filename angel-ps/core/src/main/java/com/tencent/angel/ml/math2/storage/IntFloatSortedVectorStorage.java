@@ -20,6 +20,7 @@ package com.tencent.angel.ml.math2.storage;
 
 import com.tencent.angel.ml.math2.utils.ArrayCopy;
 import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.utils.ArrayUtils;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -64,7 +65,7 @@ public class IntFloatSortedVectorStorage implements IntFloatVectorStorage {
     } else if (size == 0 || idx > indices[size - 1] || idx < indices[0]) {
       return 0;
     } else {
-      int i = Arrays.binarySearch(indices, idx);
+      int i = ArrayUtils.search(indices, size, idx);
       return i >= 0 ? values[i] : 0;
     }
   }
@@ -313,7 +314,7 @@ public class IntFloatSortedVectorStorage implements IntFloatVectorStorage {
   @Override
   public boolean hasKey(int key) {
     return (size != 0 && key <= indices[size - 1] && key >= indices[0] &&
-        Arrays.binarySearch(indices, key) > 0);
+        ArrayUtils.search(indices, size, key) >= 0);
   }
 
   @Override
@@ -27,6 +27,7 @@ import com.tencent.angel.ml.math2.ufuncs.executor.matrix.BinaryMatrixExecutor;
 import com.tencent.angel.ml.math2.ufuncs.executor.matrix.DotMatrixExecutor;
 import com.tencent.angel.ml.math2.ufuncs.executor.matrix.UnaryMatrixExecutor;
 import com.tencent.angel.ml.math2.ufuncs.expression.*;
+import com.tencent.angel.ml.math2.ufuncs.lazy.LazyExpr;
 import com.tencent.angel.ml.math2.vector.Vector;
 
 public class Ufuncs {
@@ -252,6 +253,14 @@ public class Ufuncs {
     return BinaryExecutor.apply(x, y, new IndexGet(false));
   }
 
+  /*
+  Start a lazy expression of v1, the element-wise operations on it are fused and evaluated in one
+  pass by LazyExpr.eval or LazyExpr.evalTo
+  */
+  public static LazyExpr lazy(Vector v1) {
+    return LazyExpr.of(v1);
+  }
+
   /*
   Computes abs(v1)
   */
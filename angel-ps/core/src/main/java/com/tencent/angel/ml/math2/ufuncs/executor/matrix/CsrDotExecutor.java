@@ -0,0 +1,378 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.math2.ufuncs.executor.matrix;
+
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.math2.MatrixExecutors;
+import com.tencent.angel.ml.math2.matrix.BlasDoubleMatrix;
+import com.tencent.angel.ml.math2.matrix.BlasFloatMatrix;
+import com.tencent.angel.ml.math2.matrix.CsrDoubleMatrix;
+import com.tencent.angel.ml.math2.matrix.CsrFloatMatrix;
+import com.tencent.angel.ml.math2.matrix.CsrMatrix;
+import com.tencent.angel.ml.math2.matrix.Matrix;
+import com.tencent.angel.ml.math2.storage.IntDoubleDenseVectorStorage;
+import com.tencent.angel.ml.math2.storage.IntFloatDenseVectorStorage;
+import com.tencent.angel.ml.math2.vector.CompIntDoubleVector;
+import com.tencent.angel.ml.math2.vector.CompIntFloatVector;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sparse-dense matrix products for a CSR batch. The CSR matrix A has shape (rows, n), the dense
+ * matrix B is row major. The rows are split across the matrix executors and the output columns are
+ * computed block by block, so a block of B stays in cache while the sparse rows are walked once per
+ * block instead of once per output column.
+ */
+public class CsrDotExecutor {
+
+  /**
+   * Output column number of a block
+   */
+  static final int COL_BLOCK_SIZE = 64;
+
+  private static final MatrixExecutors executors = MatrixExecutors.getInstance();
+
+  /**
+   * Computes A * B
+   *
+   * @param a CSR matrix with shape (rows, n)
+   * @param b dense row major values with shape (n, k)
+   * @param k column number of b
+   * @return dense matrix with shape (rows, k)
+   */
+  public static BlasDoubleMatrix spmm(CsrDoubleMatrix a, double[] b, int k) {
+    int rows = a.getNumRows();
+    checkShape(b.length, a.getNumCols(), k);
+    double[] out = new double[rows * k];
+    int[] indptr = a.getIndptr();
+    int[] indices = a.getIndices();
+    double[] values = a.getValues();
+
+    parallel(rows, (start, end) -> {
+      for (int from = 0; from < k; from += COL_BLOCK_SIZE) {
+        int to = Math.min(k, from + COL_BLOCK_SIZE);
+        for (int r = start; r < end; r++) {
+          int outBase = r * k;
+          for (int p = indptr[r]; p < indptr[r + 1]; p++) {
+            double v = values[p];
+            int bBase = indices[p] * k;
+            for (int o = from; o < to; o++) {
+              out[outBase + o] += v * b[bBase + o];
+            }
+          }
+        }
+      }
+    });
+
+    return new BlasDoubleMatrix(a.getMatrixId(), a.getClock(), rows, k, out);
+  }
+
+  /**
+   * Computes A * B
+   *
+   * @param a CSR matrix with shape (rows, n)
+   * @param b dense row major values with shape (n, k)
+   * @param k column number of b
+   * @return dense matrix with shape (rows, k)
+   */
+  public static BlasFloatMatrix spmm(CsrFloatMatrix a, float[] b, int k) {
+    int rows = a.getNumRows();
+    checkShape(b.length, a.getNumCols(), k);
+    float[] out = new float[rows * k];
+    int[] indptr = a.getIndptr();
+    int[] indices = a.getIndices();
+    float[] values = a.getValues();
+
+    parallel(rows, (start, end) -> {
+      for (int from = 0; from < k; from += COL_BLOCK_SIZE) {
+        int to = Math.min(k, from + COL_BLOCK_SIZE);
+        for (int r = start; r < end; r++) {
+          int outBase = r * k;
+          for (int p = indptr[r]; p < indptr[r + 1]; p++) {
+            float v = values[p];
+            int bBase = indices[p] * k;
+            for (int o = from; o < to; o++) {
+              out[outBase + o] += v * b[bBase + o];
+            }
+          }
+        }
+      }
+    });
+
+    return new BlasFloatMatrix(a.getMatrixId(), a.getClock(), rows, k, out);
+  }
+
+  /**
+   * Computes trans(A) * B. A is transposed to CSC first, then every task owns a range of the output
+   * rows, so the tasks never write the same element.
+   *
+   * @param a CSR matrix with shape (rows, n)
+   * @param b dense matrix with shape (rows, k)
+   * @return dense matrix with shape (n, k)
+   */
+  public static BlasDoubleMatrix spmmTrans(CsrDoubleMatrix a, BlasDoubleMatrix b) {
+    int n = a.getNumCols();
+    int k = b.getNumCols();
+    if (b.getNumRows() != a.getNumRows()) {
+      throw new AngelException(
+          "row number mismatch: " + a.getNumRows() + " and " + b.getNumRows());
+    }
+
+    Csc csc = new Csc(a);
+    double[] values = a.getValues();
+    double[] cscValues = new double[values.length];
+    for (int p = 0; p < values.length; p++) {
+      cscValues[csc.positions[p]] = values[p];
+    }
+
+    double[] bData = b.getData();
+    double[] out = new double[n * k];
+    parallel(n, (start, end) -> {
+      for (int from = 0; from < k; from += COL_BLOCK_SIZE) {
+        int to = Math.min(k, from + COL_BLOCK_SIZE);
+        for (int c = start; c < end; c++) {
+          int outBase = c * k;
+          for (int p = csc.colptr[c]; p < csc.colptr[c + 1]; p++) {
+            double v = cscValues[p];
+            int bBase = csc.rowIndices[p] * k;
+            for (int o = from; o < to; o++) {
+              out[outBase + o] += v * bData[bBase + o];
+            }
+          }
+        }
+      }
+    });
+
+    return new BlasDoubleMatrix(a.getMatrixId(), a.getClock(), n, k, out);
+  }
+
+  /**
+   * Computes trans(A) * B. A is transposed to CSC first, then every task owns a range of the output
+   * rows, so the tasks never write the same element.
+   *
+   * @param a CSR matrix with shape (rows, n)
+   * @param b dense matrix with shape (rows, k)
+   * @return dense matrix with shape (n, k)
+   */
+  public static BlasFloatMatrix spmmTrans(CsrFloatMatrix a, BlasFloatMatrix b) {
+    int n = a.getNumCols();
+    int k = b.getNumCols();
+    if (b.getNumRows() != a.getNumRows()) {
+      throw new AngelException(
+          "row number mismatch: " + a.getNumRows() + " and " + b.getNumRows());
+    }
+
+    Csc csc = new Csc(a);
+    float[] values = a.getValues();
+    float[] cscValues = new float[values.length];
+    for (int p = 0; p < values.length; p++) {
+      cscValues[csc.positions[p]] = values[p];
+    }
+
+    float[] bData = b.getData();
+    float[] out = new float[n * k];
+    parallel(n, (start, end) -> {
+      for (int from = 0; from < k; from += COL_BLOCK_SIZE) {
+        int to = Math.min(k, from + COL_BLOCK_SIZE);
+        for (int c = start; c < end; c++) {
+          int outBase = c * k;
+          for (int p = csc.colptr[c]; p < csc.colptr[c + 1]; p++) {
+            float v = cscValues[p];
+            int bBase = csc.rowIndices[p] * k;
+            for (int o = from; o < to; o++) {
+              out[outBase + o] += v * bData[bBase + o];
+            }
+          }
+        }
+      }
+    });
+
+    return new BlasFloatMatrix(a.getMatrixId(), a.getClock(), n, k, out);
+  }
+
+  /**
+   * Gather some columns of a row based matrix as a dense row major array, the result is the
+   * transpose of the selected columns, it can be used as B in {@link #spmm(CsrDoubleMatrix,
+   * double[], int)}
+   *
+   * @param mat  row based matrix with shape (k, dim), the rows are int key double vectors
+   * @param cols column indices
+   * @param k    row number of mat
+   * @return values with shape (cols.length, k)
+   */
+  public static double[] transGatherDouble(Matrix mat, int[] cols, int k) {
+    double[] result = new double[cols.length * k];
+    parallel(k, (start, end) -> {
+      for (int o = start; o < end; o++) {
+        Vector row = mat.getRow(o);
+        if (row instanceof IntDoubleVector && row.isDense()) {
+          double[] values = ((IntDoubleDenseVectorStorage) row.getStorage()).getValues();
+          for (int u = 0; u < cols.length; u++) {
+            result[u * k + o] = values[cols[u]];
+          }
+        } else if (row instanceof IntDoubleVector) {
+          IntDoubleVector v = (IntDoubleVector) row;
+          for (int u = 0; u < cols.length; u++) {
+            result[u * k + o] = v.get(cols[u]);
+          }
+        } else if (row instanceof CompIntDoubleVector) {
+          CompIntDoubleVector v = (CompIntDoubleVector) row;
+          for (int u = 0; u < cols.length; u++) {
+            result[u * k + o] = v.get(cols[u]);
+          }
+        } else {
+          throw new AngelException("The operation is not supported!");
+        }
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Gather some columns of a row based matrix as a dense row major array, the result is the
+   * transpose of the selected columns, it can be used as B in {@link #spmm(CsrFloatMatrix,
+   * float[], int)}
+   *
+   * @param mat  row based matrix with shape (k, dim), the rows are int key float vectors
+   * @param cols column indices
+   * @param k    row number of mat
+   * @return values with shape (cols.length, k)
+   */
+  public static float[] transGatherFloat(Matrix mat, int[] cols, int k) {
+    float[] result = new float[cols.length * k];
+    parallel(k, (start, end) -> {
+      for (int o = start; o < end; o++) {
+        Vector row = mat.getRow(o);
+        if (row instanceof IntFloatVector && row.isDense()) {
+          float[] values = ((IntFloatDenseVectorStorage) row.getStorage()).getValues();
+          for (int u = 0; u < cols.length; u++) {
+            result[u * k + o] = values[cols[u]];
+          }
+        } else if (row instanceof IntFloatVector) {
+          IntFloatVector v = (IntFloatVector) row;
+          for (int u = 0; u < cols.length; u++) {
+            result[u * k + o] = v.get(cols[u]);
+          }
+        } else if (row instanceof CompIntFloatVector) {
+          CompIntFloatVector v = (CompIntFloatVector) row;
+          for (int u = 0; u < cols.length; u++) {
+            result[u * k + o] = v.get(cols[u]);
+          }
+        } else {
+          throw new AngelException("The operation is not supported!");
+        }
+      }
+    });
+    return result;
+  }
+
+  private static void checkShape(int bLen, int n, int k) {
+    if (bLen != n * k) {
+      throw new AngelException("dense matrix size " + bLen + " does not match (" + n + ", " + k
+          + ")");
+    }
+  }
+
+  private static void parallel(int num, RangeFunc func) {
+    if (num == 0) {
+      return;
+    }
+    int subNum = Math.max(1, (num + executors.getParallel() - 1) / executors.getParallel());
+    RangeOp op = new RangeOp(func, 0, num, subNum);
+    executors.execute(op);
+    op.join();
+  }
+
+  /**
+   * Column compressed index of a CSR matrix
+   */
+  private static class Csc {
+
+    final int[] colptr;
+    final int[] rowIndices;
+
+    /**
+     * CSR position to CSC position
+     */
+    final int[] positions;
+
+    Csc(CsrMatrix a) {
+      int rows = a.getNumRows();
+      int n = a.getNumCols();
+      int[] indptr = a.getIndptr();
+      int[] indices = a.getIndices();
+      int nnz = indptr[rows];
+
+      colptr = new int[n + 1];
+      for (int p = 0; p < nnz; p++) {
+        colptr[indices[p] + 1]++;
+      }
+      for (int c = 0; c < n; c++) {
+        colptr[c + 1] += colptr[c];
+      }
+
+      rowIndices = new int[nnz];
+      positions = new int[nnz];
+      int[] next = new int[n];
+      System.arraycopy(colptr, 0, next, 0, n);
+      for (int r = 0; r < rows; r++) {
+        for (int p = indptr[r]; p < indptr[r + 1]; p++) {
+          int pos = next[indices[p]]++;
+          rowIndices[pos] = r;
+          positions[p] = pos;
+        }
+      }
+    }
+  }
+
+  private interface RangeFunc {
+
+    void apply(int start, int end);
+  }
+
+  /**
+   * Split a range into sub ranges and execute them in the fork-join pool
+   */
+  private static class RangeOp extends RecursiveAction {
+
+    private final RangeFunc func;
+    private final int start;
+    private final int end;
+    private final int subNum;
+
+    RangeOp(RangeFunc func, int start, int end, int subNum) {
+      this.func = func;
+      this.start = start;
+      this.end = end;
+      this.subNum = subNum;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= subNum) {
+        func.apply(start, end);
+      } else {
+        int middle = start + (end - start) / 2;
+        invokeAll(new RangeOp(func, start, middle, subNum), new RangeOp(func, middle, end, subNum));
+      }
+    }
+  }
+}
@@ -0,0 +1,423 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.math2.ufuncs.lazy;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.storage.IntDoubleSortedVectorStorage;
+import com.tencent.angel.ml.math2.storage.IntDoubleVectorStorage;
+import com.tencent.angel.ml.math2.storage.IntFloatSortedVectorStorage;
+import com.tencent.angel.ml.math2.storage.IntFloatVectorStorage;
+import com.tencent.angel.ml.math2.ufuncs.lazy.LazyExpr.BinaryNode;
+import com.tencent.angel.ml.math2.ufuncs.lazy.LazyExpr.Leaf;
+import com.tencent.angel.ml.math2.ufuncs.lazy.LazyExpr.ScalarNode;
+import com.tencent.angel.ml.math2.ufuncs.lazy.LazyExpr.UnaryNode;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Evaluate a lazy expression in one pass. The nodes are sorted topologically and computed block by
+ * block into small buffers, so only a block of every intermediate result is alive at a time.
+ *
+ * <p>The expression can be fused if all operands are int key double/float vectors with dense or
+ * sorted storage and the same dimension, other expressions are evaluated by the vector executors
+ * one operation at a time. The elements are computed in double precision.
+ */
+class LazyEvaluator {
+
+  static final int BLOCK_SIZE = 1024;
+
+  /**
+   * Positions that may be non-zero, a sorted operand with the same positions can be read directly
+   */
+  private static class Support {
+
+    final int[] indices;
+    final int size;
+
+    Support(int[] indices, int size) {
+      this.indices = indices;
+      this.size = size;
+    }
+  }
+
+  private final LazyExpr root;
+
+  /**
+   * Nodes in topological order, every node is computed once even if it is used several times
+   */
+  private final List<LazyExpr> nodes;
+  private final IdentityHashMap<LazyExpr, Integer> slots;
+
+  /**
+   * Node support, null means all positions
+   */
+  private final IdentityHashMap<LazyExpr, Support> supports;
+
+  private boolean fusible;
+  private boolean hasDouble;
+  private int dim;
+
+  // Node operands
+  private int[] firstSlots;
+  private int[] secondSlots;
+
+  // Leaf storages
+  private double[][] leafDoubles;
+  private float[][] leafFloats;
+  private int[][] leafIndices;
+  private int[] leafSizes;
+
+  LazyEvaluator(LazyExpr root) {
+    this.root = root;
+    this.nodes = new ArrayList<>();
+    this.slots = new IdentityHashMap<>();
+    this.supports = new IdentityHashMap<>();
+    this.fusible = true;
+    this.hasDouble = false;
+    this.dim = -1;
+    visit(root);
+  }
+
+  private void visit(LazyExpr node) {
+    if (slots.containsKey(node)) {
+      return;
+    }
+    for (LazyExpr child : node.children()) {
+      visit(child);
+    }
+    slots.put(node, nodes.size());
+    nodes.add(node);
+    supports.put(node, support(node));
+  }
+
+  private Support support(LazyExpr node) {
+    if (node instanceof Leaf) {
+      Vector v = ((Leaf) node).vector;
+      if (!(v instanceof IntDoubleVector || v instanceof IntFloatVector) || !(v.isDense() || v
+          .isSorted())) {
+        fusible = false;
+        return null;
+      }
+
+      int vDim = (int) v.dim();
+      if (dim == -1) {
+        dim = vDim;
+      } else if (dim != vDim) {
+        fusible = false;
+      }
+      hasDouble |= (v instanceof IntDoubleVector);
+
+      if (v.isDense()) {
+        return null;
+      } else if (v instanceof IntDoubleVector) {
+        IntDoubleVectorStorage storage = ((IntDoubleVector) v).getStorage();
+        return new Support(storage.getIndices(), storage.size());
+      } else {
+        IntFloatVectorStorage storage = ((IntFloatVector) v).getStorage();
+        return new Support(storage.getIndices(), storage.size());
+      }
+    } else if (node instanceof BinaryNode) {
+      BinaryNode binary = (BinaryNode) node;
+      Support left = supports.get(binary.left);
+      Support right = supports.get(binary.right);
+      switch (binary.op) {
+        case MUL:
+          // The result is zero outside any operand, so one sparse operand is enough
+          return left != null ? left : right;
+        case DIV:
+          return left;
+        default:
+          return (left != null && right != null && left.indices == right.indices) ? left : null;
+      }
+    } else if (node instanceof ScalarNode) {
+      ScalarNode scalar = (ScalarNode) node;
+      return scalar.op.keepZero() ? supports.get(scalar.child) : null;
+    } else {
+      UnaryNode unary = (UnaryNode) node;
+      return unary.op.keepZero() ? supports.get(unary.child) : null;
+    }
+  }
+
+  /**
+   * Evaluate to a new vector, it is dense unless the result keeps the sparsity of a sorted operand
+   *
+   * @return result vector
+   */
+  Vector eval() {
+    if (!fusible) {
+      return root.eager(new IdentityHashMap<>());
+    }
+
+    Support support = supports.get(root);
+    if (support == null) {
+      if (hasDouble) {
+        double[] values = new double[dim];
+        run(support, values, null, false);
+        return VFactory.denseDoubleVector(values);
+      } else {
+        float[] values = new float[dim];
+        run(support, null, values, false);
+        return VFactory.denseFloatVector(values);
+      }
+    } else {
+      int[] indices = Arrays.copyOf(support.indices, support.size);
+      if (hasDouble) {
+        double[] values = new double[support.size];
+        run(support, values, null, false);
+        return VFactory.sortedDoubleVector(dim, support.size, indices, values);
+      } else {
+        float[] values = new float[support.size];
+        run(support, null, values, false);
+        return VFactory.sortedFloatVector(dim, support.size, indices, values);
+      }
+    }
+  }
+
+  /**
+   * Evaluate into target. It is written in place if target is dense, or if it is sorted and the
+   * result has the same positions as it.
+   *
+   * @param target target vector
+   * @return target vector
+   */
+  Vector evalTo(Vector target) {
+    if (fusible && target.dim() == dim && (target instanceof IntDoubleVector
+        || target instanceof IntFloatVector)) {
+      Support support = supports.get(root);
+      double[] doubles = null;
+      float[] floats = null;
+      int[] indices = null;
+      int size = 0;
+      if (target instanceof IntDoubleVector) {
+        IntDoubleVectorStorage storage = ((IntDoubleVector) target).getStorage();
+        doubles = storage.getValues();
+        if (storage.isSorted()) {
+          indices = storage.getIndices();
+          size = storage.size();
+        }
+      } else {
+        IntFloatVectorStorage storage = ((IntFloatVector) target).getStorage();
+        floats = storage.getValues();
+        if (storage.isSorted()) {
+          indices = storage.getIndices();
+          size = storage.size();
+        }
+      }
+
+      if (target.isDense()) {
+        run(support, doubles, floats, support != null);
+        return target;
+      } else if (target.isSorted() && support != null && support.indices == indices
+          && support.size == size) {
+        run(support, doubles, floats, false);
+        return target;
+      }
+    }
+
+    Vector result;
+    if (root instanceof Leaf) {
+      result = ((Leaf) root).vector;
+      if (result == target) {
+        return target;
+      }
+      result = result.copy();
+    } else {
+      result = eval();
+    }
+
+    if (result.getClass() == target.getClass()) {
+      target.setStorage(result.getStorage());
+    } else {
+      target.clear();
+      target.iadd(result);
+    }
+    return target;
+  }
+
+  private void prepare() {
+    int num = nodes.size();
+    firstSlots = new int[num];
+    secondSlots = new int[num];
+    leafDoubles = new double[num][];
+    leafFloats = new float[num][];
+    leafIndices = new int[num][];
+    leafSizes = new int[num];
+
+    for (int k = 0; k < num; k++) {
+      LazyExpr node = nodes.get(k);
+      if (node instanceof Leaf) {
+        Vector v = ((Leaf) node).vector;
+        if (v instanceof IntDoubleVector) {
+          IntDoubleVectorStorage storage = ((IntDoubleVector) v).getStorage();
+          leafDoubles[k] = storage.getValues();
+          if (storage instanceof IntDoubleSortedVectorStorage) {
+            leafIndices[k] = storage.getIndices();
+            leafSizes[k] = storage.size();
+          }
+        } else {
+          IntFloatVectorStorage storage = ((IntFloatVector) v).getStorage();
+          leafFloats[k] = storage.getValues();
+          if (storage instanceof IntFloatSortedVectorStorage) {
+            leafIndices[k] = storage.getIndices();
+            leafSizes[k] = storage.size();
+          }
+        }
+      } else if (node instanceof BinaryNode) {
+        firstSlots[k] = slots.get(((BinaryNode) node).left);
+        secondSlots[k] = slots.get(((BinaryNode) node).right);
+      } else if (node instanceof ScalarNode) {
+        firstSlots[k] = slots.get(((ScalarNode) node).child);
+      } else {
+        firstSlots[k] = slots.get(((UnaryNode) node).child);
+      }
+    }
+  }
+
+  /**
+   * Compute all positions of the support block by block
+   *
+   * @param support positions to compute, null means all positions
+   * @param doubles double output values
+   * @param floats  float output values, used if doubles is null
+   * @param scatter write the results to their positions of a dense output and zero the others,
+   *                otherwise the results are written to the output in order
+   */
+  private void run(Support support, double[] doubles, float[] floats, boolean scatter) {
+    prepare();
+    int num = nodes.size();
+    int total = support == null ? dim : support.size;
+    int[] pos = support == null ? null : support.indices;
+    double[][] bufs = new double[num][Math.min(BLOCK_SIZE, Math.max(total, 1))];
+    int[] cursors = new int[num];
+    int rootSlot = slots.get(root);
+    int next = 0;
+
+    for (int start = 0; start < total; start += BLOCK_SIZE) {
+      int len = Math.min(BLOCK_SIZE, total - start);
+      for (int k = 0; k < num; k++) {
+        LazyExpr node = nodes.get(k);
+        if (node instanceof Leaf) {
+          cursors[k] = load(k, bufs[k], start, len, pos, cursors[k]);
+        } else if (node instanceof BinaryNode) {
+          ((BinaryNode) node).op.apply(bufs[firstSlots[k]], bufs[secondSlots[k]], bufs[k], len);
+        } else if (node instanceof ScalarNode) {
+          ScalarNode scalar = (ScalarNode) node;
+          scalar.op.apply(bufs[firstSlots[k]], scalar.x, bufs[k], len);
+        } else {
+          ((UnaryNode) node).op.apply(bufs[firstSlots[k]], bufs[k], len);
+        }
+      }
+
+      double[] result = bufs[rootSlot];
+      if (!scatter) {
+        if (doubles != null) {
+          System.arraycopy(result, 0, doubles, start, len);
+        } else {
+          for (int i = 0; i < len; i++) {
+            floats[start + i] = (float) result[i];
+          }
+        }
+      } else {
+        // Positions before the current one are never read again, so they can be zeroed now
+        for (int i = 0; i < len; i++) {
+          int p = pos[start + i];
+          if (doubles != null) {
+            Arrays.fill(doubles, next, p, 0.0);
+            doubles[p] = result[i];
+          } else {
+            Arrays.fill(floats, next, p, 0.0f);
+            floats[p] = (float) result[i];
+          }
+          next = p + 1;
+        }
+      }
+    }
+
+    if (scatter) {
+      if (doubles != null) {
+        Arrays.fill(doubles, next, dim, 0.0);
+      } else {
+        Arrays.fill(floats, next, dim, 0.0f);
+      }
+    }
+  }
+
+  /**
+   * Load a block of a leaf
+   *
+   * @return the cursor of a sorted leaf after this block
+   */
+  private int load(int k, double[] buf, int start, int len, int[] pos, int cursor) {
+    double[] doubles = leafDoubles[k];
+    float[] floats = leafFloats[k];
+    int[] indices = leafIndices[k];
+
+    if (indices == null) {
+      // Dense leaf
+      if (pos == null) {
+        if (doubles != null) {
+          System.arraycopy(doubles, start, buf, 0, len);
+        } else {
+          for (int i = 0; i < len; i++) {
+            buf[i] = floats[start + i];
+          }
+        }
+      } else {
+        if (doubles != null) {
+          for (int i = 0; i < len; i++) {
+            buf[i] = doubles[pos[start + i]];
+          }
+        } else {
+          for (int i = 0; i < len; i++) {
+            buf[i] = floats[pos[start + i]];
+          }
+        }
+      }
+    } else if (indices == pos) {
+      // Sorted leaf with the same positions as the output
+      if (doubles != null) {
+        System.arraycopy(doubles, start, buf, 0, len);
+      } else {
+        for (int i = 0; i < len; i++) {
+          buf[i] = floats[start + i];
+        }
+      }
+    } else {
+      // Other sorted leaf, the positions are ascending so it is merged with a cursor
+      int size = leafSizes[k];
+      for (int i = 0; i < len; i++) {
+        int p = pos == null ? start + i : pos[start + i];
+        while (cursor < size && indices[cursor] < p) {
+          cursor++;
+        }
+        if (cursor < size && indices[cursor] == p) {
+          buf[i] = doubles != null ? doubles[cursor] : floats[cursor];
+        } else {
+          buf[i] = 0.0;
+        }
+      }
+    }
+    return cursor;
+  }
+}
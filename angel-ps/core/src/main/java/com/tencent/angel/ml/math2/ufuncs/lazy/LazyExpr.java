@@ -0,0 +1,256 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.math2.ufuncs.lazy;
+
+import com.tencent.angel.ml.math2.vector.Vector;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Lazy element-wise vector expression. The operations are only recorded until {@link #eval()} or
+ * {@link #evalTo(Vector)} is called, then the whole expression is evaluated in a single pass over
+ * the output without materializing the intermediate vectors.
+ *
+ * <p>For example, {@code LazyExpr.of(w).mul(x).add(b).div(d).evalTo(w)} updates w in place with
+ * one pass. An expression can be used as an operand several times, it is only evaluated once.
+ */
+public abstract class LazyExpr {
+
+  /**
+   * Create an expression of a vector
+   *
+   * @param v vector
+   * @return expression
+   */
+  public static LazyExpr of(Vector v) {
+    return new Leaf(v);
+  }
+
+  /*
+  Computes this + other
+  */
+  public LazyExpr add(LazyExpr other) {
+    return new BinaryNode(LazyOp.ADD, this, other);
+  }
+
+  public LazyExpr add(Vector other) {
+    return add(of(other));
+  }
+
+  public LazyExpr add(double x) {
+    return new ScalarNode(LazyOp.SADD, this, x);
+  }
+
+  /*
+  Computes this - other
+  */
+  public LazyExpr sub(LazyExpr other) {
+    return new BinaryNode(LazyOp.SUB, this, other);
+  }
+
+  public LazyExpr sub(Vector other) {
+    return sub(of(other));
+  }
+
+  public LazyExpr sub(double x) {
+    return new ScalarNode(LazyOp.SSUB, this, x);
+  }
+
+  /*
+  Computes this * other
+  */
+  public LazyExpr mul(LazyExpr other) {
+    return new BinaryNode(LazyOp.MUL, this, other);
+  }
+
+  public LazyExpr mul(Vector other) {
+    return mul(of(other));
+  }
+
+  public LazyExpr mul(double x) {
+    return new ScalarNode(LazyOp.SMUL, this, x);
+  }
+
+  /*
+  Computes this / other
+  */
+  public LazyExpr div(LazyExpr other) {
+    return new BinaryNode(LazyOp.DIV, this, other);
+  }
+
+  public LazyExpr div(Vector other) {
+    return div(of(other));
+  }
+
+  public LazyExpr div(double x) {
+    return new ScalarNode(LazyOp.SDIV, this, x);
+  }
+
+  /*
+  Computes - this
+  */
+  public LazyExpr neg() {
+    return new UnaryNode(LazyOp.NEG, this);
+  }
+
+  public LazyExpr abs() {
+    return new UnaryNode(LazyOp.ABS, this);
+  }
+
+  public LazyExpr sqrt() {
+    return new UnaryNode(LazyOp.SQRT, this);
+  }
+
+  public LazyExpr exp() {
+    return new UnaryNode(LazyOp.EXP, this);
+  }
+
+  public LazyExpr log() {
+    return new UnaryNode(LazyOp.LOG, this);
+  }
+
+  public LazyExpr log1p() {
+    return new UnaryNode(LazyOp.LOG1P, this);
+  }
+
+  /**
+   * Evaluate the expression to a new vector
+   *
+   * @return result vector
+   */
+  public Vector eval() {
+    return new LazyEvaluator(this).eval();
+  }
+
+  /**
+   * Evaluate the expression and store the result in target, target can be an operand of the
+   * expression
+   *
+   * @param target target vector
+   * @return target vector
+   */
+  public Vector evalTo(Vector target) {
+    return new LazyEvaluator(this).evalTo(target);
+  }
+
+  abstract List<LazyExpr> children();
+
+  /**
+   * Evaluate the expression one operation at a time with the vector executors, it is used for the
+   * vector types that can not be fused
+   */
+  abstract Vector evalEager(IdentityHashMap<LazyExpr, Vector> results);
+
+  Vector eager(IdentityHashMap<LazyExpr, Vector> results) {
+    Vector result = results.get(this);
+    if (result == null) {
+      result = evalEager(results);
+      results.put(this, result);
+    }
+    return result;
+  }
+
+  static class Leaf extends LazyExpr {
+
+    final Vector vector;
+
+    Leaf(Vector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    List<LazyExpr> children() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    Vector evalEager(IdentityHashMap<LazyExpr, Vector> results) {
+      return vector;
+    }
+  }
+
+  static class BinaryNode extends LazyExpr {
+
+    final LazyOp op;
+    final LazyExpr left;
+    final LazyExpr right;
+
+    BinaryNode(LazyOp op, LazyExpr left, LazyExpr right) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    List<LazyExpr> children() {
+      return Arrays.asList(left, right);
+    }
+
+    @Override
+    Vector evalEager(IdentityHashMap<LazyExpr, Vector> results) {
+      return op.eager(left.eager(results), right.eager(results));
+    }
+  }
+
+  static class ScalarNode extends LazyExpr {
+
+    final LazyOp op;
+    final LazyExpr child;
+    final double x;
+
+    ScalarNode(LazyOp op, LazyExpr child, double x) {
+      this.op = op;
+      this.child = child;
+      this.x = x;
+    }
+
+    @Override
+    List<LazyExpr> children() {
+      return Collections.singletonList(child);
+    }
+
+    @Override
+    Vector evalEager(IdentityHashMap<LazyExpr, Vector> results) {
+      return op.eager(child.eager(results), x);
+    }
+  }
+
+  static class UnaryNode extends LazyExpr {
+
+    final LazyOp op;
+    final LazyExpr child;
+
+    UnaryNode(LazyOp op, LazyExpr child) {
+      this.op = op;
+      this.child = child;
+    }
+
+    @Override
+    List<LazyExpr> children() {
+      return Collections.singletonList(child);
+    }
+
+    @Override
+    Vector evalEager(IdentityHashMap<LazyExpr, Vector> results) {
+      return op.eager(child.eager(results));
+    }
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.math2.ufuncs.lazy;
+
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.math2.ufuncs.Ufuncs;
+import com.tencent.angel.ml.math2.vector.Vector;
+
+/**
+ * Element-wise operations of a lazy expression. Every operation works on a block of elements at a
+ * time, so the operation is dispatched once per block instead of once per element.
+ */
+public enum LazyOp {
+  ADD {
+    @Override
+    void apply(double[] a, double[] b, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] + b[i];
+      }
+    }
+
+    @Override
+    Vector eager(Vector v1, Vector v2) {
+      return v1.add(v2);
+    }
+  },
+
+  SUB {
+    @Override
+    void apply(double[] a, double[] b, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] - b[i];
+      }
+    }
+
+    @Override
+    Vector eager(Vector v1, Vector v2) {
+      return v1.sub(v2);
+    }
+  },
+
+  MUL {
+    @Override
+    void apply(double[] a, double[] b, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] * b[i];
+      }
+    }
+
+    @Override
+    Vector eager(Vector v1, Vector v2) {
+      return v1.mul(v2);
+    }
+  },
+
+  DIV {
+    @Override
+    void apply(double[] a, double[] b, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] / b[i];
+      }
+    }
+
+    @Override
+    Vector eager(Vector v1, Vector v2) {
+      return v1.div(v2);
+    }
+  },
+
+  SADD {
+    @Override
+    void apply(double[] a, double x, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] + x;
+      }
+    }
+
+    @Override
+    Vector eager(Vector v, double x) {
+      return v.add(x);
+    }
+  },
+
+  SSUB {
+    @Override
+    void apply(double[] a, double x, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] - x;
+      }
+    }
+
+    @Override
+    Vector eager(Vector v, double x) {
+      return v.sub(x);
+    }
+  },
+
+  SMUL {
+    @Override
+    void apply(double[] a, double x, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] * x;
+      }
+    }
+
+    @Override
+    Vector eager(Vector v, double x) {
+      return v.mul(x);
+    }
+
+    @Override
+    boolean keepZero() {
+      return true;
+    }
+  },
+
+  SDIV {
+    @Override
+    void apply(double[] a, double x, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = a[i] / x;
+      }
+    }
+
+    @Override
+    Vector eager(Vector v, double x) {
+      return v.div(x);
+    }
+
+    @Override
+    boolean keepZero() {
+      return true;
+    }
+  },
+
+  NEG {
+    @Override
+    void apply(double[] a, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = -a[i];
+      }
+    }
+
+    @Override
+    Vector eager(Vector v) {
+      return v.mul(-1.0);
+    }
+
+    @Override
+    boolean keepZero() {
+      return true;
+    }
+  },
+
+  ABS {
+    @Override
+    void apply(double[] a, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = Math.abs(a[i]);
+      }
+    }
+
+    @Override
+    Vector eager(Vector v) {
+      return Ufuncs.abs(v);
+    }
+
+    @Override
+    boolean keepZero() {
+      return true;
+    }
+  },
+
+  SQRT {
+    @Override
+    void apply(double[] a, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = Math.sqrt(a[i]);
+      }
+    }
+
+    @Override
+    Vector eager(Vector v) {
+      return Ufuncs.sqrt(v);
+    }
+
+    @Override
+    boolean keepZero() {
+      return true;
+    }
+  },
+
+  EXP {
+    @Override
+    void apply(double[] a, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = Math.exp(a[i]);
+      }
+    }
+
+    @Override
+    Vector eager(Vector v) {
+      return Ufuncs.exp(v);
+    }
+  },
+
+  LOG {
+    @Override
+    void apply(double[] a, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = Math.log(a[i]);
+      }
+    }
+
+    @Override
+    Vector eager(Vector v) {
+      return Ufuncs.log(v);
+    }
+  },
+
+  LOG1P {
+    @Override
+    void apply(double[] a, double[] out, int len) {
+      for (int i = 0; i < len; i++) {
+        out[i] = Math.log1p(a[i]);
+      }
+    }
+
+    @Override
+    Vector eager(Vector v) {
+      return Ufuncs.log1p(v);
+    }
+
+    @Override
+    boolean keepZero() {
+      return true;
+    }
+  };
+
+  /**
+   * Binary operation on a block
+   */
+  void apply(double[] a, double[] b, double[] out, int len) {
+    throw new AngelException("operation " + this + " is not a binary operation");
+  }
+
+  /**
+   * Operation between a block and a scalar
+   */
+  void apply(double[] a, double x, double[] out, int len) {
+    throw new AngelException("operation " + this + " is not a scalar operation");
+  }
+
+  /**
+   * Unary operation on a block
+   */
+  void apply(double[] a, double[] out, int len) {
+    throw new AngelException("operation " + this + " is not a unary operation");
+  }
+
+  Vector eager(Vector v1, Vector v2) {
+    throw new AngelException("operation " + this + " is not a binary operation");
+  }
+
+  Vector eager(Vector v, double x) {
+    throw new AngelException("operation " + this + " is not a scalar operation");
+  }
+
+  Vector eager(Vector v) {
+    throw new AngelException("operation " + this + " is not a unary operation");
+  }
+
+  /**
+   * Whether the scalar or unary operation maps zero to zero, then the result keeps the sparsity of
+   * the operand
+   */
+  boolean keepZero() {
+    return false;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.matrix.psf.get.hotkey;
+
+import com.tencent.angel.ml.matrix.psf.get.base.GetFunc;
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import com.tencent.angel.ml.matrix.psf.get.getrow.GetRowParam;
+import com.tencent.angel.ml.matrix.psf.get.getrow.PartitionGetRowParam;
+import com.tencent.angel.ps.storage.vector.ServerIntDoubleRow;
+import com.tencent.angel.ps.storage.vector.ServerIntFloatRow;
+import com.tencent.angel.ps.storage.vector.ServerIntIntRow;
+import com.tencent.angel.ps.storage.vector.ServerLongDoubleRow;
+import com.tencent.angel.ps.storage.vector.ServerLongFloatRow;
+import com.tencent.angel.ps.storage.vector.ServerLongIntRow;
+import com.tencent.angel.ps.storage.vector.ServerRow;
+import java.util.List;
+
+/**
+ * Get the hot keys of a row and their current values, the hot keys are tracked by the pss from the
+ * index get requests, see {@link ServerRow#recordIndexAccess}. The values are returned as double,
+ * so only the rows with double, float and int values are supported.
+ */
+public class GetHotKeys extends GetFunc {
+
+  public GetHotKeys(GetRowParam param) {
+    super(param);
+  }
+
+  public GetHotKeys(int matrixId, int rowId) {
+    this(new GetRowParam(matrixId, rowId));
+  }
+
+  public GetHotKeys() {
+    this(null);
+  }
+
+  @Override
+  public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    PartitionGetRowParam param = (PartitionGetRowParam) partParam;
+    ServerRow row = psContext.getMatrixStorageManager()
+        .getRow(param.getMatrixId(), param.getRowIndex(), param.getPartKey().getPartitionId());
+    if (row == null) {
+      throw new RuntimeException("Can not find row " + param.getRowIndex() + " in partition "
+          + param.getPartKey().getPartitionId());
+    }
+
+    // Get the clock before the values, so the values contain all updates before the clock
+    int clock = psContext.getClockVectorManager()
+        .getPartClock(param.getMatrixId(), param.getPartKey().getPartitionId());
+    long[] keys = row.getHotKeys();
+    double[] values = new double[keys.length];
+    row.startRead();
+    try {
+      for (int i = 0; i < keys.length; i++) {
+        values[i] = get(row, keys[i]);
+      }
+      return new PartitionGetHotKeysResult(keys, values, clock);
+    } finally {
+      row.endRead();
+    }
+  }
+
+  private static double get(ServerRow row, long key) {
+    if (row instanceof ServerIntDoubleRow) {
+      return ((ServerIntDoubleRow) row).get((int) key);
+    } else if (row instanceof ServerIntFloatRow) {
+      return ((ServerIntFloatRow) row).get((int) key);
+    } else if (row instanceof ServerIntIntRow) {
+      return ((ServerIntIntRow) row).get((int) key);
+    } else if (row instanceof ServerLongDoubleRow) {
+      return ((ServerLongDoubleRow) row).get(key);
+    } else if (row instanceof ServerLongFloatRow) {
+      return ((ServerLongFloatRow) row).get(key);
+    } else if (row instanceof ServerLongIntRow) {
+      return ((ServerLongIntRow) row).get(key);
+    } else {
+      throw new UnsupportedOperationException(
+          "Get hot keys not support " + row.getClass().getName() + " now");
+    }
+  }
+
+  @Override
+  public GetResult merge(List<PartitionGetResult> partResults) {
+    int size = 0;
+    int clock = Integer.MAX_VALUE;
+    for (PartitionGetResult partResult : partResults) {
+      PartitionGetHotKeysResult result = (PartitionGetHotKeysResult) partResult;
+      size += result.getKeys().length;
+      clock = Math.min(clock, result.getClock());
+    }
+
+    long[] keys = new long[size];
+    double[] values = new double[size];
+    int offset = 0;
+    for (PartitionGetResult partResult : partResults) {
+      PartitionGetHotKeysResult result = (PartitionGetHotKeysResult) partResult;
+      int len = result.getKeys().length;
+      System.arraycopy(result.getKeys(), 0, keys, offset, len);
+      System.arraycopy(result.getValues(), 0, values, offset, len);
+      offset += len;
+    }
+    return new GetHotKeysResult(keys, values, partResults.isEmpty() ? 0 : clock);
+  }
+}
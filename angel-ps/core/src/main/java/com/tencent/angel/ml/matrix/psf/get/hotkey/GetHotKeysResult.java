@@ -0,0 +1,58 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.matrix.psf.get.hotkey;
+
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+import com.tencent.angel.psagent.matrix.ResponseType;
+
+/**
+ * The hot keys of a row and their values
+ */
+public class GetHotKeysResult extends GetResult {
+
+  private final long[] keys;
+  private final double[] values;
+  private final int clock;
+
+  /**
+   * Create a new GetHotKeysResult
+   *
+   * @param keys hot keys
+   * @param values values of the hot keys
+   * @param clock the minimum clock of the row splits
+   */
+  public GetHotKeysResult(long[] keys, double[] values, int clock) {
+    super(ResponseType.SUCCESS);
+    this.keys = keys;
+    this.values = values;
+    this.clock = clock;
+  }
+
+  public long[] getKeys() {
+    return keys;
+  }
+
+  public double[] getValues() {
+    return values;
+  }
+
+  public int getClock() {
+    return clock;
+  }
+}
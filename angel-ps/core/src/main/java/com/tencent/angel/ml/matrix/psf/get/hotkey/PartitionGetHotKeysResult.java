@@ -0,0 +1,88 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.matrix.psf.get.hotkey;
+
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The hot keys of a row split and their values
+ */
+public class PartitionGetHotKeysResult extends PartitionGetResult {
+
+  private long[] keys;
+  private double[] values;
+  private int clock;
+
+  /**
+   * Create a new PartitionGetHotKeysResult
+   *
+   * @param keys hot keys
+   * @param values values of the hot keys
+   * @param clock row split clock
+   */
+  public PartitionGetHotKeysResult(long[] keys, double[] values, int clock) {
+    this.keys = keys;
+    this.values = values;
+    this.clock = clock;
+  }
+
+  public PartitionGetHotKeysResult() {
+    this(null, null, 0);
+  }
+
+  public long[] getKeys() {
+    return keys;
+  }
+
+  public double[] getValues() {
+    return values;
+  }
+
+  public int getClock() {
+    return clock;
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    buf.writeInt(clock);
+    buf.writeInt(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      buf.writeLong(keys[i]);
+      buf.writeDouble(values[i]);
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    clock = buf.readInt();
+    int len = buf.readInt();
+    keys = new long[len];
+    values = new double[len];
+    for (int i = 0; i < len; i++) {
+      keys[i] = buf.readLong();
+      values[i] = buf.readDouble();
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    return 8 + keys.length * 16;
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.matrix.psf.update.freeze;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.IntIntVector;
+import com.tencent.angel.ml.math2.vector.IntLongVector;
+import com.tencent.angel.ml.math2.vector.LongDoubleVector;
+import com.tencent.angel.ml.math2.vector.LongFloatVector;
+import com.tencent.angel.ml.math2.vector.LongIntVector;
+import com.tencent.angel.ml.math2.vector.LongLongVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateFunc;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateParam;
+import com.tencent.angel.ps.storage.partition.RowBasedPartition;
+import com.tencent.angel.ps.storage.vector.ServerRow;
+import com.tencent.angel.ps.storage.vector.ServerRowUtils;
+import com.tencent.angel.psagent.PSAgentContext;
+import com.tencent.angel.utils.Sort;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Convert the sparse rows of a matrix from hash maps to sorted key/value arrays. It is used for
+ * the matrices that are only read after training, such as the embedding tables for serving: the
+ * sorted arrays take about half the memory of the hash maps and the element lookup uses a
+ * branch-free binary search. Dense rows are not changed.
+ *
+ * <p>The rows can still be updated after freezing, but inserting a new key into the sorted arrays
+ * costs O(n), so do not freeze the matrices that are still being trained.
+ */
+public class Freeze extends UpdateFunc {
+
+  /**
+   * Creates a new updater.
+   *
+   * @param param the param
+   */
+  public Freeze(UpdateParam param) {
+    super(param);
+  }
+
+  /**
+   * Creates a new updater.
+   */
+  public Freeze() {
+    this(null);
+  }
+
+  /**
+   * The parameter of freeze updater.
+   */
+  public static class FreezeParam extends UpdateParam {
+
+    /**
+     * Instantiates a new Freeze updater param.
+     *
+     * @param matrixId the matrix id
+     */
+    public FreezeParam(int matrixId) {
+      super(matrixId, false);
+    }
+
+    @Override
+    public List<PartitionUpdateParam> split() {
+      List<PartitionKey> partList =
+          PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId);
+      int size = partList.size();
+      List<PartitionUpdateParam> partParamList = new ArrayList<PartitionUpdateParam>(size);
+      for (int i = 0; i < size; i++) {
+        partParamList.add(new FreezePartitionParam(matrixId, partList.get(i), updateClock));
+      }
+
+      return partParamList;
+    }
+  }
+
+  /**
+   * The partition updater parameter.
+   */
+  public static class FreezePartitionParam extends PartitionUpdateParam {
+
+    /**
+     * Creates new partition updater parameter.
+     *
+     * @param matrixId the matrix id
+     * @param partKey the part key
+     * @param updateClock the update clock
+     */
+    public FreezePartitionParam(int matrixId, PartitionKey partKey, boolean updateClock) {
+      super(matrixId, partKey, updateClock);
+    }
+
+    /**
+     * Creates a new partition updater parameter by default.
+     */
+    public FreezePartitionParam() {
+      super();
+    }
+  }
+
+  @Override
+  public void partitionUpdate(PartitionUpdateParam partParam) {
+    RowBasedPartition part = (RowBasedPartition) psContext.getMatrixStorageManager()
+        .getPart(partParam.getMatrixId(), partParam.getPartKey().getPartitionId());
+
+    if (part != null) {
+      int startRow = part.getPartitionKey().getStartRow();
+      int endRow = part.getPartitionKey().getEndRow();
+      for (int i = startRow; i < endRow; i++) {
+        ServerRow row = part.getRow(i);
+        if (row == null) {
+          continue;
+        }
+        freeze(row);
+      }
+    }
+  }
+
+  private void freeze(ServerRow row) {
+    row.startWrite();
+    try {
+      Vector vector = ServerRowUtils.getVector(row);
+      if (vector.isDense() || vector.isSorted()) {
+        return;
+      }
+      ServerRowUtils.setVector(row, toSorted(vector));
+    } finally {
+      row.endWrite();
+    }
+  }
+
+  /**
+   * Convert a hash map based sparse vector to a sorted vector
+   *
+   * @param vector sparse vector
+   * @return sorted vector
+   */
+  public static Vector toSorted(Vector vector) {
+    Vector sorted;
+    if (vector instanceof IntDoubleVector) {
+      int[] indices = ((IntDoubleVector) vector).getStorage().getIndices();
+      double[] values = ((IntDoubleVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedDoubleVector((int) vector.dim(), indices, values);
+    } else if (vector instanceof IntFloatVector) {
+      int[] indices = ((IntFloatVector) vector).getStorage().getIndices();
+      float[] values = ((IntFloatVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedFloatVector((int) vector.dim(), indices, values);
+    } else if (vector instanceof IntIntVector) {
+      int[] indices = ((IntIntVector) vector).getStorage().getIndices();
+      int[] values = ((IntIntVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedIntVector((int) vector.dim(), indices, values);
+    } else if (vector instanceof IntLongVector) {
+      int[] indices = ((IntLongVector) vector).getStorage().getIndices();
+      long[] values = ((IntLongVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedLongVector((int) vector.dim(), indices, values);
+    } else if (vector instanceof LongDoubleVector) {
+      long[] indices = ((LongDoubleVector) vector).getStorage().getIndices();
+      double[] values = ((LongDoubleVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedLongKeyDoubleVector(vector.dim(), indices, values);
+    } else if (vector instanceof LongFloatVector) {
+      long[] indices = ((LongFloatVector) vector).getStorage().getIndices();
+      float[] values = ((LongFloatVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedLongKeyFloatVector(vector.dim(), indices, values);
+    } else if (vector instanceof LongIntVector) {
+      long[] indices = ((LongIntVector) vector).getStorage().getIndices();
+      int[] values = ((LongIntVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedLongKeyIntVector(vector.dim(), indices, values);
+    } else if (vector instanceof LongLongVector) {
+      long[] indices = ((LongLongVector) vector).getStorage().getIndices();
+      long[] values = ((LongLongVector) vector).getStorage().getValues();
+      Sort.quickSort(indices, values, 0, indices.length - 1);
+      sorted = VFactory.sortedLongKeyLongVector(vector.dim(), indices, values);
+    } else {
+      throw new UnsupportedOperationException(
+          "Unsupport vector type " + vector.getClass().getName());
+    }
+
+    sorted.setMatrixId(vector.getMatrixId());
+    sorted.setRowId(vector.getRowId());
+    sorted.setClock(vector.getClock());
+    return sorted;
+  }
+}
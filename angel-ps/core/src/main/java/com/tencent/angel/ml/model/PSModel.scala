@@ -30,6 +30,8 @@ import com.tencent.angel.ml.math2.vector.Vector
 import com.tencent.angel.ml.matrix.psf.get.base.{GetFunc, GetResult}
 import com.tencent.angel.ml.matrix.psf.get.indexed.{IndexGet, IndexGetParam, LongIndexGet, LongIndexGetParam}
 import com.tencent.angel.ml.matrix.psf.update.base.{UpdateFunc, VoidResult}
+import com.tencent.angel.ml.matrix.psf.update.freeze.Freeze
+import com.tencent.angel.ml.matrix.psf.update.freeze.Freeze.FreezeParam
 import com.tencent.angel.ml.matrix.psf.update.zero.Zero
 import com.tencent.angel.ml.matrix.psf.update.zero.Zero.ZeroParam
 import com.tencent.angel.psagent.matrix.transport.adapter.{GetRowsResult, RowIndex}
@@ -459,6 +461,25 @@ class PSModel(
     }
   }
 
+  /**
+    * Convert the sparse rows to sorted arrays on PS, use it for the matrices that are only read
+    * afterwards
+    *
+    * @throws com.tencent.angel.exception.AngelException
+    */
+  @throws(classOf[AngelException])
+  def freeze() {
+    val updater: Freeze = new Freeze(new FreezeParam(getMatrixId))
+    try {
+      update(updater).get
+    }
+    catch {
+      case e: Any => {
+        throw new AngelException(e)
+      }
+    }
+  }
+
   override def finalize(): Unit = super.finalize()
 
 }
@@ -0,0 +1,752 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.model.output.format;
+
+import com.tencent.angel.conf.AngelConf;
+import com.tencent.angel.ml.math2.matrix.Matrix;
+import com.tencent.angel.ml.math2.storage.DoubleVectorStorage;
+import com.tencent.angel.ml.math2.storage.FloatVectorStorage;
+import com.tencent.angel.ml.math2.storage.IntKeyVectorStorage;
+import com.tencent.angel.ml.math2.storage.IntVectorStorage;
+import com.tencent.angel.ml.math2.storage.LongKeyVectorStorage;
+import com.tencent.angel.ml.math2.storage.LongVectorStorage;
+import com.tencent.angel.ml.math2.storage.VectorStorage;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.IntIntVector;
+import com.tencent.angel.ml.math2.vector.IntLongVector;
+import com.tencent.angel.ml.math2.vector.LongDoubleVector;
+import com.tencent.angel.ml.math2.vector.LongFloatVector;
+import com.tencent.angel.ml.math2.vector.LongIntVector;
+import com.tencent.angel.ml.math2.vector.LongLongVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.model.MatrixLoadContext;
+import com.tencent.angel.model.PSMatrixLoadContext;
+import com.tencent.angel.model.PSMatrixSaveContext;
+import com.tencent.angel.ps.storage.matrix.PartitionState;
+import com.tencent.angel.ps.storage.partition.RowBasedPartition;
+import com.tencent.angel.ps.storage.vector.ServerIntDoubleRow;
+import com.tencent.angel.ps.storage.vector.ServerIntFloatRow;
+import com.tencent.angel.ps.storage.vector.ServerIntIntRow;
+import com.tencent.angel.ps.storage.vector.ServerIntLongRow;
+import com.tencent.angel.ps.storage.vector.ServerLongDoubleRow;
+import com.tencent.angel.ps.storage.vector.ServerLongFloatRow;
+import com.tencent.angel.ps.storage.vector.ServerLongIntRow;
+import com.tencent.angel.ps.storage.vector.ServerLongLongRow;
+import com.tencent.angel.ps.storage.vector.ServerRow;
+import com.tencent.angel.ps.storage.vector.ServerRowUtils;
+import com.tencent.angel.utils.Sort;
+import com.tencent.angel.utils.StringUtils;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Bulk binary format. The elements of a row are written in blocks, every block has a header
+ * (key type, value type, element number) followed by the key array and the value array, the key
+ * array is omitted for the dense rows.
+ *
+ * <p>All the blocks except the last one of a row hold the same number of elements, so the offset
+ * of every block can be computed from the partition header and the row metas. Loading a partition
+ * is split into block ranges which are read with their own streams by the io workers, and the
+ * key/value arrays are decoded in bulk straight into the row storage.
+ *
+ * <p>Partition layout: block capacity(int), value type(byte), row number(int), (row id(int), key
+ * type(byte)) for every row, then the row blocks.
+ */
+public class BulkBinaryRowFormat extends RowBasedFormat {
+
+  private final static Log LOG = LogFactory.getLog(BulkBinaryRowFormat.class);
+
+  /**
+   * Key types
+   */
+  public static final byte KEY_NONE = 0;
+  public static final byte KEY_INT = 1;
+  public static final byte KEY_LONG = 2;
+
+  /**
+   * Value types
+   */
+  public static final byte VALUE_FLOAT = 0;
+  public static final byte VALUE_DOUBLE = 1;
+  public static final byte VALUE_INT = 2;
+  public static final byte VALUE_LONG = 3;
+
+  /**
+   * Block header length: key type(byte), value type(byte), element number(int)
+   */
+  public static final int BLOCK_HEADER_LEN = 6;
+
+  private final int blockCapacity;
+  private final int bufferSize;
+
+  public BulkBinaryRowFormat(Configuration conf) {
+    super(conf);
+    blockCapacity = Math.max(1, conf.getInt(AngelConf.ANGEL_PS_IO_BLOCK_ELEMENT_NUM,
+        AngelConf.DEFAULT_ANGEL_PS_IO_BLOCK_ELEMENT_NUM));
+    bufferSize = conf.getInt(AngelConf.ANGEL_PS_IO_FILE_BUFFER_SIZE,
+        AngelConf.DEFAULT_ANGEL_PS_IO_FILE_BUFFER_SIZE);
+  }
+
+  @Override
+  public void save(RowBasedPartition part, MatrixPartitionMeta partMeta,
+      PSMatrixSaveContext saveContext, DataOutputStream output) throws IOException {
+    List<Integer> rowIds = saveContext.getRowIndexes();
+    if (rowIds == null || rowIds.isEmpty()) {
+      Iterator<Map.Entry<Integer, ServerRow>> iter = part.getRowsStorage().iterator();
+      rowIds = new ArrayList<>();
+      while (iter.hasNext()) {
+        rowIds.add(iter.next().getKey());
+      }
+    } else {
+      rowIds = filter(part, rowIds);
+    }
+
+    // Get the rows first, the key types must be known before writing the partition header
+    int rowNum = rowIds.size();
+    ServerRow[] rows = new ServerRow[rowNum];
+    byte valueType = VALUE_DOUBLE;
+    for (int i = 0; i < rowNum; i++) {
+      ServerRow row = part.getRow(rowIds.get(i));
+      if (row != null && saveContext.cloneFirst()) {
+        row = (ServerRow) row.deepClone();
+      }
+      rows[i] = row;
+      if (row != null) {
+        valueType = valueType(ServerRowUtils.getVector(row).getStorage());
+      }
+    }
+
+    // Write through the position tracking stream, the row offsets are used to locate the blocks
+    FSDataOutputStream dataOutputStream =
+        new FSDataOutputStream(output, null, partMeta != null ? partMeta.getOffset() : 0);
+    dataOutputStream.writeInt(blockCapacity);
+    dataOutputStream.writeByte(valueType);
+    dataOutputStream.writeInt(rowNum);
+    for (int i = 0; i < rowNum; i++) {
+      dataOutputStream.writeInt(rowIds.get(i));
+      dataOutputStream.writeByte(rows[i] == null ? KEY_NONE : keyType(rows[i]));
+    }
+
+    partMeta.setSaveRowNum(rowNum);
+    ByteBuffer buffer = null;
+    for (int i = 0; i < rowNum; i++) {
+      RowPartitionMeta rowMeta = new RowPartitionMeta(rowIds.get(i), 0, 0);
+      rowMeta.setOffset(dataOutputStream.getPos());
+      if (rows[i] != null) {
+        if (buffer == null) {
+          buffer = ByteBuffer.allocate(BLOCK_HEADER_LEN + blockCapacity * 16);
+        }
+        rowMeta.setElementNum(save(rows[i], saveContext, partMeta, buffer, dataOutputStream));
+      } else {
+        rowMeta.setElementNum(0);
+      }
+      partMeta.setRowMeta(rowMeta);
+    }
+  }
+
+  private int save(ServerRow row, PSMatrixSaveContext saveContext, MatrixPartitionMeta meta,
+      ByteBuffer buffer, DataOutputStream out) throws IOException {
+    try {
+      row.startWrite();
+      Vector vector = ServerRowUtils.getVector(row);
+      VectorStorage storage = vector.getStorage();
+      byte keyType = keyType(row);
+      byte valueType = valueType(storage);
+      Object values = values(storage, valueType);
+      Object keys = null;
+      if (keyType != KEY_NONE) {
+        keys = storage instanceof IntKeyVectorStorage ? ((IntKeyVectorStorage) storage).getIndices()
+            : ((LongKeyVectorStorage) storage).getIndices();
+        if (saveContext.sortFirst()) {
+          sort(keys, values);
+        }
+      }
+
+      long startCol = meta.getStartCol();
+      int elemNum = length(values, valueType);
+      for (int start = 0; start < elemNum; start += blockCapacity) {
+        int count = Math.min(blockCapacity, elemNum - start);
+        buffer.clear();
+        buffer.put(keyType);
+        buffer.put(valueType);
+        buffer.putInt(count);
+        if (keyType == KEY_INT) {
+          int[] indices = (int[]) keys;
+          for (int i = start; i < start + count; i++) {
+            buffer.putInt(indices[i] + (int) startCol);
+          }
+        } else if (keyType == KEY_LONG) {
+          if (keys instanceof int[]) {
+            int[] indices = (int[]) keys;
+            for (int i = start; i < start + count; i++) {
+              buffer.putLong(indices[i] + startCol);
+            }
+          } else {
+            long[] indices = (long[]) keys;
+            for (int i = start; i < start + count; i++) {
+              buffer.putLong(indices[i] + startCol);
+            }
+          }
+        }
+        putValues(buffer, values, valueType, start, count);
+        out.write(buffer.array(), 0, buffer.position());
+      }
+      return elemNum;
+    } finally {
+      row.endWrite();
+    }
+  }
+
+  @Override
+  public void load(RowBasedPartition part, MatrixPartitionMeta partMeta,
+      PSMatrixLoadContext loadContext, DataInputStream input) throws IOException {
+    try {
+      int capacity = input.readInt();
+      byte valueType = input.readByte();
+      int rowNum = input.readInt();
+      List<Block> blocks = new ArrayList<>();
+      for (int i = 0; i < rowNum; i++) {
+        int rowId = input.readInt();
+        byte keyType = input.readByte();
+        RowPartitionMeta rowMeta = partMeta.getRowMeta(rowId);
+        ServerRow row = part.getRow(rowId);
+        if (rowMeta == null || row == null || rowMeta.getElementNum() == 0) {
+          continue;
+        }
+
+        int elemNum = rowMeta.getElementNum();
+        if (keyType != KEY_NONE) {
+          presize(row, elemNum);
+        }
+        long blockLen = BLOCK_HEADER_LEN + (long) capacity * (keyLen(keyType) + valueLen(
+            valueType));
+        for (int start = 0; start < elemNum; start += capacity) {
+          blocks.add(new Block(row, rowMeta.getOffset() + (start / capacity) * blockLen, start,
+              Math.min(capacity, elemNum - start), keyType, valueType));
+        }
+      }
+
+      if (blocks.isEmpty()) {
+        return;
+      }
+
+      long[] elemPrefix = new long[blocks.size() + 1];
+      int maxBlockLen = 0;
+      for (int i = 0; i < blocks.size(); i++) {
+        Block block = blocks.get(i);
+        elemPrefix[i + 1] = elemPrefix[i] + block.count;
+        maxBlockLen = Math.max(maxBlockLen, block.byteLen());
+      }
+
+      Path filePath = new Path(loadContext.getLoadPath(), partMeta.getFileName());
+      java.util.Vector<String> errorLogs = new java.util.Vector<>();
+      BlockLoadOp op = new BlockLoadOp(filePath.getFileSystem(conf), filePath, blocks, elemPrefix,
+          maxBlockLen, (long) capacity, errorLogs, 0, blocks.size());
+      if (elemPrefix[blocks.size()] <= capacity || loadContext.getWorkers() == null) {
+        op.compute();
+      } else {
+        loadContext.getWorkers().execute(op);
+        op.join();
+      }
+
+      if (!errorLogs.isEmpty()) {
+        throw new IOException(
+            "load partition " + partMeta.getPartId() + " failed, error log is " + StringUtils
+                .join("\n", errorLogs));
+      }
+    } finally {
+      part.setState(PartitionState.READ_AND_WRITE);
+    }
+  }
+
+  /**
+   * Presize the sparse storage of a row to avoid rehashing while loading
+   */
+  private void presize(ServerRow row, int elemNum) {
+    try {
+      row.startWrite();
+      Vector vector = ServerRowUtils.getVector(row);
+      if (vector.isDense() || row.size() != 0) {
+        return;
+      }
+      Vector presized = initRow(row.getRowType(), vector.dim(), elemNum);
+      if (presized.getClass() == vector.getClass()
+          && presized.getStorage().getClass() == vector.getStorage().getClass()) {
+        ServerRowUtils.setVector(row, presized);
+      }
+    } catch (UnsupportedOperationException e) {
+      // Just use the old storage
+    } finally {
+      row.endWrite();
+    }
+  }
+
+  /**
+   * A block of a row
+   */
+  static class Block {
+
+    final ServerRow row;
+    final long offset;
+    final int start;
+    final int count;
+    final byte keyType;
+    final byte valueType;
+
+    Block(ServerRow row, long offset, int start, int count, byte keyType, byte valueType) {
+      this.row = row;
+      this.offset = offset;
+      this.start = start;
+      this.count = count;
+      this.keyType = keyType;
+      this.valueType = valueType;
+    }
+
+    int byteLen() {
+      return BLOCK_HEADER_LEN + count * (keyLen(keyType) + valueLen(valueType));
+    }
+  }
+
+  /**
+   * Load a range of blocks, the range is split until its element number is not larger than a
+   * block capacity, then it is read by a separate stream.
+   */
+  class BlockLoadOp extends RecursiveAction {
+
+    private final FileSystem fs;
+    private final Path filePath;
+    private final List<Block> blocks;
+    private final long[] elemPrefix;
+    private final int maxBlockLen;
+    private final long maxElemNum;
+    private final java.util.Vector<String> errorLogs;
+    private final int startPos;
+    private final int endPos;
+
+    BlockLoadOp(FileSystem fs, Path filePath, List<Block> blocks, long[] elemPrefix,
+        int maxBlockLen, long maxElemNum, java.util.Vector<String> errorLogs, int startPos,
+        int endPos) {
+      this.fs = fs;
+      this.filePath = filePath;
+      this.blocks = blocks;
+      this.elemPrefix = elemPrefix;
+      this.maxBlockLen = maxBlockLen;
+      this.maxElemNum = maxElemNum;
+      this.errorLogs = errorLogs;
+      this.startPos = startPos;
+      this.endPos = endPos;
+    }
+
+    @Override
+    protected void compute() {
+      if (endPos <= startPos) {
+        return;
+      }
+
+      if (endPos - startPos == 1 || elemPrefix[endPos] - elemPrefix[startPos] <= maxElemNum) {
+        try {
+          loadBlocks();
+        } catch (Throwable x) {
+          LOG.error("load blocks from " + filePath + " failed.", x);
+          errorLogs.add("load blocks from " + filePath + " failed." + x.getMessage());
+        }
+      } else {
+        int middle = (startPos + endPos) / 2;
+        BlockLoadOp opLeft = new BlockLoadOp(fs, filePath, blocks, elemPrefix, maxBlockLen,
+            maxElemNum, errorLogs, startPos, middle);
+        BlockLoadOp opRight = new BlockLoadOp(fs, filePath, blocks, elemPrefix, maxBlockLen,
+            maxElemNum, errorLogs, middle, endPos);
+        invokeAll(opLeft, opRight);
+      }
+    }
+
+    private void loadBlocks() throws IOException {
+      byte[] data = new byte[maxBlockLen];
+      FSDataInputStream input = fs.open(filePath, bufferSize);
+      try {
+        for (int i = startPos; i < endPos; i++) {
+          Block block = blocks.get(i);
+          int len = block.byteLen();
+          if (input.getPos() != block.offset) {
+            input.seek(block.offset);
+          }
+          input.readFully(data, 0, len);
+          ByteBuffer buffer = ByteBuffer.wrap(data, 0, len);
+          checkHeader(buffer, block.keyType, block.valueType, block.count);
+          loadBlock(block, buffer);
+        }
+      } finally {
+        input.close();
+      }
+    }
+  }
+
+  private void loadBlock(Block block, ByteBuffer buffer) throws IOException {
+    ServerRow row = block.row;
+    Vector vector = ServerRowUtils.getVector(row);
+    if (block.keyType == KEY_NONE && vector.isDense()) {
+      // The blocks of a row cover disjoint ranges and the partition is not served while loading,
+      // so the values are decoded into the dense storage directly
+      getValues(buffer, values(vector.getStorage(), block.valueType), block.valueType,
+          block.start, block.count);
+      return;
+    }
+
+    Object keys = getKeys(buffer, block.keyType, row.getStartCol() + block.start, block.count,
+        isLongKey(row));
+    Object values = getValues(buffer, block.valueType, block.count);
+    try {
+      row.startWrite();
+      set(row, keys, values);
+    } finally {
+      row.endWrite();
+    }
+  }
+
+  @Override
+  public void load(Matrix matrix, MatrixPartitionMeta partMeta, MatrixLoadContext loadContext,
+      FSDataInputStream in) throws IOException {
+    int capacity = in.readInt();
+    byte valueType = in.readByte();
+    int rowNum = in.readInt();
+    int[] rowIds = new int[rowNum];
+    byte[] keyTypes = new byte[rowNum];
+    for (int i = 0; i < rowNum; i++) {
+      rowIds[i] = in.readInt();
+      keyTypes[i] = in.readByte();
+    }
+
+    byte[] data = null;
+    for (int i = 0; i < rowNum; i++) {
+      RowPartitionMeta rowMeta = partMeta.getRowMeta(rowIds[i]);
+      if (rowMeta == null || rowMeta.getElementNum() == 0) {
+        continue;
+      }
+
+      Vector row = matrix.getRow(rowIds[i]);
+      int elemNum = rowMeta.getElementNum();
+      in.seek(rowMeta.getOffset());
+      for (int start = 0; start < elemNum; start += capacity) {
+        Block block = new Block(null, 0, start, Math.min(capacity, elemNum - start), keyTypes[i],
+            valueType);
+        int len = block.byteLen();
+        if (data == null || data.length < len) {
+          data = new byte[len];
+        }
+        in.readFully(data, 0, len);
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, len);
+        checkHeader(buffer, block.keyType, block.valueType, block.count);
+        long startCol = partMeta.getStartCol() + start;
+        if (block.keyType == KEY_NONE && row.isDense()) {
+          getValues(buffer, values(row.getStorage(), valueType), valueType, (int) startCol,
+              block.count);
+        } else {
+          set(row, getKeys(buffer, block.keyType, startCol, block.count,
+              row.getStorage() instanceof LongKeyVectorStorage),
+              getValues(buffer, valueType, block.count));
+        }
+      }
+    }
+  }
+
+  private static void checkHeader(ByteBuffer buffer, byte keyType, byte valueType, int count)
+      throws IOException {
+    byte blockKeyType = buffer.get();
+    byte blockValueType = buffer.get();
+    int blockCount = buffer.getInt();
+    if (blockKeyType != keyType || blockValueType != valueType || blockCount != count) {
+      throw new IOException(
+          "Invalid block header, expected key type " + keyType + ", value type " + valueType
+              + ", element number " + count + ", but got " + blockKeyType + ", " + blockValueType
+              + ", " + blockCount);
+    }
+  }
+
+  private static boolean isLongKey(ServerRow row) {
+    return row instanceof ServerLongDoubleRow || row instanceof ServerLongFloatRow
+        || row instanceof ServerLongIntRow || row instanceof ServerLongLongRow;
+  }
+
+  private static byte keyType(ServerRow row) {
+    if (ServerRowUtils.getVector(row).isDense()) {
+      return KEY_NONE;
+    }
+    return isLongKey(row) ? KEY_LONG : KEY_INT;
+  }
+
+  private static byte valueType(VectorStorage storage) throws IOException {
+    if (storage instanceof DoubleVectorStorage) {
+      return VALUE_DOUBLE;
+    } else if (storage instanceof FloatVectorStorage) {
+      return VALUE_FLOAT;
+    } else if (storage instanceof IntVectorStorage) {
+      return VALUE_INT;
+    } else if (storage instanceof LongVectorStorage) {
+      return VALUE_LONG;
+    } else {
+      throw new IOException("Unknown storage type " + storage.getClass().getName());
+    }
+  }
+
+  static int keyLen(byte keyType) {
+    return keyType == KEY_NONE ? 0 : (keyType == KEY_INT ? 4 : 8);
+  }
+
+  static int valueLen(byte valueType) {
+    return (valueType == VALUE_FLOAT || valueType == VALUE_INT) ? 4 : 8;
+  }
+
+  private static Object values(VectorStorage storage, byte valueType) {
+    switch (valueType) {
+      case VALUE_DOUBLE:
+        return ((DoubleVectorStorage) storage).getValues();
+      case VALUE_FLOAT:
+        return ((FloatVectorStorage) storage).getValues();
+      case VALUE_INT:
+        return ((IntVectorStorage) storage).getValues();
+      default:
+        return ((LongVectorStorage) storage).getValues();
+    }
+  }
+
+  private static int length(Object values, byte valueType) {
+    switch (valueType) {
+      case VALUE_DOUBLE:
+        return ((double[]) values).length;
+      case VALUE_FLOAT:
+        return ((float[]) values).length;
+      case VALUE_INT:
+        return ((int[]) values).length;
+      default:
+        return ((long[]) values).length;
+    }
+  }
+
+  private static void sort(Object keys, Object values) {
+    if (keys instanceof int[]) {
+      int[] indices = (int[]) keys;
+      if (values instanceof double[]) {
+        Sort.quickSort(indices, (double[]) values, 0, indices.length - 1);
+      } else if (values instanceof float[]) {
+        Sort.quickSort(indices, (float[]) values, 0, indices.length - 1);
+      } else if (values instanceof int[]) {
+        Sort.quickSort(indices, (int[]) values, 0, indices.length - 1);
+      } else {
+        Sort.quickSort(indices, (long[]) values, 0, indices.length - 1);
+      }
+    } else {
+      long[] indices = (long[]) keys;
+      if (values instanceof double[]) {
+        Sort.quickSort(indices, (double[]) values, 0, indices.length - 1);
+      } else if (values instanceof float[]) {
+        Sort.quickSort(indices, (float[]) values, 0, indices.length - 1);
+      } else if (values instanceof int[]) {
+        Sort.quickSort(indices, (int[]) values, 0, indices.length - 1);
+      } else {
+        Sort.quickSort(indices, (long[]) values, 0, indices.length - 1);
+      }
+    }
+  }
+
+  private static void putValues(ByteBuffer buffer, Object values, byte valueType, int start,
+      int count) {
+    int pos = buffer.position();
+    switch (valueType) {
+      case VALUE_DOUBLE:
+        buffer.asDoubleBuffer().put((double[]) values, start, count);
+        break;
+      case VALUE_FLOAT:
+        buffer.asFloatBuffer().put((float[]) values, start, count);
+        break;
+      case VALUE_INT:
+        buffer.asIntBuffer().put((int[]) values, start, count);
+        break;
+      default:
+        buffer.asLongBuffer().put((long[]) values, start, count);
+    }
+    buffer.position(pos + count * valueLen(valueType));
+  }
+
+  private static void getValues(ByteBuffer buffer, Object values, byte valueType, int start,
+      int count) {
+    switch (valueType) {
+      case VALUE_DOUBLE:
+        buffer.asDoubleBuffer().get((double[]) values, start, count);
+        break;
+      case VALUE_FLOAT:
+        buffer.asFloatBuffer().get((float[]) values, start, count);
+        break;
+      case VALUE_INT:
+        buffer.asIntBuffer().get((int[]) values, start, count);
+        break;
+      default:
+        buffer.asLongBuffer().get((long[]) values, start, count);
+    }
+    buffer.position(buffer.position() + count * valueLen(valueType));
+  }
+
+  private static Object getValues(ByteBuffer buffer, byte valueType, int count) {
+    Object values;
+    switch (valueType) {
+      case VALUE_DOUBLE:
+        values = new double[count];
+        break;
+      case VALUE_FLOAT:
+        values = new float[count];
+        break;
+      case VALUE_INT:
+        values = new int[count];
+        break;
+      default:
+        values = new long[count];
+    }
+    getValues(buffer, values, valueType, 0, count);
+    return values;
+  }
+
+  /**
+   * Decode the column indices of a block, the indices of a dense block are generated from the
+   * start column
+   */
+  private static Object getKeys(ByteBuffer buffer, byte keyType, long startCol, int count,
+      boolean longKey) {
+    if (longKey) {
+      long[] keys = new long[count];
+      if (keyType == KEY_NONE) {
+        for (int i = 0; i < count; i++) {
+          keys[i] = startCol + i;
+        }
+      } else if (keyType == KEY_LONG) {
+        buffer.asLongBuffer().get(keys);
+        buffer.position(buffer.position() + count * 8);
+      } else {
+        for (int i = 0; i < count; i++) {
+          keys[i] = buffer.getInt();
+        }
+      }
+      return keys;
+    } else {
+      int[] keys = new int[count];
+      if (keyType == KEY_NONE) {
+        for (int i = 0; i < count; i++) {
+          keys[i] = (int) startCol + i;
+        }
+      } else if (keyType == KEY_INT) {
+        buffer.asIntBuffer().get(keys);
+        buffer.position(buffer.position() + count * 4);
+      } else {
+        for (int i = 0; i < count; i++) {
+          keys[i] = (int) buffer.getLong();
+        }
+      }
+      return keys;
+    }
+  }
+
+  private static void set(ServerRow row, Object keys, Object values) throws IOException {
+    if (row instanceof ServerIntDoubleRow) {
+      ((ServerIntDoubleRow) row).set((int[]) keys, (double[]) values);
+    } else if (row instanceof ServerIntFloatRow) {
+      ((ServerIntFloatRow) row).set((int[]) keys, (float[]) values);
+    } else if (row instanceof ServerIntIntRow) {
+      ((ServerIntIntRow) row).set((int[]) keys, (int[]) values);
+    } else if (row instanceof ServerIntLongRow) {
+      ((ServerIntLongRow) row).set((int[]) keys, (long[]) values);
+    } else if (row instanceof ServerLongDoubleRow) {
+      ((ServerLongDoubleRow) row).set((long[]) keys, (double[]) values);
+    } else if (row instanceof ServerLongFloatRow) {
+      ((ServerLongFloatRow) row).set((long[]) keys, (float[]) values);
+    } else if (row instanceof ServerLongIntRow) {
+      ((ServerLongIntRow) row).set((long[]) keys, (int[]) values);
+    } else if (row instanceof ServerLongLongRow) {
+      ((ServerLongLongRow) row).set((long[]) keys, (long[]) values);
+    } else {
+      throw new IOException("Unknown row type " + row.getRowType());
+    }
+  }
+
+  private static void set(Vector row, Object keys, Object values) throws IOException {
+    if (row instanceof IntDoubleVector) {
+      int[] indices = (int[]) keys;
+      double[] data = (double[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((IntDoubleVector) row).set(indices[i], data[i]);
+      }
+    } else if (row instanceof IntFloatVector) {
+      int[] indices = (int[]) keys;
+      float[] data = (float[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((IntFloatVector) row).set(indices[i], data[i]);
+      }
+    } else if (row instanceof IntIntVector) {
+      int[] indices = (int[]) keys;
+      int[] data = (int[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((IntIntVector) row).set(indices[i], data[i]);
+      }
+    } else if (row instanceof IntLongVector) {
+      int[] indices = (int[]) keys;
+      long[] data = (long[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((IntLongVector) row).set(indices[i], data[i]);
+      }
+    } else if (row instanceof LongDoubleVector) {
+      long[] indices = (long[]) keys;
+      double[] data = (double[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((LongDoubleVector) row).set(indices[i], data[i]);
+      }
+    } else if (row instanceof LongFloatVector) {
+      long[] indices = (long[]) keys;
+      float[] data = (float[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((LongFloatVector) row).set(indices[i], data[i]);
+      }
+    } else if (row instanceof LongIntVector) {
+      long[] indices = (long[]) keys;
+      int[] data = (int[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((LongIntVector) row).set(indices[i], data[i]);
+      }
+    } else if (row instanceof LongLongVector) {
+      long[] indices = (long[]) keys;
+      long[] data = (long[]) values;
+      for (int i = 0; i < indices.length; i++) {
+        ((LongLongVector) row).set(indices[i], data[i]);
+      }
+    } else {
+      throw new IOException("Unknown vector type " + row.getType());
+    }
+  }
+}
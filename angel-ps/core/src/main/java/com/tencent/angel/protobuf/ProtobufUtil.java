@@ -83,6 +83,7 @@ import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.PSMatrixSaveCo
 import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.PartReportProto;
 import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.RecoverPartKeyProto;
 import com.tencent.angel.protobuf.generated.PSMasterServiceProtos.SaveResultProto;
+import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetAllWorkerMetaInfoResponse;
 import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetWorkerGroupMetaInfoResponse;
 import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.GetWorkerGroupMetaInfoResponse.WorkerGroupStatus;
 import com.tencent.angel.protobuf.generated.WorkerMasterServiceProtos.SplitInfoProto;
@@ -108,6 +109,7 @@ import com.tencent.angel.worker.task.TaskId;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -294,6 +296,28 @@ public final class ProtobufUtil {
         .setWorkerGroupMeta(buildWorkerGroupMeta(group, splits, conf)).build();
   }
 
+  /**
+   * Build the locations and tasks of all running workers, the workers that have not started yet
+   * are skipped
+   *
+   * @param groups       all worker groups
+   * @param totalTaskNum total task number
+   * @return the locations and tasks of all running workers
+   */
+  public static GetAllWorkerMetaInfoResponse buildGetAllWorkerMetaResponse(
+      Collection<AMWorkerGroup> groups, int totalTaskNum) {
+    GetAllWorkerMetaInfoResponse.Builder builder = GetAllWorkerMetaInfoResponse.newBuilder();
+    builder.setTotalTaskNum(totalTaskNum);
+    for (AMWorkerGroup group : groups) {
+      for (AMWorker w : group.getWorkerSet()) {
+        if (w.getRunningAttempt() != null) {
+          builder.addWorkers(buildWorkerMetaProto(w));
+        }
+      }
+    }
+    return builder.build();
+  }
+
   private static WorkerGroupMetaInfoProto buildWorkerGroupMeta(AMWorkerGroup group,
       SplitClassification splits, Configuration conf) throws IOException {
     WorkerGroupMetaInfoProto.Builder builder = WorkerGroupMetaInfoProto.newBuilder();
@@ -32,6 +32,8 @@ import com.tencent.angel.ps.server.data.PSFailedReport;
 import com.tencent.angel.ps.server.data.RunningContext;
 import com.tencent.angel.ps.server.data.WorkerPool;
 import com.tencent.angel.ps.storage.MatrixStorageManager;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.apache.hadoop.conf.Configuration;
 
 /**
@@ -43,6 +45,11 @@ public class PSContext {
    */
   private final ParameterServer ps;
 
+  /**
+   * States that psf keep on this PS between calls, by state name
+   */
+  private final ConcurrentHashMap<String, Object> psfStates = new ConcurrentHashMap<>();
+
   /**
    * Create a PSContext
    *
@@ -187,6 +194,19 @@ public class PSContext {
     return ps.getSnapshotDumper();
   }
 
+  /**
+   * Get a state that psf keep on this PS between calls, e.g. the data a get psf leaves for the
+   * following update psf. It is created by the creator at the first call.
+   *
+   * @param name state name
+   * @param creator create the state from the state name
+   * @return the state
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getPSFState(String name, Function<String, T> creator) {
+    return (T) psfStates.computeIfAbsent(name, creator);
+  }
+
   /**
    * Get the replication number for a matrix partition
    *
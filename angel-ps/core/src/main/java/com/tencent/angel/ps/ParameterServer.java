@@ -56,6 +56,8 @@ import com.tencent.angel.ps.server.data.RunningContext;
 import com.tencent.angel.ps.server.data.WorkerPool;
 import com.tencent.angel.ps.storage.MatrixStorageManager;
 import com.tencent.angel.ps.storage.vector.ServerRow;
+import com.tencent.angel.ps.storage.vector.ServerRowStorageAdapter;
+import com.tencent.angel.ps.storage.vector.policy.ElementEvictor;
 import java.io.IOException;
 import java.net.UnknownHostException;
 import java.security.PrivilegedExceptionAction;
@@ -164,6 +166,11 @@ public class ParameterServer {
    */
   private volatile SnapshotDumper snapshotDumper;
 
+  /**
+   * Element evictor for the matrices with element admission and eviction policy
+   */
+  private volatile ElementEvictor elementEvictor;
+
   /**
    * Master RPC client
    */
@@ -292,6 +299,11 @@ public class ParameterServer {
         snapshotDumper = null;
       }
 
+      if (elementEvictor != null) {
+        elementEvictor.stop();
+        elementEvictor = null;
+      }
+
       if (master != null) {
         master.stop();
         master = null;
@@ -457,6 +469,21 @@ public class ParameterServer {
     ServerRow.sparseToDenseFactor = conf.getFloat(AngelConf.ANGEL_PS_SPARSE_TO_DENSE_FACTOR,
         AngelConf.DEFAULT_ANGEL_PS_SPARSE_TO_DENSE_FACTOR);
 
+    ServerRowStorageAdapter.enable = conf
+        .getBoolean(AngelConf.ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_ENABLE,
+            AngelConf.DEFAULT_ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_ENABLE);
+    ServerRowStorageAdapter.checkInterval = conf
+        .getInt(AngelConf.ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_CHECK_INTERVAL,
+            AngelConf.DEFAULT_ANGEL_PS_ONLINE_ADAPTIVE_STORAGE_CHECK_INTERVAL);
+    ServerRowStorageAdapter.denseToSparseFactor = conf
+        .getFloat(AngelConf.ANGEL_PS_DENSE_TO_SPARSE_FACTOR,
+            AngelConf.DEFAULT_ANGEL_PS_DENSE_TO_SPARSE_FACTOR);
+
+    ServerRow.hotKeyTopK = conf.getInt(AngelConf.ANGEL_PS_HOT_KEY_TOP_K,
+        AngelConf.DEFAULT_ANGEL_PS_HOT_KEY_TOP_K);
+    ServerRow.hotKeySampleStep = conf.getInt(AngelConf.ANGEL_PS_HOT_KEY_SAMPLE_STEP,
+        AngelConf.DEFAULT_ANGEL_PS_HOT_KEY_SAMPLE_STEP);
+
     locationManager = new PSLocationManager(context);
     locationManager.setMasterLocation(masterLocation);
 
@@ -482,6 +509,7 @@ public class ParameterServer {
 
     saver = new PSModelSaver(context);
     loader = new PSModelLoader(context);
+    elementEvictor = new ElementEvictor(context);
 
     int replicNum = conf.getInt(AngelConf.ANGEL_PS_HA_REPLICATION_NUMBER,
         AngelConf.DEFAULT_ANGEL_PS_HA_REPLICATION_NUMBER);
@@ -577,6 +605,14 @@ public class ParameterServer {
     pairBuilder.setKey("key");
     pairBuilder.setValue("value");
     builder.addMetrics(pairBuilder.build());
+    if (elementEvictor != null) {
+      builder.addMetrics(pairBuilder.setKey("elementAdmittedNum")
+          .setValue(String.valueOf(elementEvictor.getAdmittedNum())).build());
+      builder.addMetrics(pairBuilder.setKey("elementRejectedNum")
+          .setValue(String.valueOf(elementEvictor.getRejectedNum())).build());
+      builder.addMetrics(pairBuilder.setKey("elementEvictedNum")
+          .setValue(String.valueOf(elementEvictor.getEvictedNum())).build());
+    }
     builder.addAllMatrixReports(buildMatrixReports());
 
     PSReportResponse ret;
@@ -762,6 +798,9 @@ public class ParameterServer {
     if (snapshotDumper != null) {
       snapshotDumper.start();
     }
+    if (elementEvictor != null) {
+      elementEvictor.start();
+    }
     master.start();
 
     // TODO
@@ -226,6 +226,8 @@ public class PSModelIOExecutor {
       MatrixFormat format = ModelFilesUtils
           .initFormat(loadContext.getFormatClassName(), context.getConf());
       format.load(matrix, loadContext, context.getConf());
+      // The loaded elements bypass the element admission, track them once here
+      matrix.trackElements();
     }
   }
 
@@ -24,11 +24,12 @@ import com.tencent.angel.ipc.MLRPC;
 import com.tencent.angel.ipc.RpcServer;
 import com.tencent.angel.protobuf.generated.MasterPSServiceProtos.GetThreadStackRequest;
 import com.tencent.angel.protobuf.generated.MasterPSServiceProtos.GetThreadStackResponse;
+import com.tencent.angel.protobuf.generated.MasterPSServiceProtos.GetTransportMetricsRequest;
+import com.tencent.angel.protobuf.generated.MasterPSServiceProtos.GetTransportMetricsResponse;
 import com.tencent.angel.protobuf.generated.PSAgentPSServiceProtos.GetStateRequest;
 import com.tencent.angel.protobuf.generated.PSAgentPSServiceProtos.GetStateResponse;
-import com.tencent.angel.protobuf.generated.PSAgentPSServiceProtos.GetTokenRequest;
-import com.tencent.angel.protobuf.generated.PSAgentPSServiceProtos.GetTokenResponse;
 import com.tencent.angel.ps.PSContext;
+import com.tencent.angel.ps.storage.vector.ServerRowStorageAdapter;
 import com.tencent.angel.utils.NetUtils;
 import com.tencent.angel.utils.ThreadUtils;
 import org.apache.commons.logging.Log;
@@ -125,16 +126,16 @@ public class ParameterServerService implements PSProtocol {
     return stackTraceString.toString();
   }
 
+  @Override public GetTransportMetricsResponse psTransportMetrics(RpcController controller,
+    GetTransportMetricsRequest request) throws ServiceException {
+    return GetTransportMetricsResponse.newBuilder()
+      .setMetrics(context.getWorkerPool().getTransportMetrics().report() + "\n"
+        + ServerRowStorageAdapter.report()).build();
+  }
+
   @Override public GetStateResponse getState(RpcController controller, GetStateRequest request)
     throws ServiceException {
     return GetStateResponse.newBuilder()
       .setState(context.getRunningContext().getState().getTypeId()).build();
   }
-
-  @Override public GetTokenResponse getToken(RpcController controller, GetTokenRequest request)
-    throws ServiceException {
-    return GetTokenResponse.newBuilder().setToken(
-      context.getRunningContext().allocateToken(request.getClientId(), request.getDataSize()))
-      .build();
-  }
 }
\ No newline at end of file
@@ -31,9 +31,19 @@ public class ChannelHandlerContextMsg {
    */
   private final ChannelHandlerContext ctx;
 
+  /**
+   * Request received time in nanoseconds
+   */
+  private final long receiveTs;
+
   public ChannelHandlerContextMsg(ByteBuf message, ChannelHandlerContext ctx) {
+    this(message, ctx, System.nanoTime());
+  }
+
+  public ChannelHandlerContextMsg(ByteBuf message, ChannelHandlerContext ctx, long receiveTs) {
     this.message = message;
     this.ctx = ctx;
+    this.receiveTs = receiveTs;
   }
 
   public ByteBuf getMessage() {
@@ -43,6 +53,10 @@ public class ChannelHandlerContextMsg {
   public ChannelHandlerContext getCtx() {
     return ctx;
   }
+
+  public long getReceiveTs() {
+    return receiveTs;
+  }
 }
 
 class StopMsg extends ChannelHandlerContextMsg {
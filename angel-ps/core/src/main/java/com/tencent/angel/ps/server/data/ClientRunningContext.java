@@ -22,39 +22,47 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ClientRunningContext {
   private static final Log LOG = LogFactory.getLog(ClientRunningContext.class);
   private final AtomicInteger totalRPCCounter = new AtomicInteger(0);
   private final AtomicInteger totalRunningRPCCounter = new AtomicInteger(0);
-  private final AtomicInteger inflightingRPCCounter = new AtomicInteger(0);
+  private final AtomicLong inflightCreditBytes = new AtomicLong(0);
   private volatile long lastUpdateTs;
   private final SlidingWindow window = new SlidingWindow();
 
   /**
-   * Release token for this client
+   * Release credits for this client
    *
-   * @param tokenNum
+   * @param creditBytes credit bytes
+   * @return the credit bytes actually released, it never exceeds the granted credits
    */
-  public void releaseToken(int tokenNum) {
-    inflightingRPCCounter.addAndGet(-tokenNum);
+  public long releaseCredit(long creditBytes) {
     lastUpdateTs = System.currentTimeMillis();
+    while (true) {
+      long inflight = inflightCreditBytes.get();
+      long released = Math.min(inflight, creditBytes);
+      if (inflightCreditBytes.compareAndSet(inflight, inflight - released)) {
+        return released;
+      }
+    }
   }
 
   /**
-   * Allocate token for this client
+   * Grant credits to this client
    *
-   * @param tokenNum token number
+   * @param creditBytes credit bytes
    */
-  public void allocateToken(int tokenNum) {
-    inflightingRPCCounter.addAndGet(tokenNum);
+  public void grantCredit(long creditBytes) {
+    inflightCreditBytes.addAndGet(creditBytes);
     lastUpdateTs = System.currentTimeMillis();
   }
 
   public void printToken() {
     LOG.info("+++++++++++++++++++++Client running context start+++++++++++++++++++++");
     LOG.info("totalRunningRPCCounter = " + totalRunningRPCCounter.get());
-    LOG.info("infligtingRPCCounter = " + inflightingRPCCounter.get());
+    LOG.info("inflightCreditBytes = " + inflightCreditBytes.get());
     LOG.info("totalRPCCounter = " + totalRPCCounter.get());
     LOG.info("lastUpdateTs = " + lastUpdateTs);
     LOG.info("+++++++++++++++++++++Client running context end  +++++++++++++++++++++");
@@ -93,11 +101,11 @@ public class ClientRunningContext {
   }
 
   /**
-   * Get infighting rpc number from this client
+   * Get the credits granted to this client but not spent yet
    *
-   * @return infighting rpc number from this client
+   * @return inflight credit bytes
    */
-  public int getInflightingRPCCounter() {
-    return inflightingRPCCounter.get();
+  public long getInflightCreditBytes() {
+    return inflightCreditBytes.get();
   }
 }
@@ -18,12 +18,17 @@
 
 package com.tencent.angel.ps.server.data;
 
+import com.tencent.angel.common.location.Location;
+import com.tencent.angel.common.transport.LocalTransport;
 import com.tencent.angel.conf.AngelConf;
 import com.tencent.angel.ps.PSContext;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
@@ -33,6 +38,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 
+import java.net.UnknownHostException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -48,6 +54,9 @@ public class MatrixTransportServer {
   private EventLoopGroup bossGroup;
   private EventLoopGroup workerGroup;
   private ChannelFuture channelFuture;
+  private EventLoopGroup localGroup;
+  private ChannelFuture localChannelFuture;
+  private Location localLoc;
   private final AtomicBoolean stopped;
   private final PSContext context;
 
@@ -109,6 +118,40 @@ public class MatrixTransportServer {
       });
 
     channelFuture = b.bind(port);
+
+    if (conf.getBoolean(AngelConf.ANGEL_NETTY_MATRIXTRANSFER_LOCAL_ENABLE,
+      AngelConf.DEFAULT_ANGEL_NETTY_MATRIXTRANSFER_LOCAL_ENABLE)) {
+      startLocal(workerNum);
+    }
+  }
+
+  /**
+   * Start the local channel server for the clients in this JVM. The messages of a local channel
+   * are passed as whole ByteBufs, so the frame codec is not needed.
+   *
+   * @param workerNum event loop thread number
+   */
+  private void startLocal(int workerNum) {
+    try {
+      localLoc = new Location(context.getPs().getHostAddress(), port);
+    } catch (UnknownHostException e) {
+      LOG.warn("get host address failed, local transport is disabled", e);
+      return;
+    }
+
+    LocalAddress localAddr = LocalTransport.newLocalAddress(localLoc);
+    localGroup = new DefaultEventLoopGroup(workerNum);
+    ServerBootstrap b = new ServerBootstrap();
+    b.group(localGroup).channel(LocalServerChannel.class)
+      .childHandler(new ChannelInitializer<LocalChannel>() {
+        @Override public void initChannel(LocalChannel ch) throws Exception {
+          ch.pipeline().addLast(new MatrixTransportServerHandler(context));
+        }
+      });
+
+    localChannelFuture = b.bind(localAddr).syncUninterruptibly();
+    LocalTransport.register(localLoc, localAddr);
+    LOG.info("Local server address = " + localAddr);
   }
 
   public void stop() throws InterruptedException {
@@ -118,7 +161,18 @@ public class MatrixTransportServer {
           channelFuture.channel().close();
           channelFuture = null;
         }
+
+        if (localChannelFuture != null) {
+          LocalTransport.unregister(localLoc);
+          localChannelFuture.channel().close();
+          localChannelFuture = null;
+        }
       } finally {
+        if (localGroup != null) {
+          localGroup.shutdownGracefully();
+          localGroup = null;
+        }
+
         if (bossGroup != null) {
           bossGroup.shutdownGracefully();
           bossGroup = null;
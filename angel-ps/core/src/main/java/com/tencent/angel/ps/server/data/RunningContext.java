@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * PS running context
@@ -41,7 +42,9 @@ public class RunningContext {
   private final AtomicInteger lastOOMRunningRPCCounter = new AtomicInteger(0);
   private final AtomicInteger maxRunningRPCCounter = new AtomicInteger(0);
   private final AtomicInteger generalRunningRPCCounter = new AtomicInteger(0);
-  private final AtomicInteger infligtingRPCCounter = new AtomicInteger(0);
+  private final AtomicLong inflightCreditBytes = new AtomicLong(0);
+  private final long maxCreditBytes;
+  private final int creditGrantBytes;
   private volatile Thread tokenTimeoutChecker;
   private final int tokenTimeoutMs;
   private final AtomicBoolean stopped = new AtomicBoolean(false);
@@ -74,24 +77,30 @@ public class RunningContext {
     tokenTimeoutMs = context.getConf()
       .getInt(AngelConf.ANGEL_MATRIXTRANSFER_SERVER_TOKEN_TIMEOUT_MS,
         AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_SERVER_TOKEN_TIMEOUT_MS);
+
+    maxCreditBytes = context.getConf()
+      .getLong(AngelConf.ANGEL_MATRIXTRANSFER_SERVER_MAX_CREDIT_BYTES,
+        AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_SERVER_MAX_CREDIT_BYTES);
+    creditGrantBytes = context.getConf()
+      .getInt(AngelConf.ANGEL_MATRIXTRANSFER_SERVER_CREDIT_GRANT_BYTES,
+        AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_SERVER_CREDIT_GRANT_BYTES);
   }
 
   /**
-   * Start token timeout checker: if some tokens are not used within a specified time, just release them
+   * Start credit timeout checker: if some credits are not used within a specified time, just release them
    */
   public void start() {
     tokenTimeoutChecker = new Thread(() -> {
       while (!stopped.get() && !Thread.interrupted()) {
         long ts = System.currentTimeMillis();
         for (Map.Entry<Integer, ClientRunningContext> clientEntry : clientRPCCounters.entrySet()) {
-          int inflightRPCCounter = clientEntry.getValue().getInflightingRPCCounter();
+          long inflightCredit = clientEntry.getValue().getInflightCreditBytes();
           long lastUpdateTs = clientEntry.getValue().getLastUpdateTs();
           LOG.debug(
-            "inflightRPCCounter=" + inflightRPCCounter + ", lastUpdateTs=" + lastUpdateTs + ", ts="
-              + ts);
-          if (inflightRPCCounter != 0 && (ts - lastUpdateTs) > tokenTimeoutMs) {
-            LOG.info("client " + clientEntry.getKey() + " token is timeout");
-            relaseToken(clientEntry.getKey(), inflightRPCCounter);
+            "inflightCredit=" + inflightCredit + ", lastUpdateTs=" + lastUpdateTs + ", ts=" + ts);
+          if (inflightCredit != 0 && (ts - lastUpdateTs) > tokenTimeoutMs) {
+            LOG.info("client " + clientEntry.getKey() + " credit is timeout");
+            releaseCredit(clientEntry.getKey(), inflightCredit);
           }
         }
         checkOOM();
@@ -129,7 +138,8 @@ public class RunningContext {
     LOG.info("=====================Server running context start=======================");
     LOG.info("state = " + getState());
     LOG.info("totalRunningRPCCounter = " + totalRunningRPCCounter.get());
-    LOG.info("infligtingRPCCounter = " + infligtingRPCCounter.get());
+    LOG.info("inflightCreditBytes = " + inflightCreditBytes.get());
+    LOG.info("maxCreditBytes = " + maxCreditBytes);
     LOG.info("oomCounter = " + oomCounter.get());
     LOG.info("maxRunningRPCCounter = " + maxRunningRPCCounter.get());
     LOG.info("generalRunningRPCCounter = " + generalRunningRPCCounter.get());
@@ -182,15 +192,13 @@ public class RunningContext {
   public void after(int clientId, int seqId) {
     totalRunningRPCCounter.decrementAndGet();
     getClientRunningContext(clientId).after(seqId);
-    if (totalRunningRPCCounter.get() + infligtingRPCCounter.get() < 0.7 * lastOOMRunningRPCCounter
-      .get()) {
+    if (totalRunningRPCCounter.get() < 0.7 * lastOOMRunningRPCCounter.get()) {
       oomCounter.set(0);
     }
   }
 
   private void checkOOM() {
-    if (totalRunningRPCCounter.get() + infligtingRPCCounter.get() < 0.7 * lastOOMRunningRPCCounter
-      .get()) {
+    if (totalRunningRPCCounter.get() < 0.7 * lastOOMRunningRPCCounter.get()) {
       oomCounter.set(0);
     }
   }
@@ -200,10 +208,10 @@ public class RunningContext {
    */
   public void oom() {
     oomCounter.incrementAndGet();
-    int runningAndInfightingRPCCounter = getRunningAndInflightingRPCCounter();
-    lastOOMRunningRPCCounter.set(runningAndInfightingRPCCounter);
-    maxRunningRPCCounter.set((int) (runningAndInfightingRPCCounter * 0.8));
-    generalRunningRPCCounter.set((int) (runningAndInfightingRPCCounter * 0.8 * genFactor));
+    int runningRPCCounter = totalRunningRPCCounter.get();
+    lastOOMRunningRPCCounter.set(runningRPCCounter);
+    maxRunningRPCCounter.set((int) (runningRPCCounter * 0.8));
+    generalRunningRPCCounter.set((int) (runningRPCCounter * 0.8 * genFactor));
     LOG.info("OOM happened, lastOOMRunningRPCCounter=" + lastOOMRunningRPCCounter.get()
       + ", maxRunningRPCCounter=" + maxRunningRPCCounter.get() + ", generalRunningRPCCounter="
       + generalRunningRPCCounter.get());
@@ -234,56 +242,69 @@ public class RunningContext {
    */
   public ServerState getState() {
     //return ServerState.GENERAL;
-    int runningAndInfightingRPCCounter = getRunningAndInflightingRPCCounter();
+    int runningRPCCounter = totalRunningRPCCounter.get();
     if (isOOM()) {
       return ServerState.BUSY;
     }
 
-    if (runningAndInfightingRPCCounter >= maxRunningRPCCounter.get()) {
+    if (runningRPCCounter >= maxRunningRPCCounter.get()) {
       return ServerState.BUSY;
-    } else if ((runningAndInfightingRPCCounter < maxRunningRPCCounter.get()) && (
-      runningAndInfightingRPCCounter >= generalRunningRPCCounter.get())) {
+    } else if ((runningRPCCounter < maxRunningRPCCounter.get()) && (
+      runningRPCCounter >= generalRunningRPCCounter.get())) {
       return ServerState.GENERAL;
     } else {
       return ServerState.IDLE;
     }
   }
 
-  private int getRunningAndInflightingRPCCounter() {
-    return totalRunningRPCCounter.get() + infligtingRPCCounter.get();
-  }
-
   /**
-   * Allocate token for a request
+   * Grant credits to a client, they are piggybacked on the response. The client only needs credits
+   * when the server is in GENERAL state, a client spends the credits by the bytes of its requests
    *
    * @param clientId client id
-   * @param dataSize request size
-   * @return token number
+   * @param state    current server state
+   * @return granted credit bytes
    */
-  public int allocateToken(int clientId, int dataSize) {
-    if (isOOM()) {
+  public int grantCredit(int clientId, ServerState state) {
+    if (isOOM() || state != ServerState.GENERAL) {
       return 0;
-    } else {
-      int runningAndInfightingRPCCounter = getRunningAndInflightingRPCCounter();
-      if (maxRunningRPCCounter.get() - runningAndInfightingRPCCounter >= 1) {
-        infligtingRPCCounter.incrementAndGet();
-        getClientRunningContext(clientId).allocateToken(1);
-        return 1;
-      } else {
+    }
+
+    while (true) {
+      long inflight = inflightCreditBytes.get();
+      long grant = Math.min(creditGrantBytes, maxCreditBytes - inflight);
+      if (grant <= 0) {
         return 0;
       }
+      if (inflightCreditBytes.compareAndSet(inflight, inflight + grant)) {
+        getClientRunningContext(clientId).grantCredit(grant);
+        return (int) grant;
+      }
     }
   }
 
   /**
-   * Release token
+   * Release the credits a client spent or did not use in time
    *
    * @param clientId client id
-   * @param tokenNum token number
+   * @param creditBytes credit bytes
+   */
+  public void releaseCredit(int clientId, long creditBytes) {
+    if (creditBytes <= 0) {
+      return;
+    }
+    // A client may spend credits that are already released by timeout
+    long released = getClientRunningContext(clientId).releaseCredit(creditBytes);
+    inflightCreditBytes.addAndGet(-released);
+  }
+
+  /**
+   * Get the credit bytes granted to all clients but not received yet
+   *
+   * @return inflight credit bytes
    */
-  public void relaseToken(int clientId, int tokenNum) {
-    infligtingRPCCounter.addAndGet(-tokenNum);
-    getClientRunningContext(clientId).releaseToken(tokenNum);
+  public long getInflightCreditBytes() {
+    return inflightCreditBytes.get();
   }
 
   /**
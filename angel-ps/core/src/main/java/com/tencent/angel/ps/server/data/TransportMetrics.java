@@ -0,0 +1,230 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.server.data;
+
+import com.tencent.angel.common.metrics.LatencyHistogram;
+import com.tencent.angel.common.metrics.SlowRequestTracker;
+import com.tencent.angel.conf.AngelConf;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Latency histograms of the rpcs handled by the ps, they are kept for each rpc type and matrix.
+ */
+public class TransportMetrics {
+
+  /**
+   * Rpc handling stages on ps
+   */
+  public enum Stage {
+    /**
+     * From the request is received to it is handled by a worker
+     */
+    ENQUEUE,
+    /**
+     * Wait for the row locks
+     */
+    LOCK_WAIT,
+    /**
+     * Handle the request, the lock wait time is not included
+     */
+    HANDLE,
+    /**
+     * Serialize the response
+     */
+    SERIALIZE,
+    /**
+     * From the response is written to the channel to it is flushed
+     */
+    SEND,
+    /**
+     * Total time
+     */
+    TOTAL
+  }
+
+  private static final String[] traceStages =
+      {"enqueue", "lockWait", "handle", "serialize", "send"};
+
+  /**
+   * Row lock wait time of current handler thread, it is accumulated by the rows and taken by the
+   * rpc handler
+   */
+  private static final ThreadLocal<long[]> threadLockWaitNanos = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[1];
+    }
+  };
+
+  private final boolean enable;
+
+  /**
+   * Rpc type to matrix id to stage histograms map, the maps are copy-on-write so looking up does
+   * not need any lock
+   */
+  private final AtomicReferenceArray<Int2ObjectOpenHashMap<LatencyHistogram[]>> histograms;
+
+  private final SlowRequestTracker slowRequests;
+
+  public TransportMetrics(Configuration conf) {
+    enable = conf.getBoolean(AngelConf.ANGEL_MATRIXTRANSFER_METRICS_ENABLE,
+        AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_METRICS_ENABLE);
+    histograms = new AtomicReferenceArray<>(TransportMethod.values().length);
+    for (int i = 0; i < histograms.length(); i++) {
+      histograms.set(i, new Int2ObjectOpenHashMap<LatencyHistogram[]>());
+    }
+    slowRequests = new SlowRequestTracker(
+        conf.getInt(AngelConf.ANGEL_MATRIXTRANSFER_SLOW_REQUEST_NUM,
+            AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_SLOW_REQUEST_NUM), "matrix", traceStages);
+  }
+
+  public boolean isEnable() {
+    return enable;
+  }
+
+  /**
+   * Add row lock wait time for current thread
+   *
+   * @param nanos wait time in nanoseconds
+   */
+  public static void addLockWait(long nanos) {
+    threadLockWaitNanos.get()[0] += nanos;
+  }
+
+  /**
+   * Get and clear the row lock wait time of current thread
+   *
+   * @return wait time in nanoseconds
+   */
+  public static long takeLockWait() {
+    long[] holder = threadLockWaitNanos.get();
+    long nanos = holder[0];
+    holder[0] = 0;
+    return nanos;
+  }
+
+  /**
+   * Record a handled rpc
+   *
+   * @param clientId psagent id
+   * @param seqId request seq id
+   * @param method rpc type
+   * @param matrixId matrix id, -1 if the rpc is not for a matrix
+   * @param enqueueNanos enqueue time in nanoseconds
+   * @param lockWaitNanos lock wait time in nanoseconds
+   * @param handleNanos handle time in nanoseconds
+   * @param serializeNanos serialize time in nanoseconds
+   * @param sendNanos send time in nanoseconds
+   */
+  public void record(int clientId, int seqId, TransportMethod method, int matrixId,
+      long enqueueNanos, long lockWaitNanos, long handleNanos, long serializeNanos,
+      long sendNanos) {
+    if (!enable) {
+      return;
+    }
+
+    LatencyHistogram[] stages = getHistograms(method, matrixId);
+    long totalNanos = enqueueNanos + lockWaitNanos + handleNanos + serializeNanos + sendNanos;
+    stages[Stage.ENQUEUE.ordinal()].recordNanos(enqueueNanos);
+    stages[Stage.LOCK_WAIT.ordinal()].recordNanos(lockWaitNanos);
+    stages[Stage.HANDLE.ordinal()].recordNanos(handleNanos);
+    stages[Stage.SERIALIZE.ordinal()].recordNanos(serializeNanos);
+    stages[Stage.SEND.ordinal()].recordNanos(sendNanos);
+    stages[Stage.TOTAL.ordinal()].recordNanos(totalNanos);
+
+    if (slowRequests.isSlow(totalNanos / 1000)) {
+      slowRequests.record(clientId, seqId, method, matrixId, totalNanos / 1000,
+          new long[] {enqueueNanos / 1000, lockWaitNanos / 1000, handleNanos / 1000,
+              serializeNanos / 1000, sendNanos / 1000});
+    }
+  }
+
+  private LatencyHistogram[] getHistograms(TransportMethod method, int matrixId) {
+    int index = method.ordinal();
+    LatencyHistogram[] stages = histograms.get(index).get(matrixId);
+    if (stages != null) {
+      return stages;
+    }
+
+    synchronized (this) {
+      Int2ObjectOpenHashMap<LatencyHistogram[]> old = histograms.get(index);
+      stages = old.get(matrixId);
+      if (stages == null) {
+        stages = new LatencyHistogram[Stage.values().length];
+        for (int i = 0; i < stages.length; i++) {
+          stages[i] = new LatencyHistogram();
+        }
+        Int2ObjectOpenHashMap<LatencyHistogram[]> updated = new Int2ObjectOpenHashMap<>(old);
+        updated.put(matrixId, stages);
+        histograms.set(index, updated);
+      }
+      return stages;
+    }
+  }
+
+  /**
+   * Clear all the histograms and the slow requests
+   */
+  public void reset() {
+    for (int i = 0; i < histograms.length(); i++) {
+      for (LatencyHistogram[] stages : histograms.get(i).values()) {
+        for (LatencyHistogram histogram : stages) {
+          histogram.reset();
+        }
+      }
+    }
+    slowRequests.reset();
+  }
+
+  /**
+   * Get the latency report
+   *
+   * @return latency report
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    if (!enable) {
+      sb.append("transport metrics is disabled, set ")
+          .append(AngelConf.ANGEL_MATRIXTRANSFER_METRICS_ENABLE).append(" to true to enable it\n");
+      return sb.toString();
+    }
+
+    TransportMethod[] methods = TransportMethod.values();
+    Stage[] stageTypes = Stage.values();
+    for (int i = 0; i < methods.length; i++) {
+      Int2ObjectOpenHashMap<LatencyHistogram[]> matrixToStages = histograms.get(i);
+      int[] matrixIds = matrixToStages.keySet().toIntArray();
+      Arrays.sort(matrixIds);
+      for (int matrixId : matrixIds) {
+        LatencyHistogram[] stages = matrixToStages.get(matrixId);
+        sb.append("method=").append(methods[i]).append(", matrix=").append(matrixId).append('\n');
+        for (int k = 0; k < stageTypes.length; k++) {
+          sb.append("  ").append(stageTypes[k]).append(": ").append(stages[k]).append('\n');
+        }
+      }
+    }
+
+    sb.append("\nSlowest requests\n");
+    slowRequests.report(sb);
+    return sb.toString();
+  }
+}
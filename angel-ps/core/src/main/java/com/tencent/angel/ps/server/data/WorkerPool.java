@@ -163,6 +163,11 @@ public class WorkerPool {
    */
   private final boolean useInDepSenders;
 
+  /**
+   * Rpc latency histograms
+   */
+  private final TransportMetrics transportMetrics;
+
   /**
    * Create a WorkerPool
    *
@@ -203,6 +208,17 @@ public class WorkerPool {
     } else {
       disableRouterCache = false;
     }
+
+    transportMetrics = new TransportMetrics(conf);
+  }
+
+  /**
+   * Get rpc latency histograms
+   *
+   * @return rpc latency histograms
+   */
+  public TransportMetrics getTransportMetrics() {
+    return transportMetrics;
   }
 
   /**
@@ -268,9 +284,10 @@ public class WorkerPool {
    * @param msg request
    */
   public void handlerRequest(ChannelHandlerContext ctx, Object msg) {
+    long receiveTs = System.nanoTime();
     ByteBuf in = (ByteBuf) msg;
     int clientId = in.readInt();
-    int token = in.readInt();
+    int credit = in.readInt();
     int seqId = in.readInt();
     int methodId = in.readInt();
     TransportMethod method = TransportMethod.typeIdToTypeMap.get(methodId);
@@ -278,7 +295,7 @@ public class WorkerPool {
     if (isDataRequest(method)) {
       total.incrementAndGet();
       runningContext.before(clientId, seqId);
-      runningContext.relaseToken(clientId, token);
+      runningContext.releaseCredit(clientId, credit);
     }
 
     try {
@@ -299,7 +316,8 @@ public class WorkerPool {
           in.resetReaderIndex();
 
           // Get and init the queue
-          ChannelHandlerContextMsg chcMsg = new ChannelHandlerContextMsg((ByteBuf) msg, ctx);
+          ChannelHandlerContextMsg chcMsg =
+              new ChannelHandlerContextMsg((ByteBuf) msg, ctx, receiveTs);
           LinkedBlockingQueue<ChannelHandlerContextMsg> queue = rpcQueues.get(mtxPart);
           if (queue == null) {
             queue = new LinkedBlockingQueue<>();
@@ -318,10 +336,10 @@ public class WorkerPool {
             }
           }
         } else {
-          getWorker(ctx).execute(new Processor((ByteBuf) msg, ctx));
+          getWorker(ctx).execute(new Processor((ByteBuf) msg, ctx, receiveTs));
         }
       } else {
-        handle(ctx, msg, true);
+        handle(ctx, msg, true, receiveTs);
       }
     } catch (Throwable x) {
       LOG.error("handle rpc " + seqId + " failed ", x);
@@ -360,7 +378,7 @@ public class WorkerPool {
         item = tmp.poll();
       }
       while (item != null) {
-        handle(item.getCtx(), item.getMessage(), false);
+        handle(item.getCtx(), item.getMessage(), false, item.getReceiveTs());
         synchronized (tmp) {
           item = tmp.poll();
         }
@@ -402,15 +420,21 @@ public class WorkerPool {
      */
     private ChannelHandlerContext ctx;
 
-    Processor(ByteBuf message, ChannelHandlerContext ctx) {
+    /**
+     * Request received time in nanoseconds
+     */
+    private final long receiveTs;
+
+    Processor(ByteBuf message, ChannelHandlerContext ctx, long receiveTs) {
       this.message = message;
       this.ctx = ctx;
+      this.receiveTs = receiveTs;
     }
 
     @Override
     public void run() {
       try {
-        handle(ctx, message, false);
+        handle(ctx, message, false, receiveTs);
         message = null;
         ctx = null;
       } catch (Throwable x) {
@@ -459,7 +483,7 @@ public class WorkerPool {
               return;
             }
 
-            handle(msg.getCtx(), msg.getMessage(), true);
+            handle(msg.getCtx(), msg.getMessage(), true, msg.getReceiveTs());
           } catch (InterruptedException e) {
             if (stopped.get()) {
               LOG.warn("No-lock rpc message queue is interrupted");
@@ -479,19 +503,9 @@ public class WorkerPool {
   class Sender extends Thread {
 
     /**
-     * Client ID
-     */
-    private int clientId;
-
-    /**
-     * Request seq id
+     * Send result listener, it contains the request information
      */
-    private int seqId;
-
-    /**
-     * Request type
-     */
-    private TransportMethod method;
+    private final SendListener listener;
 
     /**
      * Response
@@ -505,11 +519,8 @@ public class WorkerPool {
 
     public String uuid;
 
-    Sender(int clientId, int seqId, TransportMethod method, ChannelHandlerContext ctx,
-        Object result) {
-      this.clientId = clientId;
-      this.seqId = seqId;
-      this.method = method;
+    Sender(ChannelHandlerContext ctx, Object result, SendListener listener) {
+      this.listener = listener;
       this.result = result;
       this.ctx = ctx;
     }
@@ -517,7 +528,7 @@ public class WorkerPool {
     @Override
     public void run() {
       try {
-        send(clientId, seqId, method, ctx, result);
+        send(ctx, result, listener);
         result = null;
         ctx = null;
       } catch (Throwable x) {
@@ -563,16 +574,60 @@ public class WorkerPool {
     return true;
   }
 
+  /**
+   * Listener of the response sending, it counts the sending result and records the rpc latencies
+   */
+  class SendListener implements GenericFutureListener<Future<? super Void>> {
+
+    private final int clientId;
+    private final int seqId;
+    private final TransportMethod method;
+    private final int matrixId;
+    private final long enqueueTime;
+    private final long lockWaitTime;
+    private final long handleTime;
+    private final long serializeTime;
+    private volatile long sendStartTs;
+
+    SendListener(int clientId, int seqId, TransportMethod method, int matrixId, long enqueueTime,
+        long lockWaitTime, long handleTime, long serializeTime) {
+      this.clientId = clientId;
+      this.seqId = seqId;
+      this.method = method;
+      this.matrixId = matrixId;
+      this.enqueueTime = enqueueTime;
+      this.lockWaitTime = lockWaitTime;
+      this.handleTime = handleTime;
+      this.serializeTime = serializeTime;
+    }
+
+    @Override
+    public void operationComplete(Future<? super Void> future) throws Exception {
+      if (isDataRequest(method)) {
+        if (future.isSuccess()) {
+          normal.incrementAndGet();
+          transportMetrics.record(clientId, seqId, method, matrixId, enqueueTime, lockWaitTime,
+              handleTime, serializeTime, System.nanoTime() - sendStartTs);
+        } else {
+          LOG.error("send response of request " + requestToString(clientId, seqId) + " failed ");
+          network.incrementAndGet();
+        }
+        context.getRunningContext().after(clientId, seqId);
+      }
+    }
+  }
+
   /**
    * Send back the result
    *
-   * @param clientId PSClient id
-   * @param seqId RPC seq id
    * @param ctx channel context
    * @param result rpc result
+   * @param listener send result listener
    */
-  private void send(int clientId, int seqId, TransportMethod method, ChannelHandlerContext ctx,
-      Object result) {
+  private void send(ChannelHandlerContext ctx, Object result, SendListener listener) {
+    int clientId = listener.clientId;
+    int seqId = listener.seqId;
+    TransportMethod method = listener.method;
     Channel ch = ctx.channel();
     try {
       AtomicBoolean channelInUse = channelStates.get(ctx);
@@ -589,20 +644,7 @@ public class WorkerPool {
       long startTs = System.currentTimeMillis();
       while (true) {
         if (channelInUse.compareAndSet(false, true)) {
-          ctx.writeAndFlush(result).addListener(new GenericFutureListener<Future<? super Void>>() {
-            @Override
-            public void operationComplete(Future<? super Void> future) throws Exception {
-              if (isDataRequest(method)) {
-                if (future.isSuccess()) {
-                  normal.incrementAndGet();
-                } else {
-                  LOG.error("send response of request " + requestToString(clientId, seqId) + " failed ");
-                  network.incrementAndGet();
-                }
-                context.getRunningContext().after(clientId, seqId);
-              }
-            }
-          });
+          ctx.writeAndFlush(result).addListener(listener);
           channelInUse.set(false);
           return;
         }
@@ -624,13 +666,15 @@ public class WorkerPool {
    * @param ctx channel context
    * @param result rpc result
    * @param useSync true means send it directly, false means send it use sender
+   * @param listener send result listener
    */
-  private void sendResult(int clientId, int seqId, TransportMethod method,
-      ChannelHandlerContext ctx, Object result, boolean useSync) {
+  private void sendResult(ChannelHandlerContext ctx, Object result, boolean useSync,
+      SendListener listener) {
+    listener.sendStartTs = System.nanoTime();
     if (useSync) {
-      send(clientId, seqId, method, ctx, result);
+      send(ctx, result, listener);
     } else {
-      getSender(ctx).execute(new Sender(clientId, seqId, method, ctx, result));
+      getSender(ctx).execute(new Sender(ctx, result, listener));
     }
     //if (!useSync && useAyncHandler) {
     //  senderPool.execute(new Sender(clientId, seqId, method, ctx, result));
@@ -645,14 +689,20 @@ public class WorkerPool {
    * @param ctx channel context
    * @param msg rpc request
    * @param useSync true means handle it directly, false means handle it use Processor
+   * @param receiveTs request received time in nanoseconds
    */
-  private void handle(ChannelHandlerContext ctx, Object msg, boolean useSync) {
+  private void handle(ChannelHandlerContext ctx, Object msg, boolean useSync, long receiveTs) {
+    long startTs = System.nanoTime();
+    TransportMetrics.takeLockWait();
+
     ByteBuf in = (ByteBuf) msg;
     int clientId = in.readInt();
     int tokenNum = in.readInt();
     int seqId = in.readInt();
     int methodId = in.readInt();
     TransportMethod method = TransportMethod.typeIdToTypeMap.get(methodId);
+    int matrixId = getMatrixId(method, in);
+    long handleEndTs;
     Response response = null;
     ByteBuf out = null;
     if (method == TransportMethod.INDEX_GET_ROW) {
@@ -666,6 +716,7 @@ public class WorkerPool {
           in.release();
         }
       }
+      handleEndTs = System.nanoTime();
     } else if (method == TransportMethod.INDEX_GET_ROWS) {
       try {
         out = handleIndexGetRows(clientId, seqId, in);
@@ -677,6 +728,7 @@ public class WorkerPool {
           in.release();
         }
       }
+      handleEndTs = System.nanoTime();
     } else {
       // 1. handle the rpc, get the response
       try {
@@ -689,6 +741,7 @@ public class WorkerPool {
           in.release();
         }
       }
+      handleEndTs = System.nanoTime();
 
       // 2. Serialize the response
       if (response != null) {
@@ -702,13 +755,48 @@ public class WorkerPool {
 
     // Send the serialized response
     if (out != null) {
-      sendResult(clientId, seqId, method, ctx, out, useSync);
+      // The responses of index get rpcs are serialized when they are handled
+      long serializeEndTs = System.nanoTime();
+      long lockWaitTs = TransportMetrics.takeLockWait();
+      sendResult(ctx, out, useSync,
+          new SendListener(clientId, seqId, method, matrixId, startTs - receiveTs, lockWaitTs,
+              handleEndTs - startTs - lockWaitTs, serializeEndTs - handleEndTs));
     } else {
       runningContext.after(clientId, seqId);
       return;
     }
   }
 
+  /**
+   * Get the matrix id of a partition rpc without moving the reader index, the partition key is
+   * after the comeFromPs flag, clock and token number
+   *
+   * @param method rpc type
+   * @param in serialized rpc request without the head
+   * @return matrix id, -1 if the rpc is not for a matrix partition
+   */
+  private int getMatrixId(TransportMethod method, ByteBuf in) {
+    switch (method) {
+      case GET_ROWSPLIT:
+      case GET_ROWSSPLIT:
+      case GET_PART:
+      case GET_PSF:
+      case UPDATE:
+      case UPDATE_PSF:
+      case INDEX_GET_ROW:
+      case INDEX_GET_ROWS:
+      case UPDATE_CLOCK:
+      case RECOVER_PART:
+        if (in.readableBytes() >= 13) {
+          return in.getInt(in.readerIndex() + 9);
+        }
+        return -1;
+
+      default:
+        return -1;
+    }
+  }
+
   private ByteBuf handleIndexGetRow(int clientId, int seqId, ByteBuf in) throws Throwable {
 
     ServerState state = runningContext.getState();
@@ -728,8 +816,10 @@ public class WorkerPool {
       IndexType indexType = IndexType.valueOf(in.readInt());
       ValueType valueType = getValueType(row.getRowType());
       int size = in.readInt();
+      row.recordIndexAccess(indexType, size, in);
       result = new IndexPartGetRowResponse(ResponseType.SUCCESS);
       result.setState(state);
+      result.setCredit(runningContext.grantCredit(clientId, state));
 
       ByteBuf resultBuf = null;
       try {
@@ -814,6 +904,7 @@ public class WorkerPool {
           context.getMatrixMetaManager().getMatrixMeta(request.getMatrixId()).getRowType());
       result = new IndexPartGetRowsResponse(ResponseType.SUCCESS);
       result.setState(state);
+      result.setCredit(runningContext.grantCredit(clientId, state));
 
       // Allocate result buffer
       ByteBuf resultBuf = null;
@@ -1065,6 +1156,9 @@ public class WorkerPool {
       //runningContext.printToken();
     }
     result.setState(state);
+    if (isDataRequest(method)) {
+      result.setCredit(runningContext.grantCredit(clientId, state));
+    }
     LOG.debug("handle request " + seqId + " use time=" + (System.currentTimeMillis() - startTs));
     return result;
   }
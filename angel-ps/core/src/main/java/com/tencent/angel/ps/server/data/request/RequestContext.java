@@ -65,14 +65,25 @@ public class RequestContext {
    */
   private int waitTimeTicks;
 
+  /**
+   * First submit time in nanoseconds, it is kept when the request is retried
+   */
   private volatile long submitStartTs = -1L;
 
   private volatile long getChannelStartTs = -1L;
 
+  /**
+   * Serialize start time in nanoseconds
+   */
   private volatile long serializeStartTs = -1L;
 
   private volatile long sendStartTs = -1L;
 
+  /**
+   * Send start time in nanoseconds
+   */
+  private volatile long sendStartNanoTs = -1L;
+
   /**
    * Buf that save the serialized request
    */
@@ -271,6 +282,62 @@ public class RequestContext {
     return sendStartTs;
   }
 
+  /**
+   * Set first submit time, it is only set once
+   *
+   * @param ts submit time in nanoseconds
+   */
+  public void setSubmitStartTs(long ts) {
+    if (submitStartTs < 0) {
+      submitStartTs = ts;
+    }
+  }
+
+  /**
+   * Get first submit time
+   *
+   * @return submit time in nanoseconds
+   */
+  public long getSubmitStartTs() {
+    return submitStartTs;
+  }
+
+  /**
+   * Set serialize start time
+   *
+   * @param ts serialize start time in nanoseconds
+   */
+  public void setSerializeStartTs(long ts) {
+    this.serializeStartTs = ts;
+  }
+
+  /**
+   * Get serialize start time
+   *
+   * @return serialize start time in nanoseconds
+   */
+  public long getSerializeStartTs() {
+    return serializeStartTs;
+  }
+
+  /**
+   * Set send start time
+   *
+   * @param ts send start time in nanoseconds
+   */
+  public void setSendStartNanoTs(long ts) {
+    this.sendStartNanoTs = ts;
+  }
+
+  /**
+   * Get send start time
+   *
+   * @return send start time in nanoseconds
+   */
+  public long getSendStartNanoTs() {
+    return sendStartNanoTs;
+  }
+
   /**
    * Reset context
    */
@@ -47,6 +47,11 @@ public class Response implements Serialize {
    */
   private String detail;
 
+  /**
+   * Credit bytes granted to the client, the client spends them on the following requests
+   */
+  private int credit;
+
   //public String uuid;
 
   /**
@@ -79,6 +84,7 @@ public class Response implements Serialize {
   @Override public void serialize(ByteBuf buf) {
     buf.writeInt(responseType.getTypeId());
     buf.writeInt(state.getTypeId());
+    buf.writeInt(credit);
     try {
       if (detail != null && !detail.isEmpty()) {
         byte[] serializedErrMsg = detail.getBytes("utf-8");
@@ -95,6 +101,7 @@ public class Response implements Serialize {
   @Override public void deserialize(ByteBuf buf) {
     responseType = ResponseType.valueOf(buf.readInt());
     state = ServerState.valueOf(buf.readInt());
+    credit = buf.readInt();
     int len = buf.readInt();
     if (len != 0) {
       byte[] detailData = new byte[len];
@@ -109,7 +116,7 @@ public class Response implements Serialize {
   }
 
   @Override public int bufferLen() {
-    return 4;
+    return 16;
   }
 
   /**
@@ -172,8 +179,26 @@ public class Response implements Serialize {
     this.state = state;
   }
 
+  /**
+   * Get the granted credit bytes
+   *
+   * @return granted credit bytes
+   */
+  public int getCredit() {
+    return credit;
+  }
+
+  /**
+   * Set the granted credit bytes
+   *
+   * @param credit granted credit bytes
+   */
+  public void setCredit(int credit) {
+    this.credit = credit;
+  }
+
   @Override public String toString() {
-    return "Response{" + "state=" + state + ", responseType=" + responseType + ", detail='" + detail
-      + '\'' + '}';
+    return "Response{" + "state=" + state + ", responseType=" + responseType + ", credit=" + credit
+      + ", detail='" + detail + '\'' + '}';
   }
 }
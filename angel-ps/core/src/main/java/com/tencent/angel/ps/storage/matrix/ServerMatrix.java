@@ -25,10 +25,12 @@ import com.tencent.angel.ml.matrix.PartitionMeta;
 import com.tencent.angel.ml.matrix.RowType;
 import com.tencent.angel.ps.PSContext;
 import com.tencent.angel.ps.storage.partition.IServerPartition;
+import com.tencent.angel.ps.storage.partition.RowBasedPartition;
 import com.tencent.angel.ps.storage.partition.storage.IServerPartitionStorage;
 import com.tencent.angel.ps.storage.partition.ServerPartition;
 import com.tencent.angel.ps.storage.partition.ServerPartitionFactory;
 import com.tencent.angel.ps.storage.vector.element.IElement;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -128,6 +130,14 @@ public class ServerMatrix {
               matrixMeta.getEstSparsity());
       partitionMaps.put(partMeta.getPartId(), part);
       part.init();
+
+      // Each partition has its own element policy, it is shared by the rows in the partition
+      if (part instanceof RowBasedPartition) {
+        ElementPolicy policy = ElementPolicy.create(matrixMeta);
+        if (policy != null) {
+          part.setElementPolicy(policy);
+        }
+      }
       part.setState(PartitionState.READ_AND_WRITE);
     }
   }
@@ -170,6 +180,18 @@ public class ServerMatrix {
     return partitionMaps;
   }
 
+  /**
+   * Give the elements that are stored in the partitions but not tracked by their element policies
+   * an update time. It should be called after the elements are put into the rows outside the update
+   * path, e.g. after the matrix is loaded from a model or snapshot
+   */
+  public void trackElements() {
+    for (ServerPartition part : partitionMaps.values()) {
+      if (part instanceof RowBasedPartition) {
+        ((RowBasedPartition) part).trackElements();
+      }
+    }
+  }
 
   public void startServering() {
     for (ServerPartition part : partitionMaps.values()) {
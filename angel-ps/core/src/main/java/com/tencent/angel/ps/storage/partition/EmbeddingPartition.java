@@ -0,0 +1,88 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.partition;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ps.server.data.request.InitFunc;
+import com.tencent.angel.ps.server.data.request.UpdateOp;
+import com.tencent.angel.ps.storage.partition.storage.EmbeddingStorage;
+
+/**
+ * Embedding table partition, it stores the values of a key in all rows of the partition
+ * contiguously, see {@link EmbeddingStorage}. Set it as the partition class of a matrix with
+ * {@link com.tencent.angel.ml.matrix.MatrixContext#setPartitionClass}, the matrix should only be
+ * partitioned by column so a partition holds all rows of the keys in it.
+ */
+public class EmbeddingPartition extends UserDefinePartition {
+
+  public EmbeddingPartition(PartitionKey partKey, RowType rowType, double estSparsity,
+      EmbeddingStorage storage) {
+    super(partKey, rowType, estSparsity, storage);
+  }
+
+  public EmbeddingPartition() {
+    this(null, RowType.T_FLOAT_SPARSE_LONGKEY, 1.0, null);
+  }
+
+  @Override
+  public EmbeddingStorage getStorage() {
+    return (EmbeddingStorage) super.getStorage();
+  }
+
+  @Override
+  public void init() {
+    if (getStorage() == null) {
+      setStorage(new EmbeddingStorage(partKey.getStartRow(),
+          partKey.getEndRow() - partKey.getStartRow()));
+    }
+    getStorage().init();
+  }
+
+  @Override
+  public void reset() {
+    getStorage().reset();
+  }
+
+  /**
+   * Get the values of the keys in rows [rowId, rowId + rowNum)
+   *
+   * @param keys keys
+   * @param rowId first row id
+   * @param rowNum row number
+   * @param func init function for the keys that do not exist, it can be null
+   * @return values, the values of keys[i] are in [i * rowNum, (i + 1) * rowNum)
+   */
+  public float[] get(long[] keys, int rowId, int rowNum, InitFunc func) {
+    return getStorage().get(keys, rowId, rowNum, func);
+  }
+
+  /**
+   * Update the values of the keys in rows [rowId, rowId + rowNum)
+   *
+   * @param keys keys
+   * @param rowId first row id
+   * @param rowNum row number
+   * @param values update values, the values of keys[i] are in [i * rowNum, (i + 1) * rowNum)
+   * @param op update method
+   */
+  public void update(long[] keys, int rowId, int rowNum, float[] values, UpdateOp op) {
+    getStorage().update(keys, rowId, rowNum, values, op);
+  }
+}
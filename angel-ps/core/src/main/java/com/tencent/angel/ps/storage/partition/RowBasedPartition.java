@@ -25,6 +25,7 @@ import com.tencent.angel.ps.storage.partition.op.IServerRowsStorageOp;
 import com.tencent.angel.ps.storage.partition.storage.ServerRowsStorage;
 import com.tencent.angel.ps.storage.vector.ServerRow;
 import com.tencent.angel.ps.storage.vector.element.IElement;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -109,6 +110,61 @@ public class RowBasedPartition extends ServerPartition implements IServerRowsSto
     }
   }
 
+  /**
+   * Set the element policy to the partition and all rows in it, the rows share the policy
+   *
+   * @param elementPolicy element admission and eviction policy
+   */
+  @Override
+  public void setElementPolicy(ElementPolicy elementPolicy) {
+    super.setElementPolicy(elementPolicy);
+    Iterator<Entry<Integer, ServerRow>> iter = iterator();
+    while (iter.hasNext()) {
+      iter.next().getValue().setElementPolicy(elementPolicy);
+    }
+    trackElements();
+  }
+
+  /**
+   * Remove the elements from all rows of the partition
+   *
+   * @param indices element indices
+   */
+  public void removeElements(long[] indices) {
+    Iterator<Entry<Integer, ServerRow>> iter = iterator();
+    while (iter.hasNext()) {
+      ServerRow row = iter.next().getValue();
+      row.startWrite();
+      try {
+        row.remove(indices);
+      } finally {
+        row.endWrite();
+      }
+    }
+  }
+
+  /**
+   * Give the elements that are stored in the rows but not tracked by the element policy an update
+   * time, e.g. the elements loaded from a checkpoint, so they can be evicted. It copies the keys
+   * of every row, so call it only after elements are put into the rows outside the update path
+   * rather than before each eviction check
+   */
+  public void trackElements() {
+    if (elementPolicy == null) {
+      return;
+    }
+    Iterator<Entry<Integer, ServerRow>> iter = iterator();
+    while (iter.hasNext()) {
+      ServerRow row = iter.next().getValue();
+      row.startRead();
+      try {
+        row.trackElements();
+      } finally {
+        row.endRead();
+      }
+    }
+  }
+
   @Override
   public int getRowNum() {
     return getRowsStorage().getRowNum();
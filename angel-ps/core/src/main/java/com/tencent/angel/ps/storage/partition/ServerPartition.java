@@ -26,6 +26,7 @@ import com.tencent.angel.ps.server.data.request.UpdateOp;
 import com.tencent.angel.ps.storage.matrix.PartitionState;
 import com.tencent.angel.ps.storage.partition.storage.IServerPartitionStorage;
 import com.tencent.angel.ps.storage.partition.storage.ServerPartitionStorageFactory;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy;
 import io.netty.buffer.ByteBuf;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -71,6 +72,11 @@ public abstract class ServerPartition implements IServerPartition {
    */
   private IServerPartitionStorage storage;
 
+  /**
+   * Element admission and eviction policy, null means not enabled
+   */
+  protected volatile ElementPolicy elementPolicy;
+
   /**
    * Create a new Server partition,include load rows.
    *
@@ -97,6 +103,14 @@ public abstract class ServerPartition implements IServerPartition {
     this(null, RowType.T_DOUBLE_DENSE, 1.0, null);
   }
 
+  public ElementPolicy getElementPolicy() {
+    return elementPolicy;
+  }
+
+  public void setElementPolicy(ElementPolicy elementPolicy) {
+    this.elementPolicy = elementPolicy;
+  }
+
 
   @Override
   public void update(UpdateFunc func, PartitionUpdateParam partParam) {
@@ -21,6 +21,8 @@ import com.tencent.angel.PartitionKey;
 import com.tencent.angel.ps.server.data.request.UpdateOp;
 import com.tencent.angel.ps.storage.partition.op.ICSRStorageOp;
 import io.netty.buffer.ByteBuf;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Base class of CSR Storage
@@ -100,6 +102,64 @@ public abstract class CSRStorage extends ServerPartitionStorage implements ICSRS
     return super.bufferLen() + 4 + rowOffsets.length * 4 + 4 + columnIndices.length * 4;
   }
 
+  /**
+   * Get the column indices (neighbors) of a batch of rows in one pass. The rows are visited in
+   * ascending order so the offsets and the column indices are read forward, and the results are
+   * written into one array instead of an array per row.
+   *
+   * @param rowIds   row ids, the row id is the column of the partition key (node id)
+   * @param startCol start column of the partition
+   * @param count    max column index number of a row, if a row has more, a random range of
+   *                 count indices is returned, all indices are returned if count <= 0
+   * @param r        random generator for the range start position
+   * @param offsets  output: the indices of rowIds[i] are in [offsets[i], offsets[i + 1]) of the
+   *                 result, its length must be rowIds.length + 1
+   * @return the column indices of all rows
+   */
+  public int[] batchGet(int[] rowIds, int startCol, int count, Random r, int[] offsets) {
+    int num = rowIds.length;
+
+    // Sort the positions by row: high 32 bits is the row index, low 32 bits is the position
+    long[] sortedPos = new long[num];
+    offsets[0] = 0;
+    for (int i = 0; i < num; i++) {
+      int index = rowIds[i] - startCol;
+      sortedPos[i] = ((long) index << 32) | i;
+      int len = rowOffsets[index + 1] - rowOffsets[index];
+      if (count > 0 && len > count) {
+        len = count;
+      }
+      offsets[i + 1] = offsets[i] + len;
+    }
+    Arrays.sort(sortedPos);
+
+    int[] results = new int[offsets[num]];
+    for (int i = 0; i < num; i++) {
+      int index = (int) (sortedPos[i] >>> 32);
+      int pos = (int) sortedPos[i];
+      int rowStart = rowOffsets[index];
+      int len = rowOffsets[index + 1] - rowStart;
+      int dest = offsets[pos];
+      if (len == 0) {
+        continue;
+      } else if (count <= 0 || len <= count) {
+        System.arraycopy(columnIndices, rowStart, results, dest, len);
+      } else {
+        // Copy a range of count indices, the copy position is random
+        int startPos = Math.abs(r.nextInt()) % len;
+        if (startPos + count <= len) {
+          System.arraycopy(columnIndices, rowStart + startPos, results, dest, count);
+        } else {
+          System.arraycopy(columnIndices, rowStart + startPos, results, dest, len - startPos);
+          System.arraycopy(columnIndices, rowStart, results, dest + len - startPos,
+              count - (len - startPos));
+        }
+      }
+    }
+
+    return results;
+  }
+
   public int[] getRowOffsets() {
     return rowOffsets;
   }
@@ -0,0 +1,309 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.partition.storage;
+
+import com.tencent.angel.ps.server.data.request.InitFunc;
+import com.tencent.angel.ps.server.data.request.UpdateOp;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedding table storage. The values of a key in all rows of the partition are stored together:
+ * the key is mapped to a slot of a float slab, and the slot holds one value for each row. So the
+ * rows of an embedding matrix (the factors, the gradients and the optimizer states) of a key are
+ * read or written with one hash lookup and a sequential copy.
+ */
+public class EmbeddingStorage extends UserDefinePartitionStorage {
+
+  private static final int INIT_CAPACITY = 64;
+
+  /**
+   * Value number of a key, it is the row number of the partition
+   */
+  private int width;
+
+  /**
+   * Key to slot index map
+   */
+  private Long2IntOpenHashMap keyToSlot;
+
+  /**
+   * Values of all keys, the values of slot i are in [i * width, (i + 1) * width)
+   */
+  private float[] slab;
+
+  /**
+   * Used slot number
+   */
+  private int size;
+
+  private final ReentrantReadWriteLock lock;
+
+  public EmbeddingStorage(int rowIdOffset, int width) {
+    super(rowIdOffset);
+    this.width = width;
+    this.lock = new ReentrantReadWriteLock();
+  }
+
+  public EmbeddingStorage() {
+    this(-1, 0);
+  }
+
+  @Override
+  public void init() {
+    keyToSlot = new Long2IntOpenHashMap(INIT_CAPACITY);
+    keyToSlot.defaultReturnValue(-1);
+    slab = new float[INIT_CAPACITY * width];
+    size = 0;
+  }
+
+  @Override
+  public void reset() {
+    lock.writeLock().lock();
+    try {
+      keyToSlot.clear();
+      Arrays.fill(slab, 0, size * width, 0.0f);
+      size = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void update(ByteBuf buf, UpdateOp op) {
+    throw new UnsupportedOperationException("Embedding storage dose not support pipeline update now");
+  }
+
+  @Override
+  public long getElemNum() {
+    return (long) size * width;
+  }
+
+  /**
+   * Get the values of the keys in rows [rowId, rowId + rowNum)
+   *
+   * @param keys keys
+   * @param rowId first row id
+   * @param rowNum row number
+   * @param func init function for the keys that do not exist, the values of the missing keys are 0
+   * if it is null
+   * @return values, the values of keys[i] are in [i * rowNum, (i + 1) * rowNum)
+   */
+  public float[] get(long[] keys, int rowId, int rowNum, InitFunc func) {
+    int offset = checkRows(rowId, rowNum);
+    float[] values = new float[keys.length * rowNum];
+    if (func != null) {
+      lock.writeLock().lock();
+      try {
+        for (int i = 0; i < keys.length; i++) {
+          int slot = keyToSlot.get(keys[i]);
+          if (slot < 0) {
+            slot = addKey(keys[i]);
+            int start = slot * width + offset;
+            for (int j = 0; j < rowNum; j++) {
+              slab[start + j] = (float) func.action();
+            }
+          }
+          System.arraycopy(slab, slot * width + offset, values, i * rowNum, rowNum);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } else {
+      lock.readLock().lock();
+      try {
+        for (int i = 0; i < keys.length; i++) {
+          int slot = keyToSlot.get(keys[i]);
+          if (slot >= 0) {
+            System.arraycopy(slab, slot * width + offset, values, i * rowNum, rowNum);
+          }
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Update the values of the keys in rows [rowId, rowId + rowNum), the keys that do not exist are
+   * added
+   *
+   * @param keys keys
+   * @param rowId first row id
+   * @param rowNum row number
+   * @param values update values, the values of keys[i] are in [i * rowNum, (i + 1) * rowNum)
+   * @param op update method
+   */
+  public void update(long[] keys, int rowId, int rowNum, float[] values, UpdateOp op) {
+    int offset = checkRows(rowId, rowNum);
+    lock.writeLock().lock();
+    try {
+      for (int i = 0; i < keys.length; i++) {
+        int slot = keyToSlot.get(keys[i]);
+        if (slot < 0) {
+          slot = addKey(keys[i]);
+        }
+        int start = slot * width + offset;
+        int valueStart = i * rowNum;
+        if (op == UpdateOp.PLUS) {
+          for (int j = 0; j < rowNum; j++) {
+            slab[start + j] += values[valueStart + j];
+          }
+        } else {
+          System.arraycopy(values, valueStart, slab, start, rowNum);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private int checkRows(int rowId, int rowNum) {
+    int offset = rowId - rowIdOffset;
+    if (offset < 0 || rowNum < 0 || offset + rowNum > width) {
+      throw new IndexOutOfBoundsException(
+          "rows [" + rowId + ", " + (rowId + rowNum) + ") are out of the partition rows ["
+              + rowIdOffset + ", " + (rowIdOffset + width) + ")");
+    }
+    return offset;
+  }
+
+  private int addKey(long key) {
+    if ((size + 1) * width > slab.length) {
+      slab = Arrays.copyOf(slab, Math.max(slab.length * 2, (size + 1) * width));
+    }
+    keyToSlot.put(key, size);
+    return size++;
+  }
+
+  /**
+   * Get key number
+   *
+   * @return key number
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get value number of a key
+   *
+   * @return value number of a key
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public void serialize(ByteBuf output) {
+    super.serialize(output);
+    lock.readLock().lock();
+    try {
+      output.writeInt(width);
+      output.writeInt(size);
+      ObjectIterator<Long2IntOpenHashMap.Entry> iter = keyToSlot.long2IntEntrySet().fastIterator();
+      while (iter.hasNext()) {
+        Long2IntOpenHashMap.Entry entry = iter.next();
+        output.writeLong(entry.getLongKey());
+        int start = entry.getIntValue() * width;
+        for (int i = 0; i < width; i++) {
+          output.writeFloat(slab[start + i]);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf input) {
+    super.deserialize(input);
+    width = input.readInt();
+    int keyNum = input.readInt();
+    initForKeys(keyNum);
+    for (int i = 0; i < keyNum; i++) {
+      keyToSlot.put(input.readLong(), i);
+      int start = i * width;
+      for (int j = 0; j < width; j++) {
+        slab[start + j] = input.readFloat();
+      }
+    }
+    size = keyNum;
+  }
+
+  @Override
+  public int bufferLen() {
+    return super.bufferLen() + 8 + size * (8 + 4 * width);
+  }
+
+  @Override
+  public void serialize(DataOutputStream output) throws IOException {
+    super.serialize(output);
+    lock.readLock().lock();
+    try {
+      output.writeInt(width);
+      output.writeInt(size);
+      ObjectIterator<Long2IntOpenHashMap.Entry> iter = keyToSlot.long2IntEntrySet().fastIterator();
+      while (iter.hasNext()) {
+        Long2IntOpenHashMap.Entry entry = iter.next();
+        output.writeLong(entry.getLongKey());
+        int start = entry.getIntValue() * width;
+        for (int i = 0; i < width; i++) {
+          output.writeFloat(slab[start + i]);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void deserialize(DataInputStream input) throws IOException {
+    super.deserialize(input);
+    width = input.readInt();
+    int keyNum = input.readInt();
+    initForKeys(keyNum);
+    for (int i = 0; i < keyNum; i++) {
+      keyToSlot.put(input.readLong(), i);
+      int start = i * width;
+      for (int j = 0; j < width; j++) {
+        slab[start + j] = input.readFloat();
+      }
+    }
+    size = keyNum;
+  }
+
+  @Override
+  public int dataLen() {
+    return bufferLen();
+  }
+
+  private void initForKeys(int keyNum) {
+    keyToSlot = new Long2IntOpenHashMap(Math.max(keyNum, INIT_CAPACITY));
+    keyToSlot.defaultReturnValue(-1);
+    slab = new float[Math.max(keyNum, INIT_CAPACITY) * width];
+  }
+}
@@ -24,6 +24,7 @@ import com.tencent.angel.ps.storage.partition.op.IServerRowsStorageOp;
 import com.tencent.angel.ps.storage.vector.ServerRow;
 import com.tencent.angel.ps.storage.vector.ServerRowFactory;
 import com.tencent.angel.ps.storage.vector.element.IElement;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy;
 import io.netty.buffer.ByteBuf;
 
 /**
@@ -87,11 +88,17 @@ public abstract class ServerRowsStorage extends ServerPartitionStorage implement
     int rowId;
     RowType rowType;
 
+    // The rows of a partition share the element policy, an element is admitted once per update
+    ElementPolicy.Admission admission = null;
     for (int i = 0; i < rowNum; i++) {
       rowId = buf.readInt();
       rowType = RowType.valueOf(buf.readInt());
       ServerRow row = getRow(rowId);
-      row.update(rowType, buf, op);
+      ElementPolicy policy = row.getElementPolicy();
+      if (admission == null && policy != null) {
+        admission = policy.newAdmission();
+      }
+      row.update(rowType, buf, op, admission);
     }
   }
 }
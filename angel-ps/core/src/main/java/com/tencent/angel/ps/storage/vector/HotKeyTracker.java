@@ -0,0 +1,170 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Approximate access counter of the keys of a row. The access numbers are counted by a count-min
+ * sketch, and the keys whose estimated number is not smaller than the current top-k threshold are
+ * kept as candidates. The counters are halved every time the hot keys are taken, so the hot key
+ * set follows the change of the access distribution.
+ */
+public class HotKeyTracker {
+
+  private static final int DEPTH = 4;
+  private static final long[] SEEDS =
+      {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+  /**
+   * Hot key number
+   */
+  private final int topK;
+
+  private final int widthMask;
+
+  private final AtomicIntegerArray counters;
+
+  /**
+   * Candidate hot keys and their estimated access numbers, guarded by this
+   */
+  private final Long2IntOpenHashMap candidates;
+
+  /**
+   * Minimum access number of a candidate
+   */
+  private volatile int threshold;
+
+  /**
+   * Create a hot key tracker
+   *
+   * @param topK hot key number
+   */
+  public HotKeyTracker(int topK) {
+    if (topK <= 0) {
+      throw new IllegalArgumentException("top k must be positive, but it is " + topK);
+    }
+    this.topK = topK;
+    // The width of each sketch row is a power of 2 and at least 16 times of the top k
+    int width = Integer.highestOneBit(Math.max(topK, 64) * 16 - 1) << 1;
+    this.widthMask = width - 1;
+    this.counters = new AtomicIntegerArray(DEPTH * width);
+    this.candidates = new Long2IntOpenHashMap(topK * 2);
+    this.threshold = 1;
+  }
+
+  /**
+   * Record an access of a key
+   *
+   * @param key key
+   */
+  public void record(long key) {
+    int estimate = Integer.MAX_VALUE;
+    for (int i = 0; i < DEPTH; i++) {
+      int count = counters.incrementAndGet(i * (widthMask + 1) + index(key, i));
+      if (count < estimate) {
+        estimate = count;
+      }
+    }
+
+    if (estimate >= threshold) {
+      offer(key, estimate);
+    }
+  }
+
+  private int index(long key, int i) {
+    long h = (key ^ (key >>> 33)) * SEEDS[i];
+    h ^= h >>> 29;
+    return (int) h & widthMask;
+  }
+
+  private synchronized void offer(long key, int estimate) {
+    candidates.put(key, estimate);
+    if (candidates.size() >= topK * 2) {
+      prune();
+    }
+  }
+
+  /**
+   * Keep the top k candidates, the threshold is raised to the minimum count of them
+   */
+  private void prune() {
+    int[] counts = candidates.values().toIntArray();
+    Arrays.sort(counts);
+    int newThreshold = counts[Math.max(0, counts.length - topK)];
+    ObjectIterator<Long2IntMap.Entry> iter = candidates.long2IntEntrySet().fastIterator();
+    while (iter.hasNext()) {
+      if (iter.next().getIntValue() < newThreshold) {
+        iter.remove();
+      }
+    }
+    threshold = newThreshold;
+  }
+
+  /**
+   * Get the hot keys, the access numbers are halved after it
+   *
+   * @return at most top k keys, sorted by the access number in descending order
+   */
+  public synchronized long[] takeHotKeys() {
+    int num = candidates.size();
+    long[] keys = new long[num];
+    final int[] counts = new int[num];
+    ObjectIterator<Long2IntMap.Entry> iter = candidates.long2IntEntrySet().fastIterator();
+    for (int i = 0; iter.hasNext(); i++) {
+      Long2IntMap.Entry entry = iter.next();
+      keys[i] = entry.getLongKey();
+      counts[i] = entry.getIntValue();
+    }
+
+    Integer[] order = new Integer[num];
+    for (int i = 0; i < num; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Integer.compare(counts[b], counts[a]));
+    long[] hotKeys = new long[Math.min(num, topK)];
+    for (int i = 0; i < hotKeys.length; i++) {
+      hotKeys[i] = keys[order[i]];
+    }
+
+    decay();
+    return hotKeys;
+  }
+
+  private void decay() {
+    for (int i = 0; i < counters.length(); i++) {
+      counters.set(i, counters.get(i) >>> 1);
+    }
+    ObjectIterator<Long2IntMap.Entry> iter = candidates.long2IntEntrySet().fastIterator();
+    while (iter.hasNext()) {
+      Long2IntMap.Entry entry = iter.next();
+      int count = entry.getIntValue() >>> 1;
+      if (count == 0) {
+        iter.remove();
+      } else {
+        entry.setValue(count);
+      }
+    }
+    threshold = Math.max(1, threshold >>> 1);
+  }
+}
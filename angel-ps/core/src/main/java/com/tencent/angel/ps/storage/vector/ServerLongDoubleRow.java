@@ -23,9 +23,12 @@ import com.tencent.angel.ml.math2.vector.LongDoubleVector;
 import com.tencent.angel.ml.matrix.RowType;
 import com.tencent.angel.ps.server.data.request.IndexType;
 import com.tencent.angel.ps.server.data.request.InitFunc;
+import com.tencent.angel.ps.server.data.request.UpdateOp;
 import com.tencent.angel.ps.storage.vector.func.DoubleElemUpdateFunc;
 import com.tencent.angel.ps.storage.vector.op.ILongDoubleOp;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy;
 import com.tencent.angel.ps.storage.vector.storage.LongDoubleStorage;
+import com.tencent.angel.ps.storage.vector.storage.LongDoubleVectorStorage;
 import io.netty.buffer.ByteBuf;
 
 /**
@@ -172,4 +175,60 @@ public class ServerLongDoubleRow extends ServerBasicTypeRow implements ILongDoub
   public void elemUpdate(DoubleElemUpdateFunc func) {
     getStorage().elemUpdate(func);
   }
+
+  @Override
+  public void update(RowType updateType, ByteBuf buf, UpdateOp op) {
+    ElementPolicy policy = elementPolicy;
+    update(updateType, buf, op, policy == null ? null : policy.newAdmission());
+  }
+
+  @Override
+  public void update(RowType updateType, ByteBuf buf, UpdateOp op,
+      ElementPolicy.Admission admission) {
+    if (admission == null) {
+      super.update(updateType, buf, op);
+      return;
+    }
+
+    switch (updateType) {
+      case T_DOUBLE_SPARSE_LONGKEY:
+      case T_DOUBLE_SPARSE_LONGKEY_COMPONENT:
+      case T_DOUBLE_SPARSE:
+      case T_DOUBLE_SPARSE_COMPONENT:
+        break;
+
+      default:
+        super.update(updateType, buf, op);
+        return;
+    }
+
+    boolean longKey = updateType.isLongKey();
+    startWrite();
+    try {
+      int size = buf.readInt();
+      for (int i = 0; i < size; i++) {
+        // Indices in the update are relative to the start column of the partition
+        long index = (longKey ? buf.readLong() : buf.readInt()) + startCol;
+        double value = buf.readDouble();
+        if (admission.admit(index, exist(index))) {
+          if (op == UpdateOp.PLUS) {
+            addTo(index, value);
+          } else {
+            set(index, value);
+          }
+        }
+      }
+      updateRowVersion();
+    } finally {
+      endWrite();
+    }
+  }
+
+  @Override
+  public void trackElements() {
+    ElementPolicy policy = elementPolicy;
+    if (policy != null && getStorage() instanceof LongDoubleVectorStorage) {
+      policy.track(((LongDoubleVectorStorage) getStorage()).getIndices());
+    }
+  }
 }
@@ -22,14 +22,18 @@ import com.tencent.angel.common.Serialize;
 import com.tencent.angel.common.StreamSerialize;
 import com.tencent.angel.exception.WaitLockTimeOutException;
 import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ps.server.data.request.IndexType;
+import com.tencent.angel.ps.server.data.TransportMetrics;
 import com.tencent.angel.ps.server.data.request.UpdateOp;
 import com.tencent.angel.ps.storage.vector.op.GeneralOp;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy;
 import com.tencent.angel.ps.storage.vector.storage.IStorage;
 import com.tencent.angel.utils.StringUtils;
 import io.netty.buffer.ByteBuf;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.logging.Log;
@@ -58,11 +62,38 @@ public abstract class ServerRow implements GeneralOp {
   public static volatile transient boolean useAdaptiveKey = true;
   public static volatile transient boolean useAdaptiveStorage = true;
 
+  /**
+   * Hot key number tracked for each row, 0 means do not track the hot keys
+   */
+  public static volatile transient int hotKeyTopK = 0;
+
+  /**
+   * Only one in every hotKeySampleStep keys of an index get request is recorded
+   */
+  public static volatile transient int hotKeySampleStep = 8;
+
   /**
    * Row element storage
    */
   protected IStorage storage;
 
+  /**
+   * Element admission and eviction policy, null means all updates are applied and no element is
+   * evicted
+   */
+  protected volatile ElementPolicy elementPolicy;
+
+  /**
+   * Write number since the last storage check, it is only accessed with the write lock hold, see
+   * {@link ServerRowStorageAdapter}
+   */
+  transient int writeNum;
+
+  /**
+   * Access counter of the keys, it is created at the first index get if hot key tracking is enabled
+   */
+  private transient volatile HotKeyTracker hotKeyTracker;
+
   /**
    * Create a new Server row.
    *
@@ -219,6 +250,58 @@ public abstract class ServerRow implements GeneralOp {
     return clock;
   }
 
+  /**
+   * Record the keys of an index get request for hot key tracking, the reader index of the input
+   * buffer is not changed
+   *
+   * @param indexType key type
+   * @param indexSize key number
+   * @param in input buffer, the keys start at its reader index
+   */
+  public void recordIndexAccess(IndexType indexType, int indexSize, ByteBuf in) {
+    int topK = hotKeyTopK;
+    if (topK <= 0) {
+      return;
+    }
+
+    HotKeyTracker tracker = hotKeyTracker;
+    if (tracker == null) {
+      synchronized (this) {
+        tracker = hotKeyTracker;
+        if (tracker == null) {
+          tracker = new HotKeyTracker(topK);
+          hotKeyTracker = tracker;
+        }
+      }
+    }
+
+    int step = Math.max(1, hotKeySampleStep);
+    int start = in.readerIndex();
+    int i = step > 1 ? ThreadLocalRandom.current().nextInt(step) : 0;
+    if (indexType == IndexType.INT) {
+      for (; i < indexSize; i += step) {
+        tracker.record(in.getInt(start + i * 4));
+      }
+    } else {
+      for (; i < indexSize; i += step) {
+        tracker.record(in.getLong(start + i * 8));
+      }
+    }
+  }
+
+  /**
+   * Get the hot keys of this row
+   *
+   * @return hot keys, sorted by the access number in descending order
+   */
+  public long[] getHotKeys() {
+    HotKeyTracker tracker = hotKeyTracker;
+    if (tracker == null) {
+      return new long[0];
+    }
+    return tracker.takeHotKeys();
+  }
+
   /**
    * Reset the inner row
    */
@@ -235,6 +318,31 @@ public abstract class ServerRow implements GeneralOp {
     return storage;
   }
 
+  public ElementPolicy getElementPolicy() {
+    return elementPolicy;
+  }
+
+  public void setElementPolicy(ElementPolicy elementPolicy) {
+    this.elementPolicy = elementPolicy;
+  }
+
+  /**
+   * Remove the elements from the row, you must call startWrite before using this method
+   *
+   * @param indices element indices
+   */
+  @Override
+  public void remove(long[] indices) {
+    storage.remove(indices);
+  }
+
+  /**
+   * Give the stored elements that the element policy does not track yet an update time, you must
+   * call startRead before using this method. Only the rows that support the policy track elements.
+   */
+  public void trackElements() {
+  }
+
   @Override
   public int size() {
     return storage.size();
@@ -246,12 +354,20 @@ public abstract class ServerRow implements GeneralOp {
    * @param milliseconds maximum wait time in milliseconds
    */
   public void startWrite(long milliseconds) {
+    if (lock.writeLock().tryLock()) {
+      return;
+    }
+
+    // The lock is hold by others, count the wait time
+    long startTs = System.nanoTime();
     boolean ret;
     try {
       ret = lock.writeLock().tryLock(milliseconds, TimeUnit.MILLISECONDS);
     } catch (Throwable e) {
       throw new WaitLockTimeOutException(
           "wait write lock timeout " + StringUtils.stringifyException(e), milliseconds);
+    } finally {
+      TransportMetrics.addLockWait(System.nanoTime() - startTs);
     }
 
     if (!ret) {
@@ -279,12 +395,20 @@ public abstract class ServerRow implements GeneralOp {
    * @param milliseconds maximum wait time in milliseconds
    */
   public void startRead(long milliseconds) {
+    if (lock.readLock().tryLock()) {
+      return;
+    }
+
+    // The lock is hold by others, count the wait time
+    long startTs = System.nanoTime();
     boolean ret;
     try {
       ret = lock.readLock().tryLock(milliseconds, TimeUnit.MILLISECONDS);
     } catch (Throwable e) {
       throw new WaitLockTimeOutException(
           "wait read lock timeout " + StringUtils.stringifyException(e), milliseconds);
+    } finally {
+      TransportMetrics.addLockWait(System.nanoTime() - startTs);
     }
 
     if (!ret) {
@@ -296,6 +420,16 @@ public abstract class ServerRow implements GeneralOp {
    * Release write lock
    */
   public void endWrite() {
+    // Check the storage when the outermost write lock is released
+    if (ServerRowStorageAdapter.enable && lock.getWriteHoldCount() == 1
+        && ++writeNum >= ServerRowStorageAdapter.checkInterval) {
+      writeNum = 0;
+      try {
+        ServerRowStorageAdapter.adapt(this);
+      } catch (Throwable e) {
+        LOG.error("adapt storage for row " + rowId + " failed ", e);
+      }
+    }
     lock.writeLock().unlock();
   }
 
@@ -318,6 +452,21 @@ public abstract class ServerRow implements GeneralOp {
     }
   }
 
+  /**
+   * Pipeline update with the admission decisions of the partition update, the rows that support
+   * the element policy apply the decisions
+   *
+   * @param updateType update data storage method
+   * @param buf un-deserialized update data
+   * @param op update method
+   * @param admission admission decisions shared by the rows of the partition update, null means
+   * no element policy
+   */
+  public void update(RowType updateType, ByteBuf buf, UpdateOp op,
+      ElementPolicy.Admission admission) {
+    update(updateType, buf, op);
+  }
+
   /////////////////////////////////////////////////////////////////////////////////////////////////
   //////// network io method, for model transform
   /////////////////////////////////////////////////////////////////////////////////////////////////
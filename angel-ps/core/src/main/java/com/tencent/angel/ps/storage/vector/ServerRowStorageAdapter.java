@@ -0,0 +1,258 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.IntIntVector;
+import com.tencent.angel.ml.math2.vector.IntLongVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Online storage adaptation for the basic type rows. The storage of a row is chosen once at
+ * creation from the estimated element number, this class re-checks the row every
+ * {@link #checkInterval} writes and migrates it:
+ * <ul>
+ *   <li>hash sparse to dense if the fill ratio exceeds {@link ServerRow#sparseToDenseFactor}</li>
+ *   <li>dense to hash sparse if the non-zero ratio drops below {@link #denseToSparseFactor}, the
+ *   gap between the two factors avoids converting a row back and forth</li>
+ * </ul>
+ * The sorted storage is chosen by the user explicitly, so the rows of it are never converted. The
+ * check and the migration run in {@link ServerRow#endWrite()}, so the row write lock is hold.
+ */
+public class ServerRowStorageAdapter {
+
+  /**
+   * Enable online adaptation or not
+   */
+  public static volatile boolean enable = false;
+
+  /**
+   * Row write number between two checks
+   */
+  public static volatile int checkInterval = 1000;
+
+  /**
+   * Dense storage to sparse storage threshold, it should be smaller than
+   * {@link ServerRow#sparseToDenseFactor}
+   */
+  public static volatile float denseToSparseFactor = 0.1f;
+
+  private static final AtomicLong sparseToDenseNum = new AtomicLong(0);
+  private static final AtomicLong denseToSparseNum = new AtomicLong(0);
+
+  /**
+   * Check a row and migrate its storage if needed, the write lock of the row must be hold
+   *
+   * @param row server row
+   */
+  public static void adapt(ServerRow row) {
+    // The rows of dense type always use dense storage, only the sparse type rows are adapted
+    if (!(row instanceof ServerBasicTypeRow) || !row.getRowType().isSparse()
+        || row.elementPolicy != null) {
+      return;
+    }
+
+    Vector vector = ServerRowUtils.getVector(row);
+    long dim = vector.dim();
+    if (dim <= 0 || vector.isSorted()) {
+      return;
+    }
+
+    Vector adapted = null;
+    if (vector.isDense()) {
+      if (nnz(vector) < denseToSparseFactor * dim) {
+        adapted = toSparse(vector);
+        if (adapted != null) {
+          denseToSparseNum.incrementAndGet();
+        }
+      }
+    } else if (row.size() > ServerRow.sparseToDenseFactor * dim) {
+      adapted = toDense(vector);
+      if (adapted != null) {
+        sparseToDenseNum.incrementAndGet();
+      }
+    }
+
+    if (adapted != null) {
+      adapted.setMatrixId(vector.getMatrixId());
+      adapted.setRowId(vector.getRowId());
+      adapted.setClock(vector.getClock());
+      ServerRowUtils.setVector(row, adapted);
+    }
+  }
+
+  /**
+   * Convert a dense vector to a hash map based sparse vector, only the non-zero elements are kept
+   *
+   * @param vector dense vector
+   * @return sparse vector, null if the vector can not be converted
+   */
+  static Vector toSparse(Vector vector) {
+    int nnz = nnz(vector);
+    if (vector instanceof IntDoubleVector) {
+      IntDoubleVector v = (IntDoubleVector) vector;
+      int[] indices = new int[nnz];
+      double[] values = new double[nnz];
+      double[] data = v.getStorage().getValues();
+      for (int i = 0, k = 0; i < data.length; i++) {
+        if (data[i] != 0) {
+          indices[k] = i;
+          values[k++] = data[i];
+        }
+      }
+      return VFactory.sparseDoubleVector(v.getDim(), indices, values);
+    } else if (vector instanceof IntFloatVector) {
+      IntFloatVector v = (IntFloatVector) vector;
+      int[] indices = new int[nnz];
+      float[] values = new float[nnz];
+      float[] data = v.getStorage().getValues();
+      for (int i = 0, k = 0; i < data.length; i++) {
+        if (data[i] != 0) {
+          indices[k] = i;
+          values[k++] = data[i];
+        }
+      }
+      return VFactory.sparseFloatVector(v.getDim(), indices, values);
+    } else if (vector instanceof IntIntVector) {
+      IntIntVector v = (IntIntVector) vector;
+      int[] indices = new int[nnz];
+      int[] values = new int[nnz];
+      int[] data = v.getStorage().getValues();
+      for (int i = 0, k = 0; i < data.length; i++) {
+        if (data[i] != 0) {
+          indices[k] = i;
+          values[k++] = data[i];
+        }
+      }
+      return VFactory.sparseIntVector(v.getDim(), indices, values);
+    } else if (vector instanceof IntLongVector) {
+      IntLongVector v = (IntLongVector) vector;
+      int[] indices = new int[nnz];
+      long[] values = new long[nnz];
+      long[] data = v.getStorage().getValues();
+      for (int i = 0, k = 0; i < data.length; i++) {
+        if (data[i] != 0) {
+          indices[k] = i;
+          values[k++] = data[i];
+        }
+      }
+      return VFactory.sparseLongVector(v.getDim(), indices, values);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Convert a sparse vector to a dense vector, the long key vectors can not be dense
+   *
+   * @param vector sparse vector
+   * @return dense vector, null if the vector can not be converted
+   */
+  static Vector toDense(Vector vector) {
+    int size = (int) vector.getSize();
+    if (vector instanceof IntDoubleVector) {
+      IntDoubleVector v = (IntDoubleVector) vector;
+      double[] data = new double[v.getDim()];
+      int[] indices = v.getStorage().getIndices();
+      double[] values = v.getStorage().getValues();
+      for (int i = 0; i < size; i++) {
+        data[indices[i]] = values[i];
+      }
+      return VFactory.denseDoubleVector(data);
+    } else if (vector instanceof IntFloatVector) {
+      IntFloatVector v = (IntFloatVector) vector;
+      float[] data = new float[v.getDim()];
+      int[] indices = v.getStorage().getIndices();
+      float[] values = v.getStorage().getValues();
+      for (int i = 0; i < size; i++) {
+        data[indices[i]] = values[i];
+      }
+      return VFactory.denseFloatVector(data);
+    } else if (vector instanceof IntIntVector) {
+      IntIntVector v = (IntIntVector) vector;
+      int[] data = new int[v.getDim()];
+      int[] indices = v.getStorage().getIndices();
+      int[] values = v.getStorage().getValues();
+      for (int i = 0; i < size; i++) {
+        data[indices[i]] = values[i];
+      }
+      return VFactory.denseIntVector(data);
+    } else if (vector instanceof IntLongVector) {
+      IntLongVector v = (IntLongVector) vector;
+      long[] data = new long[v.getDim()];
+      int[] indices = v.getStorage().getIndices();
+      long[] values = v.getStorage().getValues();
+      for (int i = 0; i < size; i++) {
+        data[indices[i]] = values[i];
+      }
+      return VFactory.denseLongVector(data);
+    } else {
+      return null;
+    }
+  }
+
+  private static int nnz(Vector vector) {
+    if (!vector.isDense()) {
+      return (int) vector.getSize();
+    }
+
+    int nnz = 0;
+    if (vector instanceof IntDoubleVector) {
+      for (double value : ((IntDoubleVector) vector).getStorage().getValues()) {
+        if (value != 0) {
+          nnz++;
+        }
+      }
+    } else if (vector instanceof IntFloatVector) {
+      for (float value : ((IntFloatVector) vector).getStorage().getValues()) {
+        if (value != 0) {
+          nnz++;
+        }
+      }
+    } else if (vector instanceof IntIntVector) {
+      for (int value : ((IntIntVector) vector).getStorage().getValues()) {
+        if (value != 0) {
+          nnz++;
+        }
+      }
+    } else if (vector instanceof IntLongVector) {
+      for (long value : ((IntLongVector) vector).getStorage().getValues()) {
+        if (value != 0) {
+          nnz++;
+        }
+      }
+    } else {
+      nnz = (int) vector.getSize();
+    }
+    return nnz;
+  }
+
+  /**
+   * Get the conversion counters
+   *
+   * @return conversion counters
+   */
+  public static String report() {
+    return "storage conversion: sparseToDense=" + sparseToDenseNum.get() + ", denseToSparse="
+        + denseToSparseNum.get() + "\n";
+  }
+}
@@ -34,6 +34,13 @@ public interface GeneralOp extends DeepClone, Serialize, StreamSerialize {
    */
   void clear();
 
+  /**
+   * Remove the elements, sparse storage removes the keys and dense storage resets the values
+   *
+   * @param indices element indices
+   */
+  void remove(long[] indices);
+
   /**
    * Get the element number in the storage
    *
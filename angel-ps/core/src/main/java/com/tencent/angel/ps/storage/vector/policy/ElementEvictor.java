@@ -0,0 +1,176 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector.policy;
+
+import com.tencent.angel.conf.AngelConf;
+import com.tencent.angel.ps.PSContext;
+import com.tencent.angel.ps.storage.matrix.ServerMatrix;
+import com.tencent.angel.ps.storage.partition.RowBasedPartition;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Element evictor, it checks the element policies of all matrix partitions once in a while and
+ * removes the expired elements from the rows
+ */
+public class ElementEvictor {
+
+  private static final Log LOG = LogFactory.getLog(ElementEvictor.class);
+
+  /**
+   * PS context
+   */
+  private final PSContext context;
+
+  /**
+   * Check interval in milliseconds
+   */
+  private final int checkIntervalMs;
+
+  /**
+   * Evict dispatcher
+   */
+  private volatile Thread evictDispatcher;
+
+  private final AtomicBoolean stopped;
+
+  /**
+   * Create a ElementEvictor
+   *
+   * @param context PS context
+   */
+  public ElementEvictor(PSContext context) {
+    this.context = context;
+    this.stopped = new AtomicBoolean(false);
+    this.checkIntervalMs = context.getConf()
+        .getInt(AngelConf.ANGEL_PS_ELEMENT_EVICTION_INTERVAL_MS,
+            AngelConf.DEFAULT_ANGEL_PS_ELEMENT_EVICTION_INTERVAL_MS);
+  }
+
+  /**
+   * Start evict dispatcher
+   */
+  public void start() {
+    LOG.info("Start element evictor");
+    evictDispatcher = new Thread(() -> {
+      while (!stopped.get() && !Thread.currentThread().isInterrupted()) {
+        try {
+          Thread.sleep(checkIntervalMs);
+          try {
+            evict();
+          } catch (Throwable e) {
+            LOG.error("evict elements error: ", e);
+          }
+        } catch (InterruptedException e) {
+          if (!stopped.get()) {
+            LOG.warn("Element evict dispatcher is interrupted. Returning.");
+          }
+        }
+      }
+    });
+    evictDispatcher.setName("element-evict-dispatcher");
+    evictDispatcher.setDaemon(true);
+    evictDispatcher.start();
+  }
+
+  private void evict() {
+    long evictedNum = 0;
+    for (ServerMatrix matrix : context.getMatrixStorageManager().getMatrices().values()) {
+      for (ServerPartition part : matrix.getPartitions().values()) {
+        ElementPolicy policy = part.getElementPolicy();
+        if (policy == null || !policy.needEvict() || !(part instanceof RowBasedPartition)) {
+          continue;
+        }
+
+        long[] indices = policy.evict();
+        if (indices.length > 0) {
+          ((RowBasedPartition) part).removeElements(indices);
+          evictedNum += indices.length;
+        }
+      }
+    }
+
+    if (evictedNum > 0) {
+      LOG.info("evict " + evictedNum + " elements");
+    }
+  }
+
+  /**
+   * Get the admitted element number of all partitions on this PS
+   *
+   * @return admitted element number
+   */
+  public long getAdmittedNum() {
+    long num = 0;
+    for (ElementPolicy policy : policies()) {
+      num += policy.getAdmittedNum();
+    }
+    return num;
+  }
+
+  /**
+   * Get the rejected update number of all partitions on this PS
+   *
+   * @return rejected update number
+   */
+  public long getRejectedNum() {
+    long num = 0;
+    for (ElementPolicy policy : policies()) {
+      num += policy.getRejectedNum();
+    }
+    return num;
+  }
+
+  /**
+   * Get the evicted element number of all partitions on this PS
+   *
+   * @return evicted element number
+   */
+  public long getEvictedNum() {
+    long num = 0;
+    for (ElementPolicy policy : policies()) {
+      num += policy.getEvictedNum();
+    }
+    return num;
+  }
+
+  private List<ElementPolicy> policies() {
+    List<ElementPolicy> ret = new ArrayList<>();
+    for (ServerMatrix matrix : context.getMatrixStorageManager().getMatrices().values()) {
+      for (ServerPartition part : matrix.getPartitions().values()) {
+        if (part.getElementPolicy() != null) {
+          ret.add(part.getElementPolicy());
+        }
+      }
+    }
+    return ret;
+  }
+
+  public void stop() {
+    if (!stopped.getAndSet(true)) {
+      if (evictDispatcher != null) {
+        evictDispatcher.interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector.policy;
+
+import com.tencent.angel.conf.MatrixConf;
+import com.tencent.angel.ml.matrix.MatrixMeta;
+import com.tencent.angel.ml.matrix.RowType;
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Element admission and eviction policy of a long-key sparse matrix partition. It is shared by all
+ * rows of the partition, so an element is admitted or evicted for all rows at the same time. An
+ * update that writes several rows of the partition makes the admission decisions through one
+ * {@link Admission}, so an element is counted once per update, not once per row.
+ *
+ * Count admission uses a count-min sketch to count the updates of elements that are not stored
+ * yet, so rejected elements do not take any memory. The sketch counters are halved after each
+ * eviction check to forget old updates.
+ */
+public class ElementPolicy {
+
+  /**
+   * Element admission type
+   */
+  public enum AdmissionType {
+    NONE, COUNT, PROBABILITY
+  }
+
+  private static final int SKETCH_DEPTH = 4;
+  private static final int SKETCH_WIDTH = 1 << 16;
+  private static final int[] SKETCH_SEEDS = {0x5bd1e995, 0x27d4eb2d, 0x165667b1, 0x3c6ef372};
+
+  private final AdmissionType admissionType;
+  private final int admissionCount;
+  private final float admissionProbability;
+  private final long ttlMs;
+  private final long maxElementNum;
+
+  /**
+   * Count-min sketch for count admission
+   */
+  private final int[] sketch;
+
+  /**
+   * Last update time of the admitted elements, in seconds from the policy created
+   */
+  private final Long2IntOpenHashMap lastUpdateTs;
+  private final long baseTs;
+
+  private final AtomicLong admittedNum = new AtomicLong(0);
+  private final AtomicLong rejectedNum = new AtomicLong(0);
+  private final AtomicLong evictedNum = new AtomicLong(0);
+
+  public ElementPolicy(AdmissionType admissionType, int admissionCount,
+      float admissionProbability, long ttlMs, long maxElementNum) {
+    this.admissionType = admissionType;
+    this.admissionCount = admissionCount;
+    this.admissionProbability = admissionProbability;
+    this.ttlMs = ttlMs;
+    this.maxElementNum = maxElementNum;
+    this.sketch = admissionType == AdmissionType.COUNT ? new int[SKETCH_DEPTH * SKETCH_WIDTH] : null;
+    this.lastUpdateTs = new Long2IntOpenHashMap();
+    this.baseTs = System.currentTimeMillis();
+  }
+
+  /**
+   * Create the policy from the matrix attributes
+   *
+   * @param meta matrix meta
+   * @return the policy, null if neither admission nor eviction is enabled
+   */
+  public static ElementPolicy create(MatrixMeta meta) {
+    // Only long-key sparse float and double rows support the policy now
+    RowType rowType = meta.getRowType();
+    if (!rowType.isLongKey() || !rowType.isSparse() || !(rowType.isFloat() || rowType.isDouble())) {
+      return null;
+    }
+
+    AdmissionType admissionType = AdmissionType.valueOf(meta.getAttribute(
+        MatrixConf.MATRIX_ELEMENT_ADMISSION_TYPE,
+        MatrixConf.DEFAULT_MATRIX_ELEMENT_ADMISSION_TYPE).toUpperCase());
+    int admissionCount = Integer.parseInt(meta.getAttribute(
+        MatrixConf.MATRIX_ELEMENT_ADMISSION_COUNT,
+        MatrixConf.DEFAULT_MATRIX_ELEMENT_ADMISSION_COUNT));
+    float admissionProbability = Float.parseFloat(meta.getAttribute(
+        MatrixConf.MATRIX_ELEMENT_ADMISSION_PROBABILITY,
+        MatrixConf.DEFAULT_MATRIX_ELEMENT_ADMISSION_PROBABILITY));
+    long ttlMs = Long.parseLong(meta.getAttribute(MatrixConf.MATRIX_ELEMENT_EVICTION_TTL_MS,
+        MatrixConf.DEFAULT_MATRIX_ELEMENT_EVICTION_TTL_MS));
+    long maxElementNum = Long.parseLong(meta.getAttribute(
+        MatrixConf.MATRIX_ELEMENT_EVICTION_MAX_NUM,
+        MatrixConf.DEFAULT_MATRIX_ELEMENT_EVICTION_MAX_NUM));
+
+    if (admissionType == AdmissionType.NONE && ttlMs <= 0 && maxElementNum <= 0) {
+      return null;
+    }
+    return new ElementPolicy(admissionType, admissionCount, admissionProbability, ttlMs,
+        maxElementNum);
+  }
+
+  /**
+   * Create the admission decisions for a partition update
+   *
+   * @return admission decisions
+   */
+  public Admission newAdmission() {
+    return new Admission();
+  }
+
+  /**
+   * Check the update of an element should be applied or not, and record the update time if it is.
+   * It counts the update for count admission, an update that writes several rows should use
+   * {@link Admission} instead
+   *
+   * @param index element index
+   * @param exist the element is stored in the row already or not
+   * @return true means apply the update
+   */
+  public synchronized boolean onUpdate(long index, boolean exist) {
+    int now = now();
+    if (exist || lastUpdateTs.containsKey(index)) {
+      lastUpdateTs.put(index, now);
+      return true;
+    }
+
+    if (admit(index)) {
+      lastUpdateTs.put(index, now);
+      admittedNum.incrementAndGet();
+      return true;
+    } else {
+      rejectedNum.incrementAndGet();
+      return false;
+    }
+  }
+
+  /**
+   * Give the elements that are not tracked yet an update time, so they can be evicted. They are
+   * stored by other paths, such as loading a checkpoint or a psf update.
+   *
+   * @param indices element indices
+   */
+  public synchronized void track(long[] indices) {
+    int now = now();
+    for (int i = 0; i < indices.length; i++) {
+      if (!lastUpdateTs.containsKey(indices[i])) {
+        lastUpdateTs.put(indices[i], now);
+      }
+    }
+  }
+
+  private boolean admit(long index) {
+    switch (admissionType) {
+      case COUNT: {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < SKETCH_DEPTH; i++) {
+          int pos = i * SKETCH_WIDTH + bucket(index, SKETCH_SEEDS[i]);
+          if (sketch[pos] < Integer.MAX_VALUE) {
+            sketch[pos]++;
+          }
+          min = Math.min(min, sketch[pos]);
+        }
+        return min >= admissionCount;
+      }
+
+      case PROBABILITY:
+        return ThreadLocalRandom.current().nextFloat() < admissionProbability;
+
+      default:
+        return true;
+    }
+  }
+
+  private static int bucket(long index, int seed) {
+    long h = (index ^ (index >>> 32)) * seed;
+    h ^= h >>> 29;
+    return (int) (h & (SKETCH_WIDTH - 1));
+  }
+
+  /**
+   * Collect the elements that should be evicted now and forget them. The caller must remove the
+   * returned elements from all rows of the partition.
+   *
+   * @return evicted element indices
+   */
+  public synchronized long[] evict() {
+    if (sketch != null) {
+      for (int i = 0; i < sketch.length; i++) {
+        sketch[i] >>>= 1;
+      }
+    }
+
+    LongArrayList evicted = new LongArrayList();
+    if (ttlMs > 0) {
+      int expireTs = now() - (int) (ttlMs / 1000);
+      ObjectIterator<Long2IntMap.Entry> iter = lastUpdateTs.long2IntEntrySet().fastIterator();
+      while (iter.hasNext()) {
+        Long2IntMap.Entry entry = iter.next();
+        if (entry.getIntValue() < expireTs) {
+          evicted.add(entry.getLongKey());
+          iter.remove();
+        }
+      }
+    }
+
+    if (maxElementNum > 0 && lastUpdateTs.size() > maxElementNum) {
+      // Evict the least recently updated elements to fit the budget
+      int[] ts = lastUpdateTs.values().toIntArray();
+      Arrays.sort(ts);
+      int needEvictNum = (int) (lastUpdateTs.size() - maxElementNum);
+      int threshold = ts[needEvictNum - 1];
+      // Evict the elements older than the threshold first, then the ties until the budget is met
+      needEvictNum = evictOlderThan(threshold, needEvictNum, false, evicted);
+      evictOlderThan(threshold, needEvictNum, true, evicted);
+    }
+
+    if (lastUpdateTs.isEmpty()) {
+      lastUpdateTs.trim();
+    }
+
+    evictedNum.addAndGet(evicted.size());
+    return evicted.toLongArray();
+  }
+
+  private int evictOlderThan(int threshold, int needEvictNum, boolean inclusive,
+      LongArrayList evicted) {
+    ObjectIterator<Long2IntMap.Entry> iter = lastUpdateTs.long2IntEntrySet().fastIterator();
+    while (iter.hasNext() && needEvictNum > 0) {
+      Long2IntMap.Entry entry = iter.next();
+      if (entry.getIntValue() < threshold || (inclusive && entry.getIntValue() == threshold)) {
+        evicted.add(entry.getLongKey());
+        iter.remove();
+        needEvictNum--;
+      }
+    }
+    return needEvictNum;
+  }
+
+  private int now() {
+    return (int) ((System.currentTimeMillis() - baseTs) / 1000);
+  }
+
+  public boolean needEvict() {
+    return ttlMs > 0 || maxElementNum > 0;
+  }
+
+  public long getAdmittedNum() {
+    return admittedNum.get();
+  }
+
+  public long getRejectedNum() {
+    return rejectedNum.get();
+  }
+
+  public long getEvictedNum() {
+    return evictedNum.get();
+  }
+
+  /**
+   * Tracked element number
+   *
+   * @return tracked element number
+   */
+  public synchronized int getTrackedNum() {
+    return lastUpdateTs.size();
+  }
+
+  /**
+   * Admission decisions of a partition update. The decision of an element is made at the first row
+   * that updates it and reused by the other rows, e.g. the z and n rows of FTRL. It is used by a
+   * single update thread.
+   */
+  public class Admission {
+
+    private final Long2BooleanOpenHashMap decisions = new Long2BooleanOpenHashMap();
+
+    /**
+     * Check the update of an element in a row should be applied or not
+     *
+     * @param index element index
+     * @param exist the element is stored in the row already or not
+     * @return true means apply the update
+     */
+    public boolean admit(long index, boolean exist) {
+      if (!decisions.containsKey(index)) {
+        decisions.put(index, onUpdate(index, exist));
+      }
+      return exist || decisions.get(index);
+    }
+  }
+}
@@ -93,6 +93,16 @@ public class IntArrayElementStorage extends IntElementStorage {
     }
   }
 
+  @Override
+  public void remove(long[] indices) {
+    for (int i = 0; i < indices.length; i++) {
+      long index = indices[i] - indexOffset;
+      if (index >= 0 && index < data.length) {
+        data[(int) index] = null;
+      }
+    }
+  }
+
   @Override
   public IntArrayElementStorage deepClone() {
     IElement[] cloneData = new IElement[data.length];
@@ -375,6 +375,11 @@ public class IntDoubleVectorStorage extends IntDoubleStorage {
     VectorStorageUtils.clear(vector);
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
   @Override
   public IntDoubleVectorStorage deepClone() {
     return new IntDoubleVectorStorage(vector.copy(), indexOffset);
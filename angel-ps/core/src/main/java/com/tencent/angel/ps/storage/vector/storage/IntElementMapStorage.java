@@ -98,6 +98,13 @@ public class IntElementMapStorage extends IntElementStorage {
     data.clear();
   }
 
+  @Override
+  public void remove(long[] indices) {
+    for (int i = 0; i < indices.length; i++) {
+      data.remove((int) (indices[i] - indexOffset));
+    }
+  }
+
   @Override
   public IntElementMapStorage deepClone() {
     Int2ObjectOpenHashMap<IElement> clonedData = new Int2ObjectOpenHashMap(data.size());
@@ -338,6 +338,11 @@ public class IntFloatVectorStorage extends IntFloatStorage {
     vector.clear();
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
   @Override
   public IntFloatVectorStorage deepClone() {
     return new IntFloatVectorStorage(vector.copy(), indexOffset);
@@ -164,6 +164,11 @@ public class IntIntVectorStorage extends IntIntStorage {
     VectorStorageUtils.clear(vector);
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
   @Override
   public int size() {
     return VectorStorageUtils.size(vector);
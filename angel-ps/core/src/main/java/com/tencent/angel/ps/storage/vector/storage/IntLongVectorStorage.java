@@ -282,6 +282,11 @@ public class IntLongVectorStorage extends IntLongStorage {
     VectorStorageUtils.clear(vector);
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
   @Override
   public IntLongVectorStorage deepClone() {
     return new IntLongVectorStorage(vector.copy(), indexOffset);
@@ -708,6 +708,20 @@ public class LongDoubleVectorStorage extends LongDoubleStorage {
     }
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
+  /**
+   * Get the indices of the stored elements
+   *
+   * @return element indices
+   */
+  public long[] getIndices() {
+    return VectorStorageUtils.getIndices(vector, indexOffset);
+  }
+
   @Override
   public void clear() {
     VectorStorageUtils.clear(vector);
@@ -90,6 +90,13 @@ public class LongElementMapStorage extends LongElementStorage {
     data.clear();
   }
 
+  @Override
+  public void remove(long[] indices) {
+    for (int i = 0; i < indices.length; i++) {
+      data.remove(indices[i] - indexOffset);
+    }
+  }
+
   @Override
   public LongElementMapStorage deepClone() {
     Long2ObjectOpenHashMap<IElement> clonedData = new Long2ObjectOpenHashMap(data.size());
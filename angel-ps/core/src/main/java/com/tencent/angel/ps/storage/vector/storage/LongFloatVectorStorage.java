@@ -602,6 +602,20 @@ public class LongFloatVectorStorage extends LongFloatStorage {
     }
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
+  /**
+   * Get the indices of the stored elements
+   *
+   * @return element indices
+   */
+  public long[] getIndices() {
+    return VectorStorageUtils.getIndices(vector, indexOffset);
+  }
+
   @Override
   public void clear() {
     VectorStorageUtils.clear(vector);
@@ -272,6 +272,11 @@ public class LongIntVectorStorage extends LongIntStorage {
     VectorStorageUtils.clear(vector);
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
   @Override
   public LongIntVectorStorage deepClone() {
     return new LongIntVectorStorage((IntVector) vector.copy(), indexOffset);
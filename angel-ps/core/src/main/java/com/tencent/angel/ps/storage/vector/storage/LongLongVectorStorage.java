@@ -499,6 +499,11 @@ public class LongLongVectorStorage extends LongLongStorage {
     VectorStorageUtils.clear(vector);
   }
 
+  @Override
+  public void remove(long[] indices) {
+    VectorStorageUtils.remove(vector, indices, indexOffset);
+  }
+
   @Override
   public LongLongVectorStorage deepClone() {
     return new LongLongVectorStorage((LongVector) vector.copy(), indexOffset);
@@ -17,6 +17,8 @@
 
 package com.tencent.angel.ps.storage.vector.storage;
 
+import com.tencent.angel.ml.math2.storage.IntKeyVectorStorage;
+import com.tencent.angel.ml.math2.storage.LongKeyVectorStorage;
 import com.tencent.angel.ml.math2.vector.DoubleVector;
 import com.tencent.angel.ml.math2.vector.FloatVector;
 import com.tencent.angel.ml.math2.vector.IntDoubleVector;
@@ -32,16 +34,19 @@ import com.tencent.angel.ml.math2.vector.LongLongVector;
 import com.tencent.angel.ml.math2.vector.LongVector;
 import com.tencent.angel.ml.math2.vector.Vector;
 import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.utils.ByteBufUtils;
 import io.netty.buffer.ByteBuf;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2FloatMap;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntMap.Entry;
 import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.longs.Long2DoubleMap;
 import it.unimi.dsi.fastutil.longs.Long2FloatMap;
 import it.unimi.dsi.fastutil.longs.Long2IntMap;
 import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 
 /**
@@ -226,9 +231,7 @@ public class VectorStorageUtils {
       int[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeInt(values[i]);
-      }
+      ByteBufUtils.writeInts(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -266,9 +269,7 @@ public class VectorStorageUtils {
       long[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeLong(values[i]);
-      }
+      ByteBufUtils.writeLongs(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -306,9 +307,7 @@ public class VectorStorageUtils {
       float[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeFloat(values[i]);
-      }
+      ByteBufUtils.writeFloats(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -346,9 +345,7 @@ public class VectorStorageUtils {
       double[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeDouble(values[i]);
-      }
+      ByteBufUtils.writeDoubles(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -387,9 +384,7 @@ public class VectorStorageUtils {
       int[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeInt(values[i]);
-      }
+      ByteBufUtils.writeInts(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -428,9 +423,7 @@ public class VectorStorageUtils {
       long[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeLong(values[i]);
-      }
+      ByteBufUtils.writeLongs(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -469,9 +462,7 @@ public class VectorStorageUtils {
       float[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeFloat(values[i]);
-      }
+      ByteBufUtils.writeFloats(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -511,9 +502,7 @@ public class VectorStorageUtils {
       double[] values = vector.getStorage().getValues();
       buf.writeInt(values.length);
       buf.writeInt(SerializeArrangement.VALUE.getValue());
-      for (int i = 0; i < values.length; i++) {
-        buf.writeDouble(values[i]);
-      }
+      ByteBufUtils.writeDoubles(buf, values);
     } else {
       throw new UnsupportedOperationException(
           "Unknown vector storage type:" + vector.getStorage().getClass().getName());
@@ -592,6 +581,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readInt();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readInts(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readInt());
@@ -628,6 +619,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readLong();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readLongs(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readLong());
@@ -664,6 +657,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readFloat();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readFloats(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readFloat());
@@ -700,6 +695,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readDouble();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readDoubles(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readDouble());
@@ -736,6 +733,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readInt();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readInts(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readInt());
@@ -772,6 +771,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readLong();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readLongs(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readLong());
@@ -808,6 +809,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readFloat();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readFloats(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readFloat());
@@ -844,6 +847,8 @@ public class VectorStorageUtils {
           indices[i] = i;
           values[i] = buf.readDouble();
         }
+      } else if (method == StorageMethod.DENSE) {
+        ByteBufUtils.readDoubles(buf, vector.getStorage().getValues(), elemNum);
       } else {
         for (int i = 0; i < elemNum; i++) {
           vector.set(i, buf.readDouble());
@@ -882,4 +887,104 @@ public class VectorStorageUtils {
   public static int size(Vector vector) {
     return (int) vector.getSize();
   }
+
+  /**
+   * Remove the elements from the vector. The keys are removed from sparse storage, dense and sorted
+   * storage can not remove keys, so the values of the existing keys are reset to 0 instead.
+   *
+   * @param vector vector
+   * @param indices element indices
+   * @param indexOffset index offset of the vector
+   */
+  public static void remove(Vector vector, long[] indices, long indexOffset) {
+    if (useIntKey(vector)) {
+      IntKeyVectorStorage storage = (IntKeyVectorStorage) vector.getStorage();
+      IntSet keys = isSparse(vector) ? storage.indexIterator() : null;
+      for (int i = 0; i < indices.length; i++) {
+        long key = indices[i] - indexOffset;
+        if (key < 0 || key > Integer.MAX_VALUE) {
+          continue;
+        }
+        if (keys != null) {
+          keys.remove((int) key);
+        } else if (storage.hasKey((int) key)) {
+          resetValue(vector, (int) key);
+        }
+      }
+    } else {
+      LongKeyVectorStorage storage = (LongKeyVectorStorage) vector.getStorage();
+      LongSet keys = isSparse(vector) ? storage.indexIterator() : null;
+      for (int i = 0; i < indices.length; i++) {
+        long key = indices[i] - indexOffset;
+        if (keys != null) {
+          keys.remove(key);
+        } else if (storage.hasKey(key)) {
+          resetValue(vector, key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the indices of the stored elements, all elements of dense storage are stored
+   *
+   * @param vector vector
+   * @param indexOffset index offset of the vector
+   * @return element indices
+   */
+  public static long[] getIndices(Vector vector, long indexOffset) {
+    long[] result;
+    if (useIntKey(vector)) {
+      IntKeyVectorStorage storage = (IntKeyVectorStorage) vector.getStorage();
+      result = new long[storage.size()];
+      if (isDense(vector)) {
+        for (int i = 0; i < result.length; i++) {
+          result[i] = i + indexOffset;
+        }
+      } else {
+        int[] indices = storage.getIndices();
+        for (int i = 0; i < result.length; i++) {
+          result[i] = indices[i] + indexOffset;
+        }
+      }
+    } else {
+      LongKeyVectorStorage storage = (LongKeyVectorStorage) vector.getStorage();
+      long[] indices = storage.getIndices();
+      result = new long[storage.size()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = indices[i] + indexOffset;
+      }
+    }
+    return result;
+  }
+
+  private static void resetValue(Vector vector, int key) {
+    if (vector instanceof IntDoubleVector) {
+      ((IntDoubleVector) vector).set(key, 0.0);
+    } else if (vector instanceof IntFloatVector) {
+      ((IntFloatVector) vector).set(key, 0.0f);
+    } else if (vector instanceof IntLongVector) {
+      ((IntLongVector) vector).set(key, 0L);
+    } else if (vector instanceof IntIntVector) {
+      ((IntIntVector) vector).set(key, 0);
+    } else {
+      throw new UnsupportedOperationException(
+          "Unsupport operation: remove elements from " + vector.getClass().getName());
+    }
+  }
+
+  private static void resetValue(Vector vector, long key) {
+    if (vector instanceof LongDoubleVector) {
+      ((LongDoubleVector) vector).set(key, 0.0);
+    } else if (vector instanceof LongFloatVector) {
+      ((LongFloatVector) vector).set(key, 0.0f);
+    } else if (vector instanceof LongLongVector) {
+      ((LongLongVector) vector).set(key, 0L);
+    } else if (vector instanceof LongIntVector) {
+      ((LongIntVector) vector).set(key, 0);
+    } else {
+      throw new UnsupportedOperationException(
+          "Unsupport operation: remove elements from " + vector.getClass().getName());
+    }
+  }
 }
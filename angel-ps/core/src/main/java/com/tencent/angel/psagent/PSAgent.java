@@ -43,6 +43,7 @@ import com.tencent.angel.psagent.matrix.MatrixClient;
 import com.tencent.angel.psagent.matrix.MatrixClientFactory;
 import com.tencent.angel.psagent.matrix.PSAgentLocationManager;
 import com.tencent.angel.psagent.matrix.PSAgentMatrixMetaManager;
+import com.tencent.angel.psagent.matrix.cache.HotKeyCache;
 import com.tencent.angel.psagent.matrix.cache.MatricesCache;
 import com.tencent.angel.psagent.matrix.oplog.cache.MatrixOpLogCache;
 import com.tencent.angel.psagent.matrix.storage.MatrixStorageManager;
@@ -175,6 +176,11 @@ public class PSAgent {
    */
   private volatile MatricesCache matricesCache;
 
+  /**
+   * hot key cache, it is null if the hot key cache is not enabled
+   */
+  private volatile HotKeyCache hotKeyCache;
+
   /**
    * matrix storage manager
    */
@@ -364,6 +370,11 @@ public class PSAgent {
       int staleness = conf.getInt(AngelConf.ANGEL_STALENESS, AngelConf.DEFAULT_ANGEL_STALENESS);
       consistencyController = new ConsistencyController(staleness);
       consistencyController.init();
+
+      if (conf.getBoolean(AngelConf.ANGEL_PSAGENT_HOT_KEY_CACHE_ENABLE,
+          AngelConf.DEFAULT_ANGEL_PSAGENT_HOT_KEY_CACHE_ENABLE)) {
+        hotKeyCache = new HotKeyCache();
+      }
     }
 
     psAgentInitFinishedFlag.set(true);
@@ -376,6 +387,9 @@ public class PSAgent {
     if (runningMode == RunningMode.ANGEL_PS_WORKER) {
       clockCache.start();
       opLogCache.start();
+      if (hotKeyCache != null) {
+        hotKeyCache.start();
+      }
 
     }
   }
@@ -419,6 +433,12 @@ public class PSAgent {
         clockCache = null;
       }
 
+      LOG.info("stop hot key cache");
+      if (hotKeyCache != null) {
+        hotKeyCache.stop();
+        hotKeyCache = null;
+      }
+
       LOG.info("stop matrix cache");
       if (matricesCache != null) {
         matricesCache.stop();
@@ -710,6 +730,15 @@ public class PSAgent {
     return matricesCache;
   }
 
+  /**
+   * Get hot key cache
+   *
+   * @return HotKeyCache hot key cache, null if it is not enabled
+   */
+  public HotKeyCache getHotKeyCache() {
+    return hotKeyCache;
+  }
+
   /**
    * Create a new matrix
    *
@@ -748,6 +777,9 @@ public class PSAgent {
 
   private void removeCacheData(int matrixId) {
     matricesCache.remove(matrixId);
+    if (hotKeyCache != null) {
+      hotKeyCache.remove(matrixId);
+    }
     if (runningMode == RunningMode.ANGEL_PS_WORKER) {
       opLogCache.remove(matrixId);
       matrixStorageManager.removeMatrix(matrixId);
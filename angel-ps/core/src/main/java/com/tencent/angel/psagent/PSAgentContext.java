@@ -35,6 +35,7 @@ import com.tencent.angel.psagent.matrix.MatrixClient;
 import com.tencent.angel.psagent.matrix.MatrixClientFactory;
 import com.tencent.angel.psagent.matrix.PSAgentLocationManager;
 import com.tencent.angel.psagent.matrix.PSAgentMatrixMetaManager;
+import com.tencent.angel.psagent.matrix.cache.HotKeyCache;
 import com.tencent.angel.psagent.matrix.cache.MatricesCache;
 import com.tencent.angel.psagent.matrix.oplog.cache.MatrixOpLogCache;
 import com.tencent.angel.psagent.matrix.storage.MatrixStorageManager;
@@ -278,6 +279,15 @@ public class PSAgentContext {
     return psAgent.getMatricesCache();
   }
 
+  /**
+   * Get hot key cache
+   *
+   * @return HotKeyCache hot key cache, null if it is not enabled
+   */
+  public HotKeyCache getHotKeyCache() {
+    return psAgent.getHotKeyCache();
+  }
+
   /**
    * Get matrix storage manager
    *
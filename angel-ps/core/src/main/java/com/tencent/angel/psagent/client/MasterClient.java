@@ -532,6 +532,36 @@ public class MasterClient {
       GetWorkerGroupSuccessNumRequest.getDefaultInstance().newBuilder().build()).getSuccessNum();
   }
 
+  /**
+   * Get the worker locations of all tasks, it will wait until all workers are registered
+   *
+   * @return task index to worker location map
+   * @throws ServiceException     rpc failed
+   * @throws InterruptedException interrupted when wait for next try
+   */
+  public Map<Integer, Location> getTaskLocations() throws ServiceException, InterruptedException {
+    while (true) {
+      GetAllWorkerMetaInfoResponse response =
+        master.getAllWorkerMetaInfo(null, GetAllWorkerMetaInfoRequest.getDefaultInstance());
+      Map<Integer, Location> taskLocations = new HashMap<>(response.getTotalTaskNum());
+      for (WorkerMetaInfoProto worker : response.getWorkersList()) {
+        if (!worker.getWorkerLocation().hasLocation()) {
+          continue;
+        }
+        LocationProto loc = worker.getWorkerLocation().getLocation();
+        for (TaskMetaInfoProto task : worker.getTasksList()) {
+          taskLocations
+            .put(task.getTaskId().getTaskIndex(), new Location(loc.getIp(), loc.getPort()));
+        }
+      }
+
+      if (taskLocations.size() >= response.getTotalTaskNum()) {
+        return taskLocations;
+      }
+      Thread.sleep(WorkerContext.get().getRequestSleepTimeMS());
+    }
+  }
+
   /**
    * Get a psagent id
    *
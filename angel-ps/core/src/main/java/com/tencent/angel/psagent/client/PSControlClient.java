@@ -42,9 +42,4 @@ public class PSControlClient {
     return ServerState.valueOf(ps.getState(null, PSAgentPSServiceProtos.GetStateRequest.newBuilder()
       .setClientId(PSAgentContext.get().getPSAgentId()).build()).getState());
   }
-
-  public int getToken(int dateSize) throws ServiceException {
-    return ps.getToken(null, PSAgentPSServiceProtos.GetTokenRequest.newBuilder()
-      .setClientId(PSAgentContext.get().getPSAgentId()).setDataSize(dateSize).build()).getToken();
-  }
 }
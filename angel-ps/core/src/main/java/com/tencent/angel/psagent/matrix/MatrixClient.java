@@ -19,6 +19,7 @@
 package com.tencent.angel.psagent.matrix;
 
 import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.matrix.psf.update.freeze.Freeze;
 import com.tencent.angel.ml.matrix.psf.update.zero.Zero;
 import com.tencent.angel.psagent.task.TaskContext;
 
@@ -77,4 +78,14 @@ public abstract class MatrixClient implements MatrixInterface {
   public void zero() throws AngelException {
     update(new Zero(new Zero.ZeroParam(getMatrixId(), false)));
   }
+
+  /**
+   * Convert the sparse rows of the matrix to sorted arrays on PS, use it for the matrices that are
+   * only read afterwards
+   *
+   * @throws AngelException
+   */
+  public void freeze() throws AngelException {
+    update(new Freeze(new Freeze.FreezeParam(getMatrixId())));
+  }
 }
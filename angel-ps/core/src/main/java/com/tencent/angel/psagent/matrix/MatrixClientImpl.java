@@ -31,6 +31,7 @@ import com.tencent.angel.ml.matrix.psf.update.base.VoidResult;
 import com.tencent.angel.ps.server.data.request.InitFunc;
 import com.tencent.angel.ps.server.data.request.UpdateOp;
 import com.tencent.angel.psagent.PSAgentContext;
+import com.tencent.angel.psagent.matrix.cache.HotKeyCache;
 import com.tencent.angel.psagent.matrix.transport.FutureResult;
 import com.tencent.angel.psagent.matrix.transport.adapter.GetRowsResult;
 import com.tencent.angel.psagent.matrix.transport.adapter.RowIndex;
@@ -310,6 +311,13 @@ public class MatrixClientImpl extends MatrixClient {
     }
 
     try {
+      HotKeyCache hotKeyCache = PSAgentContext.get().getHotKeyCache();
+      if (hotKeyCache != null) {
+        Vector vector = hotKeyCache.get(taskContext, matrixId, rowId, indices);
+        if (vector != null) {
+          return vector;
+        }
+      }
       return PSAgentContext.get().getUserRequestAdapter().get(matrixId, rowId, indices).get();
     } catch (Throwable x) {
       throw new AngelException(x);
@@ -389,6 +397,13 @@ public class MatrixClientImpl extends MatrixClient {
     }
 
     try {
+      HotKeyCache hotKeyCache = PSAgentContext.get().getHotKeyCache();
+      if (hotKeyCache != null) {
+        Vector vector = hotKeyCache.get(taskContext, matrixId, rowId, indices);
+        if (vector != null) {
+          return vector;
+        }
+      }
       return PSAgentContext.get().getUserRequestAdapter().get(matrixId, rowId, indices).get();
     } catch (Throwable x) {
       throw new AngelException(x);
@@ -834,6 +849,15 @@ public class MatrixClientImpl extends MatrixClient {
   }
 
 
+  @Override
+  public RowsStream getRowsStream(int[] rowIds, long maxInflightBytes) throws AngelException {
+    checkNotNull(rowIds, "rowIds");
+    for (int rowId : rowIds) {
+      checkRowId(rowId);
+    }
+    return new RowsStream(matrixId, rowIds, maxInflightBytes);
+  }
+
   @Override
   public GetRowsResult getRowsFlow(RowIndex index, int batchSize, boolean disableCache)
     throws AngelException {
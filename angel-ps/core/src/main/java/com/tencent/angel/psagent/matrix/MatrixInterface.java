@@ -523,6 +523,17 @@ public interface MatrixInterface {
    */
   Vector [] getRows(int [] rowIds, int batchSize, boolean disableCache) throws AngelException;
 
+  /**
+   * Get rows as a stream with bounded memory, the rows are fetched from ps as the stream is
+   * consumed. Use it to read a batch of huge rows that can not be hold in memory at the same time.
+   *
+   * @param rowIds row ids
+   * @param maxInflightBytes the max bytes of the rows that are fetching or fetched but not consumed
+   * @return rows stream
+   * @throws AngelException
+   */
+  RowsStream getRowsStream(int [] rowIds, long maxInflightBytes) throws AngelException;
+
   /**
    * Get a batch of rows use the pipeline mode. The pipeline mode means that user can calculate part
    * of rows while fetch others.
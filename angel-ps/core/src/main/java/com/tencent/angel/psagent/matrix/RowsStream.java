@@ -0,0 +1,202 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.psagent.matrix;
+
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.MatrixMeta;
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ps.storage.vector.ServerRow;
+import com.tencent.angel.psagent.PSAgentContext;
+import com.tencent.angel.psagent.matrix.transport.adapter.RowSplitCombineUtils;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
+
+/**
+ * Stream the rows of a matrix with bounded memory. The rows are fetched in the order of the row
+ * ids, and new rows are only requested when the estimated bytes of the rows that are fetching or
+ * fetched but not consumed yet is less than the limit. The row size is estimated from the matrix
+ * meta at first and then from the received row splits.
+ *
+ * <p>{@link #next()} merges the splits of a row into a vector, {@link #nextSplits()} returns the
+ * splits as they are, so the caller can process a huge row split by split without the merged
+ * copy. The rows are always fetched from ps, the agent cache and the consistency control are not
+ * used.
+ */
+public class RowsStream implements Iterator<Vector> {
+
+  private final int matrixId;
+  private final int[] rowIds;
+  private final long maxInflightBytes;
+
+  /**
+   * The rows that are fetching or fetched but not consumed
+   */
+  private final ArrayDeque<Future<List<ServerRow>>> inflights;
+
+  /**
+   * The index of next row to request
+   */
+  private int requestIndex;
+
+  /**
+   * The index of next row to consume
+   */
+  private int consumeIndex;
+
+  private long estimatedRowBytes;
+  private long receivedBytes;
+  private int receivedRowNum;
+
+  /**
+   * Create a new rows stream
+   *
+   * @param matrixId matrix id
+   * @param rowIds row ids
+   * @param maxInflightBytes the max bytes of the rows that are fetching or fetched but not
+   * consumed, at least one row is fetched even it is larger than this limit
+   */
+  public RowsStream(int matrixId, int[] rowIds, long maxInflightBytes) {
+    this(matrixId, rowIds, maxInflightBytes, estimateRowBytes(matrixId));
+  }
+
+  RowsStream(int matrixId, int[] rowIds, long maxInflightBytes, long estimatedRowBytes) {
+    this.matrixId = matrixId;
+    this.rowIds = rowIds;
+    this.maxInflightBytes = maxInflightBytes;
+    this.estimatedRowBytes = Math.max(estimatedRowBytes, 1);
+    this.inflights = new ArrayDeque<>();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return consumeIndex < rowIds.length;
+  }
+
+  /**
+   * Get the next row
+   *
+   * @return the merged row
+   */
+  @Override
+  public Vector next() {
+    List<ServerRow> splits = nextSplits();
+    return merge(splits, matrixId, rowIds[consumeIndex - 1]);
+  }
+
+  /**
+   * Get the splits of next row without merging them
+   *
+   * @return the row splits, one for each partition of the row
+   */
+  public List<ServerRow> nextSplits() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    requestMore();
+    List<ServerRow> splits;
+    try {
+      splits = inflights.poll().get();
+    } catch (Throwable e) {
+      throw new AngelException("get row " + rowIds[consumeIndex] + " failed ", e);
+    }
+
+    long rowBytes = 0;
+    for (ServerRow split : splits) {
+      rowBytes += split.bufferLen();
+    }
+    receivedBytes += rowBytes;
+    receivedRowNum++;
+    estimatedRowBytes = Math.max(receivedBytes / receivedRowNum, 1);
+    consumeIndex++;
+    return splits;
+  }
+
+  /**
+   * Get the row id of next row
+   *
+   * @return row id of next row
+   */
+  public int nextRowId() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return rowIds[consumeIndex];
+  }
+
+  /**
+   * Get the number of rows that are fetching or fetched but not consumed
+   *
+   * @return in-flight row number
+   */
+  public int getInflightRowNum() {
+    return inflights.size();
+  }
+
+  private void requestMore() {
+    while (requestIndex < rowIds.length && (inflights.isEmpty()
+        || (inflights.size() + 1) * estimatedRowBytes <= maxInflightBytes)) {
+      inflights.offer(fetch(matrixId, rowIds[requestIndex]));
+      requestIndex++;
+    }
+  }
+
+  /**
+   * Fetch the splits of a row
+   *
+   * @param matrixId matrix id
+   * @param rowId row id
+   * @return the future of row splits
+   */
+  protected Future<List<ServerRow>> fetch(int matrixId, int rowId) {
+    return PSAgentContext.get().getUserRequestAdapter().getRowSplits(matrixId, rowId, -1);
+  }
+
+  /**
+   * Merge the splits of a row
+   *
+   * @param splits row splits
+   * @param matrixId matrix id
+   * @param rowId row id
+   * @return merged row
+   */
+  protected Vector merge(List<ServerRow> splits, int matrixId, int rowId) {
+    Vector row = RowSplitCombineUtils.combineServerRowSplits(splits, matrixId, rowId);
+    row.setMatrixId(matrixId);
+    return row;
+  }
+
+  private static long estimateRowBytes(int matrixId) {
+    MatrixMeta meta = PSAgentContext.get().getMatrixMetaManager().getMatrixMeta(matrixId);
+    RowType rowType = meta.getRowType();
+    int valueBytes = (rowType.isDouble() || rowType.isLong()) ? 8 : 4;
+    if (rowType.isDense()) {
+      return meta.getColNum() * valueBytes;
+    }
+
+    // Sparse rows, use the valid index number if it is set
+    int keyBytes = rowType.isLongKey() ? 8 : 4;
+    long elemNum = meta.getValidIndexNum() > 0 ? meta.getValidIndexNum() : meta.getColNum();
+    return elemNum * (keyBytes + valueBytes);
+  }
+}
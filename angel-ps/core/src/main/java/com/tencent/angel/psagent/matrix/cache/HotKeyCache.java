@@ -0,0 +1,337 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.psagent.matrix.cache;
+
+import com.tencent.angel.conf.AngelConf;
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.IntIntVector;
+import com.tencent.angel.ml.math2.vector.LongDoubleVector;
+import com.tencent.angel.ml.math2.vector.LongFloatVector;
+import com.tencent.angel.ml.math2.vector.LongIntVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.MatrixMeta;
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ml.matrix.psf.get.hotkey.GetHotKeys;
+import com.tencent.angel.ml.matrix.psf.get.hotkey.GetHotKeysResult;
+import com.tencent.angel.psagent.PSAgentContext;
+import com.tencent.angel.psagent.task.TaskContext;
+import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Hot key cache. The index get requests of power-law data read a few keys much more than the
+ * others, and all of them go to the ps that holds these keys. The pss track the hot keys of each
+ * row, this cache pulls the hot keys and their values of the rows read by index get regularly, and
+ * the index gets read the hot keys from it if the cached clock satisfies the staleness. Only the
+ * other keys are sent to the pss. The updates are not affected, they are still sent to the pss.
+ */
+public class HotKeyCache {
+
+  private static final Log LOG = LogFactory.getLog(HotKeyCache.class);
+
+  /**
+   * (matrix id, row id) to cached hot keys map
+   */
+  private final ConcurrentHashMap<Long, HotKeys> rowToHotKeys;
+
+  /**
+   * Refresh thread
+   */
+  private Refresher refresher;
+
+  /**
+   * Refresh time interval in milliseconds
+   */
+  private int refreshIntervalMs;
+
+  private final AtomicBoolean stopped;
+
+  private final AtomicLong hitNum;
+  private final AtomicLong requestNum;
+
+  /**
+   * Cached hot keys of a row, the map is not changed after it is published
+   */
+  static class HotKeys {
+    private volatile Long2DoubleOpenHashMap values;
+    private volatile int clock = -1;
+  }
+
+  public HotKeyCache() {
+    rowToHotKeys = new ConcurrentHashMap<>();
+    stopped = new AtomicBoolean(false);
+    hitNum = new AtomicLong(0);
+    requestNum = new AtomicLong(0);
+  }
+
+  class Refresher extends Thread {
+    @Override
+    public void run() {
+      while (!stopped.get() && !Thread.interrupted()) {
+        for (Map.Entry<Long, HotKeys> entry : rowToHotKeys.entrySet()) {
+          if (stopped.get()) {
+            return;
+          }
+          refresh(entry.getKey(), entry.getValue());
+        }
+
+        try {
+          Thread.sleep(refreshIntervalMs);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void refresh(long key, HotKeys hotKeys) {
+    int matrixId = (int) (key >>> 32);
+    int rowId = (int) key;
+    try {
+      GetHotKeysResult result = (GetHotKeysResult) PSAgentContext.get().getUserRequestAdapter()
+          .get(new GetHotKeys(matrixId, rowId)).get();
+      long[] keys = result.getKeys();
+      double[] values = result.getValues();
+      Long2DoubleOpenHashMap map = new Long2DoubleOpenHashMap(keys.length);
+      for (int i = 0; i < keys.length; i++) {
+        map.put(keys[i], values[i]);
+      }
+      // Publish the values before the clock, a reader checks the clock first
+      hotKeys.values = map;
+      hotKeys.clock = result.getClock();
+    } catch (Throwable x) {
+      LOG.warn("refresh hot keys for matrix " + matrixId + " row " + rowId + " failed ", x);
+      hotKeys.clock = -1;
+    }
+  }
+
+  /**
+   * Startup the refresh thread
+   */
+  public void start() {
+    refreshIntervalMs = PSAgentContext.get().getConf()
+        .getInt(AngelConf.ANGEL_PSAGENT_HOT_KEY_CACHE_REFRESH_INTERVAL_MS,
+            AngelConf.DEFAULT_ANGEL_PSAGENT_HOT_KEY_CACHE_REFRESH_INTERVAL_MS);
+    refresher = new Refresher();
+    refresher.setName("hotkey-cache-refresher");
+    refresher.setDaemon(true);
+    refresher.start();
+  }
+
+  /**
+   * Stop the refresh thread
+   */
+  public void stop() {
+    if (!stopped.getAndSet(true)) {
+      if (refresher != null) {
+        refresher.interrupt();
+        refresher = null;
+      }
+      LOG.info("hot key cache hit " + hitNum.get() + " of " + requestNum.get() + " keys");
+      rowToHotKeys.clear();
+    }
+  }
+
+  /**
+   * Remove the cached hot keys of a matrix
+   *
+   * @param matrixId matrix id
+   */
+  public void remove(int matrixId) {
+    rowToHotKeys.keySet().removeIf(key -> (int) (key >>> 32) == matrixId);
+  }
+
+  /**
+   * Get the values of the indices of a row, the hot indices are read from the cache and the others
+   * are read from the pss
+   *
+   * @param taskContext task context
+   * @param matrixId matrix id
+   * @param rowId row id
+   * @param indices column indices
+   * @return values of the indices, null if no hot key can be used, the caller should read all
+   * indices from the pss then
+   */
+  public Vector get(TaskContext taskContext, int matrixId, int rowId, int[] indices)
+      throws Exception {
+    Long2DoubleOpenHashMap values = getValues(taskContext, matrixId, rowId, indices.length);
+    if (values == null) {
+      return null;
+    }
+
+    int hotNum = 0;
+    for (int i = 0; i < indices.length; i++) {
+      if (values.containsKey(indices[i])) {
+        hotNum++;
+      }
+    }
+    if (hotNum == 0) {
+      return null;
+    }
+
+    int[] coldIndices = new int[indices.length - hotNum];
+    for (int i = 0, k = 0; i < indices.length; i++) {
+      if (!values.containsKey(indices[i])) {
+        coldIndices[k++] = indices[i];
+      }
+    }
+
+    Vector vector = coldIndices.length > 0 ? PSAgentContext.get().getUserRequestAdapter()
+        .get(matrixId, rowId, coldIndices).get() : createVector(matrixId, rowId, indices.length);
+    for (int i = 0; i < indices.length; i++) {
+      if (values.containsKey(indices[i])) {
+        set(vector, indices[i], values.get(indices[i]));
+      }
+    }
+    hitNum.addAndGet(hotNum);
+    return vector;
+  }
+
+  /**
+   * Get the values of the indices of a row, the hot indices are read from the cache and the others
+   * are read from the pss
+   *
+   * @param taskContext task context
+   * @param matrixId matrix id
+   * @param rowId row id
+   * @param indices column indices
+   * @return values of the indices, null if no hot key can be used, the caller should read all
+   * indices from the pss then
+   */
+  public Vector get(TaskContext taskContext, int matrixId, int rowId, long[] indices)
+      throws Exception {
+    Long2DoubleOpenHashMap values = getValues(taskContext, matrixId, rowId, indices.length);
+    if (values == null) {
+      return null;
+    }
+
+    int hotNum = 0;
+    for (int i = 0; i < indices.length; i++) {
+      if (values.containsKey(indices[i])) {
+        hotNum++;
+      }
+    }
+    if (hotNum == 0) {
+      return null;
+    }
+
+    long[] coldIndices = new long[indices.length - hotNum];
+    for (int i = 0, k = 0; i < indices.length; i++) {
+      if (!values.containsKey(indices[i])) {
+        coldIndices[k++] = indices[i];
+      }
+    }
+
+    Vector vector = coldIndices.length > 0 ? PSAgentContext.get().getUserRequestAdapter()
+        .get(matrixId, rowId, coldIndices).get() : createVector(matrixId, rowId, indices.length);
+    for (int i = 0; i < indices.length; i++) {
+      if (values.containsKey(indices[i])) {
+        set(vector, indices[i], values.get(indices[i]));
+      }
+    }
+    hitNum.addAndGet(hotNum);
+    return vector;
+  }
+
+  /**
+   * Get the cached hot keys of a row, the row is registered for refreshing if it is not cached
+   */
+  private Long2DoubleOpenHashMap getValues(TaskContext taskContext, int matrixId, int rowId,
+      int indexNum) {
+    if (taskContext == null || !isSupported(matrixId)) {
+      return null;
+    }
+    requestNum.addAndGet(indexNum);
+
+    long key = ((long) matrixId << 32) | (rowId & 0xFFFFFFFFL);
+    HotKeys hotKeys = rowToHotKeys.get(key);
+    if (hotKeys == null) {
+      rowToHotKeys.putIfAbsent(key, new HotKeys());
+      return null;
+    }
+
+    int clock = hotKeys.clock;
+    int staleness = PSAgentContext.get().getConsistencyController().getStaleness(matrixId);
+    if (clock < 0 || staleness < 0 || clock < taskContext.getMatrixClock(matrixId) - staleness) {
+      return null;
+    }
+    return hotKeys.values;
+  }
+
+  private boolean isSupported(int matrixId) {
+    MatrixMeta meta = PSAgentContext.get().getMatrixMetaManager().getMatrixMeta(matrixId);
+    if (meta == null) {
+      return false;
+    }
+    RowType rowType = meta.getRowType();
+    return !rowType.isComp() && !rowType.isLong();
+  }
+
+  private Vector createVector(int matrixId, int rowId, int capacity) {
+    MatrixMeta meta = PSAgentContext.get().getMatrixMetaManager().getMatrixMeta(matrixId);
+    RowType rowType = meta.getRowType();
+    Vector vector;
+    if (rowType.isLongKey()) {
+      if (rowType.isInt()) {
+        vector = VFactory.sparseLongKeyIntVector(meta.getColNum(), capacity);
+      } else if (rowType.isFloat()) {
+        vector = VFactory.sparseLongKeyFloatVector(meta.getColNum(), capacity);
+      } else {
+        vector = VFactory.sparseLongKeyDoubleVector(meta.getColNum(), capacity);
+      }
+    } else {
+      if (rowType.isInt()) {
+        vector = VFactory.sparseIntVector((int) meta.getColNum(), capacity);
+      } else if (rowType.isFloat()) {
+        vector = VFactory.sparseFloatVector((int) meta.getColNum(), capacity);
+      } else {
+        vector = VFactory.sparseDoubleVector((int) meta.getColNum(), capacity);
+      }
+    }
+    vector.setMatrixId(matrixId);
+    vector.setRowId(rowId);
+    return vector;
+  }
+
+  private static void set(Vector vector, long index, double value) {
+    if (vector instanceof IntDoubleVector) {
+      ((IntDoubleVector) vector).set((int) index, value);
+    } else if (vector instanceof IntFloatVector) {
+      ((IntFloatVector) vector).set((int) index, (float) value);
+    } else if (vector instanceof IntIntVector) {
+      ((IntIntVector) vector).set((int) index, (int) value);
+    } else if (vector instanceof LongDoubleVector) {
+      ((LongDoubleVector) vector).set(index, value);
+    } else if (vector instanceof LongFloatVector) {
+      ((LongFloatVector) vector).set(index, (float) value);
+    } else if (vector instanceof LongIntVector) {
+      ((LongIntVector) vector).set(index, (int) value);
+    } else {
+      throw new UnsupportedOperationException(
+          "Hot key cache not support " + vector.getClass().getName() + " now");
+    }
+  }
+}
@@ -60,7 +60,15 @@ public class MatrixOpLog {
   }
 
   public void init() {
-    MatrixMeta meta = PSAgentContext.get().getMatrixMetaManager().getMatrixMeta(matrixId);
+    init(PSAgentContext.get().getMatrixMetaManager().getMatrixMeta(matrixId));
+  }
+
+  /**
+   * Create the update cache for the matrix
+   *
+   * @param meta matrix meta
+   */
+  void init(MatrixMeta meta) {
     matrix = createMatrix(meta);
   }
 
@@ -68,7 +76,7 @@ public class MatrixOpLog {
     return matrix;
   }
 
-  private Matrix createMatrix(MatrixMeta meta) {
+  protected Matrix createMatrix(MatrixMeta meta) {
     RowType rowType = meta.getRowType();
     String opLogTypeStr = meta.getAttribute(MatrixConf.MATRIX_OPLOG_TYPE);
     RowType opLogType;
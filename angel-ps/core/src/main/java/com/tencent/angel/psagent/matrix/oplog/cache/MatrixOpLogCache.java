@@ -108,6 +108,11 @@ public class MatrixOpLogCache {
    */
   private Thread dispatcher;
 
+  /**
+   * update shard number of a matrix oplog
+   */
+  private int opLogShardNum = 1;
+
   public MatrixOpLogCache() {
     opLogs = new ConcurrentHashMap<>();
 
@@ -129,6 +134,9 @@ public class MatrixOpLogCache {
     workerPool = Executors.newFixedThreadPool(PSAgentContext.get().getConf()
         .getInt(AngelConf.ANGEL_MATRIX_OPLOG_MERGER_POOL_SIZE,
             AngelConf.DEFAULT_ANGEL_MATRIX_OPLOG_MERGER_POOL_SIZE));
+    opLogShardNum = PSAgentContext.get().getConf()
+        .getInt(AngelConf.ANGEL_MATRIX_OPLOG_SHARD_NUM,
+            AngelConf.DEFAULT_ANGEL_MATRIX_OPLOG_SHARD_NUM);
 
     dispatcher = new MergeDispacher();
     dispatcher.setName("oplog-merge-dispatcher");
@@ -559,7 +567,8 @@ public class MatrixOpLogCache {
   }
 
   private MatrixOpLog createMatrixOpLog(int matrixId) {
-    MatrixOpLog log = new MatrixOpLog(matrixId);
+    MatrixOpLog log = opLogShardNum > 1 ? new ShardedMatrixOpLog(matrixId, opLogShardNum)
+        : new MatrixOpLog(matrixId);
     log.init();
     return log;
   }
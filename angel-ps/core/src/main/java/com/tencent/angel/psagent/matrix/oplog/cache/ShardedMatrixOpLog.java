@@ -0,0 +1,141 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.psagent.matrix.oplog.cache;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.math2.matrix.Matrix;
+import com.tencent.angel.ml.math2.matrix.RowBasedMatrix;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.MatrixMeta;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Matrix update cache with several update shards. {@link MatrixOpLog} merges all updates into one
+ * matrix under one lock, so the merge workers are serialized when many tasks push updates. This
+ * class merges an update into a shard that is not locked by other workers, and the shards are
+ * combined row by row in parallel only when the updates are flushed.
+ */
+public class ShardedMatrixOpLog extends MatrixOpLog {
+
+  /**
+   * Update shards, the first one is {@link #matrix}
+   */
+  private final Matrix[] shards;
+  private final ReentrantLock[] shardLocks;
+
+  /**
+   * Create a new ShardedMatrixOpLog for matrix.
+   *
+   * @param matrixId matrix id
+   * @param shardNum update shard number
+   */
+  public ShardedMatrixOpLog(int matrixId, int shardNum) {
+    super(matrixId);
+    if (shardNum <= 0) {
+      throw new IllegalArgumentException("shard number must be positive, but it is " + shardNum);
+    }
+    this.shards = new Matrix[shardNum];
+    this.shardLocks = new ReentrantLock[shardNum];
+    for (int i = 0; i < shardNum; i++) {
+      shardLocks[i] = new ReentrantLock();
+    }
+  }
+
+  @Override
+  void init(MatrixMeta meta) {
+    super.init(meta);
+    shards[0] = matrix;
+    for (int i = 1; i < shards.length; i++) {
+      shards[i] = createMatrix(meta);
+    }
+  }
+
+  /**
+   * Lock a shard, the shards that are not locked by others are tried first
+   *
+   * @return locked shard index
+   */
+  private int lockShard() {
+    int start = (int) (Thread.currentThread().getId() % shards.length);
+    for (int i = 0; i < shards.length; i++) {
+      int index = (start + i) % shards.length;
+      if (shardLocks[index].tryLock()) {
+        return index;
+      }
+    }
+    shardLocks[start].lock();
+    return start;
+  }
+
+  @Override
+  void merge(Vector update) {
+    int index = lockShard();
+    try {
+      shards[index].iadd(update.getRowId(), update);
+    } finally {
+      shardLocks[index].unlock();
+    }
+  }
+
+  @Override
+  void merge(Matrix update) {
+    int index = lockShard();
+    try {
+      shards[index].iadd(update);
+    } finally {
+      shardLocks[index].unlock();
+    }
+  }
+
+  /**
+   * Add the updates in all shards to the first one, rows are combined in parallel. It is called
+   * after all merges of the oplog are finished
+   */
+  void combine() {
+    if (shards.length == 1) {
+      return;
+    }
+
+    int rowNum = ((RowBasedMatrix) matrix).getNumRows();
+    IntStream.range(0, rowNum).parallel().forEach(rowId -> {
+      for (int i = 1; i < shards.length; i++) {
+        Vector shardRow = ((RowBasedMatrix) shards[i]).getRow(rowId);
+        if (shardRow != null) {
+          matrix.iadd(rowId, shardRow);
+          ((RowBasedMatrix) shards[i]).clearRow(rowId);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void flushToLocalStorage() {
+    combine();
+    super.flushToLocalStorage();
+  }
+
+  @Override
+  public void split(Map<PartitionKey, List<RowUpdateSplit>> psUpdateData) {
+    combine();
+    super.split(psUpdateData);
+  }
+}
@@ -24,6 +24,7 @@ import com.tencent.angel.common.AngelThreadFactory;
 import com.tencent.angel.common.location.Location;
 import com.tencent.angel.common.transport.ChannelManager2;
 import com.tencent.angel.common.transport.ChannelPoolParam;
+import com.tencent.angel.common.transport.LocalTransport;
 import com.tencent.angel.common.transport.NettyChannel;
 import com.tencent.angel.conf.AngelConf;
 import com.tencent.angel.ml.matrix.PartitionLocation;
@@ -86,9 +87,12 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -96,6 +100,7 @@ import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -147,6 +152,11 @@ public class MatrixTransportClient implements MatrixTransportInterface {
    */
   private EventLoopGroup eventGroup;
 
+  /**
+   * netty client thread pool for the local channels to the PSs in this JVM
+   */
+  private EventLoopGroup localEventGroup;
+
   /**
    * un-decoded result queue
    */
@@ -431,6 +441,23 @@ public class MatrixTransportClient implements MatrixTransportInterface {
                     new MatrixTransportClientHandler(msgQueue, dispatchMessageQueue, rpcContext));
           }
         });
+
+    // The PSs in this JVM are connected by local channels, the messages are passed without
+    // socket I/O and frame codec
+    if (conf.getBoolean(AngelConf.ANGEL_NETTY_MATRIXTRANSFER_LOCAL_ENABLE,
+        AngelConf.DEFAULT_ANGEL_NETTY_MATRIXTRANSFER_LOCAL_ENABLE)) {
+      localEventGroup = new DefaultEventLoopGroup(nettyWorkerNum);
+      Bootstrap localBootstrap = new Bootstrap();
+      localBootstrap.group(localEventGroup).channel(LocalChannel.class)
+          .handler(new ChannelInitializer<LocalChannel>() {
+            @Override
+            protected void initChannel(LocalChannel ch) throws Exception {
+              ch.pipeline().addLast(
+                  new MatrixTransportClientHandler(msgQueue, dispatchMessageQueue, rpcContext));
+            }
+          });
+      channelManager.setLocalBootstrap(localBootstrap);
+    }
   }
 
   /**
@@ -494,6 +521,10 @@ public class MatrixTransportClient implements MatrixTransportInterface {
         eventGroup.shutdownGracefully();
       }
 
+      if (localEventGroup != null) {
+        localEventGroup.shutdownGracefully();
+      }
+
       if (requestThreadPool != null) {
         requestThreadPool.shutdownNow();
       }
@@ -1276,8 +1307,8 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       Request item;
       int submitNum = 0;
       while ((item = queue.poll()) != null) {
-        if (!checkIsOverReqNumLimit(item.getContext().getServerId())) {
-          // If request is not over limit, just submit it
+        if (!checkIsOverReqNumLimit(item.getContext().getServerId()) && acquireCredit(item)) {
+          // If request is not over limit and there are enough credits, just submit it
           submit(item);
           submitNum++;
         } else {
@@ -1292,7 +1323,34 @@ public class MatrixTransportClient implements MatrixTransportInterface {
     private boolean checkIsOverReqNumLimit(ParameterServerId serverId) {
       return ((rpcContext.getInflightRPCCounters() + 1) > rpcContext.getMaxInflightRPCNum()) || (
           (rpcContext.getServerInflightRPCCounters(serverId) + 1) > rpcContext
-              .getMaxInflightRPCNumPerServer());
+              .getServerInflightRPCLimit(serverId));
+    }
+
+    /**
+     * Spend the credits for a partition request if the server is in GENERAL state, the spent credit
+     * bytes are carried to the server in the token field of the request
+     *
+     * @param item request
+     * @return true means the request can be submitted now
+     */
+    private boolean acquireCredit(Request item) {
+      if (!(item instanceof PartitionRequest)) {
+        return true;
+      }
+
+      ParameterServerId serverId = item.getContext().getServerId();
+      if (psIdToStateMap.get(serverId) != ServerState.GENERAL) {
+        ((PartitionRequest) item).setTokenNum(0);
+        return true;
+      }
+
+      long credit = rpcContext
+          .acquireCredit(serverId, item.bufferLen() + item.getEstimizeDataSize());
+      if (credit < 0) {
+        return false;
+      }
+      ((PartitionRequest) item).setTokenNum((int) credit);
+      return true;
     }
 
     /**
@@ -1336,6 +1394,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       }
       LOG.debug("submit request seqId=" + seqId + ",request=" + item);
       seqIdToRequestMap.put(seqId, item);
+      item.getContext().setSubmitStartTs(System.nanoTime());
       requestThreadPool.execute(new Requester(item, seqId));
     }
 
@@ -1510,12 +1569,23 @@ public class MatrixTransportClient implements MatrixTransportInterface {
 
         LOG.info("remove channel " + channel + ", removeNum=" + removeNum);
 
-        InetSocketAddress address = (InetSocketAddress) (channel.remoteAddress());
-        if (address == null) {
-          LOG.warn("channel " + channel + " remote address is null");
-          return;
+        SocketAddress remoteAddress = channel.remoteAddress();
+        Location loc;
+        if (remoteAddress instanceof LocalAddress) {
+          Location serverLoc = LocalTransport.getLocation((LocalAddress) remoteAddress);
+          if (serverLoc == null) {
+            LOG.warn("channel " + channel + " local server is unregistered");
+            return;
+          }
+          loc = new Location(serverLoc.getIp(), serverLoc.getPort() - 1);
+        } else {
+          InetSocketAddress address = (InetSocketAddress) remoteAddress;
+          if (address == null) {
+            LOG.warn("channel " + channel + " remote address is null");
+            return;
+          }
+          loc = new Location(address.getHostName(), address.getPort() - 1);
         }
-        Location loc = new Location(address.getHostName(), address.getPort() - 1);
         ParameterServerId psId = PSAgentContext.get().getLocationManager().getPsId(loc);
         if (psId != null) {
           getChannelContext(new PSLocation(psId, loc)).channelNotactive();
@@ -1538,6 +1608,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
     if (request instanceof PartitionRequest) {
       rpcContext.after(request.getContext().getServerId());
     }
+    rpcContext.record(PSAgentContext.get().getPSAgentId(), seqId, request);
     seqIdToSendCFMap.remove(seqId);
     returnChannel(request);
     switch (request.getType()) {
@@ -1809,6 +1880,25 @@ public class MatrixTransportClient implements MatrixTransportInterface {
     return getUseTimes;
   }
 
+  /**
+   * Get the rpc running context, it contains the flow control states and rpc latencies of the
+   * servers
+   *
+   * @return rpc running context
+   */
+  public RPCContext getRPCContext() {
+    return rpcContext;
+  }
+
+  /**
+   * Get the channel manager, it holds the channel pools to the servers
+   *
+   * @return channel manager
+   */
+  public ChannelManager2 getChannelManager() {
+    return channelManager;
+  }
+
   class SendResultKey {
 
     public final PSLocation psLoc;
@@ -1975,6 +2065,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
         LOG.error("request " + request + " server " + request.getContext().getServerId()
             + " location is null");
         if (psLoc.loc == null) {
+          returnCredit(request);
           requestFailed(seqId, ResponseType.SERVER_NOT_READY, "location is null");
           return;
         }
@@ -1994,6 +2085,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
         if (!stopped.get()) {
           getChannelContext(psLoc).getChannelFailed();
           LOG.error("get channel for " + psLoc.loc + " failed ", e);
+          returnCredit(request);
           requestFailed(seqId, ResponseType.NETWORK_ERROR, StringUtils.stringifyException(e));
         }
         return;
@@ -2007,34 +2099,20 @@ public class MatrixTransportClient implements MatrixTransportInterface {
                 - startTs));
       }
 
-      // Check if need get token first
+      // The credits are acquired by the dispatcher, the token carries the spent credit bytes
       int token = 0;
       if (request instanceof PartitionRequest) {
         if (psIdToStateMap.get(psLoc.psId) == ServerState.BUSY) {
+          returnCredit(request);
           requestFailed(seqId, ResponseType.SERVER_IS_BUSY, "server " + psLoc.psId + " is busy");
           return;
-        } else if (psIdToStateMap.get(psLoc.psId) == ServerState.GENERAL) {
-          try {
-            LOG.debug("PS " + psLoc + " is in GENERAL, need get token first");
-            token = getToken(psLoc.loc);
-            LOG.debug("token=" + token);
-            if (token == 0) {
-              requestFailed(seqId, ResponseType.SERVER_IS_BUSY, "PS " + psLoc.psId + " is busy");
-              return;
-            }
-            ((PartitionRequest) request).setTokenNum(token);
-          } catch (Throwable e) {
-            LOG.error("get token from PS " + psLoc.loc + " failed ", e);
-            requestFailed(seqId, ResponseType.NETWORK_ERROR, StringUtils.stringifyException(e));
-            return;
-          }
         }
-      } else {
-        token = 0;
+        token = ((PartitionRequest) request).getTokenNum();
       }
 
       // Serialize the request
       startTs = System.currentTimeMillis();
+      request.getContext().setSerializeStartTs(System.nanoTime());
       ByteBuf buffer;
       try {
         buffer = serializeRequest(request, seqId, token);
@@ -2044,6 +2122,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
         }
 
         LOG.error("serialize request " + request + " failed ", e);
+        returnCredit(request);
         requestFailed(seqId, ResponseType.OOM, StringUtils.stringifyException(e));
         return;
       }
@@ -2055,6 +2134,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
 
       // Send the request
       request.getContext().setSendStartTs(System.currentTimeMillis());
+      request.getContext().setSendStartNanoTs(System.nanoTime());
       ChannelFuture cf = channel.writeAndFlush(buffer);
       cf.addListener(new RequesterChannelFutureListener(seqId, request));
 
@@ -2063,8 +2143,18 @@ public class MatrixTransportClient implements MatrixTransportInterface {
               request.getContext().getLocation()), cf));
     }
 
-    private int getToken(Location loc) throws IOException, ServiceException {
-      return PSAgentContext.get().getPSControlClientManager().getOrCreatePSClient(loc).getToken(0);
+    /**
+     * Give the credits spent by a request back if the request is not sent, the ps never receives
+     * them so they are still in flight on the ps side
+     *
+     * @param request request
+     */
+    private void returnCredit(Request request) {
+      if (request instanceof PartitionRequest) {
+        PartitionRequest partRequest = (PartitionRequest) request;
+        rpcContext.addCredit(request.getContext().getServerId(), partRequest.getTokenNum());
+        partRequest.setTokenNum(0);
+      }
     }
 
     private PSLocation getPSLoc(Request request) {
@@ -2338,7 +2428,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       response.deserialize(buf);
 
       LOG.debug("get state for ps " + request.getPsId() + ", state = " + response.getState());
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       FutureResult<GetStateResponse> future = requestToResultMap.remove(request);
       if (future != null) {
@@ -2363,7 +2453,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       GetUDFResponse response = new GetUDFResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         FutureResult<PartitionGetResult> future = requestToResultMap.remove(request);
@@ -2382,7 +2472,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       CheckpointPSResponse response = new CheckpointPSResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         FutureResult<VoidResult> future = requestToResultMap.remove(request);
@@ -2403,7 +2493,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       UpdaterResponse response = new UpdaterResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         FutureResult<VoidResult> future = requestToResultMap.remove(request);
@@ -2424,7 +2514,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       UpdateResponse response = new UpdateResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         FutureResult<VoidResult> future = requestToResultMap.remove(request);
@@ -2445,7 +2535,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       GetClocksResponse response = new GetClocksResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       FutureResult<GetClocksResponse> future = requestToResultMap.remove(request);
       if (future != null) {
@@ -2464,7 +2554,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       GetPartitionResponse response = new GetPartitionResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         //updateMatrixCache(request.getPartKey(), response.getPartition());
@@ -2485,7 +2575,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       GetRowsSplitResponse response = new GetRowsSplitResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         //updateMatrixCache(request.getPartKey(), response.getRowsSplit());
@@ -2512,7 +2602,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       //response.setRowSplit(rowSplit);
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         //updateMatrixCache(request.getPartKey(), response.getRowSplit());
@@ -2533,7 +2623,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       IndexPartGetRowResponse response = new IndexPartGetRowResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         FutureResult<IndexPartGetRowResult> future = requestToResultMap.remove(request);
@@ -2557,7 +2647,7 @@ public class MatrixTransportClient implements MatrixTransportInterface {
       IndexPartGetRowsResponse response = new IndexPartGetRowsResponse();
       response.deserialize(buf);
 
-      handleServerState(request, response.getState());
+      handleServerState(request, response);
 
       if (response.getResponseType() == ResponseType.SUCCESS) {
         FutureResult<IndexPartGetRowsResult> future = requestToResultMap.remove(request);
@@ -2602,13 +2692,26 @@ public class MatrixTransportClient implements MatrixTransportInterface {
           .notifySubTaskFailed(request.getUserRequestId(), request.getSeqId(), errorMsg);
     }
 
-    private void handleServerState(Request request, ServerState state) {
+    private void handleServerState(Request request, Response response) {
+      ServerState state = response.getState();
       if (LOG.isDebugEnabled() && (request instanceof PartitionRequest)) {
-        LOG.debug("request " + request + " response state = " + state);
+        LOG.debug("request " + request + " response state = " + state + ", credit = " + response
+            .getCredit());
       }
       if (state != null) {
         psIdToStateMap.put(request.getContext().getActualServerId(), state);
       }
+
+      if (request instanceof PartitionRequest) {
+        ParameterServerId serverId = request.getContext().getServerId();
+        rpcContext.addCredit(serverId, response.getCredit());
+        if (response.getResponseType() == ResponseType.SERVER_IS_BUSY
+            || state == ServerState.BUSY) {
+          rpcContext.decreaseServerLimit(serverId);
+        } else if (response.getResponseType() == ResponseType.SUCCESS) {
+          rpcContext.increaseServerLimit(serverId);
+        }
+      }
     }
 
     //TODO
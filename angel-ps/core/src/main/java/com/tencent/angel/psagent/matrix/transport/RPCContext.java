@@ -18,15 +18,24 @@
 
 package com.tencent.angel.psagent.matrix.transport;
 
+import com.tencent.angel.common.metrics.LatencyHistogram;
+import com.tencent.angel.common.metrics.SlowRequestTracker;
 import com.tencent.angel.conf.AngelConf;
 import com.tencent.angel.ps.ParameterServerId;
+import com.tencent.angel.ps.server.data.TransportMethod;
+import com.tencent.angel.ps.server.data.request.PartitionRequest;
+import com.tencent.angel.ps.server.data.request.Request;
+import com.tencent.angel.ps.server.data.request.RequestContext;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RPCContext {
   private static final Log LOG = LogFactory.getLog(RPCContext.class);
@@ -50,14 +59,44 @@ public class RPCContext {
    */
   private final ConcurrentHashMap<ParameterServerId, AtomicInteger> serverInflightRPCCounters;
 
+  /**
+   * ps id to max flight request number map, it is adjusted with AIMD: increase by one after a
+   * success response and halve after a busy response
+   */
+  private final ConcurrentHashMap<ParameterServerId, AtomicInteger> serverInflightRPCLimits;
+
+  /**
+   * ps id to available credit bytes map, the credits are granted in the responses of the ps
+   */
+  private final ConcurrentHashMap<ParameterServerId, AtomicLong> serverCredits;
+
   private final AtomicInteger lastOOMInflightRPCCounter;
 
+  /**
+   * Enable the rpc latency histograms or not
+   */
+  private volatile boolean metricsEnable;
+
+  /**
+   * ps id to rpc latency histograms map, the histograms are indexed by rpc type
+   */
+  private final ConcurrentHashMap<ParameterServerId, LatencyHistogram[]> serverLatencies;
+
+  /**
+   * ps id to slowest requests map
+   */
+  private final ConcurrentHashMap<ParameterServerId, SlowRequestTracker> serverSlowRequests;
+
   public RPCContext() {
     maxInflightRPCNum = new AtomicInteger(0);
     inflightRPCCounter = new AtomicInteger(0);
     maxInflightRPCNumPerServer = new AtomicInteger(0);
     serverInflightRPCCounters = new ConcurrentHashMap<>();
+    serverInflightRPCLimits = new ConcurrentHashMap<>();
+    serverCredits = new ConcurrentHashMap<>();
     lastOOMInflightRPCCounter = new AtomicInteger(0);
+    serverLatencies = new ConcurrentHashMap<>();
+    serverSlowRequests = new ConcurrentHashMap<>();
   }
 
   public void init(Configuration conf, ParameterServerId[] psIds) {
@@ -67,8 +106,23 @@ public class RPCContext {
       .getInt(AngelConf.ANGEL_MATRIXTRANSFER_MAX_REQUESTNUM_PERSERVER,
         AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_MAX_REQUESTNUM_PERSERVER));
 
+    metricsEnable = conf.getBoolean(AngelConf.ANGEL_MATRIXTRANSFER_METRICS_ENABLE,
+      AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_METRICS_ENABLE);
+    int slowRequestNum = conf.getInt(AngelConf.ANGEL_MATRIXTRANSFER_SLOW_REQUEST_NUM,
+      AngelConf.DEFAULT_ANGEL_MATRIXTRANSFER_SLOW_REQUEST_NUM);
+
     for (int i = 0; i < psIds.length; i++) {
       serverInflightRPCCounters.put(psIds[i], new AtomicInteger(0));
+      serverInflightRPCLimits.put(psIds[i], new AtomicInteger(maxInflightRPCNumPerServer.get()));
+      serverCredits.put(psIds[i], new AtomicLong(0));
+
+      LatencyHistogram[] latencies = new LatencyHistogram[TransportMethod.values().length];
+      for (int j = 0; j < latencies.length; j++) {
+        latencies[j] = new LatencyHistogram();
+      }
+      serverLatencies.put(psIds[i], latencies);
+      serverSlowRequests.put(psIds[i],
+        new SlowRequestTracker(slowRequestNum, "matrix", "wait", "serialize", "response"));
     }
 
     int maxReqNumInFlight = conf.getInt(AngelConf.ANGEL_MATRIXTRANSFER_MAX_REQUESTNUM,
@@ -111,6 +165,182 @@ public class RPCContext {
     return maxInflightRPCNumPerServer.get();
   }
 
+  /**
+   * Get the current max flight request number of a ps
+   *
+   * @param psId ps id
+   * @return max flight request number
+   */
+  public int getServerInflightRPCLimit(ParameterServerId psId) {
+    AtomicInteger limit = serverInflightRPCLimits.get(psId);
+    return limit == null ? maxInflightRPCNumPerServer.get() : limit.get();
+  }
+
+  /**
+   * Additive increase the max flight request number of a ps after a success response
+   *
+   * @param psId ps id
+   */
+  public void increaseServerLimit(ParameterServerId psId) {
+    AtomicInteger limit = serverInflightRPCLimits.get(psId);
+    if (limit == null) {
+      return;
+    }
+    while (true) {
+      int current = limit.get();
+      if (current >= maxInflightRPCNumPerServer.get() || limit.compareAndSet(current, current + 1)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Multiplicative decrease the max flight request number of a ps after a busy response
+   *
+   * @param psId ps id
+   */
+  public void decreaseServerLimit(ParameterServerId psId) {
+    AtomicInteger limit = serverInflightRPCLimits.get(psId);
+    if (limit == null) {
+      return;
+    }
+    while (true) {
+      int current = limit.get();
+      if (limit.compareAndSet(current, Math.max(1, current / 2))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Add the credits granted by a ps. They are not clamped here: the ps already bounds its grants
+   * by its in-flight budget and counts every granted byte until it comes back in a request
+   *
+   * @param psId        ps id
+   * @param creditBytes granted credit bytes
+   */
+  public void addCredit(ParameterServerId psId, long creditBytes) {
+    AtomicLong credit = serverCredits.get(psId);
+    if (credit == null || creditBytes <= 0) {
+      return;
+    }
+    credit.addAndGet(creditBytes);
+  }
+
+  /**
+   * Get the available credit bytes of a ps
+   *
+   * @param psId ps id
+   * @return available credit bytes
+   */
+  public long getCredit(ParameterServerId psId) {
+    AtomicLong credit = serverCredits.get(psId);
+    return credit == null ? 0 : credit.get();
+  }
+
+  /**
+   * Spend credits for a request to a ps. If there is no other request in flight to the ps, the
+   * request is allowed to go with the credits left, so the window can always be replenished.
+   *
+   * @param psId         ps id
+   * @param requestBytes request size in bytes
+   * @return the spent credit bytes, -1 means there are not enough credits now
+   */
+  public long acquireCredit(ParameterServerId psId, long requestBytes) {
+    AtomicLong credit = serverCredits.get(psId);
+    if (credit == null) {
+      return 0;
+    }
+    while (true) {
+      long current = credit.get();
+      if (current >= requestBytes) {
+        if (credit.compareAndSet(current, current - requestBytes)) {
+          return requestBytes;
+        }
+      } else if (getServerInflightRPCCounters(psId) == 0) {
+        if (credit.compareAndSet(current, 0)) {
+          return current;
+        }
+      } else {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Record the latency of a success request. The request is traced by the psagent id and seq id
+   * which are sent to the ps in the rpc head, the ps traces its slow requests in the same way.
+   *
+   * @param clientId psagent id
+   * @param seqId request seq id
+   * @param request request
+   */
+  public void record(int clientId, int seqId, Request request) {
+    RequestContext context = request.getContext();
+    if (!metricsEnable || context.getServerId() == null) {
+      return;
+    }
+
+    LatencyHistogram[] latencies = serverLatencies.get(context.getServerId());
+    long submitTs = context.getSubmitStartTs();
+    long serializeTs = context.getSerializeStartTs();
+    long sendTs = context.getSendStartNanoTs();
+    if (latencies == null || submitTs < 0 || serializeTs < 0 || sendTs < 0) {
+      return;
+    }
+
+    long totalMicros = (System.nanoTime() - submitTs) / 1000;
+    latencies[request.getType().ordinal()].record(totalMicros);
+
+    SlowRequestTracker slowRequests = serverSlowRequests.get(context.getServerId());
+    if (slowRequests.isSlow(totalMicros)) {
+      int matrixId = request instanceof PartitionRequest ?
+        ((PartitionRequest) request).getPartKey().getMatrixId() : -1;
+      long waitMicros = (serializeTs - submitTs) / 1000;
+      long serializeMicros = (sendTs - serializeTs) / 1000;
+      slowRequests.record(clientId, seqId, request.getType(), matrixId, totalMicros,
+        new long[] {waitMicros, serializeMicros, totalMicros - waitMicros - serializeMicros});
+    }
+  }
+
+  /**
+   * Get the rpc latency report of all servers
+   *
+   * @return rpc latency report
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    if (!metricsEnable) {
+      sb.append("transport metrics is disabled, set ")
+        .append(AngelConf.ANGEL_MATRIXTRANSFER_METRICS_ENABLE).append(" to true to enable it\n");
+      return sb.toString();
+    }
+
+    ParameterServerId[] psIds =
+      serverLatencies.keySet().toArray(new ParameterServerId[serverLatencies.size()]);
+    Arrays.sort(psIds, new Comparator<ParameterServerId>() {
+      @Override public int compare(ParameterServerId o1, ParameterServerId o2) {
+        return Integer.compare(o1.getIndex(), o2.getIndex());
+      }
+    });
+
+    TransportMethod[] methods = TransportMethod.values();
+    for (ParameterServerId psId : psIds) {
+      sb.append(psId).append(", inflight=").append(getServerInflightRPCCounters(psId))
+        .append(", limit=").append(getServerInflightRPCLimit(psId)).append(", credit=")
+        .append(serverCredits.get(psId)).append('\n');
+      LatencyHistogram[] latencies = serverLatencies.get(psId);
+      for (int i = 0; i < methods.length; i++) {
+        if (latencies[i].getCount() > 0) {
+          sb.append("  ").append(methods[i]).append(": ").append(latencies[i]).append('\n');
+        }
+      }
+      sb.append("  Slowest requests\n");
+      serverSlowRequests.get(psId).report(sb);
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
 
   public void print() {
     LOG.info("maxInflightRPCNum=" + maxInflightRPCNum.get());
@@ -118,7 +348,9 @@ public class RPCContext {
     LOG.info("inflightRPCCounter=" + inflightRPCCounter.get());
     LOG.info("lastOOMInflightRPCCounter=" + lastOOMInflightRPCCounter.get());
     for (Map.Entry<ParameterServerId, AtomicInteger> entry : serverInflightRPCCounters.entrySet()) {
-      LOG.info("for server " + entry.getKey() + " inflight rpc number=" + entry.getValue().get());
+      LOG.info("for server " + entry.getKey() + " inflight rpc number=" + entry.getValue().get()
+        + ", limit=" + getServerInflightRPCLimit(entry.getKey()) + ", credit=" + serverCredits
+        .get(entry.getKey()));
     }
   }
 }
@@ -0,0 +1,36 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.psagent.matrix.transport.adapter;
+
+import com.tencent.angel.ps.storage.vector.ServerRow;
+
+/**
+ * The result cache for the sub-requests of {@link GetRowSplitsRequest}, the row splits are
+ * returned as they are once all of them are received.
+ */
+public class GetRowSplitsCache extends PartitionResponseCache<ServerRow> {
+
+  public GetRowSplitsCache(int totalRequestNum) {
+    super(totalRequestNum);
+  }
+
+  @Override public String toString() {
+    return "GetRowSplitsCache{} " + super.toString();
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.psagent.matrix.transport.adapter;
+
+/**
+ * Get the splits of a row without merging them, see {@link GetRowSplitsCache}
+ */
+public class GetRowSplitsRequest extends GetRowRequest {
+
+  public GetRowSplitsRequest(int matrixId, int rowIndex, int clock) {
+    super(matrixId, rowIndex, clock);
+  }
+
+  @Override public String toString() {
+    return "GetRowSplitsRequest{} " + super.toString();
+  }
+}
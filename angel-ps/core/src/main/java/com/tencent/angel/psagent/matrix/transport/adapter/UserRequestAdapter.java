@@ -379,6 +379,35 @@ public class UserRequestAdapter {
     }
   }
 
+  /**
+   * Get the splits of a row, the splits are not merged. It is used to stream the rows of a matrix
+   * without holding the merged rows, see {@link com.tencent.angel.psagent.matrix.RowsStream}
+   *
+   * @param matrixId matrix id
+   * @param rowIndex row index
+   * @param clock clock value
+   * @return the row splits, one for each partition of the row
+   */
+  public FutureResult<List<ServerRow>> getRowSplits(int matrixId, int rowIndex, int clock) {
+    checkParams(matrixId, rowIndex);
+
+    List<PartitionKey> partList =
+        PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId, rowIndex);
+    GetRowSplitsRequest request = new GetRowSplitsRequest(matrixId, rowIndex, clock);
+    int requestId = request.getRequestId();
+    FutureResult<List<ServerRow>> result = new FutureResult<>();
+    requests.put(requestId, request);
+    requestIdToResultMap.put(requestId, result);
+    requestIdToSubresponsMap.put(requestId, new GetRowSplitsCache(partList.size()));
+
+    MatrixTransportClient matrixClient = PSAgentContext.get().getMatrixTransportClient();
+    int size = partList.size();
+    for (int i = 0; i < size; i++) {
+      matrixClient.getRowSplit(requestId, partList.get(i), rowIndex, clock);
+    }
+    return result;
+  }
+
   /**
    * Get rows use pipeline mode.
    *
@@ -707,6 +736,13 @@ public class UserRequestAdapter {
             break;
 
           case GET_ROW:
+            if (cache instanceof GetRowSplitsCache) {
+              if (cache.canMerge()) {
+                result.set(cache.getSubResponses());
+              }
+              break;
+            }
+
             if (cache.canMerge()) {
               if (!((GetRowPipelineCache) cache).merging.getAndSet(true)) {
                 workerPool.execute(new RowMerger((GetRowRequest) request, cache, result));
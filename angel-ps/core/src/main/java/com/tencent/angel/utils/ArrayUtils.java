@@ -17,8 +17,32 @@
 package com.tencent.angel.utils;
 
 public class ArrayUtils {
+
+  /**
+   * Length ratio from which the intersection gallops over the longer array instead of merging
+   */
+  private static final int GALLOP_RATIO = 32;
+
+  /**
+   * Count the common elements of two sorted arrays. If one array is much longer than the other,
+   * the elements of the short one are located in the long one with exponential and binary search,
+   * so the cost is O(m * log(n / m)) instead of O(m + n).
+   *
+   * @param array1 sorted array
+   * @param array2 sorted array
+   * @return common element number
+   */
   public static int intersectCount(long [] array1, long [] array2) {
     if (array1 == null || array2 == null || array1.length == 0 || array2.length == 0) return 0;
+    if (array1.length > array2.length) {
+      long[] temp = array1;
+      array1 = array2;
+      array2 = temp;
+    }
+    if (array2.length / array1.length >= GALLOP_RATIO) {
+      return gallopIntersectCount(array1, array2);
+    }
+
     int count = 0;
     int pointerA = 0;
     int pointerB = 0;
@@ -35,6 +59,40 @@ public class ArrayUtils {
     return count;
   }
 
+  private static int gallopIntersectCount(long[] small, long[] large) {
+    int count = 0;
+    int low = 0;
+    for (int i = 0; i < small.length && low < large.length; i++) {
+      long key = small[i];
+      // Exponential search for the range that contains the key
+      int step = 1;
+      int high = low;
+      while (high < large.length && large[high] < key) {
+        low = high + 1;
+        high += step;
+        step <<= 1;
+      }
+      if (high >= large.length) {
+        high = large.length - 1;
+      }
+
+      // Binary search for the first element >= key in [low, high]
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (large[mid] < key) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      if (low < large.length && large[low] == key) {
+        count++;
+        low++;
+      }
+    }
+    return count;
+  }
+
   public static int unionCount(long [] array1, long [] array2) {
     if (array1 == null || array2 == null)
       return 0;
@@ -65,4 +123,51 @@ public class ArrayUtils {
 
     return count;
   }
+
+  /**
+   * Find a key in the first size elements of a sorted array. The loop only moves the search base
+   * with a conditional move and always runs log2(size) steps, so there is no mispredicted branch.
+   *
+   * @param keys sorted keys
+   * @param size valid key number
+   * @param key the key to find
+   * @return index of the key, -1 means the key does not exist
+   */
+  public static int search(int[] keys, int size, int key) {
+    if (size <= 0) {
+      return -1;
+    }
+
+    int base = 0;
+    int n = size;
+    while (n > 1) {
+      int half = n >>> 1;
+      base = keys[base + half] <= key ? base + half : base;
+      n -= half;
+    }
+    return keys[base] == key ? base : -1;
+  }
+
+  /**
+   * Find a key in the first size elements of a sorted array, see {@link #search(int[], int, int)}
+   *
+   * @param keys sorted keys
+   * @param size valid key number
+   * @param key the key to find
+   * @return index of the key, -1 means the key does not exist
+   */
+  public static int search(long[] keys, int size, long key) {
+    if (size <= 0) {
+      return -1;
+    }
+
+    int base = 0;
+    int n = size;
+    while (n > 1) {
+      int half = n >>> 1;
+      base = keys[base + half] <= key ? base + half : base;
+      n -= half;
+    }
+    return keys[base] == key ? base : -1;
+  }
 }
@@ -20,6 +20,9 @@ package com.tencent.angel.utils;
 
 import io.netty.buffer.*;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * Netty ByteBuf allocation utils.
  */
@@ -62,4 +65,196 @@ public class ByteBufUtils {
       return newHeapByteBuf(estimizeSerilizeSize);
     }
   }
+
+  /**
+   * Write the float values to the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    dest buffer
+   * @param values float values
+   */
+  public static void writeFloats(ByteBuf buf, float[] values) {
+    int len = values.length * 4;
+    buf.ensureWritable(len);
+    ByteBuffer view = sharedView(buf, buf.writerIndex(), len);
+    if (view != null) {
+      view.asFloatBuffer().put(values);
+      buf.writerIndex(buf.writerIndex() + len);
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        buf.writeFloat(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Read float values from the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    source buffer
+   * @param values dest array
+   * @param num    value number
+   */
+  public static void readFloats(ByteBuf buf, float[] values, int num) {
+    int len = num * 4;
+    ByteBuffer view = sharedView(buf, buf.readerIndex(), len);
+    if (view != null) {
+      view.asFloatBuffer().get(values, 0, num);
+      buf.readerIndex(buf.readerIndex() + len);
+    } else {
+      for (int i = 0; i < num; i++) {
+        values[i] = buf.readFloat();
+      }
+    }
+  }
+
+  /**
+   * Write the double values to the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    dest buffer
+   * @param values double values
+   */
+  public static void writeDoubles(ByteBuf buf, double[] values) {
+    int len = values.length * 8;
+    buf.ensureWritable(len);
+    ByteBuffer view = sharedView(buf, buf.writerIndex(), len);
+    if (view != null) {
+      view.asDoubleBuffer().put(values);
+      buf.writerIndex(buf.writerIndex() + len);
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        buf.writeDouble(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Read double values from the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    source buffer
+   * @param values dest array
+   * @param num    value number
+   */
+  public static void readDoubles(ByteBuf buf, double[] values, int num) {
+    int len = num * 8;
+    ByteBuffer view = sharedView(buf, buf.readerIndex(), len);
+    if (view != null) {
+      view.asDoubleBuffer().get(values, 0, num);
+      buf.readerIndex(buf.readerIndex() + len);
+    } else {
+      for (int i = 0; i < num; i++) {
+        values[i] = buf.readDouble();
+      }
+    }
+  }
+
+  /**
+   * Write the int values to the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    dest buffer
+   * @param values int values
+   */
+  public static void writeInts(ByteBuf buf, int[] values) {
+    int len = values.length * 4;
+    buf.ensureWritable(len);
+    ByteBuffer view = sharedView(buf, buf.writerIndex(), len);
+    if (view != null) {
+      view.asIntBuffer().put(values);
+      buf.writerIndex(buf.writerIndex() + len);
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        buf.writeInt(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Read int values from the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    source buffer
+   * @param values dest array
+   * @param num    value number
+   */
+  public static void readInts(ByteBuf buf, int[] values, int num) {
+    int len = num * 4;
+    ByteBuffer view = sharedView(buf, buf.readerIndex(), len);
+    if (view != null) {
+      view.asIntBuffer().get(values, 0, num);
+      buf.readerIndex(buf.readerIndex() + len);
+    } else {
+      for (int i = 0; i < num; i++) {
+        values[i] = buf.readInt();
+      }
+    }
+  }
+
+  /**
+   * Write the long values to the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    dest buffer
+   * @param values long values
+   */
+  public static void writeLongs(ByteBuf buf, long[] values) {
+    int len = values.length * 8;
+    buf.ensureWritable(len);
+    ByteBuffer view = sharedView(buf, buf.writerIndex(), len);
+    if (view != null) {
+      view.asLongBuffer().put(values);
+      buf.writerIndex(buf.writerIndex() + len);
+    } else {
+      for (int i = 0; i < values.length; i++) {
+        buf.writeLong(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Read long values from the buffer, the values are copied in bulk if the buffer memory can be
+   * viewed as a nio buffer
+   *
+   * @param buf    source buffer
+   * @param values dest array
+   * @param num    value number
+   */
+  public static void readLongs(ByteBuf buf, long[] values, int num) {
+    int len = num * 8;
+    ByteBuffer view = sharedView(buf, buf.readerIndex(), len);
+    if (view != null) {
+      view.asLongBuffer().get(values, 0, num);
+      buf.readerIndex(buf.readerIndex() + len);
+    } else {
+      for (int i = 0; i < num; i++) {
+        values[i] = buf.readLong();
+      }
+    }
+  }
+
+  /**
+   * Get a nio view of [index, index + len) of the buffer that shares the buffer memory
+   *
+   * @param buf   buffer
+   * @param index start position
+   * @param len   view length
+   * @return the view with the byte order of the buffer, null if the memory can not be shared
+   */
+  private static ByteBuffer sharedView(ByteBuf buf, int index, int len) {
+    if (buf.order() != ByteOrder.BIG_ENDIAN) {
+      return null;
+    }
+
+    ByteBuffer view;
+    if (buf.hasArray()) {
+      view = ByteBuffer.wrap(buf.array(), buf.arrayOffset() + index, len).slice();
+    } else if (buf.isDirect() && buf.nioBufferCount() == 1) {
+      view = buf.nioBuffer(index, len);
+    } else {
+      return null;
+    }
+    return view.order(ByteOrder.BIG_ENDIAN);
+  }
 }
@@ -55,6 +55,14 @@ public class AngelController extends Controller implements AngelParams {
 
   }
 
+  public void parameterServerMetricsPage() {
+    render(ParameterServerMetricsPage.class);
+  }
+
+  public void workerMetricsPage() {
+    render(WorkerMetricsPage.class);
+  }
+
   // user choose a workerGroupID from the workergroups page,
   // now we should change the AngelApp params and render the workergroup page;
   public void workerGroupPage() {
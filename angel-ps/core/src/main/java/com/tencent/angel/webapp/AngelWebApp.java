@@ -49,6 +49,12 @@ public class AngelWebApp extends WebApp implements AngelParams {
     route(pajoin("/angel/workerThreadStackPage", WORKER_ATTEMPT_ID), AngelController.class,
       "workerThreadStackPage");
 
+    route(pajoin("/angel/parameterServerMetricsPage", PSATTEMPT_ID), AngelController.class,
+      "parameterServerMetricsPage");
+
+    route(pajoin("/angel/workerMetricsPage", WORKER_ATTEMPT_ID), AngelController.class,
+      "workerMetricsPage");
+
     route(pajoin("/angel/workerCounterPage", WORKER_ATTEMPT_ID), AngelController.class,
       "workerCounterPage");
 
@@ -83,7 +83,8 @@ public class ParameterServersBlock extends HtmlBlock {
     TR<THEAD<TABLE<Hamlet>>> headTr = table.thead().tr();
 
     headTr.th(_TH, "id").th(_TH, "state").th(_TH, "node address").th(_TH, "start time")
-      .th(_TH, "end time").th(_TH, "elapsed time").th(_TH, "log").th(_TH, "threadstack");
+      .th(_TH, "end time").th(_TH, "elapsed time").th(_TH, "log").th(_TH, "threadstack")
+      .th(_TH, "metrics");
     headTr._()._();
 
     Set<PSAttemptStateInternal> stateSet = transformToInternalState($(PARAMETERSERVER_STATE));
@@ -111,7 +112,8 @@ public class ParameterServersBlock extends HtmlBlock {
                 new Date(psAttempt.getLaunchTime()).toString()).td(psAttempt.getFinishTime() == 0 ?
               "N/A" :
               new Date(psAttempt.getFinishTime()).toString())
-              .td(elaspedTs == 0 ? "N/A" : new Date(elaspedTs).toString()).td("N/A").td("N/A");
+              .td(elaspedTs == 0 ? "N/A" : new Date(elaspedTs).toString()).td("N/A").td("N/A")
+              .td("N/A");
             tr._();
           } else {
             tr.td(psAttempt.getId().toString()).td($(PARAMETERSERVER_STATE)).td()
@@ -126,7 +128,9 @@ public class ParameterServersBlock extends HtmlBlock {
                 "containerlogs", psAttempt.getContainerIdStr(), amContext.getUser().toString()),
               "log")._().td()
               .a(url("/angel/parameterServerThreadStackPage/", psAttempt.getId().toString()),
-                "psthreadstack")._();
+                "psthreadstack")._().td()
+              .a(url("/angel/parameterServerMetricsPage/", psAttempt.getId().toString()),
+                "psmetrics")._();
 
 
             tr._();
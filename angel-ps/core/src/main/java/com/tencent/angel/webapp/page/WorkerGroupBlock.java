@@ -75,7 +75,7 @@ public class WorkerGroupBlock extends HtmlBlock {
 
     headTr.th(_TH, "id").th(_TH, "state").th(_TH, "node address").th(_TH, "start time")
       .th(_TH, "end time").th(_TH, "elapsed time").th(_TH, "log").th(_TH, "threadstack")
-      .th(_TH, "workercounter");
+      .th(_TH, "workercounter").th(_TH, "metrics");
 
     headTr._()._();
 
@@ -101,7 +101,7 @@ public class WorkerGroupBlock extends HtmlBlock {
               "N/A" :
               new Date(workerAttempt.getFinishTime()).toString())
             .td((elaspedTs == 0) ? "N/A" : StringUtils.formatTime(elaspedTs)).td("N/A").td("N/A")
-            .td("N/A");
+            .td("N/A").td("N/A");
         } else {
 
           tr.td().a(url("angel/workerPage", workerAttempt.getId().toString()),
@@ -119,6 +119,8 @@ public class WorkerGroupBlock extends HtmlBlock {
             "log")._().td().a(url("angel/workerThreadStackPage/", workerAttempt.getId().toString()),
             "workerthreadstack")._().td()
             .a(url("angel/workerCounterPage/", workerAttempt.getId().toString()), "workercounter")
+            ._().td()
+            .a(url("angel/workerMetricsPage/", workerAttempt.getId().toString()), "workermetrics")
             ._();
         }
         tr._();
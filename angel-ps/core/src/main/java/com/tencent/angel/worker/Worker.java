@@ -37,6 +37,7 @@ import com.tencent.angel.psagent.CounterUpdater;
 import com.tencent.angel.psagent.PSAgent;
 import com.tencent.angel.psagent.client.MasterClient;
 import com.tencent.angel.psagent.executor.Executor;
+import com.tencent.angel.worker.collective.CollectiveManager;
 import com.tencent.angel.worker.storage.DataBlockManager;
 import com.tencent.angel.worker.task.TaskManager;
 import org.apache.commons.logging.Log;
@@ -119,6 +120,8 @@ public class Worker implements Executor {
 
   private volatile WorkerService workerService;
 
+  private volatile CollectiveManager collectiveManager;
+
   /**
    * Instantiates a new Worker.
    *
@@ -257,6 +260,8 @@ public class Worker implements Executor {
 
     // init task manager and start tasks
     masterClient = psAgent.getMasterClient();
+    collectiveManager =
+      new CollectiveManager(conf, psAgent.getControlConnectManager(), masterClient);
 
     // start heartbeat thread
     LOG.info("Register to master and start the heartbeat thread");
@@ -440,6 +445,10 @@ public class Worker implements Executor {
     }
 
     if (!stopped.getAndSet(true)) {
+      if (collectiveManager != null) {
+        collectiveManager.stop();
+      }
+
       LOG.info("stop psagent");
       if (psAgent != null) {
         psAgent.stop();
@@ -627,6 +636,15 @@ public class Worker implements Executor {
     return workerService;
   }
 
+  /**
+   * Gets collective communication manager.
+   *
+   * @return the collective communication manager
+   */
+  public CollectiveManager getCollectiveManager() {
+    return collectiveManager;
+  }
+
   /**
    * Gets worker attempt id proto.
    *
@@ -24,6 +24,7 @@ import com.tencent.angel.conf.AngelConf;
 import com.tencent.angel.protobuf.generated.MLProtos.WorkerAttemptIdProto;
 import com.tencent.angel.protobuf.generated.MLProtos.WorkerIdProto;
 import com.tencent.angel.psagent.PSAgent;
+import com.tencent.angel.worker.collective.CollectiveManager;
 import com.tencent.angel.worker.storage.DataBlockManager;
 import com.tencent.angel.worker.task.TaskManager;
 import org.apache.hadoop.conf.Configuration;
@@ -159,6 +160,15 @@ public class WorkerContext {
     return worker.getPSAgent();
   }
 
+  /**
+   * Gets collective communication manager.
+   *
+   * @return the collective communication manager
+   */
+  public CollectiveManager getCollectiveManager() {
+    return worker.getCollectiveManager();
+  }
+
   /**
    * Gets worker id proto.
    *
@@ -25,6 +25,9 @@ import com.tencent.angel.ipc.MLRPC;
 import com.tencent.angel.ipc.RpcServer;
 import com.tencent.angel.protobuf.generated.MasterWorkerServiceProtos.GetThreadStackRequest;
 import com.tencent.angel.protobuf.generated.MasterWorkerServiceProtos.GetThreadStackResponse;
+import com.tencent.angel.protobuf.generated.MasterWorkerServiceProtos.GetTransportMetricsRequest;
+import com.tencent.angel.protobuf.generated.MasterWorkerServiceProtos.GetTransportMetricsResponse;
+import com.tencent.angel.psagent.PSAgent;
 import com.tencent.angel.protobuf.generated.WorkerWorkerServiceProtos.*;
 import com.tencent.angel.utils.NetUtils;
 import com.tencent.angel.utils.ThreadUtils;
@@ -93,6 +96,19 @@ public class WorkerService implements WorkerProtocol {
     return stackTraceString.toString();
   }
 
+  @Override
+  public GetTransportMetricsResponse workerTransportMetrics(RpcController controller,
+    GetTransportMetricsRequest request) throws ServiceException {
+    PSAgent psAgent = WorkerContext.get().getPSAgent();
+    String metrics;
+    if (psAgent == null || psAgent.getMatrixTransportClient() == null) {
+      metrics = "psagent is not started\n";
+    } else {
+      metrics = psAgent.getMatrixTransportClient().getRPCContext().report();
+    }
+    return GetTransportMetricsResponse.newBuilder().setMetrics(metrics).build();
+  }
+
 
   @Override public ActionResponse action(RpcController controller, ActionRequest request)
     throws ServiceException {
@@ -114,6 +130,15 @@ public class WorkerService implements WorkerProtocol {
     return null;
   }
 
+  @Override
+  public CollectiveChunkResponse collectiveChunk(RpcController controller,
+    CollectiveChunkRequest request) throws ServiceException {
+    WorkerContext.get().getCollectiveManager().getMailbox()
+      .put(request.getDstRank(), request.getSeq(), request.getStep(), request.getChunk(),
+        request.getData());
+    return CollectiveChunkResponse.getDefaultInstance();
+  }
+
   /**
    * Get worker location(ip and listening port)
    *
@@ -0,0 +1,143 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.worker.collective;
+
+import com.google.protobuf.ByteString;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Mailbox of the collective chunks sent to the tasks of this worker. A chunk may arrive before the
+ * receiver asks for it, so both sides meet on a future keyed by the chunk position.
+ */
+public class ChunkMailbox {
+
+  private final ConcurrentHashMap<ChunkKey, CompletableFuture<ByteString>> chunks;
+
+  public ChunkMailbox() {
+    chunks = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Put a received chunk
+   *
+   * @param dstRank the rank of the receiver task
+   * @param seq     collective operation sequence number
+   * @param step    ring step
+   * @param chunk   chunk index in the segment
+   * @param data    chunk data
+   */
+  public void put(int dstRank, long seq, int step, int chunk, ByteString data) {
+    getFuture(new ChunkKey(dstRank, seq, step, chunk)).complete(data);
+  }
+
+  /**
+   * Wait for a chunk and remove it from the mailbox
+   *
+   * @param dstRank   the rank of the receiver task
+   * @param seq       collective operation sequence number
+   * @param step      ring step
+   * @param chunk     chunk index in the segment
+   * @param timeoutMs max wait time in milliseconds
+   * @return chunk data
+   * @throws InterruptedException interrupted while waiting
+   * @throws TimeoutException     the chunk does not arrive in time
+   */
+  public ByteString take(int dstRank, long seq, int step, int chunk, long timeoutMs)
+      throws InterruptedException, TimeoutException {
+    ChunkKey key = new ChunkKey(dstRank, seq, step, chunk);
+    try {
+      ByteString data = getFuture(key).get(timeoutMs, TimeUnit.MILLISECONDS);
+      chunks.remove(key);
+      return data;
+    } catch (ExecutionException e) {
+      // Futures are only completed normally
+      throw new IllegalStateException(e);
+    } catch (TimeoutException e) {
+      chunks.remove(key);
+      throw new TimeoutException(
+          "wait chunk " + key + " timeout after " + timeoutMs + " ms");
+    }
+  }
+
+  /**
+   * Get the number of chunks that have not been taken
+   *
+   * @return pending chunk number
+   */
+  public int size() {
+    return chunks.size();
+  }
+
+  /**
+   * Clear all chunks
+   */
+  public void clear() {
+    chunks.clear();
+  }
+
+  private CompletableFuture<ByteString> getFuture(ChunkKey key) {
+    return chunks.computeIfAbsent(key, k -> new CompletableFuture<>());
+  }
+
+  private static class ChunkKey {
+
+    private final int dstRank;
+    private final long seq;
+    private final int step;
+    private final int chunk;
+
+    ChunkKey(int dstRank, long seq, int step, int chunk) {
+      this.dstRank = dstRank;
+      this.seq = seq;
+      this.step = step;
+      this.chunk = chunk;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ChunkKey other = (ChunkKey) o;
+      return dstRank == other.dstRank && seq == other.seq && step == other.step
+          && chunk == other.chunk;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = dstRank;
+      result = 31 * result + (int) (seq ^ (seq >>> 32));
+      result = 31 * result + step;
+      result = 31 * result + chunk;
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "(rank=" + dstRank + ", seq=" + seq + ", step=" + step + ", chunk=" + chunk + ")";
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.worker.collective;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Send a collective chunk to the task with rank dstRank
+ */
+public interface ChunkSender {
+
+  /**
+   * Send a chunk, it returns after the receiver has put the chunk into its mailbox
+   *
+   * @param dstRank the rank of the receiver task
+   * @param seq     collective operation sequence number
+   * @param step    ring step
+   * @param chunk   chunk index in the segment
+   * @param data    chunk data
+   * @throws Exception send failed
+   */
+  void send(int dstRank, long seq, int step, int chunk, ByteString data) throws Exception;
+}
@@ -0,0 +1,171 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.worker.collective;
+
+import com.google.protobuf.ByteString;
+import com.tencent.angel.common.location.Location;
+import com.tencent.angel.conf.AngelConf;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ipc.TConnection;
+import com.tencent.angel.protobuf.generated.WorkerWorkerServiceProtos.CollectiveChunkRequest;
+import com.tencent.angel.psagent.client.MasterClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Collective communication manager of a worker. Tasks exchange chunks with each other through the
+ * worker rpc service directly, dense gradients can be reduced among the workers without passing
+ * through the PSs.
+ */
+public class CollectiveManager implements ChunkSender {
+
+  private static final Log LOG = LogFactory.getLog(CollectiveManager.class);
+
+  /**
+   * Mailbox of the chunks sent to the tasks of this worker
+   */
+  private final ChunkMailbox mailbox;
+
+  /**
+   * Task rank to communicator map
+   */
+  private final Map<Integer, RingCommunicator> communicators;
+
+  private final int chunkSize;
+  private final long timeoutMs;
+  private final int senderNum;
+
+  /**
+   * Rpc connection
+   */
+  private final TConnection connection;
+
+  /**
+   * Master rpc client
+   */
+  private final MasterClient masterClient;
+
+  /**
+   * Task index to worker location map
+   */
+  private volatile Map<Integer, Location> taskLocations;
+
+  /**
+   * Send executor
+   */
+  private volatile ExecutorService sendExecutor;
+
+  /**
+   * Create a CollectiveManager
+   *
+   * @param conf         configuration
+   * @param connection   rpc connection
+   * @param masterClient master rpc client
+   */
+  public CollectiveManager(Configuration conf, TConnection connection,
+      MasterClient masterClient) {
+    this.connection = connection;
+    this.masterClient = masterClient;
+    this.mailbox = new ChunkMailbox();
+    this.communicators = new ConcurrentHashMap<>();
+    this.chunkSize = conf.getInt(AngelConf.ANGEL_WORKER_COLLECTIVE_CHUNK_SIZE,
+        AngelConf.DEFAULT_ANGEL_WORKER_COLLECTIVE_CHUNK_SIZE);
+    this.timeoutMs = conf.getLong(AngelConf.ANGEL_WORKER_COLLECTIVE_TIMEOUT_MS,
+        AngelConf.DEFAULT_ANGEL_WORKER_COLLECTIVE_TIMEOUT_MS);
+    this.senderNum = conf.getInt(AngelConf.ANGEL_WORKER_COLLECTIVE_SENDER_NUM,
+        AngelConf.DEFAULT_ANGEL_WORKER_COLLECTIVE_SENDER_NUM);
+  }
+
+  /**
+   * Get the mailbox of this worker
+   *
+   * @return mailbox
+   */
+  public ChunkMailbox getMailbox() {
+    return mailbox;
+  }
+
+  /**
+   * Get the communicator of a task, it fetches the locations of all tasks from master at the first
+   * time, so all workers must have been registered
+   *
+   * @param rank task index
+   * @return the communicator of the task
+   */
+  public RingCommunicator getCommunicator(int rank) {
+    RingCommunicator communicator = communicators.get(rank);
+    if (communicator == null) {
+      synchronized (this) {
+        communicator = communicators.get(rank);
+        if (communicator == null) {
+          init();
+          communicator = new RingCommunicator(rank, taskLocations.size(), this, mailbox,
+              sendExecutor, chunkSize, timeoutMs);
+          communicators.put(rank, communicator);
+        }
+      }
+    }
+    return communicator;
+  }
+
+  private void init() {
+    if (taskLocations != null) {
+      return;
+    }
+
+    try {
+      taskLocations = masterClient.getTaskLocations();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AngelException("get task locations is interrupted", e);
+    } catch (Throwable e) {
+      throw new AngelException("get task locations failed", e);
+    }
+    LOG.info("collective task locations=" + taskLocations);
+    sendExecutor = Executors.newFixedThreadPool(senderNum);
+  }
+
+  @Override
+  public void send(int dstRank, long seq, int step, int chunk, ByteString data)
+      throws Exception {
+    Location loc = taskLocations.get(dstRank);
+    if (loc == null) {
+      throw new AngelException("can not find the location of task " + dstRank);
+    }
+
+    CollectiveChunkRequest request = CollectiveChunkRequest.newBuilder().setDstRank(dstRank)
+        .setSeq(seq).setStep(step).setChunk(chunk).setData(data).build();
+    connection.getWorkerService(loc.getIp(), loc.getPort()).collectiveChunk(null, request);
+  }
+
+  /**
+   * Stop the send executor
+   */
+  public void stop() {
+    if (sendExecutor != null) {
+      sendExecutor.shutdownNow();
+    }
+    mailbox.clear();
+  }
+}
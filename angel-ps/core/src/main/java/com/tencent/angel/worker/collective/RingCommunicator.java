@@ -0,0 +1,366 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.worker.collective;
+
+import com.google.protobuf.ByteString;
+import com.tencent.angel.exception.AngelException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring collective communicator of one task. The array is split into one segment per task and every
+ * segment is transferred as several chunks, a chunk is forwarded to the next task as soon as it has
+ * been reduced, so transferring and reducing are pipelined along the ring.
+ *
+ * <p>All tasks must call the collective operations in the same order with arrays of the same
+ * length.
+ */
+public class RingCommunicator {
+
+  /**
+   * Rank of this task
+   */
+  private final int rank;
+
+  /**
+   * Total task number
+   */
+  private final int size;
+
+  /**
+   * Chunk sender
+   */
+  private final ChunkSender sender;
+
+  /**
+   * Mailbox of the received chunks
+   */
+  private final ChunkMailbox mailbox;
+
+  /**
+   * Send executor
+   */
+  private final ExecutorService sendExecutor;
+
+  /**
+   * Chunk element number
+   */
+  private final int chunkSize;
+
+  /**
+   * Max wait time for a chunk in milliseconds
+   */
+  private final long timeoutMs;
+
+  /**
+   * Collective operation sequence number
+   */
+  private final AtomicLong seq;
+
+  public RingCommunicator(int rank, int size, ChunkSender sender, ChunkMailbox mailbox,
+      ExecutorService sendExecutor, int chunkSize, long timeoutMs) {
+    if (rank < 0 || rank >= size) {
+      throw new AngelException("rank " + rank + " is out of range [0, " + size + ")");
+    }
+    this.rank = rank;
+    this.size = size;
+    this.sender = sender;
+    this.mailbox = mailbox;
+    this.sendExecutor = sendExecutor;
+    this.chunkSize = Math.max(1, chunkSize);
+    this.timeoutMs = timeoutMs;
+    this.seq = new AtomicLong(0);
+  }
+
+  public int getRank() {
+    return rank;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Get the start position of a segment
+   *
+   * @param len   array length
+   * @param index segment index
+   * @return start position
+   */
+  public int segmentStart(int len, int index) {
+    return (int) ((long) len * index / size);
+  }
+
+  /**
+   * Get the index of the segment this task owns after {@link #reduceScatter(float[])}
+   *
+   * @return owned segment index
+   */
+  public int ownedSegment() {
+    return (rank + 1) % size;
+  }
+
+  /**
+   * Sum the arrays of all tasks in place
+   *
+   * @param data local array, it holds the sum after the call
+   */
+  public void allReduce(float[] data) {
+    reduceScatter(data);
+    allGather(data);
+  }
+
+  /**
+   * Sum the arrays of all tasks in place
+   *
+   * @param data local array, it holds the sum after the call
+   */
+  public void allReduce(double[] data) {
+    reduceScatter(data);
+    allGather(data);
+  }
+
+  /**
+   * Sum the arrays of all tasks, after the call only the owned segment of data holds the sum
+   *
+   * @param data local array
+   * @return the start and end position of the owned segment
+   */
+  public int[] reduceScatter(float[] data) {
+    return reduceScatter(new FloatOps(data));
+  }
+
+  /**
+   * Sum the arrays of all tasks, after the call only the owned segment of data holds the sum
+   *
+   * @param data local array
+   * @return the start and end position of the owned segment
+   */
+  public int[] reduceScatter(double[] data) {
+    return reduceScatter(new DoubleOps(data));
+  }
+
+  /**
+   * Broadcast the owned segment of every task to all tasks
+   *
+   * @param data local array, its owned segment is valid before the call and the whole array is
+   *             valid after it
+   */
+  public void allGather(float[] data) {
+    allGather(new FloatOps(data));
+  }
+
+  /**
+   * Broadcast the owned segment of every task to all tasks
+   *
+   * @param data local array, its owned segment is valid before the call and the whole array is
+   *             valid after it
+   */
+  public void allGather(double[] data) {
+    allGather(new DoubleOps(data));
+  }
+
+  private int[] reduceScatter(ArrayOps ops) {
+    int len = ops.length();
+    int owned = ownedSegment();
+    if (size == 1) {
+      return new int[] {0, len};
+    }
+
+    long opSeq = seq.incrementAndGet();
+    List<Future<?>> sends = new ArrayList<>();
+    int next = (rank + 1) % size;
+    sendSegment(ops, opSeq, 0, index(rank), next, sends);
+    for (int step = 0; step < size - 1; step++) {
+      int recvSeg = index(rank - step - 1);
+      int start = segmentStart(len, recvSeg);
+      int end = segmentStart(len, recvSeg + 1);
+      for (int chunk = 0, from = start; from < end; chunk++, from += chunkSize) {
+        int to = Math.min(end, from + chunkSize);
+        ops.add(from, to, receive(opSeq, step, chunk));
+        if (step + 1 < size - 1) {
+          sendChunk(ops, opSeq, step + 1, chunk, from, to, next, sends);
+        }
+      }
+    }
+    waitSends(sends);
+    return new int[] {segmentStart(len, owned), segmentStart(len, owned + 1)};
+  }
+
+  private void allGather(ArrayOps ops) {
+    if (size == 1) {
+      return;
+    }
+
+    int len = ops.length();
+    long opSeq = seq.incrementAndGet();
+    List<Future<?>> sends = new ArrayList<>();
+    int next = (rank + 1) % size;
+    sendSegment(ops, opSeq, 0, ownedSegment(), next, sends);
+    for (int step = 0; step < size - 1; step++) {
+      int recvSeg = index(rank - step);
+      int start = segmentStart(len, recvSeg);
+      int end = segmentStart(len, recvSeg + 1);
+      for (int chunk = 0, from = start; from < end; chunk++, from += chunkSize) {
+        int to = Math.min(end, from + chunkSize);
+        ops.set(from, to, receive(opSeq, step, chunk));
+        if (step + 1 < size - 1) {
+          sendChunk(ops, opSeq, step + 1, chunk, from, to, next, sends);
+        }
+      }
+    }
+    waitSends(sends);
+  }
+
+  private int index(int segment) {
+    return ((segment % size) + size) % size;
+  }
+
+  private void sendSegment(ArrayOps ops, long opSeq, int step, int segment, int dstRank,
+      List<Future<?>> sends) {
+    int len = ops.length();
+    int start = segmentStart(len, segment);
+    int end = segmentStart(len, segment + 1);
+    for (int chunk = 0, from = start; from < end; chunk++, from += chunkSize) {
+      sendChunk(ops, opSeq, step, chunk, from, Math.min(end, from + chunkSize), dstRank, sends);
+    }
+  }
+
+  private void sendChunk(ArrayOps ops, long opSeq, int step, int chunk, int from, int to,
+      int dstRank, List<Future<?>> sends) {
+    // Serialize in the caller thread, the array may be changed by the following steps
+    ByteString data = ops.get(from, to);
+    sends.add(sendExecutor.submit(() -> {
+      sender.send(dstRank, opSeq, step, chunk, data);
+      return null;
+    }));
+  }
+
+  private ByteBuffer receive(long opSeq, int step, int chunk) {
+    try {
+      return mailbox.take(rank, opSeq, step, chunk, timeoutMs).asReadOnlyByteBuffer()
+          .order(ByteOrder.LITTLE_ENDIAN);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AngelException("collective operation is interrupted", e);
+    } catch (Exception e) {
+      throw new AngelException("rank " + rank + " receive chunk failed", e);
+    }
+  }
+
+  private void waitSends(List<Future<?>> sends) {
+    try {
+      for (Future<?> send : sends) {
+        send.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AngelException("collective operation is interrupted", e);
+    } catch (ExecutionException e) {
+      throw new AngelException("rank " + rank + " send chunk failed", e.getCause());
+    }
+  }
+
+  private interface ArrayOps {
+
+    int length();
+
+    ByteString get(int from, int to);
+
+    void add(int from, int to, ByteBuffer buf);
+
+    void set(int from, int to, ByteBuffer buf);
+  }
+
+  private static class FloatOps implements ArrayOps {
+
+    private final float[] data;
+
+    FloatOps(float[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public int length() {
+      return data.length;
+    }
+
+    @Override
+    public ByteString get(int from, int to) {
+      ByteBuffer buf = ByteBuffer.allocate((to - from) * 4).order(ByteOrder.LITTLE_ENDIAN);
+      buf.asFloatBuffer().put(data, from, to - from);
+      return ByteString.copyFrom(buf);
+    }
+
+    @Override
+    public void add(int from, int to, ByteBuffer buf) {
+      FloatBuffer values = buf.asFloatBuffer();
+      for (int i = from; i < to; i++) {
+        data[i] += values.get();
+      }
+    }
+
+    @Override
+    public void set(int from, int to, ByteBuffer buf) {
+      buf.asFloatBuffer().get(data, from, to - from);
+    }
+  }
+
+  private static class DoubleOps implements ArrayOps {
+
+    private final double[] data;
+
+    DoubleOps(double[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public int length() {
+      return data.length;
+    }
+
+    @Override
+    public ByteString get(int from, int to) {
+      ByteBuffer buf = ByteBuffer.allocate((to - from) * 8).order(ByteOrder.LITTLE_ENDIAN);
+      buf.asDoubleBuffer().put(data, from, to - from);
+      return ByteString.copyFrom(buf);
+    }
+
+    @Override
+    public void add(int from, int to, ByteBuffer buf) {
+      DoubleBuffer values = buf.asDoubleBuffer();
+      for (int i = from; i < to; i++) {
+        data[i] += values.get();
+      }
+    }
+
+    @Override
+    public void set(int from, int to, ByteBuffer buf) {
+      buf.asDoubleBuffer().get(data, from, to - from);
+    }
+  }
+}
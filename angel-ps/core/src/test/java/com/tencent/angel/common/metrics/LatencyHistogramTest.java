@@ -0,0 +1,69 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.common.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.angel.ps.server.data.TransportMethod;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testQuantile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000, histogram.getMax());
+    assertEquals(500.5, histogram.getMean(), 1e-9);
+
+    // The quantiles are the upper bounds of the log2 buckets
+    assertEquals(511, histogram.getQuantile(0.5));
+    assertEquals(1000, histogram.getQuantile(0.99));
+    assertEquals(1, histogram.getQuantile(0.0));
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getQuantile(0.5));
+  }
+
+  @Test
+  public void testSlowRequestTracker() {
+    SlowRequestTracker tracker = new SlowRequestTracker(3, "matrix", "handle");
+    for (int i = 0; i < 10; i++) {
+      tracker.record(1, i, TransportMethod.UPDATE, 0, i * 100, new long[] {i});
+    }
+
+    // Only the 3 slowest requests are kept
+    assertFalse(tracker.isSlow(700));
+    assertTrue(tracker.isSlow(701));
+
+    StringBuilder sb = new StringBuilder();
+    tracker.report(sb);
+    String[] lines = sb.toString().split("\n");
+    assertEquals(3, lines.length);
+    assertTrue(lines[0].startsWith("trace=1/9"));
+    assertTrue(lines[2].startsWith("trace=1/7"));
+  }
+}
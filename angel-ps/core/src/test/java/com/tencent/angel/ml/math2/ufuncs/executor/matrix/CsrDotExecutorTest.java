@@ -0,0 +1,140 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.math2.ufuncs.executor.matrix;
+
+import static org.junit.Assert.assertEquals;
+
+import com.tencent.angel.ml.math2.MFactory;
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.matrix.BlasDoubleMatrix;
+import com.tencent.angel.ml.math2.matrix.CsrDoubleMatrix;
+import com.tencent.angel.ml.math2.matrix.Matrix;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import java.util.Random;
+import org.junit.Test;
+
+public class CsrDotExecutorTest {
+
+  private static final int ROWS = 50;
+  private static final int COLS = 40;
+  // Larger than a column block
+  private static final int K = 70;
+
+  private final Random random = new Random(3);
+
+  private double[][] sparseDense() {
+    double[][] a = new double[ROWS][COLS];
+    for (int r = 0; r < ROWS; r++) {
+      for (int c = 0; c < COLS; c++) {
+        if (random.nextInt(5) == 0) {
+          a[r][c] = random.nextDouble();
+        }
+      }
+    }
+    return a;
+  }
+
+  private static CsrDoubleMatrix toCsr(double[][] a) {
+    int nnz = 0;
+    for (double[] row : a) {
+      for (double v : row) {
+        if (v != 0) {
+          nnz++;
+        }
+      }
+    }
+
+    int[] indptr = new int[a.length + 1];
+    int[] indices = new int[nnz];
+    double[] values = new double[nnz];
+    int p = 0;
+    for (int r = 0; r < a.length; r++) {
+      for (int c = 0; c < a[r].length; c++) {
+        if (a[r][c] != 0) {
+          indices[p] = c;
+          values[p] = a[r][c];
+          p++;
+        }
+      }
+      indptr[r + 1] = p;
+    }
+    return new CsrDoubleMatrix(values, indices, indptr, new int[] {a.length, a[0].length});
+  }
+
+  @Test
+  public void testSpmm() {
+    double[][] a = sparseDense();
+    double[] b = new double[COLS * K];
+    for (int i = 0; i < b.length; i++) {
+      b[i] = random.nextDouble();
+    }
+
+    BlasDoubleMatrix result = CsrDotExecutor.spmm(toCsr(a), b, K);
+    for (int r = 0; r < ROWS; r++) {
+      for (int o = 0; o < K; o++) {
+        double expected = 0;
+        for (int c = 0; c < COLS; c++) {
+          expected += a[r][c] * b[c * K + o];
+        }
+        assertEquals(expected, result.get(r, o), 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testSpmmTrans() {
+    double[][] a = sparseDense();
+    double[] b = new double[ROWS * K];
+    for (int i = 0; i < b.length; i++) {
+      b[i] = random.nextDouble();
+    }
+
+    BlasDoubleMatrix result =
+        CsrDotExecutor.spmmTrans(toCsr(a), MFactory.denseDoubleMatrix(ROWS, K, b));
+    for (int c = 0; c < COLS; c++) {
+      for (int o = 0; o < K; o++) {
+        double expected = 0;
+        for (int r = 0; r < ROWS; r++) {
+          expected += a[r][c] * b[r * K + o];
+        }
+        assertEquals(expected, result.get(c, o), 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testTransGather() {
+    IntDoubleVector[] rows = new IntDoubleVector[3];
+    for (int o = 0; o < rows.length; o++) {
+      rows[o] = VFactory.denseDoubleVector(COLS);
+      for (int c = 0; c < COLS; c++) {
+        rows[o].set(c, o * 100 + c);
+      }
+    }
+    Matrix weight = MFactory.rbIntDoubleMatrix(rows);
+
+    int[] cols = {1, 7, 39};
+    double[] result = CsrDotExecutor.transGatherDouble(weight, cols, rows.length);
+    for (int u = 0; u < cols.length; u++) {
+      for (int o = 0; o < rows.length; o++) {
+        assertEquals(o * 100 + cols[u], result[u * rows.length + o], 0.0);
+      }
+    }
+  }
+}
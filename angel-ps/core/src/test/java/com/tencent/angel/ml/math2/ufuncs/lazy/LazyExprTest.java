@@ -0,0 +1,143 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.math2.ufuncs.lazy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.ufuncs.Ufuncs;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import java.util.Random;
+import org.junit.Test;
+
+public class LazyExprTest {
+
+  // Larger than a block so the block boundaries are crossed
+  private static final int DIM = 3000;
+
+  private final Random random = new Random(17);
+
+  private IntDoubleVector dense() {
+    double[] values = new double[DIM];
+    for (int i = 0; i < DIM; i++) {
+      values[i] = random.nextDouble() + 1.0;
+    }
+    return VFactory.denseDoubleVector(values);
+  }
+
+  private IntDoubleVector sorted(int step, int offset) {
+    int size = (DIM - offset + step - 1) / step;
+    int[] indices = new int[size];
+    double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      indices[i] = offset + i * step;
+      values[i] = random.nextDouble() + 1.0;
+    }
+    return VFactory.sortedDoubleVector(DIM, indices, values);
+  }
+
+  private static void assertVectorEquals(IntDoubleVector expected, Vector actual) {
+    for (int i = 0; i < DIM; i++) {
+      assertEquals("index " + i, expected.get(i), ((IntDoubleVector) actual).get(i), 1e-9);
+    }
+  }
+
+  @Test
+  public void testDenseDense() {
+    IntDoubleVector w = dense();
+    IntDoubleVector x = dense();
+    IntDoubleVector b = dense();
+    IntDoubleVector d = dense();
+
+    IntDoubleVector expected = (IntDoubleVector) w.mul(x).add(b).div(d);
+    Vector result = Ufuncs.lazy(w).mul(x).add(b).div(d).eval();
+    assertTrue(result.isDense());
+    assertVectorEquals(expected, result);
+
+    // In place
+    assertSame(w, Ufuncs.lazy(w).mul(x).add(b).div(d).evalTo(w));
+    assertVectorEquals(expected, w);
+  }
+
+  @Test
+  public void testDenseSorted() {
+    IntDoubleVector w = dense();
+    IntDoubleVector x = sorted(3, 1);
+    IntDoubleVector g = sorted(5, 0);
+
+    // The result keeps the positions of x
+    IntDoubleVector expected = (IntDoubleVector) x.mul(w).mul(2.0);
+    Vector result = Ufuncs.lazy(x).mul(w).mul(2.0).eval();
+    assertTrue(result.isSorted());
+    assertVectorEquals(expected, result);
+
+    // Dense result with sorted operands of different positions
+    expected = (IntDoubleVector) w.add(g.mul(0.5)).sub(x);
+    result = Ufuncs.lazy(w).add(Ufuncs.lazy(g).mul(0.5)).sub(x).eval();
+    assertTrue(result.isDense());
+    assertVectorEquals(expected, result);
+
+    // Sparse result written into a dense target zeros the other positions
+    expected = (IntDoubleVector) x.mul(w);
+    Ufuncs.lazy(x).mul(w).evalTo(w);
+    assertVectorEquals(expected, w);
+  }
+
+  @Test
+  public void testSharedNode() {
+    IntDoubleVector v = dense();
+    IntDoubleVector u = dense();
+    LazyExpr diff = Ufuncs.lazy(v).sub(u);
+    IntDoubleVector expected = (IntDoubleVector) Ufuncs.sqrt(v.sub(u).mul(v.sub(u)));
+    Vector result = diff.mul(diff).sqrt().eval();
+    assertVectorEquals(expected, result);
+  }
+
+  @Test
+  public void testFloat() {
+    float[] values = new float[DIM];
+    for (int i = 0; i < DIM; i++) {
+      values[i] = i + 1;
+    }
+    IntFloatVector v = VFactory.denseFloatVector(values);
+    Vector result = Ufuncs.lazy(v).mul(v).sub(1.0).eval();
+    assertTrue(result instanceof IntFloatVector);
+    for (int i = 0; i < DIM; i++) {
+      assertEquals((i + 1.0f) * (i + 1.0f) - 1.0f, ((IntFloatVector) result).get(i), 1e-3f);
+    }
+  }
+
+  @Test
+  public void testFallback() {
+    IntDoubleVector w = dense();
+    IntDoubleVector s = VFactory.sparseDoubleVector(DIM);
+    for (int i = 0; i < DIM; i += 7) {
+      s.set(i, i);
+    }
+
+    // Hash storage is evaluated by the vector executors
+    IntDoubleVector expected = (IntDoubleVector) w.add(s.mul(3.0));
+    Ufuncs.lazy(w).add(Ufuncs.lazy(s).mul(3.0)).evalTo(w);
+    assertVectorEquals(expected, w);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.matrix.psf.update.freeze;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.LongDoubleVector;
+import com.tencent.angel.utils.ArrayUtils;
+import java.util.Random;
+import org.junit.Test;
+
+public class FreezeTest {
+
+  @Test
+  public void testSearch() {
+    long[] keys = {-5, 1, 3, 8, 20, 21, 100, 0, 0};
+    int size = 7;
+    for (int i = 0; i < size; i++) {
+      assertEquals(i, ArrayUtils.search(keys, size, keys[i]));
+    }
+    assertEquals(-1, ArrayUtils.search(keys, size, 0));
+    assertEquals(-1, ArrayUtils.search(keys, size, -6));
+    assertEquals(-1, ArrayUtils.search(keys, size, 101));
+    assertEquals(-1, ArrayUtils.search(keys, 0, 1));
+    assertEquals(0, ArrayUtils.search(new int[] {7}, 1, 7));
+  }
+
+  @Test
+  public void testToSorted() {
+    Random random = new Random(7);
+    LongDoubleVector vector = VFactory.sparseLongKeyDoubleVector(1L << 40, 16);
+    for (int i = 0; i < 1000; i++) {
+      vector.set(Math.abs(random.nextLong()) % (1L << 40), random.nextDouble());
+    }
+
+    LongDoubleVector sorted = (LongDoubleVector) Freeze.toSorted(vector);
+    assertTrue(sorted.isSorted());
+    assertEquals(vector.size(), sorted.size());
+    long[] indices = vector.getStorage().getIndices();
+    for (long index : indices) {
+      assertEquals(vector.get(index), sorted.get(index), 0.0);
+      assertTrue(sorted.getStorage().hasKey(index));
+    }
+    long missing = 0;
+    while (vector.getStorage().hasKey(missing)) {
+      missing++;
+    }
+    assertFalse(sorted.getStorage().hasKey(missing));
+    assertEquals(0.0, sorted.get(missing), 0.0);
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.model.output.format;
+
+import static org.junit.Assert.assertEquals;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.conf.AngelConf;
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.model.PSMatrixLoadContext;
+import com.tencent.angel.model.PSMatrixSaveContext;
+import com.tencent.angel.model.io.IOExecutors;
+import com.tencent.angel.ps.storage.partition.RowBasedPartition;
+import com.tencent.angel.ps.storage.partition.ServerPartitionFactory;
+import com.tencent.angel.ps.storage.vector.ServerIntDoubleRow;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+
+public class BulkBinaryRowFormatTest {
+
+  private static final int ROW_NUM = 3;
+  private static final int START_COL = 100;
+  private static final int END_COL = 150;
+
+  private RowBasedPartition initPartition(RowType rowType) {
+    PartitionKey partKey = new PartitionKey(0, 0, 0, START_COL, ROW_NUM, END_COL);
+    RowBasedPartition part = (RowBasedPartition) ServerPartitionFactory
+        .getPartition(partKey, RowBasedPartition.class, null, rowType, null, 1.0);
+    part.init();
+    return part;
+  }
+
+  private void checkRoundTrip(RowType rowType, boolean sparse) throws Exception {
+    Configuration conf = new Configuration();
+    // Small blocks, so the rows are split into several blocks and load tasks
+    conf.setInt(AngelConf.ANGEL_PS_IO_BLOCK_ELEMENT_NUM, 7);
+    BulkBinaryRowFormat format = new BulkBinaryRowFormat(conf);
+
+    Random random = new Random(5);
+    RowBasedPartition part = initPartition(rowType);
+    for (int rowId = 0; rowId < ROW_NUM; rowId++) {
+      ServerIntDoubleRow row = (ServerIntDoubleRow) part.getRow(rowId);
+      for (int col = START_COL; col < END_COL; col++) {
+        if (!sparse || random.nextInt(3) == 0) {
+          row.set(col, random.nextDouble());
+        }
+      }
+    }
+
+    File dir = new File(System.getProperty("java.io.tmpdir"),
+        "bulkformat_" + System.currentTimeMillis() + "_" + rowType);
+    Path filePath = new Path(dir.getAbsolutePath(), ModelFilesUtils.fileName(0));
+    FileSystem fs = filePath.getFileSystem(conf);
+    try {
+      FSDataOutputStream out = fs.create(filePath);
+      // Some leading bytes, the partition does not start at the beginning of the file
+      out.writeLong(0L);
+      MatrixPartitionMeta partMeta =
+          new MatrixPartitionMeta(0, 0, ROW_NUM, START_COL, END_COL, 0, filePath.getName(),
+              out.getPos(), 0);
+      format.save(part, partMeta,
+          new PSMatrixSaveContext(0, Arrays.asList(0), null, format.getClass().getName(),
+              dir.getAbsolutePath(), false, true), out);
+      out.close();
+
+      IOExecutors workers = new IOExecutors(4);
+      workers.start();
+      PSMatrixLoadContext loadContext =
+          new PSMatrixLoadContext(0, dir.getAbsolutePath(), Arrays.asList(0));
+      loadContext.setWorkers(workers);
+
+      RowBasedPartition loaded = initPartition(rowType);
+      FSDataInputStream in = fs.open(filePath);
+      in.seek(partMeta.getOffset());
+      format.load(loaded, partMeta, loadContext, in);
+      in.close();
+      workers.shutdown();
+
+      for (int rowId = 0; rowId < ROW_NUM; rowId++) {
+        ServerIntDoubleRow expected = (ServerIntDoubleRow) part.getRow(rowId);
+        ServerIntDoubleRow actual = (ServerIntDoubleRow) loaded.getRow(rowId);
+        assertEquals(expected.size(), actual.size());
+        for (int col = START_COL; col < END_COL; col++) {
+          assertEquals(expected.get(col), actual.get(col), 0.0);
+        }
+      }
+    } finally {
+      fs.delete(new Path(dir.getAbsolutePath()), true);
+    }
+  }
+
+  @Test
+  public void testDense() throws Exception {
+    checkRoundTrip(RowType.T_DOUBLE_DENSE, false);
+  }
+
+  @Test
+  public void testSparse() throws Exception {
+    checkRoundTrip(RowType.T_DOUBLE_SPARSE, true);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.server.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.tencent.angel.conf.AngelConf;
+import com.tencent.angel.ps.PSContext;
+import com.tencent.angel.ps.ParameterServerId;
+import com.tencent.angel.psagent.matrix.transport.RPCContext;
+import java.util.Random;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RunningContextTest {
+
+  private static final int CLIENT_ID = 1;
+  private static final int GRANT_BYTES = 1024 * 1024;
+  private static final long MAX_CREDIT_BYTES = 256L * 1024 * 1024;
+
+  private final ParameterServerId psId = new ParameterServerId(0);
+  private RunningContext server;
+  private RPCContext client;
+
+  @Before
+  public void setUp() {
+    Configuration conf = new Configuration();
+    conf.setLong(AngelConf.ANGEL_MATRIXTRANSFER_SERVER_MAX_CREDIT_BYTES, MAX_CREDIT_BYTES);
+    conf.setInt(AngelConf.ANGEL_MATRIXTRANSFER_SERVER_CREDIT_GRANT_BYTES, GRANT_BYTES);
+    PSContext context = mock(PSContext.class);
+    when(context.getConf()).thenReturn(conf);
+    server = new RunningContext(context);
+
+    client = new RPCContext();
+    client.init(conf, new ParameterServerId[] {psId});
+  }
+
+  private void grant() {
+    client.addCredit(psId, server.grantCredit(CLIENT_ID, ServerState.GENERAL));
+  }
+
+  private void send(long requestBytes) {
+    long spent = client.acquireCredit(psId, requestBytes);
+    if (spent >= 0) {
+      server.releaseCredit(CLIENT_ID, spent);
+    }
+  }
+
+  private void drain() {
+    send(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testGrantReleaseCycles() {
+    Random random = new Random(7);
+    for (int i = 0; i < 10000; i++) {
+      if (random.nextBoolean()) {
+        grant();
+      } else {
+        send(random.nextInt(2 * GRANT_BYTES));
+      }
+      assertEquals(server.getInflightCreditBytes(), client.getCredit(psId));
+      assertTrue(server.getInflightCreditBytes() <= MAX_CREDIT_BYTES);
+    }
+
+    drain();
+    assertEquals(0, client.getCredit(psId));
+    assertEquals(0, server.getInflightCreditBytes());
+  }
+
+  @Test
+  public void testUnspentCreditsAreNotDropped() {
+    // Keep all the grants of the server budget without spending them
+    for (int i = 0; i < 2 * MAX_CREDIT_BYTES / GRANT_BYTES; i++) {
+      grant();
+    }
+    assertEquals(MAX_CREDIT_BYTES, server.getInflightCreditBytes());
+    assertEquals(MAX_CREDIT_BYTES, client.getCredit(psId));
+    assertEquals(0, server.grantCredit(CLIENT_ID, ServerState.GENERAL));
+
+    drain();
+    assertEquals(0, server.getInflightCreditBytes());
+    grant();
+    assertEquals(GRANT_BYTES, server.getInflightCreditBytes());
+  }
+
+  @Test
+  public void testTimeoutRelease() {
+    grant();
+    grant();
+    // The server releases the credits by timeout, then the client spends them
+    ClientRunningContext clientContext = server.getClientRunningContext(CLIENT_ID);
+    server.releaseCredit(CLIENT_ID, clientContext.getInflightCreditBytes());
+    assertEquals(0, server.getInflightCreditBytes());
+    drain();
+    assertEquals(0, server.getInflightCreditBytes());
+    assertEquals(0, clientContext.getInflightCreditBytes());
+  }
+
+  @Test
+  public void testNoGrantWhenNotGeneral() {
+    assertEquals(0, server.grantCredit(CLIENT_ID, ServerState.IDLE));
+    assertEquals(0, server.grantCredit(CLIENT_ID, ServerState.BUSY));
+    assertEquals(0, server.getInflightCreditBytes());
+  }
+}
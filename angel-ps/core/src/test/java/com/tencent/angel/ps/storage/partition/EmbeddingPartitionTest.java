@@ -0,0 +1,107 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.partition;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ps.server.data.request.RandomNormalInitFunc;
+import com.tencent.angel.ps.server.data.request.UpdateOp;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+public class EmbeddingPartitionTest {
+
+  // 2 factors and 2 gradients for each key
+  private static final int FACTOR_NUM = 2;
+
+  private EmbeddingPartition initPartition() {
+    PartitionKey partKey = new PartitionKey(0, 0, 0, 0, 2 * FACTOR_NUM, 1000);
+    EmbeddingPartition part = (EmbeddingPartition) ServerPartitionFactory
+        .getPartition(partKey, EmbeddingPartition.class, null, null, null, 1.0);
+    part.init();
+    return part;
+  }
+
+  @Test
+  public void testGetAndUpdate() {
+    EmbeddingPartition part = initPartition();
+    long[] keys = new long[100];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = i * 7;
+    }
+
+    // Missing keys are 0 without init function
+    assertArrayEquals(new float[keys.length * FACTOR_NUM],
+        part.get(keys, 0, FACTOR_NUM, null), 0.0f);
+    assertEquals(0, part.getStorage().size());
+
+    // Missing keys are initialized once
+    float[] factors = part.get(keys, 0, FACTOR_NUM, new RandomNormalInitFunc(1.0, 0.1));
+    assertEquals(keys.length, part.getStorage().size());
+    assertArrayEquals(factors, part.get(keys, 0, FACTOR_NUM, null), 0.0f);
+
+    // Update the gradient rows, the factors are not changed
+    float[] grads = new float[keys.length * FACTOR_NUM];
+    for (int i = 0; i < grads.length; i++) {
+      grads[i] = i;
+    }
+    part.update(keys, FACTOR_NUM, FACTOR_NUM, grads, UpdateOp.PLUS);
+    part.update(keys, FACTOR_NUM, FACTOR_NUM, grads, UpdateOp.PLUS);
+    float[] expected = new float[grads.length];
+    for (int i = 0; i < grads.length; i++) {
+      expected[i] = 2 * grads[i];
+    }
+    assertArrayEquals(expected, part.get(keys, FACTOR_NUM, FACTOR_NUM, null), 0.0f);
+    assertArrayEquals(factors, part.get(keys, 0, FACTOR_NUM, null), 0.0f);
+
+    // Whole vectors of a key
+    float[] all = part.get(new long[] {keys[3]}, 0, 2 * FACTOR_NUM, null);
+    assertArrayEquals(new float[] {factors[6], factors[7], expected[6], expected[7]}, all, 0.0f);
+
+    part.update(new long[] {keys[3]}, 0, FACTOR_NUM, new float[] {5, 6}, UpdateOp.REPLACE);
+    assertArrayEquals(new float[] {5, 6}, part.get(new long[] {keys[3]}, 0, FACTOR_NUM, null),
+        0.0f);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testRowsOutOfRange() {
+    initPartition().get(new long[] {1}, FACTOR_NUM, FACTOR_NUM + 1, null);
+  }
+
+  @Test
+  public void testSerialize() {
+    EmbeddingPartition part = initPartition();
+    long[] keys = {3, 1, 999};
+    part.update(keys, 0, 2 * FACTOR_NUM, new float[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12},
+        UpdateOp.REPLACE);
+
+    ByteBuf buf = Unpooled.buffer(part.bufferLen());
+    part.serialize(buf);
+    assertEquals(part.bufferLen(), buf.writerIndex());
+
+    EmbeddingPartition newPart = new EmbeddingPartition();
+    newPart.deserialize(buf);
+    assertEquals(3, newPart.getStorage().size());
+    assertArrayEquals(part.get(keys, 0, 2 * FACTOR_NUM, null),
+        newPart.get(keys, 0, 2 * FACTOR_NUM, null), 0.0f);
+  }
+}
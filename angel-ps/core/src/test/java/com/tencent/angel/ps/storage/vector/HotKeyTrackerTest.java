@@ -0,0 +1,84 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class HotKeyTrackerTest {
+
+  @Test
+  public void testTopKeys() {
+    int topK = 10;
+    HotKeyTracker tracker = new HotKeyTracker(topK);
+    Random random = new Random(3);
+    for (int i = 0; i < 200000; i++) {
+      // Keys [0, 10) are read 100 times more than each of the other keys
+      if (random.nextInt(2) == 0) {
+        tracker.record(random.nextInt(topK));
+      } else {
+        tracker.record(topK + random.nextInt(1000 * topK));
+      }
+    }
+
+    long[] hotKeys = tracker.takeHotKeys();
+    assertEquals(topK, hotKeys.length);
+    Set<Long> keys = new HashSet<>();
+    for (long key : hotKeys) {
+      keys.add(key);
+    }
+    for (long key = 0; key < topK; key++) {
+      assertTrue(keys.contains(key));
+    }
+  }
+
+  @Test
+  public void testDecay() {
+    HotKeyTracker tracker = new HotKeyTracker(4);
+    for (int i = 0; i < 1000; i++) {
+      tracker.record(1);
+    }
+    assertEquals(1, tracker.takeHotKeys().length);
+
+    // The old hot key fades out after the access pattern changes
+    for (int round = 0; round < 12; round++) {
+      for (int i = 0; i < 100; i++) {
+        for (long key = 2; key < 6; key++) {
+          tracker.record(key);
+        }
+      }
+      tracker.takeHotKeys();
+    }
+    for (int i = 0; i < 100; i++) {
+      for (long key = 2; key < 6; key++) {
+        tracker.record(key);
+      }
+    }
+    long[] hotKeys = tracker.takeHotKeys();
+    assertEquals(4, hotKeys.length);
+    for (long key : hotKeys) {
+      assertTrue(key >= 2 && key < 6);
+    }
+  }
+}
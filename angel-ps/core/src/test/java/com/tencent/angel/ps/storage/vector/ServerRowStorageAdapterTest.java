@@ -0,0 +1,120 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.matrix.RowType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServerRowStorageAdapterTest {
+
+  private boolean oldEnable;
+  private int oldCheckInterval;
+
+  @Before
+  public void setUp() {
+    oldEnable = ServerRowStorageAdapter.enable;
+    oldCheckInterval = ServerRowStorageAdapter.checkInterval;
+    ServerRowStorageAdapter.enable = true;
+    ServerRowStorageAdapter.checkInterval = 1;
+  }
+
+  @After
+  public void tearDown() {
+    ServerRowStorageAdapter.enable = oldEnable;
+    ServerRowStorageAdapter.checkInterval = oldCheckInterval;
+  }
+
+  private static void set(ServerIntDoubleRow row, int index, double value) {
+    row.startWrite();
+    try {
+      row.set(index, value);
+    } finally {
+      row.endWrite();
+    }
+  }
+
+  @Test
+  public void testSparseDenseConversion() {
+    int startCol = 100;
+    int dim = 100;
+    ServerIntDoubleRow row =
+        new ServerIntDoubleRow(0, RowType.T_DOUBLE_SPARSE, startCol, startCol + dim, 1);
+    row.init();
+    assertTrue(row.isSparse());
+
+    // Fill the row until the fill ratio exceeds the sparse to dense factor
+    int fillNum = (int) (ServerRow.sparseToDenseFactor * dim) + 1;
+    for (int i = 0; i < fillNum; i++) {
+      set(row, startCol + i, i + 1);
+    }
+    assertTrue(row.isDense());
+    for (int i = 0; i < fillNum; i++) {
+      assertEquals(i + 1, row.get(startCol + i), 0.0);
+    }
+
+    // Clear the elements, the row goes back to sparse once the non-zero ratio is small enough
+    for (int i = 0; i < fillNum; i++) {
+      set(row, startCol + i, 0);
+    }
+    assertFalse(row.isDense());
+    for (int i = 0; i < dim; i++) {
+      assertEquals(0, row.get(startCol + i), 0.0);
+    }
+  }
+
+  @Test
+  public void testSortedKept() {
+    int dim = 10;
+    ServerIntDoubleRow row = new ServerIntDoubleRow(0, RowType.T_DOUBLE_SPARSE, 0, dim, 1);
+    row.init();
+    ServerRowUtils.setVector(row,
+        VFactory.sortedDoubleVector(dim, new int[] {1, 5, 9}, new double[] {1, 5, 9}));
+    assertTrue(row.isSorted());
+
+    // The sorted storage is chosen by the user, neither new keys nor a high fill ratio convert it
+    set(row, 5, 6);
+    set(row, 7, 7);
+    set(row, 3, 3);
+    assertTrue(row.isSorted());
+    assertEquals(5, row.size());
+    assertEquals(6, row.get(5), 0.0);
+    assertEquals(7, row.get(7), 0.0);
+    assertEquals(9, row.get(9), 0.0);
+  }
+
+  @Test
+  public void testDisabled() {
+    ServerRowStorageAdapter.enable = false;
+    int dim = 10;
+    ServerIntDoubleRow row = new ServerIntDoubleRow(0, RowType.T_DOUBLE_SPARSE, 0, dim, 1);
+    row.init();
+    for (int i = 0; i < dim; i++) {
+      set(row, i, i + 1);
+    }
+    assertFalse(row.isDense());
+    assertEquals(dim, row.size());
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ps.server.data.request.UpdateOp;
+import com.tencent.angel.ps.storage.partition.storage.DenseServerRowsStorage;
+import com.tencent.angel.ps.storage.vector.ServerLongDoubleRow;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy.AdmissionType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ElementPolicyTest {
+
+  @Test
+  public void testCountAdmission() {
+    ElementPolicy policy = new ElementPolicy(AdmissionType.COUNT, 3, 1.0f, -1, -1);
+    assertFalse(policy.onUpdate(100L, false));
+    assertFalse(policy.onUpdate(100L, false));
+    assertTrue(policy.onUpdate(100L, false));
+    // Admitted elements are always updated
+    assertTrue(policy.onUpdate(100L, false));
+    // Elements already in the row are always updated
+    assertTrue(policy.onUpdate(200L, true));
+
+    assertEquals(1, policy.getAdmittedNum());
+    assertEquals(2, policy.getRejectedNum());
+  }
+
+  @Test
+  public void testMaxNumEviction() throws InterruptedException {
+    ElementPolicy policy = new ElementPolicy(AdmissionType.NONE, 0, 1.0f, -1, 2);
+    policy.onUpdate(1L, false);
+    Thread.sleep(1100);
+    policy.onUpdate(2L, false);
+    policy.onUpdate(3L, false);
+
+    long[] evicted = policy.evict();
+    assertEquals(1, evicted.length);
+    assertEquals(1L, evicted[0]);
+    assertEquals(0, policy.evict().length);
+  }
+
+  @Test
+  public void testTTLEviction() throws InterruptedException {
+    ElementPolicy policy = new ElementPolicy(AdmissionType.NONE, 0, 1.0f, 1000, -1);
+    policy.onUpdate(1L, false);
+    policy.onUpdate(2L, false);
+    Thread.sleep(2100);
+    policy.onUpdate(2L, true);
+
+    long[] evicted = policy.evict();
+    Arrays.sort(evicted);
+    assertEquals(1, evicted.length);
+    assertEquals(1L, evicted[0]);
+    assertEquals(1, policy.getEvictedNum());
+  }
+
+  @Test
+  public void testAdmissionOncePerUpdate() {
+    ElementPolicy policy = new ElementPolicy(AdmissionType.COUNT, 2, 1.0f, -1, -1);
+
+    // The z and n rows of FTRL are updated in the same partition update
+    ElementPolicy.Admission admission = policy.newAdmission();
+    assertFalse(admission.admit(100L, false));
+    assertFalse(admission.admit(100L, false));
+    assertEquals(1, policy.getRejectedNum());
+
+    admission = policy.newAdmission();
+    assertTrue(admission.admit(100L, false));
+    assertTrue(admission.admit(100L, false));
+    assertEquals(1, policy.getAdmittedNum());
+    assertEquals(1, policy.getRejectedNum());
+
+    // An element stored in a row is always updated in that row
+    admission = policy.newAdmission();
+    assertFalse(admission.admit(200L, false));
+    assertTrue(admission.admit(200L, true));
+  }
+
+  @Test
+  public void testMaxNumEvictionTies() {
+    ElementPolicy policy = new ElementPolicy(AdmissionType.NONE, 0, 1.0f, -1, 2);
+    for (long i = 0; i < 5; i++) {
+      policy.onUpdate(i, false);
+    }
+
+    // All elements are updated in the same second, the ties are evicted to meet the budget
+    assertEquals(3, policy.evict().length);
+    assertEquals(2, policy.getTrackedNum());
+    assertEquals(0, policy.evict().length);
+  }
+
+  @Test
+  public void testTrackElements() {
+    ElementPolicy policy = new ElementPolicy(AdmissionType.NONE, 0, 1.0f, -1, 1);
+    policy.onUpdate(1L, false);
+    assertEquals(0, policy.evict().length);
+
+    // The elements stored before they are tracked can be evicted too
+    policy.track(new long[] {1L, 2L, 3L});
+    assertEquals(3, policy.getTrackedNum());
+    assertEquals(2, policy.evict().length);
+    assertEquals(1, policy.getTrackedNum());
+  }
+
+  @Test
+  public void testPartitionUpdate() {
+    ElementPolicy policy = new ElementPolicy(AdmissionType.COUNT, 2, 1.0f, -1, -1);
+    DenseServerRowsStorage storage = new DenseServerRowsStorage(0, 2);
+    ServerLongDoubleRow[] rows = new ServerLongDoubleRow[2];
+    for (int rowId = 0; rowId < rows.length; rowId++) {
+      rows[rowId] = new ServerLongDoubleRow(rowId, RowType.T_DOUBLE_SPARSE_LONGKEY, 0, 1000, 10);
+      rows[rowId].init();
+      rows[rowId].setElementPolicy(policy);
+      storage.putRow(rowId, rows[rowId]);
+    }
+
+    for (int i = 0; i < 2; i++) {
+      ByteBuf buf = Unpooled.buffer();
+      buf.writeInt(rows.length);
+      for (int rowId = 0; rowId < rows.length; rowId++) {
+        buf.writeInt(rowId);
+        buf.writeInt(RowType.T_DOUBLE_SPARSE_LONGKEY.getNumber());
+        buf.writeInt(1);
+        buf.writeLong(5L);
+        buf.writeDouble(1.0);
+      }
+      storage.update(buf, UpdateOp.PLUS);
+    }
+
+    // The element is counted once per partition update, so it is admitted by the second update
+    assertEquals(1, policy.getRejectedNum());
+    assertEquals(1, policy.getAdmittedNum());
+    for (ServerLongDoubleRow row : rows) {
+      assertTrue(row.exist(5L));
+      assertEquals(1.0, row.get(5L), 0.0);
+    }
+  }
+}
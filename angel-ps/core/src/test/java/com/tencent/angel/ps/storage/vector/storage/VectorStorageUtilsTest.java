@@ -0,0 +1,119 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ps.storage.vector.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.LongDoubleVector;
+import com.tencent.angel.ml.math2.vector.LongFloatVector;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Random;
+import org.junit.Test;
+
+public class VectorStorageUtilsTest {
+
+  private static ByteBuf[] newBufs() {
+    CompositeByteBuf composite = Unpooled.compositeBuffer();
+    composite.addComponent(true, Unpooled.buffer(16));
+    composite.addComponent(true, Unpooled.directBuffer(16));
+    return new ByteBuf[] {Unpooled.buffer(16), Unpooled.directBuffer(16), composite};
+  }
+
+  @Test
+  public void testDenseFloatSerialize() {
+    Random random = new Random(3);
+    float[] values = new float[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextFloat();
+    }
+    IntFloatVector vector = VFactory.denseFloatVector(values);
+
+    // The bulk copy must produce the same bytes as writing the values one by one
+    ByteBuf expected = Unpooled.buffer();
+    expected.writeInt(values.length);
+    expected.writeInt(SerializeArrangement.VALUE.getValue());
+    for (float value : values) {
+      expected.writeFloat(value);
+    }
+
+    for (ByteBuf buf : newBufs()) {
+      VectorStorageUtils.serializeVector(buf, vector);
+      assertEquals(expected, buf);
+
+      IntFloatVector result = VFactory.denseFloatVector(values.length);
+      VectorStorageUtils.deserializeVector(buf, result);
+      assertArrayEquals(values, result.getStorage().getValues(), 0.0f);
+      assertEquals(0, buf.readableBytes());
+      buf.release();
+    }
+  }
+
+  @Test
+  public void testDenseDoubleSerialize() {
+    Random random = new Random(5);
+    double[] values = new double[777];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextGaussian();
+    }
+    IntDoubleVector vector = VFactory.denseDoubleVector(values);
+
+    for (ByteBuf buf : newBufs()) {
+      VectorStorageUtils.serializeVector(buf, vector);
+      IntDoubleVector result = VFactory.denseDoubleVector(values.length);
+      VectorStorageUtils.deserializeVector(buf, result);
+      assertArrayEquals(values, result.getStorage().getValues(), 0.0);
+      buf.release();
+    }
+  }
+
+  @Test
+  public void testRemove() {
+    long offset = 100;
+
+    // Sparse storage removes the keys
+    LongFloatVector sparse = VFactory.sparseLongKeyFloatVector(1000);
+    sparse.set(1, 1.0f);
+    sparse.set(2, 2.0f);
+    sparse.set(3, 3.0f);
+    VectorStorageUtils.remove(sparse, new long[] {101, 103, 150}, offset);
+    assertEquals(1, sparse.size());
+    assertEquals(2.0f, sparse.get(2), 0.0f);
+    assertArrayEquals(new long[] {102}, VectorStorageUtils.getIndices(sparse, offset));
+
+    // Sorted storage keeps the keys and resets the values
+    LongDoubleVector sorted = VFactory.sortedLongKeyDoubleVector(1000, 3, new long[] {1, 2, 3},
+        new double[] {1.0, 2.0, 3.0});
+    VectorStorageUtils.remove(sorted, new long[] {101, 150}, offset);
+    assertEquals(0.0, sorted.get(1), 0.0);
+    assertEquals(2.0, sorted.get(2), 0.0);
+    assertArrayEquals(new long[] {101, 102, 103}, VectorStorageUtils.getIndices(sorted, offset));
+
+    // Dense storage resets the values, the indices out of the vector are ignored
+    IntDoubleVector dense = VFactory.denseDoubleVector(new double[] {1.0, 2.0, 3.0});
+    VectorStorageUtils.remove(dense, new long[] {99, 102, 103}, offset);
+    assertArrayEquals(new double[] {1.0, 2.0, 0.0}, dense.getStorage().getValues(), 0.0);
+    assertArrayEquals(new long[] {100, 101, 102}, VectorStorageUtils.getIndices(dense, offset));
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.psagent;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.angel.ps.storage.partition.storage.IntCSRStorage;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CSRStorageTest {
+  private static final int START_COL = 10;
+
+  /**
+   * Neighbors of the rows [10, 15), rows 11 and 14 are empty
+   */
+  private static final int[][] NEIGHBORS = {
+      {1, 2, 3, 4, 5}, {}, {7}, {8, 9, 10, 11, 12, 13}, {}};
+
+  private IntCSRStorage storage;
+
+  @Before
+  public void setup() {
+    int[] rowOffsets = new int[NEIGHBORS.length + 1];
+    for (int i = 0; i < NEIGHBORS.length; i++) {
+      rowOffsets[i + 1] = rowOffsets[i] + NEIGHBORS[i].length;
+    }
+    int[] columnIndices = new int[rowOffsets[NEIGHBORS.length]];
+    for (int i = 0; i < NEIGHBORS.length; i++) {
+      System.arraycopy(NEIGHBORS[i], 0, columnIndices, rowOffsets[i], NEIGHBORS[i].length);
+    }
+
+    storage = new IntCSRStorage(0);
+    storage.setRowOffsets(rowOffsets);
+    storage.setColumnIndices(columnIndices);
+  }
+
+  @Test
+  public void testUnsortedAndDuplicateRows() {
+    int[] rowIds = {13, 10, 11, 13, 12, 14, 10};
+    for (int count : new int[] {0, -1, 6, 100}) {
+      int[] offsets = new int[rowIds.length + 1];
+      int[] results = storage.batchGet(rowIds, START_COL, count, new Random(), offsets);
+      assertEquals(results.length, offsets[rowIds.length]);
+      for (int i = 0; i < rowIds.length; i++) {
+        assertArrayEquals("row " + rowIds[i] + " count " + count, NEIGHBORS[rowIds[i] - START_COL],
+            Arrays.copyOfRange(results, offsets[i], offsets[i + 1]));
+      }
+    }
+  }
+
+  @Test
+  public void testEmptyRows() {
+    int[] rowIds = {14, 11};
+    int[] offsets = new int[rowIds.length + 1];
+    int[] results = storage.batchGet(rowIds, START_COL, 2, new Random(), offsets);
+    assertEquals(0, results.length);
+    assertArrayEquals(new int[] {0, 0, 0}, offsets);
+
+    offsets = new int[1];
+    results = storage.batchGet(new int[0], START_COL, 2, new Random(), offsets);
+    assertEquals(0, results.length);
+    assertEquals(0, offsets[0]);
+  }
+
+  @Test
+  public void testSampleRange() {
+    int[] rowIds = {13, 12, 10, 11, 13};
+    int count = 3;
+    boolean wrapped = false;
+    for (int seed = 0; seed < 100; seed++) {
+      int[] offsets = new int[rowIds.length + 1];
+      int[] results = storage.batchGet(rowIds, START_COL, count, new Random(seed), offsets);
+      for (int i = 0; i < rowIds.length; i++) {
+        int[] row = NEIGHBORS[rowIds[i] - START_COL];
+        int[] sample = Arrays.copyOfRange(results, offsets[i], offsets[i + 1]);
+        assertEquals(Math.min(row.length, count), sample.length);
+        if (row.length > count) {
+          wrapped |= checkRange(row, sample);
+        } else {
+          assertArrayEquals(row, sample);
+        }
+      }
+    }
+    assertTrue(wrapped);
+  }
+
+  @Test
+  public void testWrapAroundRange() {
+    // The range of row 10 starts at its last neighbor and wraps to the first ones
+    Random r = new Random() {
+      @Override
+      public int nextInt() {
+        return 4;
+      }
+    };
+    int[] offsets = new int[2];
+    int[] results = storage.batchGet(new int[] {10}, START_COL, 3, r, offsets);
+    assertArrayEquals(new int[] {5, 1, 2}, results);
+    assertArrayEquals(new int[] {0, 3}, offsets);
+  }
+
+  /**
+   * Check the sample is a cyclic range of the row
+   *
+   * @return true if the range wraps around the end of the row
+   */
+  private static boolean checkRange(int[] row, int[] sample) {
+    int start = Arrays.binarySearch(row, sample[0]);
+    assertTrue(start >= 0);
+    for (int k = 0; k < sample.length; k++) {
+      assertEquals(row[(start + k) % row.length], sample[k]);
+    }
+    return start + sample.length > row.length;
+  }
+}
@@ -31,7 +31,9 @@ import com.tencent.angel.ml.matrix.MatrixMeta;
 import com.tencent.angel.ml.matrix.RowType;
 import com.tencent.angel.ps.PSAttemptId;
 import com.tencent.angel.ps.ParameterServerId;
+import com.tencent.angel.ps.storage.vector.ServerRow;
 import com.tencent.angel.psagent.matrix.MatrixClient;
+import com.tencent.angel.psagent.matrix.RowsStream;
 import com.tencent.angel.worker.Worker;
 import com.tencent.angel.worker.WorkerAttemptId;
 import com.tencent.angel.worker.WorkerGroupId;
@@ -47,6 +49,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Random;
 
 public class GetRowsTest {
@@ -470,6 +473,47 @@ public class GetRowsTest {
 
   }
 
+  @Test public void testGetRowsStream() throws Exception {
+    Worker worker = LocalClusterContext.get().getWorker(workerAttempt0Id).getWorker();
+    MatrixClient client1 = worker.getPSAgent().getMatrixClient(DENSE_DOUBLE_MAT, 0);
+
+    int[] index = genIndexs(feaNum, nnz);
+    IntDoubleVector deltaVec = null;
+    for (int rowId = 0; rowId < rowNum; rowId++) {
+      deltaVec = new IntDoubleVector(feaNum, new IntDoubleDenseVectorStorage(feaNum));
+      for (int i = 0; i < feaNum; i++)
+        deltaVec.set(i, i);
+      client1.increment(rowId, deltaVec, true);
+    }
+
+    int[] rowIds = new int[rowNum];
+    for (int i = 0; i < rowNum; i++) {
+      rowIds[i] = i;
+    }
+
+    // Stream the rows, at most 2 rows are in flight
+    RowsStream stream = client1.getRowsStream(rowIds, 2L * feaNum * 8);
+    int streamRowNum = 0;
+    while (stream.hasNext()) {
+      int rowId = stream.nextRowId();
+      if (rowId % 2 == 0) {
+        IntDoubleVector row = (IntDoubleVector) stream.next();
+        Assert.assertEquals(rowId, row.getRowId());
+        for (int id : index) {
+          Assert.assertEquals(row.get(id), deltaVec.get(id), zero);
+        }
+      } else {
+        List<ServerRow> splits = stream.nextSplits();
+        for (ServerRow split : splits) {
+          Assert.assertEquals(rowId, split.getRowId());
+        }
+      }
+      Assert.assertTrue(stream.getInflightRowNum() <= 2);
+      streamRowNum++;
+    }
+    Assert.assertEquals(rowNum, streamRowNum);
+  }
+
 
   public void testSparseDoubleLongKeyUDF() throws Exception {
 
@@ -0,0 +1,221 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.psagent;
+
+import com.tencent.angel.client.AngelClient;
+import com.tencent.angel.client.AngelClientFactory;
+import com.tencent.angel.common.location.Location;
+import com.tencent.angel.common.transport.ChannelManager2;
+import com.tencent.angel.common.transport.LocalTransport;
+import com.tencent.angel.common.transport.NettyChannel;
+import com.tencent.angel.conf.AngelConf;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.localcluster.LocalClusterContext;
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.LongFloatVector;
+import com.tencent.angel.ml.matrix.MatrixContext;
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ps.ParameterServerId;
+import com.tencent.angel.psagent.matrix.MatrixClient;
+import com.tencent.angel.psagent.matrix.PSAgentLocationManager;
+import com.tencent.angel.worker.Worker;
+import com.tencent.angel.worker.WorkerAttemptId;
+import com.tencent.angel.worker.WorkerGroupId;
+import com.tencent.angel.worker.WorkerId;
+import io.netty.channel.local.LocalChannel;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.mapreduce.lib.input.CombineTextInputFormat;
+import org.apache.log4j.PropertyConfigurator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Get/update round trips over the netty local channels between the PS client and the PSs in
+ * the same JVM
+ */
+public class LocalTransportTest {
+  public static String DENSE_FLOAT_MAT = "dense_float_mat";
+  public static String SPARSE_FLOAT_LONG_MAT = "sparse_float_long_mat";
+
+  private static final Log LOG = LogFactory.getLog(LocalTransportTest.class);
+  private static final String LOCAL_FS = LocalFileSystem.DEFAULT_FS;
+  private static final String TMP_PATH = System.getProperty("java.io.tmpdir", "/tmp");
+  private AngelClient angelClient;
+  private WorkerAttemptId workerAttempt0Id;
+
+  int feaNum = 100000;
+  int nnz = 1000;
+  int blockColNum = 10000;
+  double zero = 0.00000001;
+
+  static {
+    PropertyConfigurator.configure("../conf/log4j.properties");
+  }
+
+  @Before public void setup() throws Exception {
+    // set basic configuration keys
+    Configuration conf = new Configuration();
+    conf.setBoolean("mapred.mapper.new-api", true);
+    conf.setBoolean(AngelConf.ANGEL_JOB_OUTPUT_PATH_DELETEONEXIST, true);
+    conf.set(AngelConf.ANGEL_TASK_USER_TASKCLASS, DummyTask.class.getName());
+
+    // use local deploy mode and dummy dataspliter
+    conf.set(AngelConf.ANGEL_DEPLOY_MODE, "LOCAL");
+    conf.setBoolean(AngelConf.ANGEL_AM_USE_DUMMY_DATASPLITER, true);
+    conf.set(AngelConf.ANGEL_INPUTFORMAT_CLASS, CombineTextInputFormat.class.getName());
+    conf.set(AngelConf.ANGEL_SAVE_MODEL_PATH, LOCAL_FS + TMP_PATH + "/out");
+    conf.set(AngelConf.ANGEL_TRAIN_DATA_PATH, LOCAL_FS + TMP_PATH + "/in");
+    conf.set(AngelConf.ANGEL_LOG_PATH, LOCAL_FS + TMP_PATH + "/log");
+
+    conf.setInt(AngelConf.ANGEL_WORKERGROUP_NUMBER, 1);
+    conf.setInt(AngelConf.ANGEL_PS_NUMBER, 2);
+    conf.setInt(AngelConf.ANGEL_WORKER_TASK_NUMBER, 1);
+    conf.setInt(AngelConf.ANGEL_WORKER_MAX_ATTEMPTS, 1);
+    conf.setInt(AngelConf.ANGEL_PS_MAX_ATTEMPTS, 1);
+
+    // route the matrix transport through the local channels
+    conf.setBoolean(AngelConf.ANGEL_NETTY_MATRIXTRANSFER_LOCAL_ENABLE, true);
+
+    // get a angel client
+    angelClient = AngelClientFactory.get(conf);
+
+    // add dense float matrix
+    MatrixContext dMat = new MatrixContext();
+    dMat.setName(DENSE_FLOAT_MAT);
+    dMat.setRowNum(1);
+    dMat.setColNum(feaNum);
+    dMat.setMaxRowNumInBlock(1);
+    dMat.setMaxColNumInBlock(blockColNum);
+    dMat.setRowType(RowType.T_FLOAT_DENSE);
+    angelClient.addMatrix(dMat);
+
+    // add sparse long key float matrix
+    MatrixContext sMat = new MatrixContext();
+    sMat.setName(SPARSE_FLOAT_LONG_MAT);
+    sMat.setRowNum(1);
+    sMat.setColNum(feaNum);
+    sMat.setMaxRowNumInBlock(1);
+    sMat.setMaxColNumInBlock(blockColNum);
+    sMat.setRowType(RowType.T_FLOAT_SPARSE_LONGKEY);
+    angelClient.addMatrix(sMat);
+
+    // Start PS
+    angelClient.startPSServer();
+    // Start to run application
+    angelClient.run();
+
+    Thread.sleep(5000);
+
+    WorkerGroupId workerGroupId = new WorkerGroupId(0);
+    WorkerId workerId = new WorkerId(workerGroupId, 0);
+    workerAttempt0Id = new WorkerAttemptId(workerId, 0);
+  }
+
+  @Test public void test() throws Exception {
+    testLocalServers();
+    testDenseFloat();
+    testSparseFloatLongKey();
+    testLocalChannels();
+  }
+
+  public void testLocalServers() throws Exception {
+    Worker worker = LocalClusterContext.get().getWorker(workerAttempt0Id).getWorker();
+    // load the matrix metas and locations
+    worker.getPSAgent().getMatrixClient(DENSE_FLOAT_MAT, 0).get(0, new int[] {0});
+
+    PSAgentLocationManager locationManager = worker.getPSAgent().getLocationManager();
+    ParameterServerId[] psIds = locationManager.getPsIds();
+    Assert.assertEquals(2, psIds.length);
+    for (ParameterServerId psId : psIds) {
+      // the matrix transport server listens on the port next to the ps rpc port
+      Location loc = locationManager.getPsLocation(psId);
+      loc = new Location(loc.getIp(), loc.getPort() + 1);
+      Assert.assertNotNull("no local server for " + psId, LocalTransport.getLocalAddress(loc));
+    }
+  }
+
+  public void testLocalChannels() throws Exception {
+    Worker worker = LocalClusterContext.get().getWorker(workerAttempt0Id).getWorker();
+    PSAgentLocationManager locationManager = worker.getPSAgent().getLocationManager();
+    ChannelManager2 channelManager =
+        worker.getPSAgent().getMatrixTransportClient().getChannelManager();
+    for (ParameterServerId psId : locationManager.getPsIds()) {
+      // the pools were filled by the get/update requests above, so this reuses a pooled channel
+      Location loc = locationManager.getPsLocation(psId);
+      loc = new Location(loc.getIp(), loc.getPort() + 1);
+      NettyChannel channel = channelManager.getChannel(loc);
+      try {
+        Assert.assertTrue("channel to " + psId + " is " + channel.getChannel().getClass(),
+            channel.getChannel() instanceof LocalChannel);
+      } finally {
+        channelManager.releaseChannel(channel);
+      }
+    }
+  }
+
+  public void testDenseFloat() throws Exception {
+    Worker worker = LocalClusterContext.get().getWorker(workerAttempt0Id).getWorker();
+    MatrixClient client = worker.getPSAgent().getMatrixClient(DENSE_FLOAT_MAT, 0);
+
+    IntFloatVector delta = VFactory.denseFloatVector(feaNum);
+    for (int i = 0; i < feaNum; i++) {
+      delta.set(i, i);
+    }
+    client.update(0, delta);
+
+    IntFloatVector row = (IntFloatVector) client.getRow(0);
+    for (int i = 0; i < feaNum; i++) {
+      Assert.assertEquals(delta.get(i), row.get(i), zero);
+    }
+
+    client.increment(0, delta, true);
+    int[] index = UpdateRowsTest.genIndexs(feaNum, nnz);
+    IntFloatVector indexRow = (IntFloatVector) client.get(0, index);
+    for (int id : index) {
+      Assert.assertEquals(2 * delta.get(id), indexRow.get(id), zero);
+    }
+  }
+
+  public void testSparseFloatLongKey() throws Exception {
+    Worker worker = LocalClusterContext.get().getWorker(workerAttempt0Id).getWorker();
+    MatrixClient client = worker.getPSAgent().getMatrixClient(SPARSE_FLOAT_LONG_MAT, 0);
+
+    long[] index = UpdateRowsTest.genLongIndexs(feaNum, nnz);
+    LongFloatVector delta = VFactory.sparseLongKeyFloatVector(feaNum, nnz);
+    for (long id : index) {
+      delta.set(id, id);
+    }
+    client.update(0, delta);
+
+    LongFloatVector row = (LongFloatVector) client.get(0, index);
+    for (long id : index) {
+      Assert.assertEquals(delta.get(id), row.get(id), zero);
+    }
+  }
+
+  @After public void stop() throws AngelException {
+    LOG.info("stop local cluster");
+    angelClient.stop();
+  }
+}
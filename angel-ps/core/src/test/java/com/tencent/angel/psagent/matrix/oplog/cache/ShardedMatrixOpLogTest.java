@@ -0,0 +1,141 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.psagent.matrix.oplog.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.matrix.Matrix;
+import com.tencent.angel.ml.math2.matrix.RowBasedMatrix;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.MatrixContext;
+import com.tencent.angel.ml.matrix.MatrixMeta;
+import com.tencent.angel.ml.matrix.RowType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class ShardedMatrixOpLogTest {
+  private static final int ROW_NUM = 4;
+  private static final int COL_NUM = 1000;
+  private static final int THREAD_NUM = 8;
+  private static final int UPDATE_NUM = 200;
+
+  @Test
+  public void testDenseShardsEqualUnsharded() throws Exception {
+    checkShardsEqualUnsharded(RowType.T_DOUBLE_DENSE);
+  }
+
+  @Test
+  public void testSparseShardsEqualUnsharded() throws Exception {
+    checkShardsEqualUnsharded(RowType.T_DOUBLE_SPARSE);
+  }
+
+  private void checkShardsEqualUnsharded(RowType rowType) throws Exception {
+    MatrixContext context = new MatrixContext("oplog", ROW_NUM, COL_NUM);
+    context.setRowType(rowType);
+    MatrixMeta meta = new MatrixMeta(context);
+
+    MatrixOpLog expected = new MatrixOpLog(0);
+    expected.init(meta);
+    final ShardedMatrixOpLog sharded = new ShardedMatrixOpLog(0, 4);
+    sharded.init(meta);
+
+    // Updates of every thread, integer values keep the sums exact in any merge order
+    final List<List<Object>> updates = new ArrayList<>();
+    Random random = new Random(17);
+    for (int t = 0; t < THREAD_NUM; t++) {
+      List<Object> threadUpdates = new ArrayList<>();
+      for (int i = 0; i < UPDATE_NUM; i++) {
+        if (i % 20 == 0) {
+          Matrix update = MatrixFactory.createRBMatrix(rowType, ROW_NUM, COL_NUM, -1);
+          for (int rowId = 0; rowId < ROW_NUM; rowId++) {
+            ((RowBasedMatrix) update).setRow(rowId, randomRow(rowType, rowId, random));
+          }
+          threadUpdates.add(update);
+        } else {
+          threadUpdates.add(randomRow(rowType, random.nextInt(ROW_NUM), random));
+        }
+      }
+      updates.add(threadUpdates);
+    }
+
+    for (List<Object> threadUpdates : updates) {
+      for (Object update : threadUpdates) {
+        merge(expected, update);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUM);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (final List<Object> threadUpdates : updates) {
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (Object update : threadUpdates) {
+              merge(sharded, update);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    sharded.combine();
+    for (int rowId = 0; rowId < ROW_NUM; rowId++) {
+      IntDoubleVector expectedRow = (IntDoubleVector) expected.getRow(rowId);
+      IntDoubleVector row = (IntDoubleVector) sharded.getRow(rowId);
+      for (int col = 0; col < COL_NUM; col++) {
+        assertEquals("row " + rowId + " col " + col, expectedRow.get(col), row.get(col), 0.0);
+      }
+    }
+
+    // Combining again adds nothing
+    sharded.combine();
+    assertEquals(((IntDoubleVector) expected.getRow(0)).sum(),
+        ((IntDoubleVector) sharded.getRow(0)).sum(), 0.0);
+  }
+
+  private static void merge(MatrixOpLog opLog, Object update) {
+    if (update instanceof Matrix) {
+      opLog.merge((Matrix) update);
+    } else {
+      opLog.merge((Vector) update);
+    }
+  }
+
+  private static IntDoubleVector randomRow(RowType rowType, int rowId, Random random) {
+    IntDoubleVector row = rowType.isDense() ? VFactory.denseDoubleVector(COL_NUM)
+        : VFactory.sparseDoubleVector(COL_NUM);
+    for (int i = 0; i < 20; i++) {
+      row.set(random.nextInt(COL_NUM), random.nextInt(10) + 1);
+    }
+    row.setRowId(rowId);
+    return row;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class ArrayUtilsTest {
+
+  private static int mergeCount(long[] array1, long[] array2) {
+    int count = 0;
+    for (long key : array1) {
+      if (Arrays.binarySearch(array2, key) >= 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static long[] sortedDistinct(Random random, int num, int bound) {
+    return random.longs(num, 0, bound).distinct().sorted().toArray();
+  }
+
+  @Test
+  public void testIntersectCount() {
+    Random random = new Random(11);
+    for (int i = 0; i < 100; i++) {
+      long[] small = sortedDistinct(random, 1 + random.nextInt(20), 100000);
+      long[] large = sortedDistinct(random, 1 + random.nextInt(20000), 100000);
+      int expected = mergeCount(small, large);
+      assertEquals(expected, ArrayUtils.intersectCount(small, large));
+      assertEquals(expected, ArrayUtils.intersectCount(large, small));
+    }
+
+    long[] large = new long[1000];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = 2 * i;
+    }
+    assertEquals(3, ArrayUtils.intersectCount(new long[] {-1, 0, 998, 1998, 2000}, large));
+    assertEquals(0, ArrayUtils.intersectCount(new long[] {5000}, large));
+    assertEquals(0, ArrayUtils.intersectCount(new long[0], large));
+    assertEquals(0, ArrayUtils.intersectCount(null, large));
+  }
+}
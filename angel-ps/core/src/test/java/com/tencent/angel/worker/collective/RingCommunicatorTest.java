@@ -0,0 +1,118 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.worker.collective;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RingCommunicatorTest {
+
+  private static final int SIZE = 4;
+
+  private ExecutorService sendExecutor;
+  private ExecutorService taskExecutor;
+  private RingCommunicator[] communicators;
+  private ChunkMailbox mailbox;
+
+  @Before
+  public void setUp() {
+    sendExecutor = Executors.newFixedThreadPool(4);
+    taskExecutor = Executors.newFixedThreadPool(SIZE);
+    mailbox = new ChunkMailbox();
+    ChunkSender sender = (dstRank, seq, step, chunk, data) ->
+        mailbox.put(dstRank, seq, step, chunk, data);
+    communicators = new RingCommunicator[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      // A small chunk size so every segment is split into several chunks
+      communicators[i] = new RingCommunicator(i, SIZE, sender, mailbox, sendExecutor, 3, 10000);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    sendExecutor.shutdownNow();
+    taskExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testAllReduce() throws Exception {
+    int len = 23;
+    float[][] data = new float[SIZE][len];
+    float[] expected = new float[len];
+    for (int rank = 0; rank < SIZE; rank++) {
+      for (int i = 0; i < len; i++) {
+        data[rank][i] = rank * 100 + i;
+        expected[i] += data[rank][i];
+      }
+    }
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int rank = 0; rank < SIZE; rank++) {
+      final int r = rank;
+      futures.add(taskExecutor.submit(() -> communicators[r].allReduce(data[r])));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    for (int rank = 0; rank < SIZE; rank++) {
+      assertArrayEquals(expected, data[rank], 0.0f);
+    }
+    assertEquals(0, mailbox.size());
+  }
+
+  @Test
+  public void testReduceScatter() throws Exception {
+    int len = 10;
+    double[][] data = new double[SIZE][len];
+    for (int rank = 0; rank < SIZE; rank++) {
+      for (int i = 0; i < len; i++) {
+        data[rank][i] = 1.0;
+      }
+    }
+
+    List<Future<int[]>> futures = new ArrayList<>();
+    for (int rank = 0; rank < SIZE; rank++) {
+      final int r = rank;
+      futures.add(taskExecutor.submit(() -> communicators[r].reduceScatter(data[r])));
+    }
+
+    int covered = 0;
+    for (int rank = 0; rank < SIZE; rank++) {
+      int[] range = futures.get(rank).get();
+      int owned = communicators[rank].ownedSegment();
+      assertEquals(communicators[rank].segmentStart(len, owned), range[0]);
+      assertEquals(communicators[rank].segmentStart(len, owned + 1), range[1]);
+      for (int i = range[0]; i < range[1]; i++) {
+        assertEquals(SIZE, data[rank][i], 0.0);
+      }
+      covered += range[1] - range[0];
+    }
+    assertEquals(len, covered);
+  }
+}
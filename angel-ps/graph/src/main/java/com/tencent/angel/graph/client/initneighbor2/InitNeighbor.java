@@ -25,9 +25,11 @@ import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
 import com.tencent.angel.ps.storage.vector.element.LongArrayElement;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Arrays;
 
 /**
- * Init node neighbors for long type node id
+ * Init node neighbors for long type node id, the neighbors of a node are sorted so they can be
+ * intersected on the PS directly
  */
 public class InitNeighbor extends UpdateFunc {
 
@@ -57,7 +59,11 @@ public class InitNeighbor extends UpdateFunc {
     try {
       while (iter.hasNext()) {
         Long2ObjectMap.Entry<long[]> entry = iter.next();
-        row.set(entry.getLongKey(), new LongArrayElement(entry.getValue()));
+        long[] neighbors = entry.getValue();
+        if (neighbors != null) {
+          Arrays.sort(neighbors);
+        }
+        row.set(entry.getLongKey(), new LongArrayElement(neighbors));
       }
     } finally {
       row.endWrite();
@@ -22,6 +22,7 @@ import io.netty.buffer.ByteBuf;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Arrays;
 import java.util.Map.Entry;
 
 /**
@@ -34,15 +35,35 @@ public class PartSampleNeighborResult extends PartitionGetResult {
    */
   private Int2ObjectOpenHashMap<int[]> nodeIdToNeighbors;
 
+  /**
+   * Node ids, offsets and neighbors of the batch lookup result on PS, the neighbors of nodeIds[i]
+   * are in [offsets[i], offsets[i + 1]) of neighbors
+   */
+  private int[] nodeIds;
+  private int[] offsets;
+  private int[] neighbors;
+
   public PartSampleNeighborResult(Int2ObjectOpenHashMap<int[]> nodeIdToNeighbors) {
     this.nodeIdToNeighbors = nodeIdToNeighbors;
   }
 
+  public PartSampleNeighborResult(int[] nodeIds, int[] offsets, int[] neighbors) {
+    this.nodeIds = nodeIds;
+    this.offsets = offsets;
+    this.neighbors = neighbors;
+  }
+
   public PartSampleNeighborResult() {
     this(null);
   }
 
   public Int2ObjectOpenHashMap<int[]> getNodeIdToNeighbors() {
+    if (nodeIdToNeighbors == null && nodeIds != null) {
+      nodeIdToNeighbors = new Int2ObjectOpenHashMap<>(nodeIds.length);
+      for (int i = 0; i < nodeIds.length; i++) {
+        nodeIdToNeighbors.put(nodeIds[i], Arrays.copyOfRange(neighbors, offsets[i], offsets[i + 1]));
+      }
+    }
     return nodeIdToNeighbors;
   }
 
@@ -53,6 +74,19 @@ public class PartSampleNeighborResult extends PartitionGetResult {
 
   @Override
   public void serialize(ByteBuf output) {
+    if (nodeIds != null) {
+      // Same format as the map
+      output.writeInt(nodeIds.length);
+      for (int i = 0; i < nodeIds.length; i++) {
+        output.writeInt(nodeIds[i]);
+        output.writeInt(offsets[i + 1] - offsets[i]);
+        for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+          output.writeInt(neighbors[j]);
+        }
+      }
+      return;
+    }
+
     output.writeInt(nodeIdToNeighbors.size());
     ObjectIterator<Int2ObjectMap.Entry<int[]>> iter = nodeIdToNeighbors
         .int2ObjectEntrySet().fastIterator();
@@ -84,6 +118,10 @@ public class PartSampleNeighborResult extends PartitionGetResult {
 
   @Override
   public int bufferLen() {
+    if (nodeIds != null) {
+      return 4 + nodeIds.length * 8 + neighbors.length * 4;
+    }
+
     int len = 4;
     for (Entry<Integer, int[]> entry : nodeIdToNeighbors.entrySet()) {
       len += 8;
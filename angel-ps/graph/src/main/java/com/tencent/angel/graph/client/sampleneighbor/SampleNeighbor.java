@@ -48,49 +48,12 @@ public class SampleNeighbor extends GetFunc {
     CSRPartition part = (CSRPartition) matrix.getPartition(partParam.getPartKey().getPartitionId());
     IntCSRStorage storage = (IntCSRStorage) (part.getStorage());
 
-    Int2ObjectOpenHashMap<int[]> results = new Int2ObjectOpenHashMap<>();
-    int[] neighborOffsets = storage.getRowOffsets();
-    int[] neighbors = storage.getColumnIndices();
-    int startCol = (int) partParam.getPartKey().getStartCol();
-
     int[] nodeIds = param.getNodeIds();
-    int count = param.getCount();
-    Random r = new Random();
-
-    for (int i = 0; i < nodeIds.length; i++) {
-      int nodeId = nodeIds[i];
-
-      // Get node neighbor number
-      int num = neighborOffsets[nodeId - startCol + 1] - neighborOffsets[nodeId - startCol];
-      int[] result;
-
-      if (num == 0) {
-        // If the neighbor number is 0, just return a int[0]
-        result = new int[0];
-      } else if (count <= 0 || num <= count) {
-        // If count <= 0 or the neighbor number is less or equal then count, just copy all neighbors to the result array
-        result = new int[num];
-        System.arraycopy(neighbors, neighborOffsets[nodeId - startCol], result, 0, num);
-      } else {
-        // If the neighbor number > count, just copy a range of neighbors to the result array, the copy position is random
-        int startPos = Math.abs(r.nextInt()) % num;
-        result = new int[count];
-        if (startPos + count <= num) {
-          System.arraycopy(neighbors, neighborOffsets[nodeId - startCol] + startPos, result, 0,
-              count);
-        } else {
-          System
-              .arraycopy(neighbors, neighborOffsets[nodeId - startCol] + startPos, result, 0,
-                  num - startPos);
-          System.arraycopy(neighbors, neighborOffsets[nodeId - startCol], result,
-              num - startPos, count - (num - startPos));
-        }
-      }
-
-      results.put(nodeIds[i], result);
-    }
+    int[] offsets = new int[nodeIds.length + 1];
+    int[] neighbors = storage.batchGet(nodeIds, (int) partParam.getPartKey().getStartCol(),
+        param.getCount(), new Random(), offsets);
 
-    return new PartSampleNeighborResult(results);
+    return new PartSampleNeighborResult(nodeIds, offsets, neighbors);
   }
 
   @Override
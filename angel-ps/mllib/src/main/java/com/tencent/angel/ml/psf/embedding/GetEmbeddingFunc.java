@@ -0,0 +1,75 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.psf.embedding;
+
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.get.base.GetFunc;
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import com.tencent.angel.ps.storage.partition.EmbeddingPartition;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Get the embedding vectors of some keys from a matrix that uses {@link EmbeddingPartition}. The
+ * vector of a key is read from the partition with one lookup, instead of one lookup for each row
+ * as {@link com.tencent.angel.ml.psf.columns.GetColsFunc} does. The result maps each key to a
+ * dense float vector.
+ */
+public class GetEmbeddingFunc extends GetFunc {
+
+  public GetEmbeddingFunc(GetEmbeddingParam param) {
+    super(param);
+  }
+
+  public GetEmbeddingFunc() {
+    super(null);
+  }
+
+  @Override
+  public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    PartitionGetEmbeddingParam param = (PartitionGetEmbeddingParam) partParam;
+    EmbeddingPartition partition = (EmbeddingPartition) psContext.getMatrixStorageManager()
+        .getPart(param.getMatrixId(), param.getPartKey().getPartitionId());
+    float[] values = partition.get(param.keys, param.rowId, param.rowNum, param.func);
+    return new PartitionGetEmbeddingResult(param.keys, param.rowNum, values);
+  }
+
+  @Override
+  public GetResult merge(List<PartitionGetResult> partResults) {
+    int size = 0;
+    for (PartitionGetResult result : partResults) {
+      size += ((PartitionGetEmbeddingResult) result).keys.length;
+    }
+
+    Map<Long, Vector> vectors = new HashMap<>(size);
+    for (PartitionGetResult result : partResults) {
+      PartitionGetEmbeddingResult r = (PartitionGetEmbeddingResult) result;
+      for (int i = 0; i < r.keys.length; i++) {
+        vectors.put(r.keys[i], VFactory.denseFloatVector(
+            Arrays.copyOfRange(r.values, i * r.rowNum, (i + 1) * r.rowNum)));
+      }
+    }
+    return new GetEmbeddingResult(vectors);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.psf.embedding;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.matrix.psf.get.base.GetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ps.server.data.request.InitFunc;
+import com.tencent.angel.psagent.PSAgentContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parameter of {@link GetEmbeddingFunc}
+ */
+public class GetEmbeddingParam extends GetParam {
+
+  int rowId;
+  int rowNum;
+  long[] keys;
+  InitFunc func;
+
+  /**
+   * Create a new get embedding parameter
+   *
+   * @param matId matrix id
+   * @param rowId first row id of the embedding vectors
+   * @param rowNum embedding vector dimension
+   * @param keys keys
+   * @param func init function for the keys that do not exist on ps, it can be null
+   */
+  public GetEmbeddingParam(int matId, int rowId, int rowNum, long[] keys, InitFunc func) {
+    super(matId);
+    this.rowId = rowId;
+    this.rowNum = rowNum;
+    this.keys = keys;
+    this.func = func;
+  }
+
+  public GetEmbeddingParam(int matId, int rowId, int rowNum, long[] keys) {
+    this(matId, rowId, rowNum, keys, null);
+  }
+
+  @Override
+  public List<PartitionGetParam> split() {
+    long[] sortedKeys = keys.clone();
+    Arrays.sort(sortedKeys);
+
+    List<PartitionKey> pkeys = getPartitions(matrixId, rowId, rowNum);
+    List<PartitionGetParam> params = new ArrayList<>(pkeys.size());
+    int start = 0;
+    for (PartitionKey pkey : pkeys) {
+      int end = start;
+      while (end < sortedKeys.length && sortedKeys[end] < pkey.getEndCol()) {
+        end++;
+      }
+      if (end > start) {
+        params.add(new PartitionGetEmbeddingParam(matrixId, pkey, rowId, rowNum,
+            Arrays.copyOfRange(sortedKeys, start, end), func));
+      }
+      start = end;
+    }
+    return params;
+  }
+
+  /**
+   * Get the partitions that contain rows [rowId, rowId + rowNum), sorted by start column
+   *
+   * @param matrixId matrix id
+   * @param rowId first row id
+   * @param rowNum row number
+   * @return partitions sorted by start column
+   */
+  static List<PartitionKey> getPartitions(int matrixId, int rowId, int rowNum) {
+    List<PartitionKey> pkeys =
+        new ArrayList<>(PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId, rowId));
+    for (PartitionKey pkey : pkeys) {
+      if (rowId + rowNum > pkey.getEndRow()) {
+        throw new AngelException("rows [" + rowId + ", " + (rowId + rowNum)
+            + ") are split into several partitions, embedding matrix should only be partitioned"
+            + " by column");
+      }
+    }
+    Collections.sort(pkeys, (PartitionKey key1, PartitionKey key2) -> Long
+        .compare(key1.getStartCol(), key2.getStartCol()));
+    return pkeys;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.psf.embedding;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ps.server.data.request.InitFunc;
+import io.netty.buffer.ByteBuf;
+
+public class PartitionGetEmbeddingParam extends PartitionGetParam {
+
+  int rowId;
+  int rowNum;
+  long[] keys;
+  InitFunc func;
+
+  public PartitionGetEmbeddingParam(int matId, PartitionKey pkey, int rowId, int rowNum,
+      long[] keys, InitFunc func) {
+    super(matId, pkey);
+    this.rowId = rowId;
+    this.rowNum = rowNum;
+    this.keys = keys;
+    this.func = func;
+  }
+
+  public PartitionGetEmbeddingParam() {
+    super();
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    buf.writeBoolean(func != null);
+    if (func != null) {
+      byte[] data = func.getClass().getName().getBytes();
+      buf.writeInt(data.length);
+      buf.writeBytes(data);
+      func.serialize(buf);
+    }
+
+    buf.writeInt(rowId);
+    buf.writeInt(rowNum);
+    buf.writeInt(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      buf.writeLong(keys[i]);
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    if (buf.readBoolean()) {
+      byte[] data = new byte[buf.readInt()];
+      buf.readBytes(data);
+      String initFuncClass = new String(data);
+      try {
+        func = (InitFunc) Class.forName(initFuncClass).newInstance();
+      } catch (Throwable e) {
+        throw new UnsupportedOperationException(e);
+      }
+      func.deserialize(buf);
+    }
+
+    rowId = buf.readInt();
+    rowNum = buf.readInt();
+    keys = new long[buf.readInt()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = buf.readLong();
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    int len = super.bufferLen() + 1 + 12 + keys.length * 8;
+    if (func != null) {
+      len += 4 + func.getClass().getName().getBytes().length + func.bufferLen();
+    }
+    return len;
+  }
+}
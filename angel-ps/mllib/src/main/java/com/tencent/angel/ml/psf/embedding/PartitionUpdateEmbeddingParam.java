@@ -0,0 +1,83 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.psf.embedding;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ps.server.data.request.UpdateOp;
+import io.netty.buffer.ByteBuf;
+
+public class PartitionUpdateEmbeddingParam extends PartitionUpdateParam {
+
+  int rowId;
+  int rowNum;
+  long[] keys;
+  float[] values;
+  UpdateOp op;
+
+  public PartitionUpdateEmbeddingParam(int matId, PartitionKey pkey, int rowId, int rowNum,
+      long[] keys, float[] values, UpdateOp op) {
+    super(matId, pkey, false);
+    this.rowId = rowId;
+    this.rowNum = rowNum;
+    this.keys = keys;
+    this.values = values;
+    this.op = op;
+  }
+
+  public PartitionUpdateEmbeddingParam() {
+    super();
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    buf.writeInt(op.getOpId());
+    buf.writeInt(rowId);
+    buf.writeInt(rowNum);
+    buf.writeInt(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      buf.writeLong(keys[i]);
+    }
+    for (int i = 0; i < values.length; i++) {
+      buf.writeFloat(values[i]);
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    op = UpdateOp.valueOf(buf.readInt());
+    rowId = buf.readInt();
+    rowNum = buf.readInt();
+    keys = new long[buf.readInt()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = buf.readLong();
+    }
+    values = new float[keys.length * rowNum];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = buf.readFloat();
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    return super.bufferLen() + 16 + keys.length * 8 + values.length * 4;
+  }
+}
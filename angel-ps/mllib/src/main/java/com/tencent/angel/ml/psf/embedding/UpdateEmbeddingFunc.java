@@ -0,0 +1,46 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.psf.embedding;
+
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateFunc;
+import com.tencent.angel.ps.storage.partition.EmbeddingPartition;
+
+/**
+ * Update the embedding vectors of some keys in a matrix that uses {@link EmbeddingPartition}, the
+ * vector of a key is written with one lookup.
+ */
+public class UpdateEmbeddingFunc extends UpdateFunc {
+
+  public UpdateEmbeddingFunc(UpdateEmbeddingParam param) {
+    super(param);
+  }
+
+  public UpdateEmbeddingFunc() {
+    super(null);
+  }
+
+  @Override
+  public void partitionUpdate(PartitionUpdateParam partParam) {
+    PartitionUpdateEmbeddingParam param = (PartitionUpdateEmbeddingParam) partParam;
+    EmbeddingPartition partition = (EmbeddingPartition) psContext.getMatrixStorageManager()
+        .getPart(param.getMatrixId(), param.getPartKey().getPartitionId());
+    partition.update(param.keys, param.rowId, param.rowNum, param.values, param.op);
+  }
+}
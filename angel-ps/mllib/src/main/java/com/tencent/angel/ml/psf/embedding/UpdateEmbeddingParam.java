@@ -0,0 +1,110 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.psf.embedding;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateParam;
+import com.tencent.angel.ps.server.data.request.UpdateOp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parameter of {@link UpdateEmbeddingFunc}
+ */
+public class UpdateEmbeddingParam extends UpdateParam {
+
+  int rowId;
+  Map<Long, Vector> values;
+  UpdateOp op;
+
+  /**
+   * Create a new update embedding parameter
+   *
+   * @param matId matrix id
+   * @param rowId first row id of the updated vectors
+   * @param values key to update vector map, the vectors are dense float or double vectors of the
+   * same dimension
+   * @param op update method
+   */
+  public UpdateEmbeddingParam(int matId, int rowId, Map<Long, Vector> values, UpdateOp op) {
+    super(matId);
+    this.rowId = rowId;
+    this.values = values;
+    this.op = op;
+  }
+
+  public UpdateEmbeddingParam(int matId, int rowId, Map<Long, Vector> values) {
+    this(matId, rowId, values, UpdateOp.PLUS);
+  }
+
+  @Override
+  public List<PartitionUpdateParam> split() {
+    long[] keys = new long[values.size()];
+    int index = 0;
+    for (Long key : values.keySet()) {
+      keys[index++] = key;
+    }
+    Arrays.sort(keys);
+    int rowNum = keys.length > 0 ? (int) values.get(keys[0]).dim() : 0;
+
+    List<PartitionKey> pkeys = GetEmbeddingParam.getPartitions(matrixId, rowId, rowNum);
+    List<PartitionUpdateParam> params = new ArrayList<>(pkeys.size());
+    int start = 0;
+    for (PartitionKey pkey : pkeys) {
+      int end = start;
+      while (end < keys.length && keys[end] < pkey.getEndCol()) {
+        end++;
+      }
+      if (end > start) {
+        float[] partValues = new float[(end - start) * rowNum];
+        for (int i = start; i < end; i++) {
+          copy(values.get(keys[i]), partValues, (i - start) * rowNum, rowNum);
+        }
+        params.add(new PartitionUpdateEmbeddingParam(matrixId, pkey, rowId, rowNum,
+            Arrays.copyOfRange(keys, start, end), partValues, op));
+      }
+      start = end;
+    }
+    return params;
+  }
+
+  private static void copy(Vector vector, float[] dest, int offset, int rowNum) {
+    if (vector.dim() != rowNum) {
+      throw new AngelException(
+          "update vectors should have the same dimension " + rowNum + ", but got " + vector.dim());
+    }
+    if (vector instanceof IntFloatVector && vector.isDense()) {
+      System.arraycopy(((IntFloatVector) vector).getStorage().getValues(), 0, dest, offset, rowNum);
+    } else if (vector instanceof IntDoubleVector && vector.isDense()) {
+      double[] values = ((IntDoubleVector) vector).getStorage().getValues();
+      for (int i = 0; i < rowNum; i++) {
+        dest[offset + i] = (float) values[i];
+      }
+    } else {
+      throw new AngelException("Update data should be dense float or double vectors!");
+    }
+  }
+}
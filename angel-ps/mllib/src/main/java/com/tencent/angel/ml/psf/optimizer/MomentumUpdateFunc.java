@@ -18,6 +18,8 @@
 
 package com.tencent.angel.ml.psf.optimizer;
 
+import com.tencent.angel.ml.math2.ufuncs.Ufuncs;
+import com.tencent.angel.ml.math2.ufuncs.lazy.LazyExpr;
 import com.tencent.angel.ml.math2.vector.Vector;
 import com.tencent.angel.ps.storage.partition.RowBasedPartition;
 import com.tencent.angel.ps.storage.vector.ServerRow;
@@ -61,17 +63,33 @@ public class MomentumUpdateFunc extends OptMMUpdateFunc {
         Vector velocity = ServerRowUtils.getVector(partition.getRow(f + factor));
         Vector gradient = ServerRowUtils.getVector(gradientServerRow);
 
-        if (batchSize > 1) {
-          gradient.idiv(batchSize);
+        if (weight.isDense() && velocity.isDense() && gradient.isDense()) {
+          LazyExpr grad = Ufuncs.lazy(gradient);
+          if (batchSize > 1) {
+            grad = grad.div(batchSize);
+          }
+
+          if (regParam != 0.0) {
+            grad = grad.add(Ufuncs.lazy(weight).mul(regParam));
+          }
+
+          // Each update is fused into one pass without intermediate vectors
+          Ufuncs.lazy(velocity).mul(momentum).add(grad).evalTo(velocity);
+          Ufuncs.lazy(weight).sub(Ufuncs.lazy(velocity).mul(lr)).evalTo(weight);
+        } else {
+          // Sparse rows can not be fused, update them in place
+          if (batchSize > 1) {
+            gradient.idiv(batchSize);
+          }
+
+          if (regParam != 0.0) {
+            gradient.iaxpy(weight, regParam);
+          }
+
+          velocity.imul(momentum).iadd(gradient);
+          weight.isub(velocity.mul(lr));
         }
 
-        if (regParam != 0.0) {
-          gradient.iaxpy(weight, regParam);
-        }
-
-        velocity.imul(momentum).iadd(gradient);
-        weight.isub(velocity.mul(lr));
-
         gradient.clear();
       } finally {
         gradientServerRow.endWrite();
@@ -19,6 +19,7 @@
 package com.tencent.angel.ml.psf.optimizer;
 
 import com.tencent.angel.ml.math2.ufuncs.Ufuncs;
+import com.tencent.angel.ml.math2.ufuncs.lazy.LazyExpr;
 import com.tencent.angel.ml.math2.vector.Vector;
 import com.tencent.angel.ps.storage.partition.RowBasedPartition;
 import com.tencent.angel.ps.storage.vector.ServerRow;
@@ -57,15 +58,29 @@ public class PGDUpdateFunc extends OptMMUpdateFunc {
         Vector weight = ServerRowUtils.getVector(partition.getRow(f));
         Vector gradient = ServerRowUtils.getVector(gradientServerRow);
 
-        if (batchSize > 1) {
-          gradient.idiv(batchSize);
-        }
-
         double lrTemp = lr / (1 + l2RegParam * lr);
-        if (l2RegParam != 0.0) {
-          weight.imul(1 - lrTemp * l2RegParam).iaxpy(gradient, -lrTemp);
+        if (weight.isDense() && gradient.isDense()) {
+          LazyExpr grad = Ufuncs.lazy(gradient);
+          if (batchSize > 1) {
+            grad = grad.div(batchSize);
+          }
+
+          LazyExpr decayed = Ufuncs.lazy(weight);
+          if (l2RegParam != 0.0) {
+            decayed = decayed.mul(1 - lrTemp * l2RegParam);
+          }
+          decayed.sub(grad.mul(lrTemp)).evalTo(weight);
         } else {
-          weight.iaxpy(gradient, -lrTemp);
+          // Sparse rows can not be fused, update them in place
+          if (batchSize > 1) {
+            gradient.idiv(batchSize);
+          }
+
+          if (l2RegParam != 0.0) {
+            weight.imul(1 - lrTemp * l2RegParam).iaxpy(gradient, -lrTemp);
+          } else {
+            weight.iaxpy(gradient, -lrTemp);
+          }
         }
 
         if (l1RegParam != 0) {
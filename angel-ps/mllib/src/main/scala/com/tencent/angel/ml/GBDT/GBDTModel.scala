@@ -48,6 +48,9 @@ object GBDTModel {
   val NODE_GRAD_MAT: String = "gbdt.node.grad.stats"
   val NODE_PRED_MAT: String = "gbdt.node.predict"
 
+  // Instance number of a predict block
+  val PREDICT_BLOCK_SIZE: Int = 1024
+
 
   def apply(conf: Configuration) = {
     new GBDTModel(conf)
@@ -190,48 +193,77 @@ class GBDTModel(conf: Configuration, _ctx: TaskContext = null) extends MLModel(c
     var negTrue: Int = 0
     var negNum: Int = 0
 
-    (0 until dataSet.size).foreach { idx =>
-      val instance = dataSet.read
-      val x: IntFloatVector = instance.getX match {
-        case vec: IntFloatVector => vec
-        case vec: IntDoubleVector => {
-          VFactory.sparseFloatVector(vec.dim.toInt,
-            vec.getStorage.getIndices, vec.getStorage.getValues.map(_.toFloat))
+    // Flat arrays of the trees, the instances are evaluated in blocks tree by tree so the arrays of
+    // a tree stay in cache for the whole block
+    val treeFeats: Array[Array[Int]] = splitFeatVecs.map(_.getStorage.getValues)
+    val treeValues: Array[Array[Double]] = splitValueVecs.map(_.getStorage.getValues)
+    val treePreds: Array[Array[Double]] = nodePredVecs.map(_.getStorage.getValues)
+
+    val blockSize = GBDTModel.PREDICT_BLOCK_SIZE
+    val xs = new Array[IntFloatVector](blockSize)
+    val ys = new Array[Double](blockSize)
+    val attaches = new Array[String](blockSize)
+    val preds = new Array[Double](blockSize)
+
+    var idx = 0
+    while (idx < dataSet.size) {
+      val num = Math.min(blockSize, dataSet.size - idx)
+      (0 until num).foreach { i =>
+        val instance = dataSet.read
+        xs(i) = instance.getX match {
+          case vec: IntFloatVector => vec
+          case vec: IntDoubleVector => {
+            VFactory.sparseFloatVector(vec.dim.toInt,
+              vec.getStorage.getIndices, vec.getStorage.getValues.map(_.toFloat))
+          }
         }
+        ys(i) = instance.getY
+        attaches(i) = instance.getAttach
+        preds(i) = 0
       }
 
-      val y: Double = instance.getY
-      val attach: String = instance.getAttach
-      var pred: Double = 0
-
       (0 until this.maxTreeNum).foreach { treeIdx =>
-        var nid: Int = 0
-        var splitFeat: Int = splitFeatVecs(treeIdx).get(nid)
-        var splitValue: Double = splitValueVecs(treeIdx).get(nid)
-        var curPred: Double = nodePredVecs(treeIdx).get(nid)
-
-        while (splitFeat != -1 && nid < splitFeatVecs(treeIdx).getDim) {
-          nid = if (x.get(splitFeat) <= splitValue)
-            2 * nid + 1 else 2 * nid + 2
-          if (nid < splitFeatVecs(treeIdx).getDim) {
-            splitFeat = splitFeatVecs(treeIdx).get(nid)
-            splitValue = splitValueVecs(treeIdx).get(nid)
-            curPred = nodePredVecs(treeIdx).get(nid)
+        val feats = treeFeats(treeIdx)
+        val values = treeValues(treeIdx)
+        val nodePreds = treePreds(treeIdx)
+        val dim = feats.length
+        (0 until num).foreach { i =>
+          val x = xs(i)
+          var nid: Int = 0
+          var splitFeat: Int = feats(nid)
+          var splitValue: Double = values(nid)
+          var curPred: Double = nodePreds(nid)
+
+          while (splitFeat != -1 && nid < dim) {
+            nid = if (x.get(splitFeat) <= splitValue)
+              2 * nid + 1 else 2 * nid + 2
+            if (nid < dim) {
+              splitFeat = feats(nid)
+              splitValue = values(nid)
+              curPred = nodePreds(nid)
+            }
           }
+          preds(i) += lr * curPred
         }
-        pred += lr * curPred
       }
 
-      predict.put(GBDTPredictResult(attach, pred, if (y.isNaN) 0.0 else y))
-      LOG.debug(s"instance[$idx]: attach[$attach] pred[$pred] label[$y]")
-
-      if (y > 0) {
-        posNum += 1
-        if (y * pred > 0) posTrue += 1
-      } else {
-        negNum += 1
-        if (y * pred >= 0) negTrue += 1
+      (0 until num).foreach { i =>
+        val y = ys(i)
+        val pred = preds(i)
+        val attach = attaches(i)
+        predict.put(GBDTPredictResult(attach, pred, if (y.isNaN) 0.0 else y))
+        LOG.debug(s"instance[${idx + i}]: attach[$attach] pred[$pred] label[$y]")
+
+        if (y > 0) {
+          posNum += 1
+          if (y * pred > 0) posTrue += 1
+        } else {
+          negNum += 1
+          if (y * pred >= 0) negTrue += 1
+        }
+        xs(i) = null
       }
+      idx += num
     }
 
     LOG.debug(s"Positive accuracy: ${posTrue.toDouble / posNum.toDouble}, " +
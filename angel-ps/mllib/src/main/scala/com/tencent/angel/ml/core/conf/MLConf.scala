@@ -50,6 +50,12 @@ object MLConf {
   val DEFAULT_ML_DATA_USE_SHUFFLE = false
   val ML_DATA_POSNEG_RATIO = "ml.data.posneg.ratio"
   val DEFAULT_ML_DATA_POSNEG_RATIO = -1
+  // Parse the data with several threads in preprocess, the unordered mode does not keep the
+  // input order of the samples
+  val ML_DATA_PARSE_THREAD_NUM = "ml.data.parse.thread.num"
+  val DEFAULT_ML_DATA_PARSE_THREAD_NUM = 1
+  val ML_DATA_PARSE_ORDERED = "ml.data.parse.ordered"
+  val DEFAULT_ML_DATA_PARSE_ORDERED = true
 
 
   // Worker params
@@ -229,6 +235,10 @@ object MLConf {
   val ML_GBDT_MAX_LEAF_WEIGHT = "ml.gbdt.max.leaf.weight"
   val DEFAULT_ML_GBDT_MAX_LEAF_WEIGHT = 0.0
 
+  /** Exchange the splits and split results through PS, every tree is built in one job */
+  val ML_GBDT_PS_SYNC = "ml.gbdt.ps.sync"
+  val DEFAULT_ML_GBDT_PS_SYNC = false
+
 
   /** The loss sum of all samples */
   val TRAIN_LOSS = "train.loss"
@@ -243,6 +253,10 @@ object MLConf {
   val ML_MATRIX_DOT_USE_PARALLEL_EXECUTOR = "ml.matrix.dot.use.parallel.executor"
   val DEFAULT_ML_MATRIX_DOT_USE_PARALLEL_EXECUTOR = false
 
+  /** Reduce the dense gradients of FCLayer among the workers before pushing them to the PSs */
+  val ML_FCLAYER_COLLECTIVE_SYNC = "ml.fclayer.collective.sync"
+  val DEFAULT_ML_FCLAYER_COLLECTIVE_SYNC = false
+
 }
 
 class MLConf {}
\ No newline at end of file
@@ -114,6 +114,7 @@ class GraphLearner(modelClassName: String, ctx: TaskContext) extends MLLearner(c
     globalMetrics.addMetric(MLConf.TRAIN_LOSS, LossMetric(trainDataSize))
     globalMetrics.addMetric(MLConf.VALID_LOSS, LossMetric(validationData.size))
     graph.taskNum = ctx.getTotalTaskNum
+    graph.taskIndex = ctx.getTaskId.getIndex
 
     val loadModelPath = conf.get(AngelConf.ANGEL_LOAD_MODEL_PATH, "")
     if (loadModelPath.isEmpty) {
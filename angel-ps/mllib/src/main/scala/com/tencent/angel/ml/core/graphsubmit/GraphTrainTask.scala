@@ -21,9 +21,8 @@ package com.tencent.angel.ml.core.graphsubmit
 import com.tencent.angel.ml.core.TrainTask
 import com.tencent.angel.ml.core.conf.{MLConf, SharedConf}
 import com.tencent.angel.ml.feature.LabeledData
-import com.tencent.angel.ml.math2.vector.Vector
 import com.tencent.angel.ml.matrix.RowType
-import com.tencent.angel.ml.core.utils.{DataParser, NetUtils}
+import com.tencent.angel.ml.core.utils.{DataParser, NetUtils, ParallelDataLoader}
 import com.tencent.angel.worker.storage.{DataBlock, DiskDataBlock, MemoryAndDiskDataBlock, MemoryDataBlock}
 import com.tencent.angel.worker.task.TaskContext
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet
@@ -58,7 +57,7 @@ class GraphTrainTask(ctx: TaskContext) extends TrainTask[LongWritable, Text](ctx
   }
 
   override def parse(key: LongWritable, value: Text): LabeledData = {
-    dataParser.parse(value.toString)
+    dataParser.parse(value.getBytes, 0, value.getLength)
   }
 
   override def preProcess(taskContext: TaskContext) {
@@ -67,25 +66,35 @@ class GraphTrainTask(ctx: TaskContext) extends TrainTask[LongWritable, Text](ctx
     var count = 0
     val vali = Math.ceil(1.0 / valiRat).toInt
 
-    val reader = taskContext.getReader
-    while (reader.nextKeyValue) {
-      val out = parse(reader.getCurrentKey, reader.getCurrentValue)
-      if (out != null) {
-        if (count % vali == 0)
-          validDataBlock.put(out)
-        else if (posnegRatio != -1) {
-          if (out.getY > 0) {
-            posDataBlock.put(out)
-          } else {
-            negDataBlock.put(out)
-          }
+    def put(out: LabeledData): Unit = {
+      if (count % vali == 0)
+        validDataBlock.put(out)
+      else if (posnegRatio != -1) {
+        if (out.getY > 0) {
+          posDataBlock.put(out)
         } else {
-          taskDataBlock.put(out)
+          negDataBlock.put(out)
         }
-        count += 1
+      } else {
+        taskDataBlock.put(out)
       }
+      count += 1
+    }
 
-      null.asInstanceOf[Vector]
+    val reader = taskContext.getReader[LongWritable, Text]
+    val parseThreadNum = SharedConf.get().getInt(MLConf.ML_DATA_PARSE_THREAD_NUM,
+      MLConf.DEFAULT_ML_DATA_PARSE_THREAD_NUM)
+    if (parseThreadNum > 1) {
+      val ordered = SharedConf.get().getBoolean(MLConf.ML_DATA_PARSE_ORDERED,
+        MLConf.DEFAULT_ML_DATA_PARSE_ORDERED)
+      new ParallelDataLoader(dataParser, parseThreadNum, ordered).load(reader, put)
+    } else {
+      while (reader.nextKeyValue) {
+        val out = parse(reader.getCurrentKey, reader.getCurrentValue)
+        if (out != null) {
+          put(out)
+        }
+      }
     }
 
     posDataBlock.flush()
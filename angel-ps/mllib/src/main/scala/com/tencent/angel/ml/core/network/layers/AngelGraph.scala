@@ -70,6 +70,7 @@ class AngelGraph(val placeHolder: PlaceHolder, val conf: SharedConf) extends Ser
   @transient private val matrixCtxs = new ArrayBuffer[MatrixContext]()
   val timeStats = new TimeStats()
   var taskNum: Int = _
+  var taskIndex: Int = _
 
   def addInput(layer: InputLayer): Unit = {
     inputLayers.append(layer)
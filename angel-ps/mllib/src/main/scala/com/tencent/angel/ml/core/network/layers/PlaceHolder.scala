@@ -39,6 +39,7 @@ class PlaceHolder(val conf: SharedConf) extends Serializable {
 
   private var data: Array[LabeledData] = _
   private var feats: Matrix = _
+  private var csrFeats: CsrMatrix = _
   private var labels: Matrix = _
   private var indices: Vector = _
   private var attached: Array[String] = _
@@ -49,6 +50,7 @@ class PlaceHolder(val conf: SharedConf) extends Serializable {
 
   def feedData(data: Array[LabeledData]): Unit = {
     feats = null
+    csrFeats = null
     labels = null
     indices = null
     attached = null
@@ -99,6 +101,101 @@ class PlaceHolder(val conf: SharedConf) extends Serializable {
     feats
   }
 
+  /**
+    * Get the features as a CSR matrix with shape (batchSize, number of indices), the column of a
+    * feature is its position in getIndices. Only int key sparse features are supported, null is
+    * returned for the others.
+    */
+  def getCsrFeats: CsrMatrix = synchronized {
+    if (csrFeats == null && !isDense && keyType == "int") {
+      csrFeats = data.head.getX match {
+        case _: IntDoubleVector if data.forall(_.getX.getStorage match {
+          case _: IntDoubleSortedVectorStorage | _: IntDoubleSparseVectorStorage => true
+          case _ => false
+        }) => buildCsrDouble()
+        case _: IntFloatVector if data.forall(_.getX.getStorage match {
+          case _: IntFloatSortedVectorStorage | _: IntFloatSparseVectorStorage => true
+          case _ => false
+        }) => buildCsrFloat()
+        case _ => null
+      }
+    }
+
+    csrFeats
+  }
+
+  private def csrIndptr(): Array[Int] = {
+    val indptr = new Array[Int](data.length + 1)
+    data.indices.foreach { row =>
+      indptr(row + 1) = indptr(row) + data(row).getX.getStorage.asInstanceOf[IntKeyVectorStorage].size()
+    }
+    indptr
+  }
+
+  private def buildCsrDouble(): CsrMatrix = {
+    val cols = getIndices.asInstanceOf[IntIntVector].getStorage.getValues
+    val indptr = csrIndptr()
+    val indices = new Array[Int](indptr(data.length))
+    val values = new Array[Double](indptr(data.length))
+
+    data.indices.foreach { row =>
+      var p = indptr(row)
+      data(row).getX.getStorage match {
+        case s: IntDoubleSortedVectorStorage =>
+          val sIndices = s.getIndices
+          val sValues = s.getValues
+          (0 until s.size()).foreach { i =>
+            indices(p) = java.util.Arrays.binarySearch(cols, sIndices(i))
+            values(p) = sValues(i)
+            p += 1
+          }
+        case s: IntDoubleSparseVectorStorage =>
+          val iter = s.entryIterator()
+          while (iter.hasNext) {
+            val entry = iter.next()
+            indices(p) = java.util.Arrays.binarySearch(cols, entry.getIntKey)
+            values(p) = entry.getDoubleValue
+            p += 1
+          }
+        case _ => throw new AngelException("RowType is not support!")
+      }
+    }
+
+    new CsrDoubleMatrix(values, indices, indptr, Array(data.length, cols.length))
+  }
+
+  private def buildCsrFloat(): CsrMatrix = {
+    val cols = getIndices.asInstanceOf[IntIntVector].getStorage.getValues
+    val indptr = csrIndptr()
+    val indices = new Array[Int](indptr(data.length))
+    val values = new Array[Float](indptr(data.length))
+
+    data.indices.foreach { row =>
+      var p = indptr(row)
+      data(row).getX.getStorage match {
+        case s: IntFloatSortedVectorStorage =>
+          val sIndices = s.getIndices
+          val sValues = s.getValues
+          (0 until s.size()).foreach { i =>
+            indices(p) = java.util.Arrays.binarySearch(cols, sIndices(i))
+            values(p) = sValues(i)
+            p += 1
+          }
+        case s: IntFloatSparseVectorStorage =>
+          val iter = s.entryIterator()
+          while (iter.hasNext) {
+            val entry = iter.next()
+            indices(p) = java.util.Arrays.binarySearch(cols, entry.getIntKey)
+            values(p) = entry.getFloatValue
+            p += 1
+          }
+        case _ => throw new AngelException("RowType is not support!")
+      }
+    }
+
+    new CsrFloatMatrix(values, indices, indptr, Array(data.length, cols.length))
+  }
+
   def getLabel: Matrix = {
     labels = if (labels == null) {
       MFactory.denseFloatMatrix(data.length, 1, data.map(_.getY.toFloat))
@@ -21,6 +21,7 @@ package com.tencent.angel.ml.core.network.layers.linear
 
 import java.util.concurrent.Future
 
+import com.tencent.angel.RunningMode
 import com.tencent.angel.conf.AngelConf
 import com.tencent.angel.exception.AngelException
 import com.tencent.angel.ml.core.conf.{MLConf, SharedConf}
@@ -30,6 +31,7 @@ import com.tencent.angel.ml.core.network.transfunc.TransFunc
 import com.tencent.angel.ml.core.optimizer.{OptUtils, Optimizer}
 import com.tencent.angel.ml.core.utils.PSMatrixUtils
 import com.tencent.angel.ml.core.utils.paramsutils.ParamKeys
+import com.tencent.angel.ml.math2.VFactory
 import com.tencent.angel.ml.math2.matrix._
 import com.tencent.angel.ml.math2.ufuncs.Ufuncs
 import com.tencent.angel.ml.math2.utils.MatrixUtils
@@ -39,6 +41,7 @@ import com.tencent.angel.ml.matrix.psf.update.RandomNormal
 import com.tencent.angel.ml.matrix.psf.update.base.VoidResult
 import com.tencent.angel.model.{MatrixLoadContext, MatrixSaveContext, ModelLoadContext, ModelSaveContext}
 import com.tencent.angel.psagent.PSAgentContext
+import com.tencent.angel.worker.WorkerContext
 import org.apache.commons.logging.LogFactory
 import org.json4s.JsonAST._
 import org.json4s.JsonDSL._
@@ -55,6 +58,9 @@ class FCLayer(name: String, outputDim: Int, inputLayer: Layer, transFunc: TransF
   val modelType: RowType = SharedConf.denseModelType
   val numTask: Int = sharedConf.get(AngelConf.ANGEL_WORKERGROUP_NUMBER).toInt
   val mode = SharedConf.runningMode()
+  // Collective sync needs the worker rpc services, so it only works in ANGEL_PS_WORKER mode
+  private val collectiveSync: Boolean = mode == RunningMode.ANGEL_PS_WORKER &&
+    sharedConf.getBoolean(MLConf.ML_FCLAYER_COLLECTIVE_SYNC, MLConf.DEFAULT_ML_FCLAYER_COLLECTIVE_SYNC)
 
   val numSlot: Int = OptUtils.getSlotNum(optimizer)
   private val psRows: Int = numSlot + 1
@@ -150,7 +156,11 @@ class FCLayer(name: String, outputDim: Int, inputLayer: Layer, transFunc: TransF
           Ufuncs.dot(inputLayer.calOutput(), true, backward, false, parallel).idiv(normal)
         }
 
-        PSMatrixUtils.incrementRowByMatrix(weightId, numSlot, weightGrad)
+        if (collectiveSync) {
+          pushReducedGradient(weightGrad)
+        } else {
+          PSMatrixUtils.incrementRowByMatrix(weightId, numSlot, weightGrad)
+        }
 
         PSMatrixUtils.incrementRow(biasId, 0, backward.average(0).imul(-optimizer.getLR / graph.taskNum))
 
@@ -159,6 +169,31 @@ class FCLayer(name: String, outputDim: Int, inputLayer: Layer, transFunc: TransF
     }
   }
 
+  /**
+    * Sum the weight gradients of all tasks with a ring reduce-scatter, then every task only pushes
+    * the segment it owns, so the PSs receive the summed gradient once instead of once per task.
+    */
+  private def pushReducedGradient(weightGrad: Matrix): Unit = {
+    val communicator = WorkerContext.get().getCollectiveManager.getCommunicator(graph.taskIndex)
+    weightGrad match {
+      case m: BlasFloatMatrix =>
+        val data = m.getData
+        val Array(start, end) = communicator.reduceScatter(data)
+        val indices = (start until end).toArray
+        val values = data.slice(start, end)
+        PSMatrixUtils.incrementRow(weightId, numSlot,
+          VFactory.sortedFloatVector(weightId, numSlot, 0, psCols, indices, values))
+      case m: BlasDoubleMatrix =>
+        val data = m.getData
+        val Array(start, end) = communicator.reduceScatter(data)
+        val indices = (start until end).toArray
+        val values = data.slice(start, end)
+        PSMatrixUtils.incrementRow(weightId, numSlot,
+          VFactory.sortedDoubleVector(weightId, numSlot, 0, psCols, indices, values))
+      case _ => throw new AngelException("Only Double and Float are supported!")
+    }
+  }
+
   override def update(epoch: Int, batchSize: Int): Future[VoidResult] = {
     var result: Future[VoidResult] = null
     status match {
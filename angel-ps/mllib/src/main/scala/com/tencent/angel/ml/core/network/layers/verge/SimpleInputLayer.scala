@@ -29,6 +29,7 @@ import com.tencent.angel.ml.core.utils.paramsutils.ParamKeys
 import com.tencent.angel.ml.core.utils.{NetUtils, PSMatrixUtils}
 import com.tencent.angel.ml.math2.matrix._
 import com.tencent.angel.ml.math2.ufuncs.Ufuncs
+import com.tencent.angel.ml.math2.ufuncs.executor.matrix.CsrDotExecutor
 import com.tencent.angel.ml.math2.utils.VectorUtils
 import com.tencent.angel.ml.math2.vector._
 import com.tencent.angel.ml.math2.{MFactory, VFactory}
@@ -112,16 +113,28 @@ class SimpleInputLayer(name: String, outputDim: Int, transFunc: TransFunc, overr
           case ("dense", "double" | "float") => // the shape of weight matrix is (inputDim, outputDim)
             forward = graph.placeHolder.getFeats.dot(weight, parallel).iadd(bias)
           case ("libsvm" | "dummy", "double") => // the shape of weight matrix is (outputDim, inputDim)
-            forward = MFactory.denseDoubleMatrix(graph.placeHolder.getBatchSize, outputDim)
-            (0 until outputDim).foreach { colId => // the shape of weight matrix is (outputDim, inputDim)
-              val col = graph.placeHolder.getFeats.dot(weight.getRow(colId)).iadd(VectorUtils.getDouble(bias, colId))
-              forward.asInstanceOf[BlasDoubleMatrix].setCol(colId, col)
+            graph.placeHolder.getCsrFeats match {
+              case csr: CsrDoubleMatrix => // walk the sparse rows once for all output columns
+                val weightT = CsrDotExecutor.transGatherDouble(weight, csrCols, outputDim)
+                forward = CsrDotExecutor.spmm(csr, weightT, outputDim).iadd(bias)
+              case _ =>
+                forward = MFactory.denseDoubleMatrix(graph.placeHolder.getBatchSize, outputDim)
+                (0 until outputDim).foreach { colId => // the shape of weight matrix is (outputDim, inputDim)
+                  val col = graph.placeHolder.getFeats.dot(weight.getRow(colId)).iadd(VectorUtils.getDouble(bias, colId))
+                  forward.asInstanceOf[BlasDoubleMatrix].setCol(colId, col)
+                }
             }
           case ("libsvm" | "dummy", "float") =>
-            forward = MFactory.denseFloatMatrix(graph.placeHolder.getBatchSize, outputDim)
-            (0 until outputDim).foreach { colId =>
-              val col = graph.placeHolder.getFeats.dot(weight.getRow(colId)).iadd(VectorUtils.getFloat(bias, colId))
-              forward.asInstanceOf[BlasFloatMatrix].setCol(colId, col)
+            graph.placeHolder.getCsrFeats match {
+              case csr: CsrFloatMatrix =>
+                val weightT = CsrDotExecutor.transGatherFloat(weight, csrCols, outputDim)
+                forward = CsrDotExecutor.spmm(csr, weightT, outputDim).iadd(bias)
+              case _ =>
+                forward = MFactory.denseFloatMatrix(graph.placeHolder.getBatchSize, outputDim)
+                (0 until outputDim).foreach { colId =>
+                  val col = graph.placeHolder.getFeats.dot(weight.getRow(colId)).iadd(VectorUtils.getFloat(bias, colId))
+                  forward.asInstanceOf[BlasFloatMatrix].setCol(colId, col)
+                }
             }
         }
 
@@ -184,21 +197,21 @@ class SimpleInputLayer(name: String, outputDim: Int, transFunc: TransFunc, overr
               .imul(normal)
             PSMatrixUtils.incrementRowByMatrix(weightId, numSlot, weightGrad)
           case _ => // sparse data, dense or sparse model, note: dense data, sparse model is not allowed
-            val vectors = (0 until outputDim).toArray.map { colId =>
-              val weightRowGrad = valueType match {
-                case "double" =>
-                  graph.placeHolder.getFeats.transDot(backward.asInstanceOf[BlasDoubleMatrix].getCol(colId))
-                    .imul(normal)
-                case "float" =>
-                  graph.placeHolder.getFeats.transDot(backward.asInstanceOf[BlasFloatMatrix].getCol(colId))
-                    .imul(normal)
-              }
-
-              weightRowGrad.setMatrixId(weight.getMatrixId)
-              weightRowGrad.setRowId(outputDim * numSlot + colId)
-              weightRowGrad.setClock(weight.getClock)
-
-              weightRowGrad
+            val vectors = graph.placeHolder.getCsrFeats match {
+              case csr: CsrMatrix => csrWeightGrad(csr, normal)
+              case _ =>
+                (0 until outputDim).toArray.map { colId =>
+                  val weightRowGrad = valueType match {
+                    case "double" =>
+                      graph.placeHolder.getFeats.transDot(backward.asInstanceOf[BlasDoubleMatrix].getCol(colId))
+                        .imul(normal)
+                    case "float" =>
+                      graph.placeHolder.getFeats.transDot(backward.asInstanceOf[BlasFloatMatrix].getCol(colId))
+                        .imul(normal)
+                  }
+
+                  setGradMeta(weightRowGrad, colId)
+                }
             }
 
             PSMatrixUtils.incrementRows(weightId, vectors.map(_.getRowId), vectors)
@@ -215,6 +228,42 @@ class SimpleInputLayer(name: String, outputDim: Int, transFunc: TransFunc, overr
     // println(s"pushGradient Time = ${end - start} ms")
   }
 
+  private def csrCols: Array[Int] = graph.placeHolder.getIndices.asInstanceOf[IntIntVector].getStorage.getValues
+
+  private def setGradMeta(weightRowGrad: Vector, colId: Int): Vector = {
+    weightRowGrad.setMatrixId(weight.getMatrixId)
+    weightRowGrad.setRowId(outputDim * numSlot + colId)
+    weightRowGrad.setClock(weight.getClock)
+
+    weightRowGrad
+  }
+
+  /**
+    * Weight gradient of all output columns with one pass of trans(feats) * backward, the rows are
+    * sorted vectors over the indices of the batch
+    */
+  private def csrWeightGrad(csr: CsrMatrix, normal: Double): Array[Vector] = {
+    val cols = csrCols
+    val featDim = graph.placeHolder.getFeatDim.toInt
+    (csr, backward) match {
+      case (c: CsrDoubleMatrix, b: BlasDoubleMatrix) =>
+        val grad = CsrDotExecutor.spmmTrans(c, b).getData
+        (0 until outputDim).toArray.map { colId =>
+          val values = new Array[Double](cols.length)
+          cols.indices.foreach { u => values(u) = grad(u * outputDim + colId) * normal }
+          setGradMeta(VFactory.sortedDoubleVector(featDim, cols.clone(), values), colId)
+        }
+      case (c: CsrFloatMatrix, b: BlasFloatMatrix) =>
+        val grad = CsrDotExecutor.spmmTrans(c, b).getData
+        (0 until outputDim).toArray.map { colId =>
+          val values = new Array[Float](cols.length)
+          cols.indices.foreach { u => values(u) = (grad(u * outputDim + colId) * normal).toFloat }
+          setGradMeta(VFactory.sortedFloatVector(featDim, cols.clone(), values), colId)
+        }
+      case _ => throw new AngelException("the value type of features and backward are not matched")
+    }
+  }
+
   override def update(epoch: Int, batchSize: Int): Future[VoidResult] = {
     val start = System.currentTimeMillis()
     var result: Future[VoidResult] = null
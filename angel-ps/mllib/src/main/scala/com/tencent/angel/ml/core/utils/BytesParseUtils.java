@@ -0,0 +1,297 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.core.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parse text data from the bytes of a line directly, no string is created for the tokens. The
+ * numbers in the common forms are parsed without rounding error, the others fall back to the JDK
+ * parsers.
+ */
+public class BytesParseUtils {
+
+  /**
+   * Separator that matches all white spaces
+   */
+  public static final int WHITESPACE = -1;
+
+  /**
+   * The splitter can not be matched byte by byte
+   */
+  public static final int NO_SEPARATOR = -2;
+
+  private static final double[] DOUBLE_POW10 = new double[23];
+  private static final float[] FLOAT_POW10 = new float[11];
+
+  static {
+    DOUBLE_POW10[0] = 1.0;
+    for (int i = 1; i < DOUBLE_POW10.length; i++) {
+      DOUBLE_POW10[i] = DOUBLE_POW10[i - 1] * 10;
+    }
+    FLOAT_POW10[0] = 1.0f;
+    for (int i = 1; i < FLOAT_POW10.length; i++) {
+      FLOAT_POW10[i] = FLOAT_POW10[i - 1] * 10;
+    }
+  }
+
+  /**
+   * Get the byte separator of a splitter regex
+   *
+   * @param splitter splitter regex
+   * @return {@link #WHITESPACE}, a separator byte or {@link #NO_SEPARATOR}
+   */
+  public static int separator(String splitter) {
+    switch (splitter) {
+      case "\\s+":
+      case "\\s":
+      case " +":
+        return WHITESPACE;
+      case "\\t":
+        return '\t';
+      case "\\|":
+        return '|';
+      default:
+        if (splitter.length() == 1 && ".$|()[{^?*+\\".indexOf(splitter.charAt(0)) < 0
+            && splitter.charAt(0) < 0x80) {
+          return splitter.charAt(0);
+        }
+        return NO_SEPARATOR;
+    }
+  }
+
+  public static boolean isSeparator(byte b, int separator) {
+    if (separator == WHITESPACE) {
+      return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '\f' || b == 0x0B;
+    } else {
+      return b == separator;
+    }
+  }
+
+  /**
+   * Skip the separators
+   *
+   * @return the position of the first byte that is not a separator, or end
+   */
+  public static int skip(byte[] bytes, int pos, int end, int separator) {
+    while (pos < end && isSeparator(bytes[pos], separator)) {
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * Find the end of a token
+   *
+   * @return the position of the first separator, or end
+   */
+  public static int tokenEnd(byte[] bytes, int pos, int end, int separator) {
+    while (pos < end && !isSeparator(bytes[pos], separator)) {
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * Count a byte in [pos, end)
+   */
+  public static int count(byte[] bytes, int pos, int end, byte b) {
+    int num = 0;
+    for (int i = pos; i < end; i++) {
+      if (bytes[i] == b) {
+        num++;
+      }
+    }
+    return num;
+  }
+
+  /**
+   * Parse the features of a libsvm line, the feature indices in the line start from 1
+   *
+   * @param bytes line bytes
+   * @param pos start position of the features
+   * @param end end position of the line
+   * @param separator separator
+   * @param keys feature indices, its length is the feature number
+   * @param values feature values
+   */
+  public static void parseLibSVMFeatures(byte[] bytes, int pos, int end, int separator,
+      long[] keys, double[] values) {
+    pos = skip(bytes, pos, end, separator);
+    for (int i = 0; pos < end; i++) {
+      int tokenEnd = tokenEnd(bytes, pos, end, separator);
+      int colon = indexOf(bytes, pos, tokenEnd, (byte) ':');
+      keys[i] = parseLong(bytes, pos, colon) - 1;
+      values[i] = parseDouble(bytes, colon + 1, tokenEnd);
+      pos = skip(bytes, tokenEnd, end, separator);
+    }
+  }
+
+  /**
+   * Parse the features of a libsvm line, the feature indices in the line start from 1
+   *
+   * @param bytes line bytes
+   * @param pos start position of the features
+   * @param end end position of the line
+   * @param separator separator
+   * @param keys feature indices, its length is the feature number
+   * @param values feature values
+   */
+  public static void parseLibSVMFeatures(byte[] bytes, int pos, int end, int separator,
+      long[] keys, float[] values) {
+    pos = skip(bytes, pos, end, separator);
+    for (int i = 0; pos < end; i++) {
+      int tokenEnd = tokenEnd(bytes, pos, end, separator);
+      int colon = indexOf(bytes, pos, tokenEnd, (byte) ':');
+      keys[i] = parseLong(bytes, pos, colon) - 1;
+      values[i] = parseFloat(bytes, colon + 1, tokenEnd);
+      pos = skip(bytes, tokenEnd, end, separator);
+    }
+  }
+
+  private static int indexOf(byte[] bytes, int pos, int end, byte b) {
+    for (int i = pos; i < end; i++) {
+      if (bytes[i] == b) {
+        return i;
+      }
+    }
+    throw new NumberFormatException("Invalid libsvm feature " + toString(bytes, pos, end));
+  }
+
+  /**
+   * Convert the int keys to int type
+   */
+  public static int[] toIntKeys(long[] keys) {
+    int[] intKeys = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] < Integer.MIN_VALUE || keys[i] > Integer.MAX_VALUE) {
+        throw new NumberFormatException("Feature index " + (keys[i] + 1) + " is out of int range");
+      }
+      intKeys[i] = (int) keys[i];
+    }
+    return intKeys;
+  }
+
+  public static long parseLong(byte[] bytes, int start, int end) {
+    int pos = start;
+    boolean negative = false;
+    if (pos < end && (bytes[pos] == '-' || bytes[pos] == '+')) {
+      negative = bytes[pos] == '-';
+      pos++;
+    }
+    if (pos == end || end - pos > 18) {
+      return Long.parseLong(toString(bytes, start, end).trim());
+    }
+
+    long value = 0;
+    for (; pos < end; pos++) {
+      int digit = bytes[pos] - '0';
+      if (digit < 0 || digit > 9) {
+        return Long.parseLong(toString(bytes, start, end).trim());
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  public static double parseDouble(byte[] bytes, int start, int end) {
+    long decimal = parseDecimal(bytes, start, end);
+    if (decimal >= 0) {
+      long mantissa = decimal >>> 6;
+      int exp = (int) (decimal & 63) - 32;
+      if (mantissa < (1L << 53) && exp > -DOUBLE_POW10.length && exp < DOUBLE_POW10.length) {
+        // Both the mantissa and the power of 10 are exact, so the result is rounded only once
+        double value = exp >= 0 ? mantissa * DOUBLE_POW10[exp] : mantissa / DOUBLE_POW10[-exp];
+        return bytes[start] == '-' ? -value : value;
+      }
+    }
+    return Double.parseDouble(toString(bytes, start, end));
+  }
+
+  public static float parseFloat(byte[] bytes, int start, int end) {
+    long decimal = parseDecimal(bytes, start, end);
+    if (decimal >= 0) {
+      long mantissa = decimal >>> 6;
+      int exp = (int) (decimal & 63) - 32;
+      if (mantissa < (1L << 24) && exp > -FLOAT_POW10.length && exp < FLOAT_POW10.length) {
+        float value = exp >= 0 ? mantissa * FLOAT_POW10[exp] : mantissa / FLOAT_POW10[-exp];
+        return bytes[start] == '-' ? -value : value;
+      }
+    }
+    return Float.parseFloat(toString(bytes, start, end));
+  }
+
+  /**
+   * Parse a decimal number like [+-]digits[.digits][(e|E)[+-]digits]
+   *
+   * @return (mantissa << 6) | (exponent + 32) for the numbers whose mantissa is smaller than 2^53
+   * and exponent is in (-32, 32), -1 for the others
+   */
+  private static long parseDecimal(byte[] bytes, int start, int end) {
+    int pos = start;
+    if (pos < end && (bytes[pos] == '-' || bytes[pos] == '+')) {
+      pos++;
+    }
+
+    long mantissa = 0;
+    int exp = 0;
+    int digitNum = 0;
+    for (; pos < end && bytes[pos] >= '0' && bytes[pos] <= '9'; pos++) {
+      mantissa = mantissa * 10 + (bytes[pos] - '0');
+      digitNum++;
+    }
+    if (pos < end && bytes[pos] == '.') {
+      for (pos++; pos < end && bytes[pos] >= '0' && bytes[pos] <= '9'; pos++) {
+        mantissa = mantissa * 10 + (bytes[pos] - '0');
+        digitNum++;
+        exp--;
+      }
+    }
+    if (digitNum == 0 || digitNum > 16) {
+      return -1;
+    }
+
+    if (pos < end && (bytes[pos] == 'e' || bytes[pos] == 'E')) {
+      pos++;
+      boolean negative = false;
+      if (pos < end && (bytes[pos] == '-' || bytes[pos] == '+')) {
+        negative = bytes[pos] == '-';
+        pos++;
+      }
+      int e = 0;
+      int expStart = pos;
+      for (; pos < end && bytes[pos] >= '0' && bytes[pos] <= '9' && pos - expStart < 3; pos++) {
+        e = e * 10 + (bytes[pos] - '0');
+      }
+      if (pos == expStart) {
+        return -1;
+      }
+      exp += negative ? -e : e;
+    }
+
+    if (pos != end || mantissa >= (1L << 53) || exp <= -32 || exp >= 32) {
+      return -1;
+    }
+    return (mantissa << 6) | (exp + 32);
+  }
+
+  private static String toString(byte[] bytes, int start, int end) {
+    return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+  }
+}
@@ -18,6 +18,8 @@
 
 package com.tencent.angel.ml.core.utils
 
+import java.nio.charset.StandardCharsets
+
 import com.tencent.angel.conf.AngelConf
 import com.tencent.angel.exception.AngelException
 import com.tencent.angel.ml.core.conf.{MLConf, SharedConf}
@@ -28,6 +30,17 @@ import com.tencent.angel.ml.matrix.RowType
 abstract class DataParser(val splitter: String) {
   def parse(value: String): LabeledData
 
+  /**
+    * Parse a line in a byte array, the parsers that can not parse bytes decode it to a string
+    *
+    * @param bytes  line bytes, it is not changed or kept by the parser
+    * @param offset line start position
+    * @param length line length
+    */
+  def parse(bytes: Array[Byte], offset: Int, length: Int): LabeledData = {
+    parse(new String(bytes, offset, length, StandardCharsets.UTF_8))
+  }
+
   protected def processLabel(value: String, hasLabel: Boolean, isTraining: Boolean,
                              transLabel: TransLabel): (Double, String, Array[String]) = {
     if (null == value) {
@@ -90,6 +103,56 @@ case class DummyDataParser(override val splitter: String, featRange: Long, hasLa
 
 case class LibSVMDataParser(override val splitter: String, featRange: Long, hasLabel: Boolean, isTraining: Boolean, transLabel: TransLabel, rowType: RowType) extends DataParser(splitter) {
 
+  private val separator = BytesParseUtils.separator(splitter)
+
+  override def parse(bytes: Array[Byte], offset: Int, length: Int): LabeledData = {
+    if (separator == BytesParseUtils.NO_SEPARATOR) {
+      return super.parse(bytes, offset, length)
+    }
+
+    val end = offset + length
+    var pos = BytesParseUtils.skip(bytes, offset, end, separator)
+    if (pos == end) {
+      return null
+    }
+
+    var y = Double.NaN
+    var attached = ""
+    if (hasLabel) {
+      val labelEnd = BytesParseUtils.tokenEnd(bytes, pos, end, separator)
+      if (isTraining) {
+        y = transLabel.trans(BytesParseUtils.parseDouble(bytes, pos, labelEnd))
+      } else {
+        attached = new String(bytes, pos, labelEnd - pos, StandardCharsets.UTF_8)
+      }
+      pos = labelEnd
+    }
+
+    val len = BytesParseUtils.count(bytes, pos, end, ':'.toByte)
+    val keys = new Array[Long](len)
+    val x = (NetUtils.keyType(rowType), NetUtils.valueType(rowType)) match {
+      case ("long", "double") =>
+        val vals = new Array[Double](len)
+        BytesParseUtils.parseLibSVMFeatures(bytes, pos, end, separator, keys, vals)
+        VFactory.sparseLongKeyDoubleVector(featRange, keys, vals)
+      case ("int", "double") =>
+        val vals = new Array[Double](len)
+        BytesParseUtils.parseLibSVMFeatures(bytes, pos, end, separator, keys, vals)
+        VFactory.sparseDoubleVector(featRange.toInt, BytesParseUtils.toIntKeys(keys), vals)
+      case ("long", "float") =>
+        val vals = new Array[Float](len)
+        BytesParseUtils.parseLibSVMFeatures(bytes, pos, end, separator, keys, vals)
+        VFactory.sparseLongKeyFloatVector(featRange, keys, vals)
+      case ("int", "float") =>
+        val vals = new Array[Float](len)
+        BytesParseUtils.parseLibSVMFeatures(bytes, pos, end, separator, keys, vals)
+        VFactory.sparseFloatVector(featRange.toInt, BytesParseUtils.toIntKeys(keys), vals)
+      case _ => throw new AngelException("RowType is not support!")
+    }
+
+    new LabeledData(x, y, attached)
+  }
+
   override def parse(value: String): LabeledData = {
     val (y, attached, splits) = processLabel(value, hasLabel, isTraining, transLabel)
     if (splits == null) {
@@ -0,0 +1,152 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.core.utils
+
+import java.util
+import java.util.concurrent._
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.tencent.angel.exception.AngelException
+import com.tencent.angel.ml.feature.LabeledData
+import com.tencent.angel.worker.storage.Reader
+import org.apache.commons.logging.{Log, LogFactory}
+import org.apache.hadoop.io.Text
+
+/**
+  * Parse the lines of a reader with several threads. The reading thread copies the line bytes into
+  * batches, no string is created for a line, and the batches are parsed by the parse threads
+  * with [[DataParser.parse(bytes:Array[Byte],offset:Int,length:Int)*]]. The parsed samples are
+  * passed to the sink on the reading thread, in the input order if ordered is true, otherwise in
+  * the order the batches are finished.
+  *
+  * @param parser    data parser, it must be thread safe
+  * @param threadNum parse thread number
+  * @param ordered   keep the input order or not
+  * @param batchSize line number of a parse batch
+  */
+class ParallelDataLoader(parser: DataParser, threadNum: Int, ordered: Boolean, batchSize: Int = 1024) {
+  private val LOG: Log = LogFactory.getLog(classOf[ParallelDataLoader])
+
+  /**
+    * Lines of a batch, the bytes of line i are in [offsets(i), offsets(i + 1))
+    */
+  private class LineBatch {
+    var bytes: Array[Byte] = new Array[Byte](batchSize * 64)
+    val offsets: Array[Int] = new Array[Int](batchSize + 1)
+    var size = 0
+
+    def add(line: Text): Unit = {
+      val start = offsets(size)
+      val end = start + line.getLength
+      if (end > bytes.length) {
+        bytes = util.Arrays.copyOf(bytes, Math.max(bytes.length * 2, end))
+      }
+      System.arraycopy(line.getBytes, 0, bytes, start, line.getLength)
+      size += 1
+      offsets(size) = end
+    }
+
+    def isFull: Boolean = size == batchSize
+  }
+
+  private class ParseTask(batch: LineBatch) extends Callable[Array[LabeledData]] {
+    override def call(): Array[LabeledData] = {
+      val samples = new Array[LabeledData](batch.size)
+      var i = 0
+      while (i < batch.size) {
+        samples(i) = parser.parse(batch.bytes, batch.offsets(i), batch.offsets(i + 1) - batch.offsets(i))
+        i += 1
+      }
+      samples
+    }
+  }
+
+  /**
+    * Read and parse all lines of the reader
+    *
+    * @param reader data reader
+    * @param sink   sample consumer, the null samples are skipped
+    * @return parsed sample number
+    */
+  def load(reader: Reader[_, Text], sink: LabeledData => Unit): Long = {
+    val threadId = new AtomicInteger(0)
+    val pool = Executors.newFixedThreadPool(threadNum, new ThreadFactory {
+      override def newThread(r: Runnable): Thread = {
+        val thread = new Thread(r, "data-parser-" + threadId.incrementAndGet())
+        thread.setDaemon(true)
+        thread
+      }
+    })
+    val completion = new ExecutorCompletionService[Array[LabeledData]](pool)
+    val pending = new util.ArrayDeque[Future[Array[LabeledData]]]()
+    val maxInflight = threadNum * 2
+    var inflight = 0
+    var sampleNum = 0L
+
+    def drainOne(): Unit = {
+      val future = if (ordered) pending.poll() else completion.take()
+      val samples = try {
+        future.get()
+      } catch {
+        case e: ExecutionException => throw new AngelException("Parse data failed", e.getCause)
+      }
+      inflight -= 1
+      samples.foreach { sample =>
+        if (sample != null) {
+          sink(sample)
+          sampleNum += 1
+        }
+      }
+    }
+
+    def submit(batch: LineBatch): Unit = {
+      if (ordered) {
+        pending.add(pool.submit(new ParseTask(batch)))
+      } else {
+        completion.submit(new ParseTask(batch))
+      }
+      inflight += 1
+      if (inflight >= maxInflight) {
+        drainOne()
+      }
+    }
+
+    try {
+      var batch = new LineBatch
+      while (reader.nextKeyValue()) {
+        batch.add(reader.getCurrentValue)
+        if (batch.isFull) {
+          submit(batch)
+          batch = new LineBatch
+        }
+      }
+      if (batch.size > 0) {
+        submit(batch)
+      }
+      while (inflight > 0) {
+        drainOne()
+      }
+    } finally {
+      pool.shutdownNow()
+    }
+
+    LOG.info(s"parsed $sampleNum samples with $threadNum threads")
+    sampleNum
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.ml.core.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+public class BytesParseUtilsTest {
+
+  private static double parseDouble(String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    return BytesParseUtils.parseDouble(bytes, 0, bytes.length);
+  }
+
+  private static float parseFloat(String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    return BytesParseUtils.parseFloat(bytes, 0, bytes.length);
+  }
+
+  @Test
+  public void testParseNumber() {
+    String[] values = {"0", "-0", "1", "+1", "-1.5", "0.1", ".25", "3.", "1e-5", "2.5E+3",
+        "123456789.123456789", "1e300", "4.9e-324", "NaN", "-Infinity", "0.30000000000000004"};
+    for (String value : values) {
+      assertEquals(value, Double.parseDouble(value), parseDouble(value), 0.0);
+      assertEquals(value, Float.parseFloat(value), parseFloat(value), 0.0f);
+    }
+
+    Random random = new Random(5);
+    for (int i = 0; i < 10000; i++) {
+      String value = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(20) - 10));
+      assertEquals(value, Double.parseDouble(value), parseDouble(value), 0.0);
+      assertEquals(value, Float.parseFloat(value), parseFloat(value), 0.0f);
+    }
+
+    byte[] bytes = " 12 ".getBytes(StandardCharsets.UTF_8);
+    assertEquals(12, BytesParseUtils.parseLong(bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void testParseLibSVM() {
+    byte[] bytes = "1  3:0.5 10:-2\t11:1e2 ".getBytes(StandardCharsets.UTF_8);
+    int separator = BytesParseUtils.separator("\\s+");
+    int pos = BytesParseUtils.skip(bytes, 0, bytes.length, separator);
+    int labelEnd = BytesParseUtils.tokenEnd(bytes, pos, bytes.length, separator);
+    assertEquals(1.0, BytesParseUtils.parseDouble(bytes, pos, labelEnd), 0.0);
+
+    int len = BytesParseUtils.count(bytes, labelEnd, bytes.length, (byte) ':');
+    long[] keys = new long[len];
+    double[] values = new double[len];
+    BytesParseUtils.parseLibSVMFeatures(bytes, labelEnd, bytes.length, separator, keys, values);
+    assertArrayEquals(new long[] {2, 9, 10}, keys);
+    assertArrayEquals(new double[] {0.5, -2, 100}, values, 0.0);
+  }
+}
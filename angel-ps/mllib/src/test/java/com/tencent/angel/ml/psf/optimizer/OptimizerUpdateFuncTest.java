@@ -0,0 +1,163 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.ml.psf.optimizer;
+
+import static org.junit.Assert.assertEquals;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.math2.ufuncs.Ufuncs;
+import com.tencent.angel.ml.math2.vector.IntDoubleVector;
+import com.tencent.angel.ml.math2.vector.IntFloatVector;
+import com.tencent.angel.ml.math2.vector.LongFloatVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ps.storage.partition.RowBasedPartition;
+import com.tencent.angel.ps.storage.partition.ServerPartitionFactory;
+import com.tencent.angel.ps.storage.vector.ServerRowUtils;
+import java.util.Random;
+import org.junit.Test;
+
+public class OptimizerUpdateFuncTest {
+
+  private static final int ROW_NUM = 3;
+  private static final long START_COL = 1000000000L;
+  private static final long END_COL = START_COL + 1000;
+
+  private RowBasedPartition initPartition(RowType rowType, int seed) {
+    PartitionKey partKey = new PartitionKey(0, 0, 0, START_COL, ROW_NUM, END_COL);
+    // A small estimated sparsity keeps the sparse rows in sparse storages
+    RowBasedPartition part = (RowBasedPartition) ServerPartitionFactory
+        .getPartition(partKey, RowBasedPartition.class, null, rowType, null, 0.01);
+    part.init();
+
+    Random random = new Random(seed);
+    for (int rowId = 0; rowId < ROW_NUM; rowId++) {
+      Vector row = ServerRowUtils.getVector(part.getRow(rowId));
+      for (int i = 0; i < 100; i++) {
+        long col = START_COL + random.nextInt((int) (END_COL - START_COL));
+        if (row instanceof LongFloatVector) {
+          ((LongFloatVector) row).set(col, random.nextFloat() - 0.5f);
+        } else if (row instanceof IntFloatVector) {
+          // Long key rows over a range within the int range are stored with the column offsets
+          ((IntFloatVector) row).set((int) (col - START_COL), random.nextFloat() - 0.5f);
+        } else {
+          ((IntDoubleVector) row).set((int) (col - START_COL), random.nextDouble() - 0.5);
+        }
+      }
+    }
+    return part;
+  }
+
+  private static Vector[] copyRows(RowBasedPartition part) {
+    Vector[] rows = new Vector[ROW_NUM];
+    for (int rowId = 0; rowId < ROW_NUM; rowId++) {
+      rows[rowId] = ServerRowUtils.getVector(part.getRow(rowId)).copy();
+    }
+    return rows;
+  }
+
+  private static void assertRowsEqual(Vector[] expected, RowBasedPartition part, int rowNum) {
+    for (int rowId = 0; rowId < rowNum; rowId++) {
+      Vector row = ServerRowUtils.getVector(part.getRow(rowId));
+      assertEquals("row " + rowId, 0.0, expected[rowId].sub(row).norm(), 1e-5);
+    }
+  }
+
+  /**
+   * The momentum update with in place vector operations
+   */
+  private static void momentum(Vector[] rows, double momentum, double lr, double regParam,
+      double batchSize) {
+    Vector weight = rows[0];
+    Vector velocity = rows[1];
+    Vector gradient = rows[2];
+    if (batchSize > 1) {
+      gradient.idiv(batchSize);
+    }
+    if (regParam != 0.0) {
+      gradient.iaxpy(weight, regParam);
+    }
+    velocity.imul(momentum).iadd(gradient);
+    weight.isub(velocity.mul(lr));
+  }
+
+  /**
+   * The proximal gradient descent update with in place vector operations
+   */
+  private static void pgd(Vector[] rows, double lr, double l1RegParam, double l2RegParam,
+      double batchSize) {
+    Vector weight = rows[0];
+    Vector gradient = rows[1];
+    if (batchSize > 1) {
+      gradient.idiv(batchSize);
+    }
+    double lrTemp = lr / (1 + l2RegParam * lr);
+    if (l2RegParam != 0.0) {
+      weight.imul(1 - lrTemp * l2RegParam).iaxpy(gradient, -lrTemp);
+    } else {
+      weight.iaxpy(gradient, -lrTemp);
+    }
+    if (l1RegParam != 0) {
+      Ufuncs.isoftthreshold(weight, lrTemp * l1RegParam);
+    }
+  }
+
+  private void checkMomentum(RowType rowType) {
+    double[] scalars = {0.9, 0.1, 0.01, 4};
+    RowBasedPartition part = initPartition(rowType, 3);
+    Vector[] expected = copyRows(part);
+    momentum(expected, scalars[0], scalars[1], scalars[2], scalars[3]);
+
+    assertEquals(rowType.isDense(), ServerRowUtils.getVector(part.getRow(0)).isDense());
+    new MomentumUpdateFunc().update(part, 1, scalars);
+    assertRowsEqual(expected, part, 2);
+    // The gradient is cleared after the update
+    assertEquals(0.0, ServerRowUtils.getVector(part.getRow(2)).norm(), 0.0);
+  }
+
+  private void checkPGD(RowType rowType) {
+    double[] scalars = {0.1, 0.01, 0.02, 4};
+    RowBasedPartition part = initPartition(rowType, 7);
+    Vector[] expected = copyRows(part);
+    pgd(expected, scalars[0], scalars[1], scalars[2], scalars[3]);
+
+    assertEquals(rowType.isDense(), ServerRowUtils.getVector(part.getRow(0)).isDense());
+    new PGDUpdateFunc().update(part, 1, scalars);
+    assertRowsEqual(expected, part, 1);
+  }
+
+  @Test
+  public void testSparseLongKeyMomentum() {
+    checkMomentum(RowType.T_FLOAT_SPARSE_LONGKEY);
+  }
+
+  @Test
+  public void testSparseLongKeyPGD() {
+    checkPGD(RowType.T_FLOAT_SPARSE_LONGKEY);
+  }
+
+  @Test
+  public void testDenseMomentum() {
+    checkMomentum(RowType.T_DOUBLE_DENSE);
+  }
+
+  @Test
+  public void testDensePGD() {
+    checkPGD(RowType.T_DOUBLE_DENSE);
+  }
+}
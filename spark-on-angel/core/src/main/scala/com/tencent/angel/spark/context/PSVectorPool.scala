@@ -18,6 +18,7 @@
 
 package com.tencent.angel.spark.context
 
+import org.apache.commons.logging.LogFactory
 import org.apache.spark.SparkException
 import sun.misc.Cleaner
 
@@ -43,25 +44,32 @@ private[spark] class PSVectorPool(
     val capacity: Int,
     val rowType: RowType) {
 
+  private val log = LogFactory.getLog(classOf[PSVectorPool])
+
   val cleaners = new java.util.WeakHashMap[PSVector, Cleaner]
   val bitSet = new java.util.BitSet(capacity)
   var destroyed = false
   var size = 0
 
+  /**
+   * Allocate a free slot of the pool. Slots are returned immediately by [[delete]], so callers
+   * that release their temporary vectors explicitly (see `PSVector.withTemp` and
+   * `PSVectorScope`) never wait for the JVM garbage collector.
+   * Only when the pool is exhausted, one GC is triggered to reclaim the vectors that were
+   * dropped without being deleted.
+   */
   private[spark] def allocate(): PSVector = {
     if (destroyed) {
       throw new SparkException("This vector pool has been destroyed!")
     }
 
-    if (size > math.max(capacity * 0.9, 4)) {
-      System.gc()
-    }
-
     tryOnce match {
       case Some(toReturn) => return toReturn
       case None =>
     }
 
+    log.warn(s"vector pool $id is full with $capacity vectors, trigger GC to reclaim the vectors " +
+      s"that are not deleted, please delete temporary vectors explicitly")
     System.gc()
     Thread.sleep(100L)
 
@@ -88,7 +96,9 @@ private[spark] class PSVectorPool(
   private def doCreateOne(index: Int): PSVector = {
     val vector = new PSVectorImpl(id, index, dimension, rowType)
     val task = new CleanTask(id, index)
-    cleaners.put(vector, Cleaner.create(vector, task))
+    cleaners.synchronized {
+      cleaners.put(vector, Cleaner.create(vector, task))
+    }
     vector
   }
 
@@ -101,10 +111,23 @@ private[spark] class PSVectorPool(
     }
   }
 
+  /**
+   * Return the slot of the vector to the pool immediately, deleting a vector twice is a no-op
+   */
   private[spark] def delete(key: PSVector): Unit = {
-    cleaners.remove(key).clean()
+    val cleaner = cleaners.synchronized {
+      cleaners.remove(key)
+    }
+    if (cleaner != null) {
+      cleaner.clean()
+    }
   }
 
+  /**
+   * Number of vectors in use
+   */
+  private[spark] def numAllocated: Int = bitSet.synchronized(size)
+
   private[spark] def destroy(): Unit = {
     destroyed = true
   }
@@ -106,6 +106,32 @@ object PSVector{
     PSContext.instance().duplicateVector(original).asInstanceOf[K]
   }
 
+  /**
+   * Run `func` with a zero vector from the same pool as `original`, the vector is deleted and
+   * its slot returned to the pool as soon as `func` returns
+   */
+  def withTemp[K <: PSVector, T](original: K)(func: K => T): T = {
+    val temp = duplicate(original)
+    try {
+      func(temp)
+    } finally {
+      temp.delete()
+    }
+  }
+
+  /**
+   * Run `func` with a [[PSVectorScope]], all vectors allocated from the scope are deleted when
+   * `func` returns, e.g. the temporary vectors of one iteration
+   */
+  def withScope[T](func: PSVectorScope => T): T = {
+    val scope = new PSVectorScope
+    try {
+      func(scope)
+    } finally {
+      scope.release()
+    }
+  }
+
   def dense(dimension: Long, capacity: Int = 20, rowType: RowType = RowType.T_DOUBLE_DENSE,
       additionalConfiguration:Map[String, String] = Map()): PSVector = {
     PSContext.instance().createVector(dimension, rowType, capacity, dimension, additionalConfiguration)
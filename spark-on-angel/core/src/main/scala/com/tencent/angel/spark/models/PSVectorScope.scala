@@ -0,0 +1,66 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.spark.models
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * PSVectorScope tracks the temporary vectors allocated in it and deletes them all at once, so
+ * iterative algorithms can return the pool slots of every iteration without waiting for GC.
+ *
+ * {{{
+ *   (0 until maxIter).foreach { _ =>
+ *     PSVector.withScope { scope =>
+ *       val grad = scope.duplicate(weight)
+ *       ...
+ *     }
+ *   }
+ * }}}
+ */
+class PSVectorScope {
+
+  private val vectors = new ArrayBuffer[PSVector]()
+
+  /**
+   * Allocate a zero vector from the same pool as `original`, it is deleted by [[release]]
+   */
+  def duplicate[K <: PSVector](original: K): K = {
+    track(PSVector.duplicate(original))
+  }
+
+  /**
+   * Delete `vector` when the scope is released
+   */
+  def track[K <: PSVector](vector: K): K = {
+    vectors.synchronized {
+      vectors += vector
+    }
+    vector
+  }
+
+  /**
+   * Delete all vectors of the scope, the scope can be reused after it
+   */
+  def release(): Unit = {
+    vectors.synchronized {
+      vectors.foreach(_.delete())
+      vectors.clear()
+    }
+  }
+}
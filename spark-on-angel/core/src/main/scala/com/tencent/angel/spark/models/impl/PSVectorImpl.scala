@@ -92,10 +92,13 @@ class PSVectorImpl(val poolId: Int, val id: Int, val dimension: Long, val rowTyp
   }
 
   override def delete(): Unit = {
-    PSContext.instance() match {
-      case angel: AngelPSContext => angel.getPool(poolId).delete(this)
+    // The slot may have been reused by another vector, so never release it twice
+    if (!deleted) {
+      PSContext.instance() match {
+        case angel: AngelPSContext => angel.getPool(poolId).delete(this)
+      }
+      deleted = true
     }
-    deleted = true
   }
 
   override def equals(other: Any): Boolean = {
@@ -60,4 +60,24 @@ class PSVectorPoolSuite extends PSFunSuite with SharedPSContext {
       pool.delete(key)
     }
   }
-}
\ No newline at end of file
+
+  test("delete returns the slot immediately") {
+    val capacity = 4
+    val pool = new PSVectorPool(0, 10, capacity, RowType.T_DOUBLE_DENSE)
+
+    val vectors = (0 until capacity).map(_ => pool.allocate())
+    assert(pool.numAllocated == capacity)
+
+    pool.delete(vectors.head)
+    pool.delete(vectors.head)
+    assert(pool.numAllocated == capacity - 1)
+
+    val reused = pool.allocate()
+    assert(reused.id == vectors.head.id)
+    assert(pool.numAllocated == capacity)
+
+    vectors.tail.foreach(pool.delete)
+    pool.delete(reused)
+    assert(pool.numAllocated == 0)
+  }
+}
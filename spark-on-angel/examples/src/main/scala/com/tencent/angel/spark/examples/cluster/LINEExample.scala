@@ -47,6 +47,7 @@ object LINEExample {
     val saveModelInterval = params.getOrElse("saveModelInterval", "10").toInt
     val checkpointInterval = params.getOrElse("checkpointInterval", "2").toInt
     val saveMeta = params.getOrElse("saveMeta", "false").toBoolean
+    val maxOutstandingBatches = params.getOrElse("maxOutstandingBatches", "1").toInt
 
     val isWeight = params.getOrElse("isWeight", "false").toBoolean
     val sep = Delimiter.parse(params.getOrElse("sep",Delimiter.SPACE))
@@ -76,6 +77,7 @@ object LINEExample {
       .setOutput(output)
       .setOldModelPath(oldModelInput)
       .setSaveMeta(saveMeta)
+      .setMaxOutstandingBatches(maxOutstandingBatches)
 
     val edges: DataFrame = GraphIO.load(input, isWeight, sep = sep)
     line.transform(edges)
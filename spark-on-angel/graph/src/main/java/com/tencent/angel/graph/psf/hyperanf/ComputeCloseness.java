@@ -18,6 +18,7 @@ package com.tencent.angel.graph.psf.hyperanf;
 
 import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
 import com.tencent.angel.ml.matrix.psf.update.base.UpdateFunc;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
 import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
 import com.tencent.angel.ps.storage.vector.element.IElement;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
@@ -45,8 +46,14 @@ public class ComputeCloseness extends UpdateFunc {
   @Override
   public void partitionUpdate(PartitionUpdateParam partParam) {
     ComputeClosenessPartParam param = (ComputeClosenessPartParam) partParam;
-    ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(param.getPartKey(), 0);
     int r = param.getR();
+    ServerPartition part = psContext.getMatrixStorageManager().getPart(param.getPartKey());
+    if (part instanceof HyperLogLogPartition) {
+      ((HyperLogLogPartition) part).getStorage().updateCloseness(r);
+      return;
+    }
+
+    ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(param.getPartKey(), 0);
 
     ObjectIterator<Long2ObjectMap.Entry<IElement>> iter = row.iterator();
     while (iter.hasNext()) {
@@ -17,6 +17,7 @@
 package com.tencent.angel.graph.psf.hyperanf;
 
 import com.tencent.angel.ml.matrix.psf.get.base.*;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
 import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
 import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
 
@@ -39,11 +40,21 @@ public class GetCloseness extends GetFunc {
   @Override
   public PartitionGetResult partitionGet(PartitionGetParam partParam) {
     GetHyperLogLogPartParam param = (GetHyperLogLogPartParam) partParam;
-    ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(param.getPartKey(), 0);
-
     long n = param.getN();
     long[] nodes = param.getNodes();
     Long2DoubleOpenHashMap closenesses = new Long2DoubleOpenHashMap();
+
+    ServerPartition part = psContext.getMatrixStorageManager().getPart(param.getPartKey());
+    if (part instanceof HyperLogLogPartition) {
+      HyperLogLogStorage storage = ((HyperLogLogPartition) part).getStorage();
+      for (int i = 0; i < nodes.length; i++) {
+        long closeness = storage.getCloseness(nodes[i]);
+        closenesses.put(nodes[i], closeness < n - 1 ? 0 : (double) n / (double) closeness);
+      }
+      return new GetClosenessPartResult(closenesses);
+    }
+
+    ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(param.getPartKey(), 0);
     for (int i = 0; i < nodes.length; i++) {
       HyperLogLogPlusElement hllElem = (HyperLogLogPlusElement) row.get(nodes[i]);
       if (hllElem.getCloseness() < n - 1) {
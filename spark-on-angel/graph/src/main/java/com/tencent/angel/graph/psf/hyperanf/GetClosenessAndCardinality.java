@@ -17,6 +17,7 @@
 package com.tencent.angel.graph.psf.hyperanf;
 
 import com.tencent.angel.ml.matrix.psf.get.base.*;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
 import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import scala.Tuple3;
@@ -40,13 +41,29 @@ public class GetClosenessAndCardinality extends GetFunc {
   @Override
   public PartitionGetResult partitionGet(PartitionGetParam partParam) {
     GetHyperLogLogPartParam param = (GetHyperLogLogPartParam) partParam;
-    ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(param.getPartKey(), 0);
-
     long n = param.getN();
     long[] nodes = param.getNodes();
     boolean isDirected = param.isDirected();
 
     Long2ObjectOpenHashMap<Tuple3<Double, Long, Long>> closenesses = new Long2ObjectOpenHashMap<>();
+    ServerPartition part = psContext.getMatrixStorageManager().getPart(param.getPartKey());
+    if (part instanceof HyperLogLogPartition) {
+      HyperLogLogStorage storage = ((HyperLogLogPartition) part).getStorage();
+      for (int i = 0; i < nodes.length; i++) {
+        long closeness = storage.getCloseness(nodes[i]);
+        long cardinality = storage.getCardinality(nodes[i]);
+        double value;
+        if (isDirected) {
+          value = closeness < n ? 0d : (double) n / (double) closeness;
+        } else {
+          value = (double) cardinality / (double) closeness;
+        }
+        closenesses.put(nodes[i], new Tuple3<>(value, cardinality, closeness));
+      }
+      return new GetClosenessAndCardinalityPartResult(closenesses);
+    }
+
+    ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(param.getPartKey(), 0);
     for (int i = 0; i < nodes.length; i++) {
       HyperLogLogPlusElement hllElem = (HyperLogLogPlusElement) row.get(nodes[i]);
       if (isDirected) {
@@ -0,0 +1,91 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+import com.tencent.angel.ml.matrix.psf.get.base.GetFunc;
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Get the read counters of the active nodes from a matrix with {@link HyperLogLogPartition}, the
+ * counters are transferred as raw registers
+ */
+public class GetHyperLogLogRegisters extends GetFunc {
+
+  public GetHyperLogLogRegisters(GetHyperLogLogParam param) {
+    super(param);
+  }
+
+  public GetHyperLogLogRegisters(int matrixId, long[] nodes) {
+    super(new GetHyperLogLogParam(matrixId, nodes, 0L, false));
+  }
+
+  public GetHyperLogLogRegisters() {
+    super(null);
+  }
+
+  @Override
+  public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    GetHyperLogLogPartParam param = (GetHyperLogLogPartParam) partParam;
+    HyperLogLogStorage storage =
+        ((HyperLogLogPartition) psContext.getMatrixStorageManager().getPart(param.getPartKey()))
+            .getStorage();
+
+    long[] nodes = param.getNodes();
+    int p = storage.getP();
+    if (p < 0) {
+      return new GetHyperLogLogRegistersPartResult(0, new long[0], new byte[0]);
+    }
+
+    int m = HyperLogLogRegisters.numRegisters(p);
+    byte[] registers = new byte[nodes.length * m];
+    boolean[] actives = storage.get(nodes, registers);
+
+    // Compact the counters of the active nodes
+    int size = 0;
+    for (int i = 0; i < nodes.length; i++) {
+      if (actives[i]) {
+        if (size != i) {
+          nodes[size] = nodes[i];
+          System.arraycopy(registers, i * m, registers, size * m, m);
+        }
+        size++;
+      }
+    }
+    return new GetHyperLogLogRegistersPartResult(p, Arrays.copyOf(nodes, size),
+        Arrays.copyOf(registers, size * m));
+  }
+
+  @Override
+  public GetResult merge(List<PartitionGetResult> partResults) {
+    Long2ObjectOpenHashMap<byte[]> results = new Long2ObjectOpenHashMap<>();
+    for (PartitionGetResult r : partResults) {
+      GetHyperLogLogRegistersPartResult rr = (GetHyperLogLogRegistersPartResult) r;
+      long[] nodes = rr.getNodes();
+      byte[] registers = rr.getRegisters();
+      int m = nodes.length == 0 ? 0 : registers.length / nodes.length;
+      for (int i = 0; i < nodes.length; i++) {
+        results.put(nodes[i], Arrays.copyOfRange(registers, i * m, (i + 1) * m));
+      }
+    }
+    return new GetHyperLogLogRegistersResult(results);
+  }
+}
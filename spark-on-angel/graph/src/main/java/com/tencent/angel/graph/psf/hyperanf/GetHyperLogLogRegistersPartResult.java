@@ -0,0 +1,80 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import io.netty.buffer.ByteBuf;
+
+public class GetHyperLogLogRegistersPartResult extends PartitionGetResult {
+
+  private int p;
+  private long[] nodes;
+
+  /**
+   * The counter of nodes[i] is in [i * 2^p, (i + 1) * 2^p)
+   */
+  private byte[] registers;
+
+  public GetHyperLogLogRegistersPartResult(int p, long[] nodes, byte[] registers) {
+    this.p = p;
+    this.nodes = nodes;
+    this.registers = registers;
+  }
+
+  public GetHyperLogLogRegistersPartResult() {
+    this(0, null, null);
+  }
+
+  public int getP() {
+    return p;
+  }
+
+  public long[] getNodes() {
+    return nodes;
+  }
+
+  public byte[] getRegisters() {
+    return registers;
+  }
+
+  @Override
+  public void serialize(ByteBuf output) {
+    output.writeInt(p);
+    output.writeInt(nodes.length);
+    for (int i = 0; i < nodes.length; i++) {
+      output.writeLong(nodes[i]);
+    }
+    output.writeBytes(registers);
+  }
+
+  @Override
+  public void deserialize(ByteBuf input) {
+    p = input.readInt();
+    int size = input.readInt();
+    nodes = new long[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = input.readLong();
+    }
+    registers = new byte[size == 0 ? 0 : size * HyperLogLogRegisters.numRegisters(p)];
+    input.readBytes(registers);
+  }
+
+  @Override
+  public int bufferLen() {
+    return 4 + 4 + 8 * nodes.length + registers.length;
+  }
+}
@@ -48,6 +48,11 @@ public class GetNodes extends GetFunc {
   @Override
   public PartitionGetResult partitionGet(PartitionGetParam partParam) {
     ServerPartition part = psContext.getMatrixStorageManager().getPart(partParam.getPartKey());
+    if (part instanceof HyperLogLogPartition) {
+      return new IndexPartGetLongResult(part.getPartitionKey(),
+          ((HyperLogLogPartition) part).getStorage().getNodes());
+    }
+
     ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(partParam.getPartKey(), 0);
     LongArrayList ret = new LongArrayList();
 
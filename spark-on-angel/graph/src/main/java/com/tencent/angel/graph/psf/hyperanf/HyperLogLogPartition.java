@@ -0,0 +1,56 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.RowType;
+import com.tencent.angel.ps.storage.partition.UserDefinePartition;
+
+/**
+ * Closeness partition which stores the HyperLogLog counters of the nodes in off-heap buffers, see
+ * {@link HyperLogLogStorage}. Set it as the partition class of the closeness matrix with
+ * {@link com.tencent.angel.ml.matrix.MatrixContext#setPartitionClass}.
+ */
+public class HyperLogLogPartition extends UserDefinePartition {
+
+  public HyperLogLogPartition(PartitionKey partKey, RowType rowType, double estSparsity,
+      HyperLogLogStorage storage) {
+    super(partKey, rowType, estSparsity, storage);
+  }
+
+  public HyperLogLogPartition() {
+    this(null, RowType.T_ANY_LONGKEY_SPARSE, 1.0, null);
+  }
+
+  @Override
+  public HyperLogLogStorage getStorage() {
+    return (HyperLogLogStorage) super.getStorage();
+  }
+
+  @Override
+  public void init() {
+    if (getStorage() == null) {
+      setStorage(new HyperLogLogStorage(partKey.getStartRow()));
+    }
+    getStorage().init();
+  }
+
+  @Override
+  public void reset() {
+    getStorage().reset();
+  }
+}
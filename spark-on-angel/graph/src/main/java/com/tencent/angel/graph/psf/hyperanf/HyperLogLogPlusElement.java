@@ -42,7 +42,7 @@ public class HyperLogLogPlusElement implements IElement {
     this.sp = sp;
     this.isActive = 1;
     this.closeness = 0L;
-    long hashed = jenkins(node, System.currentTimeMillis());
+    long hashed = HyperLogLogRegisters.jenkins(node, System.currentTimeMillis());
     readCounter.offerHashed(hashed);
     writeCounter = readCounter;
   }
@@ -185,39 +185,4 @@ public class HyperLogLogPlusElement implements IElement {
     return null;
   }
 
-
-
-  /**
-   * Function to compute the hash function from node IDs.
-   *
-   * Taken from the WebGraph framework, specifically the class
-   * IntHyperLogLogCounterArray.
-   *
-   * Note that the `x` parameter is a `Long`, but the function will also work
-   * with `Int` values.
-   *
-   * @param x    the element to hash, i.e. the node ID
-   * @param seed the seed to set up internal state.
-   * @return the hashed value of `x`
-   */
-  private long jenkins(long x, long seed) {
-    /* Set up the internal state */
-    long a = seed + x;
-    long b = seed;
-    long c = 0x9e3779b97f4a7c13L; /* the golden ratio; an arbitrary value */
-    a -= b; a -= c; a ^= (c >>> 43);
-    b -= c; b -= a; b ^= (a << 9);
-    c -= a; c -= b; c ^= (b >>> 8);
-    a -= b; a -= c; a ^= (c >>> 38);
-    b -= c; b -= a; b ^= (a << 23);
-    c -= a; c -= b; c ^= (b >>> 5);
-    a -= b; a -= c; a ^= (c >>> 35);
-    b -= c; b -= a; b ^= (a << 49);
-    c -= a; c -= b; c ^= (b >>> 11);
-    a -= b; a -= c; a ^= (c >>> 12);
-    b -= c; b -= a; b ^= (a << 18);
-    c -= a; c -= b; c ^= (b >>> 22);
-    return c;
-  }
-
 }
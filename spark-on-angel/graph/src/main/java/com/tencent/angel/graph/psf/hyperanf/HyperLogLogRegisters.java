@@ -0,0 +1,140 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+/**
+ * Kernels of the fixed precision HyperLogLog registers. A counter of precision p is 2^p registers,
+ * each register is a byte that holds the max rank of the hashed values in its bucket. The bucket
+ * and the rank of a hashed value are the same as the normal representation of
+ * {@link com.clearspring.analytics.stream.cardinality.HyperLogLogPlus}.
+ */
+public class HyperLogLogRegisters {
+
+  /**
+   * Get the register number of a counter
+   *
+   * @param p precision
+   * @return register number
+   */
+  public static int numRegisters(int p) {
+    return 1 << p;
+  }
+
+  /**
+   * Add a hashed value to a counter
+   *
+   * @param registers registers
+   * @param offset    start position of the counter in registers
+   * @param p         precision
+   * @param hashed    hashed value
+   */
+  public static void offerHashed(byte[] registers, int offset, int p, long hashed) {
+    int index = (int) (hashed >>> (64 - p));
+    long w = (hashed << p) | (1L << (p - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(w) + 1);
+    if (registers[offset + index] < rank) {
+      registers[offset + index] = rank;
+    }
+  }
+
+  /**
+   * Union a counter into another, each register of dest is set to the max of the two registers.
+   * The registers are small non-negative values, so the max is computed without branches.
+   *
+   * @param dest       dest registers
+   * @param destOffset start position of the dest counter
+   * @param src        source registers
+   * @param srcOffset  start position of the source counter
+   * @param num        register number
+   */
+  public static void union(byte[] dest, int destOffset, byte[] src, int srcOffset, int num) {
+    for (int i = 0; i < num; i++) {
+      int a = dest[destOffset + i];
+      int d = a - src[srcOffset + i];
+      dest[destOffset + i] = (byte) (a - (d & (d >> 31)));
+    }
+  }
+
+  /**
+   * Estimate the cardinality of a counter, use linear counting for the small range
+   *
+   * @param registers registers
+   * @param offset    start position of the counter
+   * @param p         precision
+   * @return estimated cardinality
+   */
+  public static long cardinality(byte[] registers, int offset, int p) {
+    int m = numRegisters(p);
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < m; i++) {
+      int value = registers[offset + i];
+      sum += 1.0 / (1L << value);
+      zeros += (value - 1) >>> 31;
+    }
+
+    double estimate = alphaMM(p, m) / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      return Math.round(m * Math.log((double) m / zeros));
+    } else {
+      return Math.round(estimate);
+    }
+  }
+
+  private static double alphaMM(int p, int m) {
+    switch (p) {
+      case 4:
+        return 0.673 * m * m;
+      case 5:
+        return 0.697 * m * m;
+      case 6:
+        return 0.709 * m * m;
+      default:
+        return (0.7213 / (1 + 1.079 / m)) * m * m;
+    }
+  }
+
+  /**
+   * Function to compute the hash function from node IDs.
+   *
+   * Taken from the WebGraph framework, specifically the class
+   * IntHyperLogLogCounterArray.
+   *
+   * @param x    the element to hash, i.e. the node ID
+   * @param seed the seed to set up internal state.
+   * @return the hashed value of `x`
+   */
+  public static long jenkins(long x, long seed) {
+    /* Set up the internal state */
+    long a = seed + x;
+    long b = seed;
+    long c = 0x9e3779b97f4a7c13L; /* the golden ratio; an arbitrary value */
+    a -= b; a -= c; a ^= (c >>> 43);
+    b -= c; b -= a; b ^= (a << 9);
+    c -= a; c -= b; c ^= (b >>> 8);
+    a -= b; a -= c; a ^= (c >>> 38);
+    b -= c; b -= a; b ^= (a << 23);
+    c -= a; c -= b; c ^= (b >>> 5);
+    a -= b; a -= c; a ^= (c >>> 35);
+    b -= c; b -= a; b ^= (a << 49);
+    c -= a; c -= b; c ^= (b >>> 11);
+    a -= b; a -= c; a ^= (c >>> 12);
+    b -= c; b -= a; b ^= (a << 18);
+    c -= a; c -= b; c ^= (b >>> 22);
+    return c;
+  }
+}
@@ -0,0 +1,474 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+import com.tencent.angel.ps.server.data.request.UpdateOp;
+import com.tencent.angel.ps.storage.partition.storage.UserDefinePartitionStorage;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HyperLogLog counters of the nodes in a partition. The registers are stored in direct (off-heap)
+ * buffers instead of one counter object per node: a node is mapped to a slot, and a slot holds the
+ * read counter and the write counter of the node, 2 * 2^p bytes. The closeness and the active
+ * flags are stored in primitive arrays indexed by slot.
+ */
+public class HyperLogLogStorage extends UserDefinePartitionStorage {
+
+  /**
+   * Max byte size of a direct buffer
+   */
+  private static final int MAX_CHUNK_BYTES = 1 << 26;
+
+  /**
+   * Initial slot number of a direct buffer, the last buffer grows geometrically up to chunkSlots
+   */
+  private static final int INIT_CHUNK_SLOTS = 64;
+
+  /**
+   * Precision
+   */
+  private int p;
+
+  /**
+   * Register number of a counter
+   */
+  private int m;
+
+  /**
+   * Slot number of a full direct buffer
+   */
+  private int chunkSlots;
+
+  private Long2IntOpenHashMap nodeToSlot;
+  private long[] nodes;
+  private long[] closenesses;
+  private boolean[] actives;
+  private final List<ByteBuffer> chunks;
+
+  /**
+   * Used slot number
+   */
+  private int size;
+
+  private final ReentrantReadWriteLock lock;
+
+  public HyperLogLogStorage(int rowIdOffset) {
+    super(rowIdOffset);
+    this.chunks = new ArrayList<>();
+    this.lock = new ReentrantReadWriteLock();
+  }
+
+  public HyperLogLogStorage() {
+    this(0);
+  }
+
+  @Override
+  public void init() {
+    nodeToSlot = new Long2IntOpenHashMap();
+    nodeToSlot.defaultReturnValue(-1);
+    nodes = new long[0];
+    closenesses = new long[0];
+    actives = new boolean[0];
+    chunks.clear();
+    size = 0;
+  }
+
+  @Override
+  public void reset() {
+    lock.writeLock().lock();
+    try {
+      init();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void update(ByteBuf buf, UpdateOp op) {
+    throw new UnsupportedOperationException(
+        "HyperLogLog storage dose not support pipeline update now");
+  }
+
+  @Override
+  public long getElemNum() {
+    return size;
+  }
+
+  /**
+   * Add the nodes, the counter of a node is initialized with its own hashed id
+   *
+   * @param nodes node ids
+   * @param p     precision
+   * @param seed  hash seed
+   */
+  public void init(long[] nodes, int p, long seed) {
+    lock.writeLock().lock();
+    try {
+      setPrecision(p);
+      byte[] counter = new byte[2 * m];
+      for (long node : nodes) {
+        if (nodeToSlot.get(node) >= 0) {
+          continue;
+        }
+        Arrays.fill(counter, (byte) 0);
+        HyperLogLogRegisters.offerHashed(counter, 0, p, HyperLogLogRegisters.jenkins(node, seed));
+        System.arraycopy(counter, 0, counter, m, m);
+        int slot = addNode(node);
+        put(slot, 0, counter, 2 * m);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get the read counters of the active nodes
+   *
+   * @param nodes     node ids
+   * @param registers output: the read counter of nodes[i] is in [i * 2^p, (i + 1) * 2^p), the
+   *                  length must be nodes.length * 2^p
+   * @return actives: the counter of nodes[i] is returned only if it is true
+   */
+  public boolean[] get(long[] nodes, byte[] registers) {
+    boolean[] result = new boolean[nodes.length];
+    lock.readLock().lock();
+    try {
+      for (int i = 0; i < nodes.length; i++) {
+        int slot = nodeToSlot.get(nodes[i]);
+        if (slot >= 0 && actives[slot]) {
+          get(slot, 0, registers, i * m, m);
+          result[i] = true;
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return result;
+  }
+
+  /**
+   * Union the counters into the write counters of the active nodes, the nodes that do not exist
+   * are added
+   *
+   * @param nodes     node ids
+   * @param registers the counter of nodes[i] is in [i * 2^p, (i + 1) * 2^p)
+   * @param p         precision
+   * @param seed      hash seed for the new nodes
+   */
+  public void union(long[] nodes, byte[] registers, int p, long seed) {
+    lock.writeLock().lock();
+    try {
+      setPrecision(p);
+      byte[] counter = new byte[m];
+      for (int i = 0; i < nodes.length; i++) {
+        int slot = nodeToSlot.get(nodes[i]);
+        if (slot < 0) {
+          init(new long[] {nodes[i]}, p, seed);
+          slot = nodeToSlot.get(nodes[i]);
+        }
+
+        if (actives[slot]) {
+          get(slot, m, counter, 0, m);
+          HyperLogLogRegisters.union(counter, 0, registers, i * m, m);
+          put(slot, m, counter, m);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Accumulate the closeness of the active nodes and copy the write counters to the read counters,
+   * a node is inactive once its counter does not change in a round
+   *
+   * @param r round
+   */
+  public void updateCloseness(int r) {
+    lock.writeLock().lock();
+    try {
+      byte[] counter = new byte[2 * m];
+      for (int slot = 0; slot < size; slot++) {
+        if (actives[slot]) {
+          get(slot, 0, counter, 0, 2 * m);
+          long delta = HyperLogLogRegisters.cardinality(counter, m, p)
+              - HyperLogLogRegisters.cardinality(counter, 0, p);
+          closenesses[slot] += r * delta;
+          actives[slot] = delta > 0;
+          put(slot, 0, counter, m, m);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get the cardinality of a node
+   *
+   * @param node node id
+   * @return cardinality of the read counter, 0 if the node does not exist
+   */
+  public long getCardinality(long node) {
+    lock.readLock().lock();
+    try {
+      int slot = nodeToSlot.get(node);
+      if (slot < 0) {
+        return 0;
+      }
+      byte[] counter = new byte[m];
+      get(slot, 0, counter, 0, m);
+      return HyperLogLogRegisters.cardinality(counter, 0, p);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get the closeness of a node
+   *
+   * @param node node id
+   * @return closeness, 0 if the node does not exist
+   */
+  public long getCloseness(long node) {
+    lock.readLock().lock();
+    try {
+      int slot = nodeToSlot.get(node);
+      return slot < 0 ? 0 : closenesses[slot];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get the max cardinality of all nodes
+   *
+   * @return max cardinality
+   */
+  public long maxCardinality() {
+    long max = 0;
+    lock.readLock().lock();
+    try {
+      byte[] counter = new byte[m];
+      for (int slot = 0; slot < size; slot++) {
+        get(slot, 0, counter, 0, m);
+        max = Math.max(max, HyperLogLogRegisters.cardinality(counter, 0, p));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return max;
+  }
+
+  /**
+   * Get all node ids
+   *
+   * @return node ids
+   */
+  public long[] getNodes() {
+    lock.readLock().lock();
+    try {
+      return Arrays.copyOf(nodes, size);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get the node number
+   *
+   * @return node number
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the precision, -1 means no node is added
+   *
+   * @return precision
+   */
+  public int getP() {
+    return size == 0 ? -1 : p;
+  }
+
+  private void setPrecision(int p) {
+    if (size == 0) {
+      if (p < 4 || p > 29) {
+        throw new IllegalArgumentException("precision " + p + " is out of range [4, 29]");
+      }
+      this.p = p;
+      this.m = HyperLogLogRegisters.numRegisters(p);
+      this.chunkSlots = Math.max(1, MAX_CHUNK_BYTES / (2 * m));
+    } else if (this.p != p) {
+      throw new IllegalArgumentException(
+          "precision " + p + " is not consistent with the storage precision " + this.p);
+    }
+  }
+
+  private int addNode(long node) {
+    if (size == nodes.length) {
+      int capacity = Math.max(16, nodes.length * 2);
+      nodes = Arrays.copyOf(nodes, capacity);
+      closenesses = Arrays.copyOf(closenesses, capacity);
+      actives = Arrays.copyOf(actives, capacity);
+    }
+    int chunkIndex = size / chunkSlots;
+    if (chunkIndex == chunks.size()) {
+      chunks.add(allocateChunk(Math.min(INIT_CHUNK_SLOTS, chunkSlots)));
+    } else if (size % chunkSlots == chunks.get(chunkIndex).capacity() / (2 * m)) {
+      ByteBuffer old = chunks.get(chunkIndex).duplicate();
+      old.clear();
+      ByteBuffer chunk = allocateChunk(
+          (int) Math.min((long) chunkSlots, 2L * (old.capacity() / (2 * m))));
+      chunk.put(old);
+      chunks.set(chunkIndex, chunk);
+    }
+
+    nodeToSlot.put(node, size);
+    nodes[size] = node;
+    closenesses[size] = 0;
+    actives[size] = true;
+    return size++;
+  }
+
+  private ByteBuffer allocateChunk(int slots) {
+    long bytes = (long) slots * 2 * m;
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "counter size " + (2L * m) + " of precision " + p + " exceeds the max buffer size");
+    }
+    return ByteBuffer.allocateDirect((int) bytes);
+  }
+
+  private void get(int slot, int offset, byte[] dest, int destOffset, int len) {
+    ByteBuffer chunk = chunks.get(slot / chunkSlots).duplicate();
+    chunk.position((slot % chunkSlots) * 2 * m + offset);
+    chunk.get(dest, destOffset, len);
+  }
+
+  private void put(int slot, int offset, byte[] src, int len) {
+    put(slot, offset, src, 0, len);
+  }
+
+  private void put(int slot, int offset, byte[] src, int srcOffset, int len) {
+    ByteBuffer chunk = chunks.get(slot / chunkSlots).duplicate();
+    chunk.position((slot % chunkSlots) * 2 * m + offset);
+    chunk.put(src, srcOffset, len);
+  }
+
+  @Override
+  public void serialize(ByteBuf output) {
+    super.serialize(output);
+    lock.readLock().lock();
+    try {
+      output.writeInt(getP());
+      output.writeInt(size);
+      byte[] counter = new byte[2 * m];
+      for (int slot = 0; slot < size; slot++) {
+        output.writeLong(nodes[slot]);
+        output.writeLong(closenesses[slot]);
+        output.writeBoolean(actives[slot]);
+        get(slot, 0, counter, 0, 2 * m);
+        output.writeBytes(counter);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf input) {
+    super.deserialize(input);
+    init();
+    int precision = input.readInt();
+    int num = input.readInt();
+    if (num == 0) {
+      // An empty storage has no precision yet
+      return;
+    }
+    setPrecision(precision);
+    byte[] counter = new byte[2 * m];
+    for (int i = 0; i < num; i++) {
+      int slot = addNode(input.readLong());
+      closenesses[slot] = input.readLong();
+      actives[slot] = input.readBoolean();
+      input.readBytes(counter);
+      put(slot, 0, counter, 2 * m);
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    return super.bufferLen() + 8 + size * (8 + 8 + 1 + 2 * m);
+  }
+
+  @Override
+  public void serialize(DataOutputStream output) throws IOException {
+    super.serialize(output);
+    lock.readLock().lock();
+    try {
+      output.writeInt(getP());
+      output.writeInt(size);
+      byte[] counter = new byte[2 * m];
+      for (int slot = 0; slot < size; slot++) {
+        output.writeLong(nodes[slot]);
+        output.writeLong(closenesses[slot]);
+        output.writeBoolean(actives[slot]);
+        get(slot, 0, counter, 0, 2 * m);
+        output.write(counter);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void deserialize(DataInputStream input) throws IOException {
+    super.deserialize(input);
+    init();
+    int precision = input.readInt();
+    int num = input.readInt();
+    if (num == 0) {
+      // An empty storage has no precision yet
+      return;
+    }
+    setPrecision(precision);
+    byte[] counter = new byte[2 * m];
+    for (int i = 0; i < num; i++) {
+      int slot = addNode(input.readLong());
+      closenesses[slot] = input.readLong();
+      actives[slot] = input.readBoolean();
+      input.readFully(counter);
+      put(slot, 0, counter, 2 * m);
+    }
+  }
+
+  @Override
+  public int dataLen() {
+    return bufferLen();
+  }
+}
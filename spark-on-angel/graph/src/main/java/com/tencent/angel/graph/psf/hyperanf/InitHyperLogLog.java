@@ -18,6 +18,7 @@ package com.tencent.angel.graph.psf.hyperanf;
 
 import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
 import com.tencent.angel.ml.matrix.psf.update.base.UpdateFunc;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
 import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
 
 public class InitHyperLogLog extends UpdateFunc {
@@ -37,6 +38,13 @@ public class InitHyperLogLog extends UpdateFunc {
   @Override
   public void partitionUpdate(PartitionUpdateParam partParm) {
     InitHyperLogLogPartParam param = (InitHyperLogLogPartParam) partParm;
+    ServerPartition part = psContext.getMatrixStorageManager().getPart(param.getPartKey());
+    if (part instanceof HyperLogLogPartition) {
+      ((HyperLogLogPartition) part).getStorage()
+          .init(param.getNodes(), param.getP(), System.currentTimeMillis());
+      return;
+    }
+
     ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(param.getPartKey(), 0);
 
     int p = param.getP();
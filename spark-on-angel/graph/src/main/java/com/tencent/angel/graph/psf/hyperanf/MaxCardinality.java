@@ -16,7 +16,11 @@
  */
 package com.tencent.angel.graph.psf.hyperanf;
 
+import com.tencent.angel.ml.matrix.psf.aggr.enhance.ScalarPartitionAggrResult;
 import com.tencent.angel.ml.matrix.psf.aggr.enhance.UnaryAggrFunc;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
 import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
 import com.tencent.angel.ps.storage.vector.ServerRow;
 import com.tencent.angel.ps.storage.vector.element.IElement;
@@ -33,6 +37,16 @@ public class MaxCardinality extends UnaryAggrFunc {
     super(-1, -1);
   }
 
+  @Override
+  public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    ServerPartition part = psContext.getMatrixStorageManager().getPart(partParam.getPartKey());
+    if (part instanceof HyperLogLogPartition) {
+      return new ScalarPartitionAggrResult(
+          ((HyperLogLogPartition) part).getStorage().maxCardinality());
+    }
+    return super.partitionGet(partParam);
+  }
+
   @Override
   public double processRow(ServerRow row) {
     double maxCardinality = 0;
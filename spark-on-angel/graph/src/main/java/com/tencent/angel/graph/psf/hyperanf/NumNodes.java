@@ -18,6 +18,7 @@ package com.tencent.angel.graph.psf.hyperanf;
 
 import com.tencent.angel.ml.matrix.psf.aggr.enhance.ScalarPartitionAggrResult;
 import com.tencent.angel.ml.matrix.psf.get.base.*;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
 import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
 
 import java.util.List;
@@ -38,6 +39,11 @@ public class NumNodes extends GetFunc {
 
   @Override
   public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    ServerPartition part = psContext.getMatrixStorageManager().getPart(partParam.getPartKey());
+    if (part instanceof HyperLogLogPartition) {
+      return new ScalarPartitionAggrResult(((HyperLogLogPartition) part).getStorage().size());
+    }
+
     ServerLongAnyRow row = (ServerLongAnyRow) psContext.getMatrixStorageManager().getRow(partParam.getPartKey(), 0);
     return new ScalarPartitionAggrResult(row.size());
   }
@@ -0,0 +1,54 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateFunc;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Union the counters into the write counters of the nodes in a matrix with
+ * {@link HyperLogLogPartition}, the counters are transferred as raw registers
+ */
+public class UpdateHyperLogLogRegisters extends UpdateFunc {
+
+  public UpdateHyperLogLogRegisters(UpdateHyperLogLogRegistersParam param) {
+    super(param);
+  }
+
+  public UpdateHyperLogLogRegisters(int matrixId, Long2ObjectOpenHashMap<byte[]> updates, int p) {
+    super(new UpdateHyperLogLogRegistersParam(matrixId, updates, p));
+  }
+
+  public UpdateHyperLogLogRegisters() {
+    super(null);
+  }
+
+  @Override
+  public void partitionUpdate(PartitionUpdateParam partParam) {
+    UpdateHyperLogLogRegistersPartParam param = (UpdateHyperLogLogRegistersPartParam) partParam;
+    HyperLogLogStorage storage =
+        ((HyperLogLogPartition) psContext.getMatrixStorageManager().getPart(param.getPartKey()))
+            .getStorage();
+    try {
+      storage.union(param.getNodes(), param.getRegisters(), param.getP(),
+          System.currentTimeMillis());
+    } finally {
+      param.clear();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateParam;
+import com.tencent.angel.psagent.PSAgentContext;
+import com.tencent.angel.psagent.matrix.oplog.cache.RowUpdateSplitUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class UpdateHyperLogLogRegistersParam extends UpdateParam {
+
+  private Long2ObjectOpenHashMap<byte[]> updates;
+  private int p;
+
+  public UpdateHyperLogLogRegistersParam(int matrixId, Long2ObjectOpenHashMap<byte[]> updates,
+      int p) {
+    super(matrixId);
+    this.updates = updates;
+    this.p = p;
+  }
+
+  @Override
+  public List<PartitionUpdateParam> split() {
+    long[] nodes = updates.keySet().toLongArray();
+    Arrays.sort(nodes);
+
+    List<PartitionUpdateParam> params = new ArrayList<>();
+    List<PartitionKey> parts = PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId);
+
+    if (!RowUpdateSplitUtils.isInRange(nodes, parts)) {
+      throw new AngelException(
+        "node id is not in range [" + parts.get(0).getStartCol() + ", " + parts
+          .get(parts.size() - 1).getEndCol());
+    }
+
+    int nodeIndex = 0;
+    int partIndex = 0;
+    while (nodeIndex < nodes.length || partIndex < parts.size()) {
+      int length = 0;
+      long endOffset = parts.get(partIndex).getEndCol();
+      while (nodeIndex < nodes.length && nodes[nodeIndex] < endOffset) {
+        nodeIndex++;
+        length++;
+      }
+
+      if (length > 0) {
+        params.add(new UpdateHyperLogLogRegistersPartParam(matrixId,
+          parts.get(partIndex), updates, p, nodes, nodeIndex - length,
+          nodeIndex));
+      }
+      partIndex++;
+    }
+    return params;
+  }
+}
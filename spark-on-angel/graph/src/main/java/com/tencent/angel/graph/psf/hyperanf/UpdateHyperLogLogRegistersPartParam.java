@@ -0,0 +1,104 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.hyperanf;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+public class UpdateHyperLogLogRegistersPartParam extends PartitionUpdateParam {
+  private long[] nodes;
+  private int startIndex;
+  private int endIndex;
+  private Long2ObjectOpenHashMap<byte[]> updates;
+  private int p;
+
+  /**
+   * Deserialized counters, the counter of nodes[i] is in [i * 2^p, (i + 1) * 2^p)
+   */
+  private byte[] registers;
+
+  public UpdateHyperLogLogRegistersPartParam(int matrixId, PartitionKey pkey,
+                                             Long2ObjectOpenHashMap<byte[]> updates, int p,
+                                             long[] nodes, int startIndex, int endIndex) {
+    super(matrixId, pkey);
+    this.updates = updates;
+    this.p = p;
+    this.nodes = nodes;
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+  }
+
+  public UpdateHyperLogLogRegistersPartParam() {
+    this(0, null, null, 0, null, 0, 0);
+  }
+
+  public long[] getNodes() {
+    return nodes;
+  }
+
+  public byte[] getRegisters() {
+    return registers;
+  }
+
+  public int getP() {
+    return p;
+  }
+
+  public void clear() {
+    updates = null;
+    nodes = null;
+    registers = null;
+    startIndex = -1;
+    endIndex = -1;
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    buf.writeInt(p);
+    buf.writeInt(endIndex - startIndex);
+    for (int i = startIndex; i < endIndex; i++) {
+      buf.writeLong(nodes[i]);
+    }
+    for (int i = startIndex; i < endIndex; i++) {
+      buf.writeBytes(updates.get(nodes[i]));
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    p = buf.readInt();
+    int size = buf.readInt();
+    nodes = new long[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = buf.readLong();
+    }
+    registers = new byte[size * HyperLogLogRegisters.numRegisters(p)];
+    buf.readBytes(registers);
+  }
+
+  @Override
+  public int bufferLen() {
+    int len = super.bufferLen();
+    len += 4 + 4;
+    len += (8 + HyperLogLogRegisters.numRegisters(p)) * (endIndex - startIndex);
+    return len;
+  }
+}
@@ -19,7 +19,7 @@ package com.tencent.angel.graph.psf.pagerank
 import com.tencent.angel.ml.math2.ufuncs.Ufuncs
 import com.tencent.angel.ml.math2.vector.FloatVector
 import com.tencent.angel.ml.matrix.psf.update.enhance.{MMUpdateFunc, MMUpdateParam}
-import com.tencent.angel.ps.storage.vector.{ServerLongFloatRow, ServerRow, ServerRowUtils}
+import com.tencent.angel.ps.storage.vector.{ServerRow, ServerRowUtils}
 
 class ComputeRank(param: MMUpdateParam) extends MMUpdateFunc(param) {
 
@@ -30,9 +30,9 @@ class ComputeRank(param: MMUpdateParam) extends MMUpdateFunc(param) {
 
   override protected
   def update(rows: Array[ServerRow], scalars: Array[Double]): Unit = {
-    val inMsgs = ServerRowUtils.getVector(rows(0).asInstanceOf[ServerLongFloatRow])
-    val outMsgs = ServerRowUtils.getVector(rows(1).asInstanceOf[ServerLongFloatRow])
-    val ranks = ServerRowUtils.getVector(rows(2).asInstanceOf[ServerLongFloatRow])
+    val inMsgs = ServerRowUtils.getVector(rows(0)).asInstanceOf[FloatVector]
+    val outMsgs = ServerRowUtils.getVector(rows(1)).asInstanceOf[FloatVector]
+    val ranks = ServerRowUtils.getVector(rows(2)).asInstanceOf[FloatVector]
     Ufuncs.ipagerank(ranks, outMsgs, scalars(0).toFloat, scalars(1).toFloat)
     switchWriteAndRead(inMsgs, outMsgs)
   }
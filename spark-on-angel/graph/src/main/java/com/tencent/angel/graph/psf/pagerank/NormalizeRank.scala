@@ -16,8 +16,9 @@
  */
 package com.tencent.angel.graph.psf.pagerank
 
+import com.tencent.angel.ml.math2.vector.FloatVector
 import com.tencent.angel.ml.matrix.psf.update.enhance.{MMUpdateFunc, MMUpdateParam}
-import com.tencent.angel.ps.storage.vector.{ServerLongFloatRow, ServerRow, ServerRowUtils}
+import com.tencent.angel.ps.storage.vector.{ServerRow, ServerRowUtils}
 
 /**
   * PSFunction for normalizing page ranks in PageRank algorithm
@@ -31,7 +32,7 @@ class NormalizeRank(param: MMUpdateParam) extends MMUpdateFunc(param) {
   def this() = this(null)
 
   override protected def update(rows: Array[ServerRow], scalars: Array[Double]): Unit = {
-    val ranks = ServerRowUtils.getVector(rows(0).asInstanceOf[ServerLongFloatRow])
+    val ranks = ServerRowUtils.getVector(rows(0)).asInstanceOf[FloatVector]
     val rankSum = scalars(0).toFloat
     val numNodes = scalars(1).toFloat
     ranks.imul(numNodes / rankSum)
@@ -0,0 +1,98 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.triangle;
+
+import com.tencent.angel.ml.matrix.psf.get.base.GetFunc;
+import com.tencent.angel.ml.matrix.psf.get.base.GetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import com.tencent.angel.ps.storage.matrix.ServerMatrix;
+import com.tencent.angel.ps.storage.partition.RowBasedPartition;
+import com.tencent.angel.ps.storage.partition.ServerPartition;
+import com.tencent.angel.ps.storage.vector.ServerLongAnyRow;
+import com.tencent.angel.ps.storage.vector.element.LongArrayElement;
+import com.tencent.angel.utils.ArrayUtils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
+
+import java.util.List;
+
+/**
+ * Count the common neighbors of (node, query) pairs on PS. The neighbors of a node are stored
+ * sorted on PS (see {@link com.tencent.angel.graph.client.initneighbor2.InitNeighbor}), the query
+ * is a sorted neighbor array sent by the client, and only the counts are returned instead of the
+ * neighbor arrays of the nodes.
+ */
+public class GetCommonNeighborCount extends GetFunc {
+
+  public GetCommonNeighborCount(GetParam param) {
+    super(param);
+  }
+
+  public GetCommonNeighborCount(int matrixId, long[] nodeIds, int[] queryIndices,
+      long[][] queries) {
+    this(new GetCommonNeighborCountParam(matrixId, nodeIds, queryIndices, queries));
+  }
+
+  public GetCommonNeighborCount() {
+    this(null);
+  }
+
+  @Override
+  public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    PartGetCommonNeighborCountParam param = (PartGetCommonNeighborCountParam) partParam;
+    ServerMatrix matrix = psContext.getMatrixStorageManager().getMatrix(partParam.getMatrixId());
+    ServerPartition part = matrix.getPartition(partParam.getPartKey().getPartitionId());
+    ServerLongAnyRow row = (ServerLongAnyRow) (((RowBasedPartition) part).getRow(0));
+    long[] nodeIds = param.getNodeIds();
+    int[] queryIndices = param.getQueryIndices();
+    long[][] queries = param.getQueries();
+
+    int[] counts = new int[nodeIds.length];
+    for (int i = 0; i < nodeIds.length; i++) {
+      LongArrayElement element = (LongArrayElement) (row.get(nodeIds[i]));
+      if (element != null) {
+        counts[i] = ArrayUtils.intersectCount(element.getData(), queries[queryIndices[i]]);
+      }
+    }
+
+    return new PartGetCommonNeighborCountResult(part.getPartitionKey().getPartitionId(), counts);
+  }
+
+  @Override
+  public GetResult merge(List<PartitionGetResult> partResults) {
+    Int2ObjectArrayMap<PartitionGetResult> partIdToResultMap = new Int2ObjectArrayMap<>(
+        partResults.size());
+    for (PartitionGetResult result : partResults) {
+      partIdToResultMap.put(((PartGetCommonNeighborCountResult) result).getPartId(), result);
+    }
+
+    GetCommonNeighborCountParam param = (GetCommonNeighborCountParam) getParam();
+    long[] nodeIds = param.getNodeIds();
+    int[] counts = new int[nodeIds.length];
+
+    for (PartitionGetParam partParam : param.getPartParams()) {
+      int start = ((PartGetCommonNeighborCountParam) partParam).getStartIndex();
+      int end = ((PartGetCommonNeighborCountParam) partParam).getEndIndex();
+      PartGetCommonNeighborCountResult partResult = (PartGetCommonNeighborCountResult) (
+          partIdToResultMap.get(partParam.getPartKey().getPartitionId()));
+      System.arraycopy(partResult.getCounts(), 0, counts, start, end - start);
+    }
+
+    return new GetCommonNeighborCountResult(nodeIds, param.getQueryIndices(), counts);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.triangle;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.matrix.psf.get.base.GetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.psagent.PSAgentContext;
+import com.tencent.angel.psagent.matrix.oplog.cache.RowUpdateSplitUtils;
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.Swapper;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GetCommonNeighborCountParam extends GetParam {
+
+  /**
+   * Node ids, the neighbors of nodeIds[i] stored on PS are intersected with
+   * queries[queryIndices[i]]
+   */
+  private final long[] nodeIds;
+
+  private final int[] queryIndices;
+
+  /**
+   * Sorted neighbor arrays
+   */
+  private final long[][] queries;
+
+  private final List<PartitionGetParam> partParams;
+
+  public GetCommonNeighborCountParam(int matrixId, long[] nodeIds, int[] queryIndices,
+      long[][] queries) {
+    super(matrixId);
+    this.nodeIds = nodeIds;
+    this.queryIndices = queryIndices;
+    this.queries = queries;
+    this.partParams = new ArrayList<>();
+  }
+
+  public GetCommonNeighborCountParam() {
+    this(-1, null, null, null);
+  }
+
+  public long[] getNodeIds() {
+    return nodeIds;
+  }
+
+  public int[] getQueryIndices() {
+    return queryIndices;
+  }
+
+  public List<PartitionGetParam> getPartParams() {
+    return partParams;
+  }
+
+  @Override
+  public List<PartitionGetParam> split() {
+    // Sort the node ids and their query indices together
+    Arrays.quickSort(0, nodeIds.length, new AbstractIntComparator() {
+      @Override
+      public int compare(int a, int b) {
+        return Long.compare(nodeIds[a], nodeIds[b]);
+      }
+    }, new Swapper() {
+      @Override
+      public void swap(int a, int b) {
+        long node = nodeIds[a];
+        nodeIds[a] = nodeIds[b];
+        nodeIds[b] = node;
+        int index = queryIndices[a];
+        queryIndices[a] = queryIndices[b];
+        queryIndices[b] = index;
+      }
+    });
+
+    List<PartitionKey> partitions =
+        PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId);
+
+    if (!RowUpdateSplitUtils.isInRange(nodeIds, partitions)) {
+      throw new AngelException("node id is not in range [" + partitions.get(0).getStartCol() + ", "
+          + partitions.get(partitions.size() - 1).getEndCol());
+    }
+
+    int nodeIndex = 0;
+    int partIndex = 0;
+    while (nodeIndex < nodeIds.length || partIndex < partitions.size()) {
+      int length = 0;
+      long endOffset = partitions.get(partIndex).getEndCol();
+      while (nodeIndex < nodeIds.length && nodeIds[nodeIndex] < endOffset) {
+        nodeIndex++;
+        length++;
+      }
+
+      if (length > 0) {
+        partParams.add(new PartGetCommonNeighborCountParam(matrixId,
+            partitions.get(partIndex), nodeIds, queryIndices, queries, nodeIndex - length,
+            nodeIndex));
+      }
+      partIndex++;
+    }
+
+    return partParams;
+  }
+}
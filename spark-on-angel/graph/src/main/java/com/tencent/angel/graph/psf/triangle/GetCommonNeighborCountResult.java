@@ -0,0 +1,48 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.triangle;
+
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+
+public class GetCommonNeighborCountResult extends GetResult {
+
+  private final long[] nodeIds;
+  private final int[] queryIndices;
+
+  /**
+   * counts[i] is the common neighbor number of nodeIds[i] and queries[queryIndices[i]]
+   */
+  private final int[] counts;
+
+  public GetCommonNeighborCountResult(long[] nodeIds, int[] queryIndices, int[] counts) {
+    this.nodeIds = nodeIds;
+    this.queryIndices = queryIndices;
+    this.counts = counts;
+  }
+
+  public long[] getNodeIds() {
+    return nodeIds;
+  }
+
+  public int[] getQueryIndices() {
+    return queryIndices;
+  }
+
+  public int[] getCounts() {
+    return counts;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.triangle;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+public class PartGetCommonNeighborCountParam extends PartitionGetParam {
+
+  private long[] nodeIds;
+
+  private int[] queryIndices;
+
+  /**
+   * Query arrays, only the queries used by the nodes in [startIndex, endIndex) are serialized, and
+   * each of them is serialized once. A null query is serialized as an empty array
+   */
+  private long[][] queries;
+
+  private int startIndex;
+
+  private int endIndex;
+
+  /**
+   * Query indices of this partition, it is built when the param is serialized
+   */
+  private transient IntArrayList usedQueries;
+
+  private transient Int2IntOpenHashMap queryToLocal;
+
+  public PartGetCommonNeighborCountParam(int matrixId, PartitionKey part, long[] nodeIds,
+      int[] queryIndices, long[][] queries, int startIndex, int endIndex) {
+    super(matrixId, part);
+    this.nodeIds = nodeIds;
+    this.queryIndices = queryIndices;
+    this.queries = queries;
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+  }
+
+  public PartGetCommonNeighborCountParam() {
+    this(0, null, null, null, null, 0, 0);
+  }
+
+  public long[] getNodeIds() {
+    return nodeIds;
+  }
+
+  public int[] getQueryIndices() {
+    return queryIndices;
+  }
+
+  public long[][] getQueries() {
+    return queries;
+  }
+
+  public int getStartIndex() {
+    return startIndex;
+  }
+
+  public int getEndIndex() {
+    return endIndex;
+  }
+
+  private void collectQueries() {
+    if (usedQueries != null) {
+      return;
+    }
+    usedQueries = new IntArrayList();
+    queryToLocal = new Int2IntOpenHashMap();
+    queryToLocal.defaultReturnValue(-1);
+    for (int i = startIndex; i < endIndex; i++) {
+      if (queryToLocal.get(queryIndices[i]) < 0) {
+        queryToLocal.put(queryIndices[i], usedQueries.size());
+        usedQueries.add(queryIndices[i]);
+      }
+    }
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    collectQueries();
+    buf.writeInt(usedQueries.size());
+    for (int i = 0; i < usedQueries.size(); i++) {
+      long[] query = queries[usedQueries.getInt(i)];
+      if (query == null) {
+        buf.writeInt(0);
+      } else {
+        buf.writeInt(query.length);
+        for (long value : query) {
+          buf.writeLong(value);
+        }
+      }
+    }
+
+    buf.writeInt(endIndex - startIndex);
+    for (int i = startIndex; i < endIndex; i++) {
+      buf.writeLong(nodeIds[i]);
+      buf.writeInt(queryToLocal.get(queryIndices[i]));
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    queries = new long[buf.readInt()][];
+    for (int i = 0; i < queries.length; i++) {
+      long[] query = new long[buf.readInt()];
+      for (int j = 0; j < query.length; j++) {
+        query[j] = buf.readLong();
+      }
+      queries[i] = query;
+    }
+
+    int size = buf.readInt();
+    nodeIds = new long[size];
+    queryIndices = new int[size];
+    for (int i = 0; i < size; i++) {
+      nodeIds[i] = buf.readLong();
+      queryIndices[i] = buf.readInt();
+    }
+    startIndex = 0;
+    endIndex = size;
+  }
+
+  @Override
+  public int bufferLen() {
+    collectQueries();
+    int len = super.bufferLen() + 4;
+    for (int i = 0; i < usedQueries.size(); i++) {
+      long[] query = queries[usedQueries.getInt(i)];
+      len += 4 + (query == null ? 0 : 8 * query.length);
+    }
+    len += 4 + 12 * (endIndex - startIndex);
+    return len;
+  }
+}
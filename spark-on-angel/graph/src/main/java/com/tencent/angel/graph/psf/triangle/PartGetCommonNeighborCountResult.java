@@ -0,0 +1,73 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.psf.triangle;
+
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Result of GetCommonNeighborCount
+ */
+public class PartGetCommonNeighborCountResult extends PartitionGetResult {
+
+  private int partId;
+
+  /**
+   * Common neighbor numbers of the nodes in the partition param
+   */
+  private int[] counts;
+
+  public PartGetCommonNeighborCountResult(int partId, int[] counts) {
+    this.partId = partId;
+    this.counts = counts;
+  }
+
+  public PartGetCommonNeighborCountResult() {
+    this(-1, null);
+  }
+
+  public int getPartId() {
+    return partId;
+  }
+
+  public int[] getCounts() {
+    return counts;
+  }
+
+  @Override
+  public void serialize(ByteBuf output) {
+    output.writeInt(partId);
+    output.writeInt(counts.length);
+    for (int count : counts) {
+      output.writeInt(count);
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf input) {
+    partId = input.readInt();
+    counts = new int[input.readInt()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = input.readInt();
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    return 8 + 4 * counts.length;
+  }
+}
@@ -157,6 +157,22 @@ class NeighborTableModel(@BeanProperty val param: Param) extends Serializable {
       .asInstanceOf[GetNeighborWithByteAttrResult].getNodeIdToNeighbors
   }
 
+  /**
+    * count the common neighbors on ps, the neighbors of nodeIds(i) are intersected with
+    * queries(queryIndices(i)), which must be sorted
+    *
+    * @param nodeIds node ids, it is sorted in place together with queryIndices
+    * @param queryIndices query index of each node
+    * @param queries sorted neighbor arrays
+    * @return common neighbor numbers, aligned with the sorted nodeIds and queryIndices
+    */
+  def getCommonNeighborCounts(nodeIds: Array[Long], queryIndices: Array[Int],
+                              queries: Array[Array[Long]]): Array[Int] = {
+    if (nodeIds.isEmpty) return new Array[Int](0)
+    psMatrix.psfGet(new GetCommonNeighborCount(psMatrix.id, nodeIds, queryIndices, queries))
+      .asInstanceOf[GetCommonNeighborCountResult].getCounts
+  }
+
   def checkpoint(): Unit = {
     println(s"neighbor table checkpoint now matrixId=${psMatrix.id}")
     psMatrix.checkpoint()
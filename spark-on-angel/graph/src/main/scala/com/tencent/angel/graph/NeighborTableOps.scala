@@ -150,8 +150,9 @@ class NeighborTableOps(table: NeighborTableModel) extends Serializable {
     table
   }
 
-  def calTriangleUndirected[ED: ClassTag](neighborsRDD: RDD[NeighborTablePartition[ED]], computeLCC: Boolean): RDD[(VertexId, Int, Float)] = {
-    neighborsRDD.flatMap(_.calTriangleUndirected(table, computeLCC))
+  def calTriangleUndirected[ED: ClassTag](neighborsRDD: RDD[NeighborTablePartition[ED]], computeLCC: Boolean,
+                                          serverIntersect: Boolean = false): RDD[(VertexId, Int, Float)] = {
+    neighborsRDD.flatMap(_.calTriangleUndirected(table, computeLCC, serverIntersect))
   }
 
   def calNumEdgesInNeighbor[ED: ClassTag](neighborsRDD: RDD[NeighborTablePartition[ED]]): RDD[
@@ -34,7 +34,7 @@ class LINE(override val uid: String) extends Transformer
   with HasCheckPointInterval with HasModelSaveInterval with HasSaveMeta with HasEpochNum with HasBatchSize
   with HasSrcNodeIdCol with HasDstNodeIdCol with HasNeedRemapping with HasSubSample with HasOutput
   with HasStorageLevel with HasPartitionNum with HasPSPartitionNum
-  with HasWeightCol with HasIsWeighted with HasOldModelPath {
+  with HasWeightCol with HasIsWeighted with HasOldModelPath with HasMaxOutstandingBatches {
 
   def this() = this(Identifiable.randomUID("LINE"))
 
@@ -56,6 +56,7 @@ class LINE(override val uid: String) extends Transformer
         $(saveModelInterval), $(saveMeta), $(oldModelPath))
     }
 
+    model.setMaxOutstandingBatches($(maxOutstandingBatches))
     model.train()
     dataset.sparkSession.emptyDataFrame
   }
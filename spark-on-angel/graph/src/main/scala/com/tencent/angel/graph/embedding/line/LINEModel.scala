@@ -17,8 +17,11 @@
 
 package com.tencent.angel.graph.embedding.line
 
-import java.util.{Random, HashMap => JHashMap, HashSet => JHashSet}
+import java.util.concurrent.{Future, TimeUnit}
+import java.util.{ArrayDeque, Random, HashMap => JHashMap, HashSet => JHashSet}
 
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult
+import com.tencent.angel.ml.matrix.psf.update.base.VoidResult
 import com.tencent.angel.spark.context.{AngelPSContext, PSContext}
 import com.tencent.angel.graph.embedding.FastSigmoid
 import com.tencent.angel.graph.embedding.NEModel.NEDataSet
@@ -64,6 +67,19 @@ class LINEModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: Int, stepSi
     */
   @volatile var psModel: LINEPSModel = _
 
+  /**
+    * Max number of mini-batches whose push is still in flight in a data partition, 1 means the
+    * mini-batches are trained one by one synchronously. With more than 1, the embeddings of the
+    * next mini-batch are also pulled while the current one is trained
+    */
+  var maxOutstandingBatches: Int = 1
+
+  def setMaxOutstandingBatches(num: Int): this.type = {
+    require(num >= 1, s"require maxOutstandingBatches >= 1, $num given")
+    this.maxOutstandingBatches = num
+    this
+  }
+
   def train(): Unit = {
     // Original edges
     var edges: RDD[(String, String)] = null
@@ -109,28 +125,39 @@ class LINEModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: Int, stepSi
     LogUtils.logTime(s"Write checkpoint use time=${System.currentTimeMillis() - startTs}")
 
     for (epoch <- 1 to epochNum) {
-      val alpha = stepSize
-      val data = trainBatches.next()
-      val numPartitions = data.getNumPartitions
-      val middle = data.mapPartitionsWithIndex((partitionId, iterator) =>
-        sgdForPartition(partitionId, iterator, numPartitions, negativeNum, alpha),
-        preservesPartitioning = true
-      ).collect()
-      val loss = middle.map(f => f._1).sum / middle.map(_._2).sum.toFloat
-      val array = new Array[Long](6)
-      middle.foreach(f => f._3.zipWithIndex.foreach(t => array(t._2) += t._1))
-
-      LogUtils.logTime(s"epoch=$epoch " +
-        f"loss=$loss%2.4f " +
-        s"sampleTime=${array(0)} getEmbeddingTime=${array(1)} " +
-        s"dotTime=${array(2)} gradientTime=${array(3)} calUpdateTime=${array(4)} pushTime=${array(5)} " +
-        s"total=${middle.map(_._2).sum.toFloat} lossSum=${middle.map(_._1).sum} ")
+      trainEpoch(epoch, trainBatches.next())
 
       // Write the checkpoint or model result if need
       checkpointAndSaveIfNeed(epoch)
     }
   }
 
+  /**
+    * Train an epoch
+    *
+    * @param epoch epoch index
+    * @param data  mini-batches of the epoch
+    * @return average loss of the epoch
+    */
+  def trainEpoch(epoch: Int, data: RDD[NEDataSet]): Float = {
+    val alpha = stepSize
+    val numPartitions = data.getNumPartitions
+    val middle = data.mapPartitionsWithIndex((partitionId, iterator) =>
+      sgdForPartition(partitionId, iterator, numPartitions, negativeNum, alpha),
+      preservesPartitioning = true
+    ).collect()
+    val loss = middle.map(f => f._1).sum / middle.map(_._2).sum.toFloat
+    val array = new Array[Long](6)
+    middle.foreach(f => f._3.zipWithIndex.foreach(t => array(t._2) += t._1))
+
+    LogUtils.logTime(s"epoch=$epoch " +
+      f"loss=$loss%2.4f " +
+      s"sampleTime=${array(0)} getEmbeddingTime=${array(1)} " +
+      s"dotTime=${array(2)} gradientTime=${array(3)} calUpdateTime=${array(4)} pushTime=${array(5)} " +
+      s"total=${middle.map(_._2).sum.toFloat} lossSum=${middle.map(_._1).sum} ")
+    loss
+  }
+
   def remapping(data: RDD[(String, String)]): RDD[(Int, Int)] = {
     // All distinct node ids
     val strings = data.map(f => Array(f._1, f._2)).flatMap(f => f)
@@ -257,11 +284,91 @@ class LINEModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: Int, stepSi
 
     PSContext.instance()
     val rand = new Random(this.hashCode() + 31 * partitionId)
-    iterator.zipWithIndex.map { case (batch, index) =>
-      sgdForBatch(partitionId, batch.asInstanceOf[LINEDataSet], index, alpha, rand.nextInt())
+    val pushes = new ArrayDeque[Future[VoidResult]]()
+    val batches = iterator.zipWithIndex.map { case (batch, index) =>
+      var lineBatch = batch.asInstanceOf[LINEDataSet]
+      // The batch iterator may reuse its arrays, copy them before the next batch is read ahead
+      if (maxOutstandingBatches > 1) {
+        lineBatch = LINEDataSet(lineBatch.src.clone(), lineBatch.dst.clone())
+      }
+      (lineBatch, index, pull(lineBatch, rand.nextInt()))
+    }
+
+    if (maxOutstandingBatches > 1) {
+      val prefetched = batches.buffered
+      new Iterator[(Float, Long, Array[Long])] {
+        override def hasNext: Boolean = prefetched.hasNext
+
+        override def next(): (Float, Long, Array[Long]) = {
+          val (batch, index, pulled) = prefetched.next()
+          // Issue the pull of the next mini-batch before training this one
+          if (prefetched.hasNext) prefetched.head
+          sgdForBatch(partitionId, batch, index, alpha, pulled, pushes)
+        }
+      } ++ waitPushes(pushes, 0)
+    } else {
+      batches.map { case (batch, index, pulled) =>
+        sgdForBatch(partitionId, batch, index, alpha, pulled, pushes)
+      }
     }
   }
 
+  /**
+    * Sample the negative nodes of a mini-batch and pull the node embeddings from PS without
+    * waiting for them. With maxOutstandingBatches > 1 the pull is issued before the push of the
+    * previous mini-batch, so it misses the updates of the previous maxOutstandingBatches
+    * mini-batches at most
+    *
+    * @param batch mini-batch edges
+    * @param seed  random seed
+    * @return negative samples, sample time and the future of the embedding pull, null if the
+    *         mini-batch is empty
+    */
+  def pull(batch: LINEDataSet, seed: Int): (Array[Array[Int]], Long, Future[GetResult]) = {
+    if (batch.src.length == 0) {
+      return null
+    }
+
+    val start = System.currentTimeMillis()
+    val negativeSamples = getPSModel.negativeSample(batch.src, batch.dst, negativeNum, seed)
+    val sampleTime = System.currentTimeMillis() - start
+    (negativeSamples, sampleTime,
+      getPSModel.asyncGetEmbedding(batch.src, batch.dst, negativeSamples, negativeNum, order))
+  }
+
+  /**
+    * Push the updates of a mini-batch. With maxOutstandingBatches > 1 the push is not waited for
+    * until maxOutstandingBatches pushes are in flight
+    *
+    * @param inputUpdates  src node embedding updates
+    * @param outputUpdates dst node embedding updates
+    * @param pushes        pushes in flight of the data partition
+    */
+  def push(inputUpdates: Int2ObjectOpenHashMap[Array[Float]],
+           outputUpdates: Int2ObjectOpenHashMap[Array[Float]],
+           pushes: ArrayDeque[Future[VoidResult]]): Unit = {
+    if (maxOutstandingBatches > 1) {
+      waitPushes(pushes, maxOutstandingBatches - 1)
+      pushes.add(getPSModel.asyncAdjust(inputUpdates, outputUpdates, order))
+    } else {
+      getPSModel.adjust(inputUpdates, outputUpdates, order)
+    }
+  }
+
+  /**
+    * Wait until at most `maxInFlight` pushes are in flight, all the pushes must be finished before
+    * the data partition is finished
+    *
+    * @return empty iterator
+    */
+  def waitPushes(pushes: ArrayDeque[Future[VoidResult]],
+                 maxInFlight: Int): Iterator[(Float, Long, Array[Long])] = {
+    while (pushes.size() > maxInFlight) {
+      pushes.poll().get(600000, TimeUnit.MILLISECONDS)
+    }
+    Iterator.empty
+  }
+
   /**
     * Handle a mini-batch edges
     *
@@ -269,13 +376,16 @@ class LINEModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: Int, stepSi
     * @param batch       mini-batch edges
     * @param batchId     mini-batch index
     * @param alpha       learning rate in this epoch
-    * @param seed        random seed
+    * @param pulled      negative samples and embedding pull of the mini-batch, see [[pull]]
+    * @param pushes      pushes in flight of the data partition
     * @return
     */
   def sgdForBatch(partitionId: Int,
                   batch: LINEDataSet,
                   batchId: Int,
-                  alpha: Float, seed: Int): (Float, Long, Array[Long]) = {
+                  alpha: Float,
+                  pulled: (Array[Array[Int]], Long, Future[GetResult]),
+                  pushes: ArrayDeque[Future[VoidResult]]): (Float, Long, Array[Long]) = {
 
     if (batch.src.length == 0) {
       LogUtils.logTime("batch size is 0, just return")
@@ -284,15 +394,14 @@ class LINEModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: Int, stepSi
 
     var start = 0L
 
-    start = System.currentTimeMillis()
     val srcNodes = batch.src
     val destNodes = batch.dst
-    val negativeSamples = getPSModel.negativeSample(srcNodes, destNodes, negativeNum, seed)
-    val sampleTime = System.currentTimeMillis() - start
+    val (negativeSamples, sampleTime, embeddingFuture) = pulled
 
-    // Get node embedding from PS
+    // Wait for the node embedding from PS
     start = System.currentTimeMillis()
-    val getResult = getPSModel.getEmbedding(srcNodes, destNodes, negativeSamples, negativeNum, order)
+    val getResult = embeddingFuture.get(600000, TimeUnit.MILLISECONDS)
+      .asInstanceOf[LINEGetEmbeddingResult].getResult
     val srcFeats: Int2ObjectOpenHashMap[Array[Float]] = getResult._1
     val targetFeats: Int2ObjectOpenHashMap[Array[Float]] = getResult._2
 
@@ -315,7 +424,7 @@ class LINEModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: Int, stepSi
 
     // Push the updates to PS
     start = System.currentTimeMillis()
-    getPSModel.adjust(inputUpdates, outputUpdates, order)
+    push(inputUpdates, outputUpdates, pushes)
     val pushTime = System.currentTimeMillis() - start
 
     if (batchId % 10 == 0) {
@@ -686,9 +795,10 @@ class LINEWithWightModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: In
     val seed = System.currentTimeMillis().toInt
     for (epoch <- 1 to epochNum) {
       val middle = edges.mapPartitionsWithIndex((partId, iter) => {
+        val pushes = new ArrayDeque[Future[VoidResult]]()
         iter.sliding(batchSize, batchSize).zipWithIndex.map(e => {
-          sgdForBatch(batchSize, e._2, stepSize, order, seed + partId)
-        })
+          sgdForBatch(batchSize, e._2, stepSize, order, seed + partId, pushes)
+        }) ++ waitPushes(pushes, 0)
       }).collect()
 
       val loss = middle.map(f => f._1).sum / middle.map(_._2).sum.toFloat
@@ -711,7 +821,8 @@ class LINEWithWightModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: In
 
   def sgdForBatch(batchSize: Int,
                   batchId: Int,
-                  alpha: Float, order: Int, seed: Int): (Float, Long, Array[Long]) = {
+                  alpha: Float, order: Int, seed: Int,
+                  pushes: ArrayDeque[Future[VoidResult]]): (Float, Long, Array[Long]) = {
 
     var start = 0L
 
@@ -749,7 +860,7 @@ class LINEWithWightModel(dataset: Dataset[_], embeddingDim: Int, negativeNum: In
     val calUpdateTime = System.currentTimeMillis() - start
 
     start = System.currentTimeMillis()
-    getPSModel.adjust(inputUpdates, outputUpdates, order)
+    push(inputUpdates, outputUpdates, pushes)
     val pushTime = System.currentTimeMillis() - start
 
     if (batchId % 10 == 0) {
@@ -20,8 +20,9 @@ package com.tencent.angel.graph.embedding.line
 import java.io.IOException
 import java.text.SimpleDateFormat
 import java.util.Date
-import java.util.concurrent.TimeUnit
+import java.util.concurrent.{Future, TimeUnit}
 
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult
 import com.tencent.angel.ml.matrix.psf.update.base.VoidResult
 import com.tencent.angel.ml.matrix.{MatrixContext, RowType}
 import com.tencent.angel.model.output.format.{MatrixFilesMeta, ModelFilesConstent}
@@ -81,8 +82,20 @@ class LINEPSModel(embeddingMatrix: PSMatrix, minNodeId: Int, maxNodeId: Int) ext
     * @return future object for async
     */
   def adjust(inputUpdates: Int2ObjectOpenHashMap[Array[Float]], outputUpdates: Int2ObjectOpenHashMap[Array[Float]], order: Int): VoidResult = {
+    asyncAdjust(inputUpdates, outputUpdates, order).get(600000, TimeUnit.MILLISECONDS)
+  }
+
+  /**
+    * Push the update to PS without waiting for it
+    *
+    * @param inputUpdates  src node embedding updates
+    * @param outputUpdates dst node embedding updates
+    * @param order         order
+    * @return future object for async
+    */
+  def asyncAdjust(inputUpdates: Int2ObjectOpenHashMap[Array[Float]], outputUpdates: Int2ObjectOpenHashMap[Array[Float]], order: Int): Future[VoidResult] = {
     embeddingMatrix.asyncPsfUpdate(new LINEAdjust(
-      new LINEAdjustParam(embeddingMatrix.id, inputUpdates, outputUpdates, order))).get(600000, TimeUnit.MILLISECONDS)
+      new LINEAdjustParam(embeddingMatrix.id, inputUpdates, outputUpdates, order)))
   }
 
   /**
@@ -96,8 +109,23 @@ class LINEPSModel(embeddingMatrix: PSMatrix, minNodeId: Int, maxNodeId: Int) ext
     * @return node id to embedding vector map
     */
   def getEmbedding(srcNodes: Array[Int], destNodes: Array[Int], negativeSamples: Array[Array[Int]], negative: Int, order: Int): (Int2ObjectOpenHashMap[Array[Float]], Int2ObjectOpenHashMap[Array[Float]]) = {
+    asyncGetEmbedding(srcNodes, destNodes, negativeSamples, negative, order)
+      .get(600000, TimeUnit.MILLISECONDS).asInstanceOf[LINEGetEmbeddingResult].getResult
+  }
+
+  /**
+    * Get node embedding vectors without waiting for them
+    *
+    * @param srcNodes        src nodes
+    * @param destNodes       dst nodes
+    * @param negativeSamples negative sample nodes
+    * @param negative        negative sample number per node
+    * @param order           order
+    * @return future object of the LINEGetEmbeddingResult
+    */
+  def asyncGetEmbedding(srcNodes: Array[Int], destNodes: Array[Int], negativeSamples: Array[Array[Int]], negative: Int, order: Int): Future[GetResult] = {
     embeddingMatrix.asyncPsfGet(new LINEGetEmbedding(new LINEGetEmbeddingParam(embeddingMatrix.id, srcNodes, destNodes,
-      negativeSamples, order, negative))).get(600000, TimeUnit.MILLISECONDS).asInstanceOf[LINEGetEmbeddingResult].getResult
+      negativeSamples, order, negative)))
   }
 
   /**
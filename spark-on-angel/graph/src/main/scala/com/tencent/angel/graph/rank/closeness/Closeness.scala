@@ -54,6 +54,12 @@ class Closeness(override val uid: String) extends Transformer
   final val verboseSaving = new BooleanParam(this, "verboseSaving", "verboseSaving")
   final val isDirected = new BooleanParam(this, "isDirected", "isDirected")
 
+  /**
+    * Store the counters as raw registers in off-heap buffers on PS and transfer them without
+    * the HyperLogLog++ serialization. Only the normal representation is supported (sp = 0).
+    */
+  final val compactRegisters = new BooleanParam(this, "compactRegisters", "compactRegisters")
+
   final def setP(precision: Int): this.type = set(p, precision)
 
   final def setSp(precision: Int): this.type = set(sp, precision)
@@ -66,12 +72,15 @@ class Closeness(override val uid: String) extends Transformer
 
   final def setIsDirected(directed: Boolean): this.type = set(isDirected, directed)
 
+  final def setCompactRegisters(compact: Boolean): this.type = set(compactRegisters, compact)
+
   setDefault(p, 6)
   setDefault(sp, 0)
   setDefault(maxIter, 10)
   setDefault(msgNumBatch, 4)
   setDefault(verboseSaving, false)
   setDefault(isDirected, true)
+  setDefault(compactRegisters, false)
   setDefault(balancePartitionPercent, 0.5f)
 
   def this() = this(Identifiable.randomUID("Closeness"))
@@ -95,7 +104,9 @@ class Closeness(override val uid: String) extends Transformer
 
     Log.withTimePrintln(s"minId=$minId maxId=$maxId numEdges=$numEdges p=${$(p)} sp=${$(sp)}")
 
-    val model = ClosenessPSModel.fromMinMax(minId, maxId + 1, index, $(psPartitionNum), $(useBalancePartition), $(balancePartitionPercent))
+    require(!$(compactRegisters) || $(sp) == 0, "compactRegisters only supports sp = 0")
+    val model = ClosenessPSModel.fromMinMax(minId, maxId + 1, index, $(psPartitionNum),
+      $(useBalancePartition), $(balancePartitionPercent), $(compactRegisters))
     val graph = edges.groupByKey($(partitionNum))
       .mapPartitionsWithIndex((index, it) =>
         Iterator.single(ClosenessPartition.apply(index, it, $(p), $(sp))))
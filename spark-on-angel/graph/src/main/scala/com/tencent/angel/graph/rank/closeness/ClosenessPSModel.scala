@@ -35,7 +35,7 @@ import it.unimi.dsi.fastutil.longs.{Long2DoubleOpenHashMap, Long2ObjectOpenHashM
 import org.apache.spark.rdd.RDD
 
 private[closeness]
-class ClosenessPSModel(matrix: PSMatrix) extends Serializable {
+class ClosenessPSModel(matrix: PSMatrix, val compact: Boolean = false) extends Serializable {
 
   final val matrixId = matrix.id
   final val dim = matrix.columns
@@ -55,6 +55,16 @@ class ClosenessPSModel(matrix: PSMatrix) extends Serializable {
     matrix.psfUpdate(func).get()
   }
 
+  def getRegisters(nodes: Array[Long]): Long2ObjectOpenHashMap[Array[Byte]] = {
+    val func = new GetHyperLogLogRegisters(matrix.id, nodes)
+    matrix.psfGet(func).asInstanceOf[GetHyperLogLogRegistersResult].getResults
+  }
+
+  def sendRegisters(updates: Long2ObjectOpenHashMap[Array[Byte]], p: Int): Unit = {
+    val func = new UpdateHyperLogLogRegisters(matrix.id, updates, p)
+    matrix.psfUpdate(func).get()
+  }
+
   def computeCloseness(r: Int): Unit = {
     val func = new ComputeCloseness(matrix.id, r)
     matrix.psfUpdate(func).get()
@@ -95,12 +105,16 @@ object ClosenessPSModel {
                  index: RDD[Long],
                  psNumPartition: Int,
                  useBalancePartition: Boolean,
-                 balancePartitionPercent: Float = 0.7f): ClosenessPSModel = {
+                 balancePartitionPercent: Float = 0.7f,
+                 useCompact: Boolean = false): ClosenessPSModel = {
     val matrix = new MatrixContext("closeness", 1, minId, maxId)
     matrix.setValidIndexNum(-1)
     matrix.setRowType(RowType.T_ANY_LONGKEY_SPARSE)
     matrix.setPartitionerClass(classOf[ColumnRangePartitioner])
     matrix.setValueType(classOf[HyperLogLogPlusElement])
+    if (useCompact) {
+      matrix.setPartitionClass(classOf[HyperLogLogPartition])
+    }
 
     if (useBalancePartition) {
       LoadBalancePartitioner.partition(index, maxId, psNumPartition, matrix, balancePartitionPercent)
@@ -108,6 +122,6 @@ object ClosenessPSModel {
 
     PSAgentContext.get().getMasterClient.createMatrix(matrix, 10000L)
     val matrixId = PSAgentContext.get().getMasterClient.getMatrix("closeness").getId
-    new ClosenessPSModel(new PSMatrixImpl(matrixId, matrix.getName, 1, maxId, matrix.getRowType))
+    new ClosenessPSModel(new PSMatrixImpl(matrixId, matrix.getName, 1, maxId, matrix.getRowType), useCompact)
   }
 }
@@ -20,6 +20,7 @@ package com.tencent.angel.graph.rank.closeness
 import java.lang.{Double => JDouble, Long => JLong}
 
 import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus
+import com.tencent.angel.graph.psf.hyperanf.HyperLogLogRegisters
 import it.unimi.dsi.fastutil.ints.IntArrayList
 import it.unimi.dsi.fastutil.longs.{Long2ObjectOpenHashMap, LongArrayList}
 
@@ -47,6 +48,7 @@ class ClosenessPartition(index: Int,
 
   def batchProcess(model: ClosenessPSModel, start: Int, end: Int): Long = {
     if (start == end) return 0
+    if (model.compact) return batchProcessRegisters(model, start, end)
     val outMsgs = new Long2ObjectOpenHashMap[HyperLogLogPlus]()
     val inMsgs = model.getHyperLogLog(keys.slice(start, end))
     if (inMsgs.size() == 0) return 0
@@ -65,6 +67,31 @@ class ClosenessPartition(index: Int,
     outMsgs.size()
   }
 
+  def batchProcessRegisters(model: ClosenessPSModel, start: Int, end: Int): Long = {
+    val m = HyperLogLogRegisters.numRegisters(p)
+    val outMsgs = new Long2ObjectOpenHashMap[Array[Byte]]()
+    val inMsgs = model.getRegisters(keys.slice(start, end))
+    if (inMsgs.size() == 0) return 0
+    for (idx <- start until end) {
+      val registers = inMsgs.get(keys(idx))
+      if (registers != null) {
+        var j = indptr(idx)
+        while (j < indptr(idx + 1)) {
+          val outNode = outNodes(j)
+          var out = outMsgs.get(outNode)
+          if (out == null) {
+            out = new Array[Byte](m)
+            outMsgs.put(outNode, out)
+          }
+          HyperLogLogRegisters.union(out, 0, registers, 0, m)
+          j += 1
+        }
+      }
+    }
+    model.sendRegisters(outMsgs, p)
+    outMsgs.size()
+  }
+
   def save(model: ClosenessPSModel, partitionIds: Array[Int],
            ends: Array[Int], numNodes: Long): (Array[Long], Array[Float]) = {
     val length = if (index > 0) ends(index) - ends(index - 1) else ends(0)
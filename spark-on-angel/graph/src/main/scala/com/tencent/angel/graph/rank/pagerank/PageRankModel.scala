@@ -18,7 +18,7 @@
 package com.tencent.angel.graph.rank.pagerank
 
 import com.tencent.angel.ml.math2.storage.IntLongDenseVectorStorage
-import com.tencent.angel.ml.math2.vector.{IntLongVector, LongFloatVector, Vector}
+import com.tencent.angel.ml.math2.vector.{IntFloatVector, IntLongVector, LongFloatVector, Vector}
 import com.tencent.angel.ml.matrix.psf.get.getrow.GetRowResult
 import com.tencent.angel.ml.matrix.psf.update.update.IncrementRowsParam
 import com.tencent.angel.graph.psf.pagerank.{ComputeRank, GetNodes, MyIncrement, NormalizeRank}
@@ -44,6 +44,9 @@ class PageRankModel(readMsgs: PSVector,
   def readMsgs(nodes: Array[Long]): LongFloatVector =
     readMsgs.pull(nodes).asInstanceOf[LongFloatVector]
 
+  def readMsgs(nodes: Array[Int]): IntFloatVector =
+    readMsgs.pull(nodes).asInstanceOf[IntFloatVector]
+
   def readAllMsgs(): LongFloatVector =
     readMsgs.pull().asInstanceOf[LongFloatVector]
 
@@ -58,6 +61,9 @@ class PageRankModel(readMsgs: PSVector,
   def readRanks(nodes: Array[Long]): LongFloatVector =
     ranks.pull(nodes).asInstanceOf[LongFloatVector]
 
+  def readRanks(nodes: Array[Int]): IntFloatVector =
+    ranks.pull(nodes).asInstanceOf[IntFloatVector]
+
   def updateRanks(values: Vector): Unit =
     ranks.update(values)
 
@@ -75,6 +81,8 @@ class PageRankModel(readMsgs: PSVector,
   def numNodes(): Long =
     VectorUtils.nnz(ranks)
 
+  def getRanks: PSVector = ranks
+
   def getNodes(partitionIds: Array[Int], numBatch: Int): Iterator[Array[Long]] = {
     val batchSize = math.max(partitionIds.length / numBatch, 1)
     var start = 0
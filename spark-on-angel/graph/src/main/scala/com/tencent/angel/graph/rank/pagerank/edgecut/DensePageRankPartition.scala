@@ -0,0 +1,118 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.graph.rank.pagerank.edgecut
+
+import com.tencent.angel.ml.math2.VFactory
+import com.tencent.angel.ml.math2.storage.IntFloatSparseVectorStorage
+import it.unimi.dsi.fastutil.floats.FloatArrayList
+import it.unimi.dsi.fastutil.ints.{Int2FloatOpenHashMap, IntArrayList}
+
+/**
+  * PageRank partition over reindexed vertices, see [[com.tencent.angel.graph.utils.reindex.NodeIndexer]]
+  */
+private[edgecut]
+class DensePageRankPartition(index: Int,
+                             keys: Array[Int], indptr: Array[Int],
+                             sums: Array[Float],
+                             outNodes: Array[Int],
+                             weights: Array[Float]) {
+
+  assert(keys.length == indptr.length - 1)
+
+  def getIndex: Int = index
+
+  def start(model: PageRankPSModel, rank: Float, tol: Float): Int = {
+    val outMsgs = new Int2FloatOpenHashMap()
+    if (rank > tol) {
+      for (idx <- keys.indices) {
+        var j = indptr(idx)
+        while (j < indptr(idx + 1)) {
+          outMsgs.addTo(outNodes(j), rank * weights(j) / sums(idx))
+          j += 1
+        }
+      }
+    }
+
+    val update = VFactory.sparseFloatVector(model.dim.toInt)
+    update.setStorage(new IntFloatSparseVectorStorage(update.getDim, outMsgs))
+    model.sendMsgs(update)
+    outMsgs.size()
+  }
+
+  def process(model: PageRankPSModel, resetProb: Float, tol: Float): Int = {
+    val outMsgs = new Int2FloatOpenHashMap()
+    val inMsgs = model.readMsgs(keys.clone())
+    for (idx <- keys.indices) {
+      val delta = inMsgs.get(keys(idx)) * (1 - resetProb)
+      if (delta > tol) {
+        var j = indptr(idx)
+        while (j < indptr(idx + 1)) {
+          outMsgs.addTo(outNodes(j), delta * weights(j) / sums(idx))
+          j += 1
+        }
+      }
+    }
+
+    inMsgs.setStorage(new IntFloatSparseVectorStorage(model.dim.toInt, outMsgs))
+    model.sendMsgs(inMsgs)
+    outMsgs.size()
+  }
+
+  def setMissRanks(model: PageRankPSModel, initRanks: Float): Int = {
+    if (keys.length > 0) {
+      val ranks = model.readRanks(keys.clone())
+      val update = VFactory.sparseFloatVector(model.dim.toInt)
+      for (idx <- keys.indices) {
+        if (ranks.get(keys(idx)) == 0.0)
+          update.set(keys(idx), initRanks)
+      }
+      model.updateRanks(update)
+      update.size().toInt
+    } else 0
+  }
+
+}
+
+private[edgecut] object DensePageRankPartition {
+  def apply(index: Int, iter: Iterator[(Int, Iterable[(Int, Float)])]): DensePageRankPartition = {
+    val indptr = new IntArrayList()
+    val outNodes = new IntArrayList()
+    val keys = new IntArrayList()
+    val sums = new FloatArrayList()
+    val weights = new FloatArrayList()
+
+    indptr.add(0)
+    while (iter.hasNext) {
+      val (node, outs) = iter.next()
+      outs.foreach { case (n, weight) =>
+        outNodes.add(n)
+        weights.add(weight)
+      }
+      indptr.add(outNodes.size())
+      keys.add(node)
+      sums.add(outs.map(f => f._2).sum)
+    }
+
+    new DensePageRankPartition(index,
+      keys.toIntArray(),
+      indptr.toIntArray(),
+      sums.toFloatArray(),
+      outNodes.toIntArray(),
+      weights.toFloatArray())
+  }
+}
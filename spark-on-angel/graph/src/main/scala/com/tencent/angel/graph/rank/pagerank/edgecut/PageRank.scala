@@ -21,10 +21,12 @@ import com.tencent.angel.spark.context.PSContext
 import com.tencent.angel.graph.rank.pagerank.PageRankOps
 import com.tencent.angel.graph.utils.io.Log
 import com.tencent.angel.graph.utils.params._
+import com.tencent.angel.graph.utils.reindex.NodeIndexer
 import org.apache.spark.SparkContext
 import org.apache.spark.ml.Transformer
 import org.apache.spark.ml.param.{BooleanParam, FloatParam, IntParam, ParamMap}
 import org.apache.spark.ml.util.Identifiable
+import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.types.{FloatType, LongType, StructField, StructType}
 import org.apache.spark.sql.{DataFrame, Dataset, Row}
 import org.apache.spark.storage.StorageLevel
@@ -33,7 +35,8 @@ class PageRank(override val uid: String) extends Transformer
   with HasSrcNodeIdCol with HasDstNodeIdCol with HasOutputNodeIdCol with HasOutputPageRankCol
   with HasStorageLevel with HasPartitionNum with HasPSPartitionNum
   with HasWeightCol with HasIsWeighted with HasUseBalancePartition
-  with HasUseEstimatePartition with HasBalancePartitionPercent {
+  with HasUseEstimatePartition with HasBalancePartitionPercent
+  with HasNeedRemapping with HasBatchSize {
 
 
   final val tol = new FloatParam(this, "tol", "tol")
@@ -70,6 +73,13 @@ class PageRank(override val uid: String) extends Transformer
     }
     edges.persist(StorageLevel.DISK_ONLY)
 
+    val retRDD = if ($(remapping)) transformDense(edges) else transformSparse(edges)
+
+    val outputSchema = transformSchema(dataset.schema)
+    dataset.sparkSession.createDataFrame(retRDD, outputSchema)
+  }
+
+  private def transformSparse(edges: RDD[(Long, Long, Float)]): RDD[Row] = {
     val index = edges.flatMap(f => Array(f._1, f._2))
     val (minId, maxId, numEdges) = edges.mapPartitions(PageRankOps.summarizeApplyOp)
       .reduce(PageRankOps.summarizeReduceOp)
@@ -121,9 +131,63 @@ class PageRank(override val uid: String) extends Transformer
     val retRDD = graph.flatMap(f => PageRankOps.save(f.getIndex, model, partitionIds, ends, $(numBatch)))
       .flatMap(f => f._1.zip(f._2))
       .map { case (node, rank) => Row.fromSeq(Seq[Any](node, rank)) }
+    retRDD
+  }
 
-    val outputSchema = transformSchema(dataset.schema)
-    dataset.sparkSession.createDataFrame(retRDD, outputSchema)
+  /**
+    * Reindex the vertices into dense int ids first, so that ranks and messages are kept in dense
+    * rows on PS, and map the ranks back to the original ids at save time.
+    */
+  private def transformDense(edges: RDD[(Long, Long, Float)]): RDD[Row] = {
+    Log.withTimePrintln("start to run ps")
+    PSContext.getOrCreate(SparkContext.getOrCreate())
+
+    val indexer = new NodeIndexer()
+    indexer.train(edges.flatMap(f => Iterator(f._1, f._2)), $(psPartitionNum), $(batchSize))
+    val encoded = indexer.encode(edges, $(batchSize))
+    encoded.persist(StorageLevel.DISK_ONLY)
+    encoded.foreachPartition(_ => Unit)
+    edges.unpersist(false)
+    indexer.destroyEncoder()
+
+    val initRank = $(resetProb)
+    Log.withTimePrintln(s"numNodes=${indexer.getNumOfNodes} tol=${$(tol)}")
+
+    val model = PageRankPSModel.fromIndexer(indexer)
+
+    val graph = encoded.map(sd => (sd._1, (sd._2, sd._3)))
+      .groupByKey($(partitionNum))
+      .mapPartitionsWithIndex((index, it) => Iterator.single(DensePageRankPartition.apply(index, it)))
+
+    graph.persist($(storageLevel))
+    graph.foreachPartition(_ => Unit)
+    encoded.unpersist(false)
+    graph.map(_.start(model, initRank, $(tol))).reduce(_ + _)
+
+    model.computeRanks(initRank, $(resetProb))
+
+    val nodesWithoutInLinks = graph.map(_.setMissRanks(model, initRank)).reduce(_ + _)
+    val numNodes = model.numNodes()
+
+    Log.withTimePrintln(s"There are $nodesWithoutInLinks nodes without in-degrees")
+    Log.withTimePrintln(s"There are $numNodes nodes in total")
+
+    var numMsgs = model.numMsgs()
+    var i = 1
+    Log.withTimePrintln(s"numMsgs=$numMsgs")
+
+    do {
+      graph.map(_.process(model, $(resetProb), $(tol))).reduce(_ + _)
+      model.computeRanks(initRank, $(resetProb))
+      numMsgs = model.numMsgs()
+      Log.withTimePrintln(s"PageRank finished iteration + $i, and the number of msg is $numMsgs")
+      i += 1
+    } while (numMsgs > 0)
+
+    model.normalizeRanks(numNodes)
+
+    indexer.decodeFloat(model.getRanks, $(batchSize))
+      .map { case (node, rank) => Row.fromSeq(Seq[Any](node, rank)) }
   }
 
 
@@ -22,6 +22,7 @@ import com.tencent.angel.ps.storage.partitioner.ColumnRangePartitioner
 import com.tencent.angel.psagent.PSAgentContext
 import com.tencent.angel.spark.context.PSContext
 import com.tencent.angel.graph.rank.pagerank.PageRankModel
+import com.tencent.angel.graph.utils.reindex.NodeIndexer
 import com.tencent.angel.spark.ml.util.{LoadBalancePartitioner, LoadBalanceWithEstimatePartitioner}
 import com.tencent.angel.spark.models.PSVector
 import com.tencent.angel.spark.models.impl.PSVectorImpl
@@ -59,4 +60,17 @@ private[edgecut] object PageRankPSModel {
       new PSVectorImpl(matrixId, 2, maxId, matrix.getRowType))
   }
 
+  /**
+    * Create the model over the dense id space of `indexer`, keeping the ranks and messages in
+    * dense float rows that are partitioned the same way as the indexer.
+    */
+  def fromIndexer(indexer: NodeIndexer): PageRankPSModel = {
+    val rowType = RowType.T_FLOAT_DENSE
+    val matrixId = indexer.createMatrix("pagerank", 3, rowType)
+    val dim = indexer.getNumOfNodes
+    new PageRankPSModel(new PSVectorImpl(matrixId, 0, dim, rowType),
+      new PSVectorImpl(matrixId, 1, dim, rowType),
+      new PSVectorImpl(matrixId, 2, dim, rowType))
+  }
+
 }
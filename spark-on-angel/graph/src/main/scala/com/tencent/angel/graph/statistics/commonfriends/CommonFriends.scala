@@ -35,7 +35,7 @@ class CommonFriends(override val uid: String) extends Transformer
   with HasStorageLevel with HasBatchSize with HasPullBatchSize
   with HasBufferSize with HasCommonFriendsNumCol with HasDebugMode
   with HasSrcNodeIndex with HasDstNodeIndex with HasCompressIndex
-  with HasInput with HasExtraInputs with HasDelimiter {
+  with HasInput with HasExtraInputs with HasDelimiter with HasServerIntersect {
 
   def this() = this(Identifiable.randomUID("CommonFriends"))
 
@@ -112,11 +112,11 @@ class CommonFriends(override val uid: String) extends Transformer
     Log.withTimePrintln(s"======start calculation======")
     val rawResult: RDD[Row] = if (!isOneInput) {
       secondEdges.mapPartitionsWithIndex { case (partId, iter) =>
-        CommonFriendsOperator.runEdgePartition(iter, partId, psModel)
+        CommonFriendsOperator.runEdgePartition(iter, partId, psModel, $(serverIntersect))
       }
     } else {
       firstNeighbors.mapPartitionsWithIndex { case (partId, iter) =>
-        CommonFriendsOperator.runNeighborPartition(iter, partId, psModel)
+        CommonFriendsOperator.runNeighborPartition(iter, partId, psModel, $(serverIntersect))
       }
     }
 
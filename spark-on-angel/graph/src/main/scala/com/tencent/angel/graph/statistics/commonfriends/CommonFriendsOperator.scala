@@ -19,7 +19,8 @@ package com.tencent.angel.graph.statistics.commonfriends
 
 import com.tencent.angel.graph.utils.BatchIter
 import com.tencent.angel.utils.ArrayUtils
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap
+import it.unimi.dsi.fastutil.ints.IntArrayList
+import it.unimi.dsi.fastutil.longs.{Long2IntOpenHashMap, Long2ObjectOpenHashMap, LongArrayList}
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.{Dataset, Row}
 
@@ -124,7 +125,8 @@ object CommonFriendsOperator {
     correct
   }
 
-  def runEdgePartition(iter: Iterator[(Long, Long)], partitionId: Int, psModel: CommonFriendsPSModel): Iterator[Row] = {
+  def runEdgePartition(iter: Iterator[(Long, Long)], partitionId: Int, psModel: CommonFriendsPSModel,
+                       serverIntersect: Boolean = false): Iterator[Row] = {
     val batchSize = psModel.neighborTable.param.pullBatchSize
     var totalRowNum = 0
     var totalPullNum = 0
@@ -136,7 +138,8 @@ object CommonFriendsOperator {
       val pullNodes: mutable.HashSet[Long] = new mutable.HashSet[Long]()
       batchIter.foreach { curEdge =>
         pullNodes.add(curEdge._1)
-        pullNodes.add(curEdge._2)
+        if (!serverIntersect)
+          pullNodes.add(curEdge._2)
         edgeBuffer += curEdge
       }
       val beforePullTs = System.currentTimeMillis()
@@ -146,7 +149,24 @@ object CommonFriendsOperator {
       println(s"partition $partitionId process $batchSize edges ($totalRowNum in total), " +
         s"pull ${pullNodes.size} nodes from ps ($totalPullNum in total), " +
         s"cost ${System.currentTimeMillis() - beforePullTs} ms")
-      edgeBuffer.toIterator.flatMap { case (src, dst) =>
+      if (serverIntersect) {
+        // only the source neighbor tables are pulled, they are intersected with the
+        // destination neighbor tables on ps. The sources without neighbor table on ps have no
+        // common friends, the counts of their edges are 0 and they are not sent to ps
+        val srcNodes = pullNodes.toArray.filter(src => neighborsNodesMap.get(src) != null)
+        val srcToQuery = new Long2IntOpenHashMap(srcNodes.length)
+        srcToQuery.defaultReturnValue(-1)
+        srcNodes.indices.foreach(i => srcToQuery.put(srcNodes(i), i))
+        val queries = srcNodes.map(src => neighborsNodesMap.get(src))
+        val (remoteEdges, emptyEdges) = edgeBuffer.partition(edge => srcToQuery.get(edge._1) >= 0)
+        val dstNodes = remoteEdges.map(_._2).toArray
+        val queryIndices = remoteEdges.map(edge => srcToQuery.get(edge._1)).toArray
+        val counts = psModel.getCommonNeighborCounts(dstNodes, queryIndices, queries)
+        emptyEdges.toIterator.map { case (src, dst) => Row(src, dst, 0) } ++
+          counts.indices.toIterator.map { j =>
+            Row(srcNodes(queryIndices(j)), dstNodes(j), counts(j))
+          }
+      } else edgeBuffer.toIterator.flatMap { case (src, dst) =>
         val srcNeighbors = neighborsNodesMap.get(src)
         val dstNeighbors = neighborsNodesMap.get(dst)
         Iterator.single(Row(src, dst, ArrayUtils.intersectCount(srcNeighbors, dstNeighbors)))
@@ -154,7 +174,8 @@ object CommonFriendsOperator {
     }
   }
 
-  def runNeighborPartition(iter: Iterator[(Long, Array[Long])], partitionId: Int, psModel: CommonFriendsPSModel): Iterator[Row] = {
+  def runNeighborPartition(iter: Iterator[(Long, Array[Long])], partitionId: Int, psModel: CommonFriendsPSModel,
+                           serverIntersect: Boolean = false): Iterator[Row] = {
     val batchSize = psModel.neighborTable.param.pullBatchSize
     var totalRowNum = 0
     var totalPullNum = 0
@@ -171,22 +192,57 @@ object CommonFriendsOperator {
         if (localNeighborTable.containsKey(src))
           pullNodes ++= neighbors
       }
-      val beforePullTs = System.currentTimeMillis()
-      val psNeighborsTable = psModel.getLongNeighborTable(pullNodes.toArray)
-      totalRowNum += numSrcNodes
-      totalPullNum += pullNodes.size
-      println(s"partition $partitionId: process $numSrcNodes neighbor tables ($totalRowNum in total), " +
-        s"pull ${pullNodes.size} nodes from ps ($totalPullNum in total), " +
-        s"cost ${System.currentTimeMillis() - beforePullTs} ms")
-      val srcNodes = localNeighborTable.keySet().toLongArray
-      srcNodes.flatMap { src =>
-        val srcNeighbors = localNeighborTable.get(src)
-        srcNeighbors.flatMap { dst =>
-          val dstNeighbors = if (localNeighborTable.containsKey(dst)) localNeighborTable.get(dst) else psNeighborsTable.get(dst)
-          Iterator.single(Row(src, dst, ArrayUtils.intersectCount(srcNeighbors, dstNeighbors)))
+      if (serverIntersect) {
+        runNeighborBatchOnPS(localNeighborTable, psModel)
+      } else {
+        val beforePullTs = System.currentTimeMillis()
+        val psNeighborsTable = psModel.getLongNeighborTable(pullNodes.toArray)
+        totalRowNum += numSrcNodes
+        totalPullNum += pullNodes.size
+        println(s"partition $partitionId: process $numSrcNodes neighbor tables ($totalRowNum in total), " +
+          s"pull ${pullNodes.size} nodes from ps ($totalPullNum in total), " +
+          s"cost ${System.currentTimeMillis() - beforePullTs} ms")
+        val srcNodes = localNeighborTable.keySet().toLongArray
+        srcNodes.toIterator.flatMap { src =>
+          val srcNeighbors = localNeighborTable.get(src)
+          srcNeighbors.flatMap { dst =>
+            val dstNeighbors = if (localNeighborTable.containsKey(dst)) localNeighborTable.get(dst) else psNeighborsTable.get(dst)
+            Iterator.single(Row(src, dst, ArrayUtils.intersectCount(srcNeighbors, dstNeighbors)))
+          }
+        }
+      }
+    }
+  }
+
+  /**
+    * count the common friends of the edges of a batch, the neighbor tables in the batch are
+    * intersected locally, and the others are intersected on ps so only the counts are pulled.
+    */
+  def runNeighborBatchOnPS(localNeighborTable: Long2ObjectOpenHashMap[Array[Long]],
+                           psModel: CommonFriendsPSModel): Iterator[Row] = {
+    val srcNodes = localNeighborTable.keySet().toLongArray
+    val queries = srcNodes.map(src => localNeighborTable.get(src))
+    val rows = new ArrayBuffer[Row]()
+    val remoteNodes = new LongArrayList()
+    val remoteQueries = new IntArrayList()
+    srcNodes.indices.foreach { i =>
+      val srcNeighbors = queries(i)
+      srcNeighbors.foreach { dst =>
+        if (localNeighborTable.containsKey(dst)) {
+          rows += Row(srcNodes(i), dst, ArrayUtils.intersectCount(srcNeighbors, localNeighborTable.get(dst)))
+        } else {
+          remoteNodes.add(dst)
+          remoteQueries.add(i)
         }
       }
     }
+
+    val dstNodes = remoteNodes.toLongArray()
+    val queryIndices = remoteQueries.toIntArray()
+    val counts = psModel.getCommonNeighborCounts(dstNodes, queryIndices, queries)
+    rows.toIterator ++ counts.indices.toIterator.map { j =>
+      Row(srcNodes(queryIndices(j)), dstNodes(j), counts(j))
+    }
   }
 
   //  def runNeighborPartitionTag(iter: Iterator[(Long, Array[(Long,Byte)])], partitionId: Int, psModel: CommonFriendsPSModel): Iterator[Row] = {
@@ -54,6 +54,11 @@ class CommonFriendsPSModel(val neighborTable: NeighborTableModel) extends Serial
     neighborsMap
   }
 
+  def getCommonNeighborCounts(nodeIds: Array[Long], queryIndices: Array[Int],
+                              queries: Array[Array[Long]]): Array[Int] = {
+    neighborTable.getCommonNeighborCounts(nodeIds, queryIndices, queries)
+  }
+
   def checkpoint(): Unit = {
     neighborTable.psMatrix.checkpoint()
   }
@@ -29,7 +29,7 @@ import org.apache.spark.sql.{DataFrame, Dataset, Row}
 class TriangleCountingUndirected(override val uid: String) extends Transformer
   with HasSrcNodeIdCol with HasDstNodeIdCol with HasPartitionNum with HasPSPartitionNum
   with HasStorageLevel with HasBatchSize with HasPullBatchSize with HasOutputTriangleCol
-  with HasSrcNodeLccCol with HasComputeLcc {
+  with HasSrcNodeLccCol with HasComputeLcc with HasServerIntersect {
 
   def this() = this(Identifiable.randomUID("TriangleCountingUndirected"))
 
@@ -63,7 +63,8 @@ class TriangleCountingUndirected(override val uid: String) extends Transformer
     Log.withTimePrintln(s"pushing neighbor table to ps cost ${System.currentTimeMillis() - initTableStartTime} ms")
 
     // triangle counting
-    val resRdd = neighborModel.calTriangleUndirected(neighborPartitions, $(computeLcc)).persist($(storageLevel))
+    val resRdd = neighborModel.calTriangleUndirected(neighborPartitions, $(computeLcc), $(serverIntersect))
+      .persist($(storageLevel))
 
     val res = if ($(computeLcc)) {
       dataset.sparkSession.createDataFrame(resRdd.map(r => Row(r._1, r._2, r._3)),
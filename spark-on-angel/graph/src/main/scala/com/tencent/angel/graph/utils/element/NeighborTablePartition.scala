@@ -5,7 +5,8 @@ import com.tencent.angel.graph.utils.element.Element._
 import com.tencent.angel.graph.utils.BatchIter
 import com.tencent.angel.spark.ml.util.ArrayUtils.intersect
 import com.tencent.angel.utils.ArrayUtils
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap
+import it.unimi.dsi.fastutil.ints.IntArrayList
+import it.unimi.dsi.fastutil.longs.{Long2ObjectOpenHashMap, LongArrayList}
 import org.apache.spark.rdd.RDD
 
 import scala.collection.mutable
@@ -343,7 +344,8 @@ class NeighborTablePartition[@specialized(
     re.toArray
   }
 
-  def calTriangleUndirected(psModel: NeighborTableModel, computeLCC: Boolean): Iterator[(VertexId, Int, Float)] = {
+  def calTriangleUndirected(psModel: NeighborTableModel, computeLCC: Boolean,
+                            serverIntersect: Boolean = false): Iterator[(VertexId, Int, Float)] = {
     val batchSize = psModel.param.pullBatchSize
     var totalRowNum = 0
     var totalPullNum = 0
@@ -360,26 +362,37 @@ class NeighborTablePartition[@specialized(
         localNeighborTable.put(srcIds(pos), neighbors(pos))
         pullNodes ++= neighbors(pos)
       }
-      val beforePullTs = System.currentTimeMillis()
-      val psNeighborsTable = psModel.getLongNeighborTable(pullNodes.toArray)
-
       totalRowNum += numSrcNodes
-      totalPullNum += pullNodes.size
-
-      println(s"partition $partitionID: process $numSrcNodes neighbor tables ($totalRowNum in total), " +
-        s"pull ${pullNodes.size} nodes from ps ($totalPullNum in total), " +
-        s"cost ${System.currentTimeMillis() - beforePullTs} ms")
 
       val srcNodes = localNeighborTable.keySet().toLongArray
-      srcNodes.flatMap { src =>
-        val srcNeighbors = localNeighborTable.get(src)
-        var triangleCount = 0
-        srcNeighbors.foreach { dst =>
-          val dstNeighbors = if (localNeighborTable.containsKey(dst)) localNeighborTable.get(dst)
-          else psNeighborsTable.get(dst)
-          val comFriends = ArrayUtils.intersectCount(dstNeighbors, srcNeighbors)
-          triangleCount += comFriends
+      val triangleCounts = if (serverIntersect) {
+        calTriangleOnPS(psModel, srcNodes, localNeighborTable)
+      } else {
+        val beforePullTs = System.currentTimeMillis()
+        val psNeighborsTable = psModel.getLongNeighborTable(pullNodes.toArray)
+        totalPullNum += pullNodes.size
+
+        println(s"partition $partitionID: process $numSrcNodes neighbor tables ($totalRowNum in total), " +
+          s"pull ${pullNodes.size} nodes from ps ($totalPullNum in total), " +
+          s"cost ${System.currentTimeMillis() - beforePullTs} ms")
+
+        srcNodes.map { src =>
+          val srcNeighbors = localNeighborTable.get(src)
+          var triangleCount = 0
+          srcNeighbors.foreach { dst =>
+            val dstNeighbors = if (localNeighborTable.containsKey(dst)) localNeighborTable.get(dst)
+            else psNeighborsTable.get(dst)
+            val comFriends = ArrayUtils.intersectCount(dstNeighbors, srcNeighbors)
+            triangleCount += comFriends
+          }
+          triangleCount
         }
+      }
+
+      srcNodes.indices.flatMap { i =>
+        val src = srcNodes(i)
+        val srcNeighbors = localNeighborTable.get(src)
+        val triangleCount = triangleCounts(i)
         if (computeLCC) {
           val numCompleteEdges = if (srcNeighbors.length > 1) srcNeighbors.length * (srcNeighbors.length - 1) / 2 else 0
           val lcc = if (numCompleteEdges == 0) 0f else triangleCount.toFloat / 2 / numCompleteEdges
@@ -390,6 +403,41 @@ class NeighborTablePartition[@specialized(
       }
     }
   }
+
+  /**
+    * count the common neighbors of the edges of a batch, the neighbor tables in the batch are
+    * intersected locally, and the others are intersected on ps with the sorted neighbor tables
+    * stored there, so only the counts are pulled.
+    */
+  private def calTriangleOnPS(psModel: NeighborTableModel,
+                              srcNodes: Array[VertexId],
+                              localNeighborTable: Long2ObjectOpenHashMap[Array[VertexId]]): Array[Int] = {
+    val beforePullTs = System.currentTimeMillis()
+    val triangleCounts = new Array[Int](srcNodes.length)
+    val queries = new Array[Array[VertexId]](srcNodes.length)
+    val remoteNodes = new LongArrayList()
+    val remoteQueries = new IntArrayList()
+    srcNodes.indices.foreach { i =>
+      val srcNeighbors = localNeighborTable.get(srcNodes(i))
+      queries(i) = srcNeighbors
+      srcNeighbors.foreach { dst =>
+        if (localNeighborTable.containsKey(dst)) {
+          triangleCounts(i) += ArrayUtils.intersectCount(localNeighborTable.get(dst), srcNeighbors)
+        } else {
+          remoteNodes.add(dst)
+          remoteQueries.add(i)
+        }
+      }
+    }
+
+    val queryIndices = remoteQueries.toIntArray()
+    val psCounts = psModel.getCommonNeighborCounts(remoteNodes.toLongArray(), queryIndices, queries)
+    psCounts.indices.foreach { j => triangleCounts(queryIndices(j)) += psCounts(j) }
+
+    println(s"partition $partitionID: intersect ${psCounts.length} edges of ${srcNodes.length} nodes on ps, " +
+      s"cost ${System.currentTimeMillis() - beforePullTs} ms")
+    triangleCounts
+  }
 }
 
 object NeighborTablePartition {
@@ -0,0 +1,40 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.graph.utils.params
+
+import org.apache.spark.ml.param.{IntParam, Params}
+
+trait HasMaxOutstandingBatches extends Params {
+  /**
+    * Param for the max number of mini-batches whose push to PS is still in flight, 1 means the
+    * mini-batches are trained one by one synchronously. With more than 1, the embeddings of the
+    * next mini-batch are also pulled while the current one is trained.
+    *
+    * @group param
+    */
+  final val maxOutstandingBatches = new IntParam(this, "maxOutstandingBatches",
+    "maxOutstandingBatches")
+
+  /** @group getParam */
+  final def getMaxOutstandingBatches: Int = $(maxOutstandingBatches)
+
+  setDefault(maxOutstandingBatches, 1)
+
+  /** @group setParam */
+  final def setMaxOutstandingBatches(num: Int): this.type = set(maxOutstandingBatches, num)
+}
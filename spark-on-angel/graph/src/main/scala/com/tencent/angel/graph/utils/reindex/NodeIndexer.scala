@@ -2,7 +2,7 @@ package com.tencent.angel.graph.utils.reindex
 
 import com.tencent.angel.ml.core.utils.PSMatrixUtils
 import com.tencent.angel.ml.math2.VFactory
-import com.tencent.angel.ml.math2.vector.{IntIntVector, IntLongVector, LongIntVector}
+import com.tencent.angel.ml.math2.vector.{IntFloatVector, IntIntVector, IntLongVector, LongIntVector}
 import com.tencent.angel.ml.matrix.{MatrixContext, PartContext, RowType}
 import com.tencent.angel.psagent.PSAgentContext
 import com.tencent.angel.graph.utils.BatchIter
@@ -24,12 +24,18 @@ class NodeIndexer extends Serializable {
   private var int2long: PSVector = _
   private var numPSPartition: Int = -1
   private var numNodes: Int = -1
+  private var ranges: Array[(Int, Int)] = _
 
   def getNumOfNodes: Int = {
     assert(numNodes > 0, "number of nodes should greater than zero")
     numNodes
   }
 
+  /**
+    * Dense id ranges of each PS partition, [start, end), set by [[train]]
+    */
+  def getRanges: Array[(Int, Int)] = ranges
+
   def index(numPSPartition: Int, minId: Long, maxId: Long, nodes: RDD[Long], nodesNum: Int, batchSize: Int = 1000000): Unit = {
 
     this.numPSPartition = numPSPartition
@@ -71,6 +77,84 @@ class NodeIndexer extends Serializable {
   }
 
 
+  /**
+    * Assign dense ids [0, numNodes) to the distinct vertices of `nodes` in ascending order of the
+    * long ids. The dense id space is split into `numPSPartition` contiguous ranges and the
+    * long-to-int mapping is partitioned on the matching long ranges, so matrices created by
+    * [[createMatrix]] can keep per-vertex state in dense int-key rows.
+    *
+    * @param nodes          vertices, may contain duplicates
+    * @param numPSPartition number of PS partitions of the dense id space
+    * @param batchSize      number of mappings pushed to PS at once
+    */
+  def train(nodes: RDD[Long], numPSPartition: Int, batchSize: Int = 1000000): Unit = {
+    val distinctNodes = nodes.distinct()
+    distinctNodes.persist(StorageLevel.DISK_ONLY)
+    val count = distinctNodes.count()
+    assert(count > 0, "there is no vertex to reindex")
+    assert(count <= Int.MaxValue, s"nodesNum exceeds int range: $count, could not trans nodeId to int type.")
+    val minId = distinctNodes.min()
+    val maxId = distinctNodes.max() + 1
+    this.numNodes = count.toInt
+
+    val nodeIndex = distinctNodes.map((_, null)).sortByKey().keys.zipWithIndex()
+      .map { case (node, index) => (node, index.toInt) }
+    nodeIndex.persist(StorageLevel.DISK_ONLY)
+    distinctNodes.unpersist(false)
+
+    // split the dense id space into contiguous ranges of the same size
+    val numParts = math.max(1, math.min(numPSPartition, numNodes))
+    this.numPSPartition = numParts
+    val starts = Array.tabulate(numParts)(i => (i.toLong * numNodes / numParts).toInt)
+    this.ranges = starts.zip(starts.tail :+ numNodes)
+
+    // the long id at the head of each dense range bounds the long-to-int partitions
+    val startSet = starts.toSet
+    val bounds = nodeIndex.filter(f => startSet.contains(f._2)).collect().sortBy(_._2).map(_._1)
+    val longRanges = bounds.zip(bounds.tail :+ maxId)
+
+    val ctx = new MatrixContext(LONG2INT, 1, minId, maxId)
+    ctx.setRowType(RowType.T_INT_SPARSE_LONGKEY)
+    longRanges.zip(ranges).foreach { case ((start, end), (intStart, intEnd)) =>
+      ctx.addPart(new PartContext(0, 1, start, end, intEnd - intStart))
+    }
+    this.long2int = new PSVectorImpl(PSMatrixUtils.createPSMatrix(ctx),
+      0, maxId, RowType.T_INT_SPARSE_LONGKEY)
+
+    this.int2long = new PSVectorImpl(createMatrix(INT2LONG, 1, RowType.T_LONG_DENSE),
+      0, numNodes, RowType.T_LONG_DENSE)
+
+    nodeIndex.foreachPartition { iter =>
+      BatchIter(iter, batchSize).foreach { batch =>
+        val (keys, values) = batch.unzip
+        long2int.update(VFactory.sparseLongKeyIntVector(Long.MaxValue, keys, values))
+        int2long.update(VFactory.sparseLongVector(numNodes, values, keys))
+      }
+    }
+    nodeIndex.unpersist(false)
+  }
+
+  /**
+    * Create a matrix over the dense id space, partitioned on the ranges of [[train]].
+    *
+    * @return matrix id
+    */
+  def createMatrix(matrixName: String, numRows: Int, rowType: RowType): Int = {
+    assert(ranges != null, "the dense id ranges are set by train")
+    assert(rowType.isIntKey && rowType.isDense, s"dense vertex matrix needs a dense int key row type, but is $rowType")
+    val ctx = new MatrixContext(matrixName, numRows, getNumOfNodes)
+    ctx.setRowType(rowType)
+    ranges.foreach { case (start, end) =>
+      ctx.addPart(new PartContext(0, numRows, start, end, end - start))
+    }
+    PSMatrixUtils.createPSMatrix(ctx)
+  }
+
+  def destroyEncoder(): Unit = {
+    PSAgentContext.get().getMasterClient.releaseMatrix(LONG2INT)
+    long2int = null
+  }
+
   def encode[U: ClassTag](rdd: RDD[(Long, Long, U)], batchSize: Int): RDD[(Int, Int, U)] = {
     rdd.mapPartitions { case iter =>
       BatchIter(iter, batchSize).flatMap { batch =>
@@ -107,6 +191,20 @@ class NodeIndexer extends Serializable {
     }
   }
 
+  /**
+    * Read a dense float vertex vector range by range and output it with the original ids
+    */
+  def decodeFloat(ps: PSVector, batchSize: Int): RDD[(Long, Float)] = {
+    val sc = SparkContext.getOrCreate()
+    sc.parallelize(ranges, ranges.length).flatMap { case (start, end) =>
+      Iterator.range(start, end, batchSize).flatMap { from =>
+        val intKeys = Array.range(from, math.min(from + batchSize, end))
+        val values = ps.pull(intKeys.clone()).asInstanceOf[IntFloatVector].get(intKeys)
+        int2long.pull(intKeys.clone()).asInstanceOf[IntLongVector].get(intKeys).zip(values)
+      }
+    }
+  }
+
   def decodeInt2IntPSVector(ps: PSVector): RDD[(Long, Long)] = {
     val sc = SparkContext.getOrCreate()
     val master = PSAgentContext.get().getMasterClient
@@ -0,0 +1,73 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in 
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.graph.embedding.line
+
+import scala.util.Random
+
+import com.tencent.angel.conf.AngelConf
+import com.tencent.angel.graph.{PSFunSuite, SharedPSContext}
+import com.tencent.angel.ps.storage.matrix.PartitionSourceArray
+import com.tencent.angel.psagent.PSAgentContext
+import com.tencent.angel.spark.context.PSContext
+import org.apache.spark.rdd.RDD
+
+class LINEModelTest extends PSFunSuite with SharedPSContext {
+
+  conf.set(AngelConf.ANGEL_PS_PARTITION_SOURCE_CLASS, classOf[PartitionSourceArray].getName)
+
+  private val numNode = 200
+  private val numEpoch = 10
+  private val batchSize = 32
+
+  // Edges inside 4 communities of 50 nodes
+  private def edges(): RDD[(Int, Int)] = {
+    val rand = new Random(42)
+    val pairs = Array.fill(4000) {
+      val community = rand.nextInt(4) * 50
+      var (src, dst) = (community + rand.nextInt(50), community + rand.nextInt(50))
+      while (src == dst) dst = community + rand.nextInt(50)
+      (src, dst)
+    }
+    sc.parallelize(pairs, 2)
+  }
+
+  private def train(data: RDD[(Int, Int)], maxOutstandingBatches: Int): Array[Float] = {
+    val model = new LINEModel(null, 8, 2, 0.05f, 2, 1, batchSize, numEpoch, 2, "src", "dst",
+      false, false, "", Int.MaxValue, Int.MaxValue, false, "")
+      .setMaxOutstandingBatches(maxOutstandingBatches)
+    model.initPSModel(numNode - 1, numNode - 1, "")
+    try {
+      val batches = LINEModel.buildDataBatches(data, batchSize)
+      (1 to numEpoch).map(epoch => model.trainEpoch(epoch, batches.next())).toArray
+    } finally {
+      PSContext.instance().destroyMatrix(
+        PSAgentContext.get().getMatrixMetaManager.getMatrixId(LINEPSModel.embedding))
+    }
+  }
+
+  test("pipelined pushes train to a comparable loss") {
+    val data = edges().cache()
+    val syncLosses = train(data, 1)
+    val pipelinedLosses = train(data, 4)
+
+    assert(syncLosses.last < syncLosses.head)
+    assert(pipelinedLosses.last < pipelinedLosses.head)
+    assert(math.abs(pipelinedLosses.last - syncLosses.last) <= 0.1 * syncLosses.last,
+      s"sync loss ${syncLosses.mkString(",")}, pipelined loss ${pipelinedLosses.mkString(",")}")
+  }
+}
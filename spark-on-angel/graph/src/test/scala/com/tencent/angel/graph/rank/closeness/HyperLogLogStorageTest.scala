@@ -0,0 +1,173 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in 
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.rank.closeness
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, DataInputStream, DataOutputStream}
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus
+import com.tencent.angel.graph.PSFunSuite
+import com.tencent.angel.graph.psf.hyperanf.{HyperLogLogRegisters, HyperLogLogStorage}
+import io.netty.buffer.Unpooled
+
+import scala.util.Random
+
+class HyperLogLogStorageTest extends PSFunSuite {
+
+  private val seed = 12345L
+
+  private def counter(p: Int, values: Seq[Long]): (Array[Byte], HyperLogLogPlus) = {
+    val registers = new Array[Byte](HyperLogLogRegisters.numRegisters(p))
+    val hll = new HyperLogLogPlus(p, 0)
+    values.foreach { value =>
+      val hashed = HyperLogLogRegisters.jenkins(value, seed)
+      HyperLogLogRegisters.offerHashed(registers, 0, p, hashed)
+      hll.offerHashed(hashed)
+    }
+    (registers, hll)
+  }
+
+  test("registers are consistent with HyperLogLogPlus at sp = 0") {
+    for (p <- Seq(4, 10, 14)) {
+      val (small, smallHll) = counter(p, 0L until 50L)
+      // both use linear counting in the small range, so the estimates are equal only if the
+      // registers get the same buckets
+      assert(HyperLogLogRegisters.cardinality(small, 0, p) === smallHll.cardinality(), s"p = $p")
+
+      val n = 200000
+      val (large, largeHll) = counter(p, 0L until n.toLong)
+      val estimate = HyperLogLogRegisters.cardinality(large, 0, p)
+      val error = 4 * 1.04 / math.sqrt(HyperLogLogRegisters.numRegisters(p))
+      assert(math.abs(estimate - largeHll.cardinality()).toDouble / n < error, s"p = $p")
+      assert(math.abs(estimate - n).toDouble / n < error, s"p = $p")
+    }
+  }
+
+  test("union is the counter of the merged values") {
+    val p = 10
+    val m = HyperLogLogRegisters.numRegisters(p)
+    val (a, _) = counter(p, 0L until 3000L)
+    val (b, _) = counter(p, 2000L until 8000L)
+    val (merged, mergedHll) = counter(p, 0L until 8000L)
+
+    val dest = new Array[Byte](2 * m)
+    System.arraycopy(a, 0, dest, m, m)
+    HyperLogLogRegisters.union(dest, m, b, 0, m)
+    assert(dest.slice(m, 2 * m) === merged)
+    assert(dest.slice(0, m).forall(_ == 0))
+
+    val (_, aHll) = counter(p, 0L until 3000L)
+    val (_, bHll) = counter(p, 2000L until 8000L)
+    aHll.addAll(bHll)
+    assert(aHll.cardinality() === mergedHll.cardinality())
+  }
+
+  test("storage grows chunks and survives serialization") {
+    for (p <- Seq(4, 14)) {
+      val m = HyperLogLogRegisters.numRegisters(p)
+      val nodes = Array.tabulate(5000)(i => i * 7L + 1)
+      val storage = new HyperLogLogStorage()
+      storage.init()
+      storage.init(nodes, p, seed)
+      assert(storage.size() === nodes.length)
+      assert(storage.getP === p)
+
+      // every node receives the counters of its 3 successors
+      val rand = new Random(p)
+      val batch = nodes.indices.filter(_ => rand.nextBoolean()).map(nodes(_)).toArray
+      val registers = new Array[Byte](batch.length * m)
+      batch.zipWithIndex.foreach { case (node, i) =>
+        (1 to 3).foreach(d => HyperLogLogRegisters.offerHashed(registers, i * m, p,
+          HyperLogLogRegisters.jenkins(node + d, seed)))
+      }
+      storage.union(batch, registers, p, seed)
+      storage.updateCloseness(1)
+
+      val read = new Array[Byte](nodes.length * m)
+      val actives = storage.get(nodes, read)
+      val batchSet = batch.toSet
+      nodes.zipWithIndex.foreach { case (node, i) =>
+        assert(actives(i) === batchSet.contains(node))
+        val neighbors = if (batchSet.contains(node)) (1 to 3).map(node + _) else Nil
+        val (expected, _) = counter(p, node +: neighbors)
+        if (actives(i)) {
+          assert(read.slice(i * m, (i + 1) * m) === expected, s"node $node")
+        }
+        assert(storage.getCardinality(node) === HyperLogLogRegisters.cardinality(expected, 0, p))
+      }
+
+      val buf = Unpooled.buffer(storage.bufferLen())
+      storage.serialize(buf)
+      assert(buf.writerIndex() === storage.bufferLen())
+      val fromBuf = new HyperLogLogStorage()
+      fromBuf.deserialize(buf)
+
+      val bytes = new ByteArrayOutputStream()
+      storage.serialize(new DataOutputStream(bytes))
+      assert(bytes.size() === storage.dataLen())
+      val fromStream = new HyperLogLogStorage()
+      fromStream.deserialize(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray)))
+
+      for (copy <- Seq(fromBuf, fromStream)) {
+        assert(copy.getP === p)
+        assert(copy.getNodes === storage.getNodes)
+        assert(copy.maxCardinality() === storage.maxCardinality())
+        val copyRead = new Array[Byte](nodes.length * m)
+        assert(copy.get(nodes, copyRead) === actives)
+        assert(copyRead === read)
+        nodes.foreach { node =>
+          assert(copy.getCloseness(node) === storage.getCloseness(node))
+          assert(copy.getCardinality(node) === storage.getCardinality(node))
+        }
+      }
+    }
+  }
+
+  test("empty storage survives serialization") {
+    val storage = new HyperLogLogStorage()
+    storage.init()
+    assert(storage.getP === -1)
+
+    val buf = Unpooled.buffer(storage.bufferLen())
+    storage.serialize(buf)
+    assert(buf.writerIndex() === storage.bufferLen())
+    val fromBuf = new HyperLogLogStorage()
+    fromBuf.deserialize(buf)
+
+    val bytes = new ByteArrayOutputStream()
+    storage.serialize(new DataOutputStream(bytes))
+    assert(bytes.size() === storage.dataLen())
+    val fromStream = new HyperLogLogStorage()
+    fromStream.deserialize(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray)))
+
+    for (copy <- Seq(fromBuf, fromStream)) {
+      assert(copy.size() === 0)
+      assert(copy.getP === -1)
+      // the precision is still free to be set by the first added nodes
+      copy.init(Array(1L, 2L), 10, seed)
+      assert(copy.size() === 2)
+      assert(copy.getP === 10)
+    }
+  }
+
+  test("out of range precision") {
+    val storage = new HyperLogLogStorage()
+    storage.init()
+    intercept[IllegalArgumentException] {
+      storage.init(Array(1L), 30, seed)
+    }
+  }
+}
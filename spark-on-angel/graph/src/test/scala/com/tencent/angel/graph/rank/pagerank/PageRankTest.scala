@@ -0,0 +1,65 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in 
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.graph.rank.pagerank
+
+import scala.util.Random
+
+import com.tencent.angel.graph.rank.pagerank.edgecut.PageRank
+import com.tencent.angel.graph.{PSFunSuite, SharedPSContext}
+import com.tencent.angel.psagent.PSAgentContext
+import com.tencent.angel.spark.context.PSContext
+import org.apache.spark.sql.DataFrame
+
+class PageRankTest extends PSFunSuite with SharedPSContext {
+
+  // sparse long ids, so that the remapped path really changes the id space
+  private def edges(): DataFrame = {
+    val rand = new Random(7)
+    val pairs = (0 until 400).map { _ =>
+      (rand.nextInt(60) * 1000L + 7, rand.nextInt(60) * 1000L + 7)
+    }.filter(f => f._1 != f._2).distinct
+    spark.createDataFrame(pairs).toDF("src", "dst")
+  }
+
+  private def run(data: DataFrame, remapping: Boolean): Map[Long, Float] = {
+    val pageRank = new PageRank()
+      .setPartitionNum(2)
+      .setPSPartitionNum(2)
+      .setBatchSize(16)
+      .setStorageLevel("MEMORY_ONLY")
+      .setTol(0.0001f)
+      .setRemapping(remapping)
+    try {
+      pageRank.transform(data).collect().map(row => (row.getLong(0), row.getFloat(1))).toMap
+    } finally {
+      PSContext.instance().destroyMatrix(
+        PSAgentContext.get().getMatrixMetaManager.getMatrixId("pagerank"))
+    }
+  }
+
+  test("remapped pagerank matches the long id path") {
+    val data = edges().cache()
+    val sparse = run(data, remapping = false)
+    val dense = run(data, remapping = true)
+
+    assert(dense.keySet === sparse.keySet)
+    sparse.foreach { case (node, rank) =>
+      assert(math.abs(dense(node) - rank) <= 1e-3 * math.max(1.0f, rank), s"node $node")
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in 
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.tencent.angel.graph.statistics
+
+import com.tencent.angel.PartitionKey
+import com.tencent.angel.graph.psf.triangle.PartGetCommonNeighborCountParam
+import com.tencent.angel.graph.statistics.commonfriends.{CommonFriendsOperator, CommonFriendsPSModel}
+import com.tencent.angel.graph.{PSFunSuite, SharedPSContext}
+import com.tencent.angel.utils.ArrayUtils
+import io.netty.buffer.Unpooled
+
+class CommonNeighborCountTest extends PSFunSuite with SharedPSContext {
+
+  // node 5 has no neighbor table
+  private val neighbors: Map[Long, Array[Long]] = Map(
+    0L -> Array(3L, 1L, 2L, 4L),
+    1L -> Array(0L, 2L, 3L),
+    2L -> Array(1L, 0L),
+    3L -> Array(0L, 1L),
+    4L -> Array(0L))
+
+  private var psModel: CommonFriendsPSModel = _
+
+  override def beforeAll(): Unit = {
+    super.beforeAll()
+    psModel = CommonFriendsPSModel(6, 2, 10, 2)
+    psModel.initLongNeighborTable(sc.parallelize(neighbors.toSeq, 2))
+  }
+
+  private def expected(src: Long, dst: Long): Int =
+    ArrayUtils.intersectCount(
+      neighbors.get(src).map(_.sorted).orNull, neighbors.get(dst).map(_.sorted).orNull)
+
+  test("null query is serialized as an empty array") {
+    val param = new PartGetCommonNeighborCountParam(0, new PartitionKey(0, 0, 0, 0, 1, 0, 6), Array(1L, 2L), Array(0, 1),
+      Array(null, Array(1L, 2L)), 0, 2)
+    val buf = Unpooled.buffer(param.bufferLen())
+    param.serialize(buf)
+    assert(buf.writerIndex() === param.bufferLen())
+
+    val copy = new PartGetCommonNeighborCountParam()
+    copy.deserialize(buf)
+    assert(copy.getNodeIds === Array(1L, 2L))
+    assert(copy.getQueries()(copy.getQueryIndices()(0)).isEmpty)
+    assert(copy.getQueries()(copy.getQueryIndices()(1)) === Array(1L, 2L))
+  }
+
+  test("common neighbor counts on ps") {
+    val queries = Array(Array(0L, 1L), Array.empty[Long], null)
+    val nodeIds = Array(3L, 2L, 0L, 5L, 1L)
+    val queryIndices = Array(0, 0, 1, 0, 2)
+    val counts = psModel.getCommonNeighborCounts(nodeIds, queryIndices, queries)
+    nodeIds.indices.foreach { i =>
+      val query = queries(queryIndices(i))
+      val stored = neighbors.get(nodeIds(i)).map(_.sorted).orNull
+      assert(counts(i) === ArrayUtils.intersectCount(stored, query), s"node ${nodeIds(i)}")
+    }
+  }
+
+  test("edge partition with sources without neighbor table") {
+    val edges = Seq((0L, 1L), (5L, 0L), (1L, 2L), (5L, 3L), (2L, 3L), (4L, 5L))
+    val fromPS = CommonFriendsOperator.runEdgePartition(edges.iterator, 0, psModel,
+      serverIntersect = true).map(r => ((r.getLong(0), r.getLong(1)), r.getInt(2))).toMap
+    val pulled = CommonFriendsOperator.runEdgePartition(edges.iterator, 0, psModel)
+      .map(r => ((r.getLong(0), r.getLong(1)), r.getInt(2))).toMap
+    assert(fromPS.size === edges.length)
+    edges.foreach { case (src, dst) =>
+      assert(fromPS((src, dst)) === expected(src, dst), s"edge ($src, $dst)")
+      assert(fromPS((src, dst)) === pulled((src, dst)), s"edge ($src, $dst)")
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.ps.PSContext;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Server-side handles of the fused FTRL pull and push. {@link FTRLPull} keeps the indices of a
+ * batch by a handle on each partition, and the following {@link FTRLPush} only sends the deltas
+ * and the handle, so the indices are sent over the wire only once per batch. A pushed handle is
+ * kept until it expires, so a replayed push of the same request is ignored.
+ */
+public class FTRLHandles {
+
+  /**
+   * Handles that are not pushed in this time are dropped, e.g. the batch failed on the executor
+   */
+  public static final String EXPIRE_MS = "angel.ps.ftrl.handle.expire.ms";
+  public static final long DEFAULT_EXPIRE_MS = 10 * 60 * 1000L;
+
+  private static final String STATE_NAME = FTRLHandles.class.getName();
+
+  private static final int CLEAN_INTERVAL = 1024;
+
+  private static final long[] PUSHED = new long[0];
+
+  private final long expireMs;
+
+  private final ConcurrentHashMap<HandleKey, HandleValue> handles = new ConcurrentHashMap<>();
+
+  private final AtomicInteger putCounter = new AtomicInteger(0);
+
+  FTRLHandles(long expireMs) {
+    this.expireMs = expireMs;
+  }
+
+  /**
+   * Get the handles of a PS
+   *
+   * @param psContext PS context
+   * @return the handles
+   */
+  public static FTRLHandles get(final PSContext psContext) {
+    return psContext.getPSFState(STATE_NAME, new Function<String, FTRLHandles>() {
+      @Override
+      public FTRLHandles apply(String name) {
+        Configuration conf = psContext.getConf();
+        return new FTRLHandles(conf == null ? DEFAULT_EXPIRE_MS
+            : conf.getLong(EXPIRE_MS, DEFAULT_EXPIRE_MS));
+      }
+    });
+  }
+
+  /**
+   * Keep the sorted indices of a partition for the handle, a replayed pull does not change a
+   * handle that exists already
+   *
+   * @param matrixId matrix id
+   * @param partId partition id
+   * @param handle handle of the batch
+   * @param keys indices of the batch in the partition
+   */
+  public void put(int matrixId, int partId, long handle, long[] keys) {
+    handles.putIfAbsent(new HandleKey(matrixId, partId, handle),
+        new HandleValue(keys, System.currentTimeMillis()));
+    if (putCounter.incrementAndGet() % CLEAN_INTERVAL == 0) {
+      cleanExpired();
+    }
+  }
+
+  /**
+   * Take the indices of the handle for the push, the handle is marked as pushed
+   *
+   * @param matrixId matrix id
+   * @param partId partition id
+   * @param handle handle of the batch
+   * @return the indices, an empty array if the handle is pushed already, null if the handle does
+   * not exist or is expired
+   */
+  public long[] take(int matrixId, int partId, long handle) {
+    HandleKey key = new HandleKey(matrixId, partId, handle);
+    HandleValue value = handles.get(key);
+    if (value == null) {
+      return null;
+    }
+
+    if (value.keys != PUSHED && handles
+        .replace(key, value, new HandleValue(PUSHED, System.currentTimeMillis()))) {
+      return value.keys;
+    }
+    return PUSHED;
+  }
+
+  /**
+   * Get the number of kept handles, include the pushed ones
+   *
+   * @return the number of kept handles
+   */
+  public int size() {
+    return handles.size();
+  }
+
+  private void cleanExpired() {
+    long expireTs = System.currentTimeMillis() - expireMs;
+    Iterator<Map.Entry<HandleKey, HandleValue>> iter = handles.entrySet().iterator();
+    while (iter.hasNext()) {
+      if (iter.next().getValue().ts < expireTs) {
+        iter.remove();
+      }
+    }
+  }
+
+  private static final class HandleKey {
+
+    private final int matrixId;
+    private final int partId;
+    private final long handle;
+
+    HandleKey(int matrixId, int partId, long handle) {
+      this.matrixId = matrixId;
+      this.partId = partId;
+      this.handle = handle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof HandleKey)) {
+        return false;
+      }
+      HandleKey other = (HandleKey) o;
+      return matrixId == other.matrixId && partId == other.partId && handle == other.handle;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = matrixId;
+      result = 31 * result + partId;
+      result = 31 * result + (int) (handle ^ (handle >>> 32));
+      return result;
+    }
+  }
+
+  private static final class HandleValue {
+
+    private final long[] keys;
+    private final long ts;
+
+    HandleValue(long[] keys, long ts) {
+      this.keys = keys;
+      this.ts = ts;
+    }
+  }
+}
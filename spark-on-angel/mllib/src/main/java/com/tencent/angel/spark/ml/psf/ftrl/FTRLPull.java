@@ -0,0 +1,141 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.math2.VFactory;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.get.base.GetFunc;
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import com.tencent.angel.ps.storage.vector.ServerLongFloatRow;
+import com.tencent.angel.psagent.PSAgentContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fused FTRL pull, it sends the batch indices once and returns the weights computed from z and n
+ * on PS together with n. The indices are kept on PS by a handle, so the following
+ * {@link FTRLPush} only sends the deltas of z and n.
+ */
+public class FTRLPull extends GetFunc {
+
+  public FTRLPull(int matrixId, long[] keys, int offset, double alpha, double beta,
+      double lambda1, double lambda2, double initStdev) {
+    super(new FTRLPullParam(matrixId, keys, offset, alpha, beta, lambda1, lambda2, initStdev));
+  }
+
+  public FTRLPull() {
+    super(null);
+  }
+
+  @Override
+  public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    FTRLPullPartParam param = (FTRLPullPartParam) partParam;
+    PartitionKey partKey = param.getPartKey();
+    long[] keys = param.getKeys();
+    int offset = param.getOffset();
+
+    float[][] weights = new float[offset][keys.length];
+    float[][] ns = new float[offset][keys.length];
+    for (int slot = 0; slot < offset; slot++) {
+      ServerLongFloatRow zRow = (ServerLongFloatRow) psContext.getMatrixStorageManager()
+          .getRow(partKey, slot);
+      ServerLongFloatRow nRow = (ServerLongFloatRow) psContext.getMatrixStorageManager()
+          .getRow(partKey, offset + slot);
+      zRow.startRead();
+      nRow.startRead();
+      try {
+        for (int i = 0; i < keys.length; i++) {
+          float z = zRow.get(keys[i]);
+          float n = nRow.get(keys[i]);
+          weights[slot][i] = weight(z, n, param.getAlpha(), param.getBeta(), param.getLambda1(),
+              param.getLambda2(), param.getInitStdev());
+          ns[slot][i] = n;
+        }
+      } finally {
+        nRow.endRead();
+        zRow.endRead();
+      }
+    }
+
+    FTRLHandles.get(psContext).put(param.getMatrixId(), partKey.getPartitionId(), param.getHandle(), keys);
+    return new FTRLPullPartResult(partKey.getStartCol(), weights, ns);
+  }
+
+  /**
+   * FTRL-proximal weight, the same as {@link com.tencent.angel.ml.math2.ufuncs.expression.FTRLThresholdInit}
+   */
+  static float weight(float z, float n, double alpha, double beta, double lambda1,
+      double lambda2, double initStdev) {
+    if (n == 0.0f && initStdev > 0) {
+      return (float) (ThreadLocalRandom.current().nextGaussian() * initStdev);
+    }
+
+    if (Math.abs(z) > lambda1) {
+      return (float) (-1.0 / (lambda2 + (beta + Math.sqrt(n)) / alpha) * (z
+          - Math.signum(z) * lambda1));
+    } else {
+      return 0.0f;
+    }
+  }
+
+  @Override
+  public GetResult merge(List<PartitionGetResult> partResults) {
+    FTRLPullParam param = (FTRLPullParam) getParam();
+    long[] keys = param.getKeys();
+    int offset = param.getOffset();
+
+    List<FTRLPullPartResult> results = new ArrayList<>(partResults.size());
+    for (PartitionGetResult result : partResults) {
+      results.add((FTRLPullPartResult) result);
+    }
+    results.sort(new Comparator<FTRLPullPartResult>() {
+      @Override
+      public int compare(FTRLPullPartResult o1, FTRLPullPartResult o2) {
+        return Long.compare(o1.getStartCol(), o2.getStartCol());
+      }
+    });
+
+    // The partition results are in the order of the sorted keys
+    float[][] weights = new float[offset][keys.length];
+    float[][] ns = new float[offset][keys.length];
+    int start = 0;
+    for (FTRLPullPartResult result : results) {
+      int len = result.getWeights()[0].length;
+      for (int slot = 0; slot < offset; slot++) {
+        System.arraycopy(result.getWeights()[slot], 0, weights[slot], start, len);
+        System.arraycopy(result.getNs()[slot], 0, ns[slot], start, len);
+      }
+      start += len;
+    }
+
+    long dim = PSAgentContext.get().getMatrixMetaManager().getMatrixMeta(param.getMatrixId())
+        .getColNum();
+    Vector[] weightVectors = new Vector[offset];
+    Vector[] nVectors = new Vector[offset];
+    for (int slot = 0; slot < offset; slot++) {
+      weightVectors[slot] = VFactory.sparseLongKeyFloatVector(dim, keys.clone(), weights[slot]);
+      nVectors[slot] = VFactory.sparseLongKeyFloatVector(dim, keys.clone(), ns[slot]);
+    }
+    return new FTRLPullResult(param, weightVectors, nVectors);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.matrix.psf.get.base.GetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.psagent.PSAgentContext;
+import com.tencent.angel.psagent.matrix.oplog.cache.RowUpdateSplitUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class FTRLPullParam extends GetParam {
+
+  private final long handle;
+  private final long[] keys;
+  private final int offset;
+  private final double alpha;
+  private final double beta;
+  private final double lambda1;
+  private final double lambda2;
+  private final double initStdev;
+
+  /**
+   * Create the pull param of a batch
+   *
+   * @param matrixId matrix id
+   * @param keys distinct indices of the batch, it is sorted in place
+   * @param offset number of weight slots, the z, n and w rows of slot i are i, offset + i and 2 *
+   * offset + i
+   * @param alpha FTRL alpha
+   * @param beta FTRL beta
+   * @param lambda1 FTRL lambda1
+   * @param lambda2 FTRL lambda2
+   * @param initStdev standard deviation of the random weights of the new indices, 0 means zero
+   */
+  public FTRLPullParam(int matrixId, long[] keys, int offset, double alpha, double beta,
+      double lambda1, double lambda2, double initStdev) {
+    super(matrixId);
+    this.handle = UUID.randomUUID().getMostSignificantBits();
+    this.keys = keys;
+    this.offset = offset;
+    this.alpha = alpha;
+    this.beta = beta;
+    this.lambda1 = lambda1;
+    this.lambda2 = lambda2;
+    this.initStdev = initStdev;
+  }
+
+  @Override
+  public List<PartitionGetParam> split() {
+    Arrays.sort(keys);
+    List<PartitionGetParam> params = new ArrayList<>();
+    List<PartitionKey> parts = PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId);
+
+    if (!RowUpdateSplitUtils.isInRange(keys, parts)) {
+      throw new AngelException(
+          "index is not in range [" + parts.get(0).getStartCol() + ", " + parts
+              .get(parts.size() - 1).getEndCol());
+    }
+
+    int keyIndex = 0;
+    int partIndex = 0;
+    while (keyIndex < keys.length && partIndex < parts.size()) {
+      int length = 0;
+      long endOffset = parts.get(partIndex).getEndCol();
+      while (keyIndex < keys.length && keys[keyIndex] < endOffset) {
+        keyIndex++;
+        length++;
+      }
+
+      if (length > 0) {
+        params.add(new FTRLPullPartParam(matrixId, parts.get(partIndex), handle, keys,
+            keyIndex - length, keyIndex, offset, alpha, beta, lambda1, lambda2, initStdev));
+      }
+      partIndex++;
+    }
+    return params;
+  }
+
+  public long getHandle() {
+    return handle;
+  }
+
+  public long[] getKeys() {
+    return keys;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public double getAlpha() {
+    return alpha;
+  }
+
+  public double getBeta() {
+    return beta;
+  }
+
+  public double getLambda1() {
+    return lambda1;
+  }
+
+  public double getLambda2() {
+    return lambda2;
+  }
+}
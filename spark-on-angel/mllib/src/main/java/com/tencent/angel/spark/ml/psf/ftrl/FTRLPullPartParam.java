@@ -0,0 +1,150 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import io.netty.buffer.ByteBuf;
+
+public class FTRLPullPartParam extends PartitionGetParam {
+
+  private long handle;
+  private long[] keys;
+  private int startIndex;
+  private int endIndex;
+  private int offset;
+  private double alpha;
+  private double beta;
+  private double lambda1;
+  private double lambda2;
+  private double initStdev;
+
+  public FTRLPullPartParam(int matrixId, PartitionKey partKey, long handle, long[] keys,
+      int startIndex, int endIndex, int offset, double alpha, double beta, double lambda1,
+      double lambda2, double initStdev) {
+    super(matrixId, partKey);
+    this.handle = handle;
+    this.keys = keys;
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+    this.offset = offset;
+    this.alpha = alpha;
+    this.beta = beta;
+    this.lambda1 = lambda1;
+    this.lambda2 = lambda2;
+    this.initStdev = initStdev;
+  }
+
+  public FTRLPullPartParam() {
+    this(-1, null, 0, null, -1, -1, 0, 0, 0, 0, 0, 0);
+  }
+
+  public long getHandle() {
+    return handle;
+  }
+
+  public long[] getKeys() {
+    return keys;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public double getAlpha() {
+    return alpha;
+  }
+
+  public double getBeta() {
+    return beta;
+  }
+
+  public double getLambda1() {
+    return lambda1;
+  }
+
+  public double getLambda2() {
+    return lambda2;
+  }
+
+  public double getInitStdev() {
+    return initStdev;
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    buf.writeLong(handle);
+    buf.writeInt(offset);
+    buf.writeDouble(alpha);
+    buf.writeDouble(beta);
+    buf.writeDouble(lambda1);
+    buf.writeDouble(lambda2);
+    buf.writeDouble(initStdev);
+    buf.writeInt(endIndex - startIndex);
+    long start = partKey.getStartCol();
+    if (isIntRange()) {
+      buf.writeByte(0); // int range
+      for (int i = startIndex; i < endIndex; i++) {
+        buf.writeInt((int) (keys[i] - start));
+      }
+    } else {
+      buf.writeByte(1); // long range
+      for (int i = startIndex; i < endIndex; i++) {
+        buf.writeLong(keys[i] - start);
+      }
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    handle = buf.readLong();
+    offset = buf.readInt();
+    alpha = buf.readDouble();
+    beta = buf.readDouble();
+    lambda1 = buf.readDouble();
+    lambda2 = buf.readDouble();
+    initStdev = buf.readDouble();
+    int len = buf.readInt();
+    long start = partKey.getStartCol();
+    keys = new long[len];
+    if (buf.readByte() == 0) {
+      for (int i = 0; i < len; i++) {
+        keys[i] = buf.readInt() + start;
+      }
+    } else {
+      for (int i = 0; i < len; i++) {
+        keys[i] = buf.readLong() + start;
+      }
+    }
+    startIndex = 0;
+    endIndex = len;
+  }
+
+  @Override
+  public int bufferLen() {
+    int len = super.bufferLen() + 8 + 4 + 8 * 5 + 4 + 1;
+    len += (endIndex - startIndex) * (isIntRange() ? 4 : 8);
+    return len;
+  }
+
+  private boolean isIntRange() {
+    return partKey.getEndCol() - partKey.getStartCol() < Integer.MAX_VALUE;
+  }
+}
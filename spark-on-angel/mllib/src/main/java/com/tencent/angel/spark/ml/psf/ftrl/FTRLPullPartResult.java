@@ -0,0 +1,90 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Weights and n of the batch indices in a partition, in the order of the sorted indices
+ */
+public class FTRLPullPartResult extends PartitionGetResult {
+
+  private long startCol;
+  private float[][] weights;
+  private float[][] ns;
+
+  public FTRLPullPartResult(long startCol, float[][] weights, float[][] ns) {
+    this.startCol = startCol;
+    this.weights = weights;
+    this.ns = ns;
+  }
+
+  public FTRLPullPartResult() {
+    this(0, null, null);
+  }
+
+  public long getStartCol() {
+    return startCol;
+  }
+
+  public float[][] getWeights() {
+    return weights;
+  }
+
+  public float[][] getNs() {
+    return ns;
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    buf.writeLong(startCol);
+    buf.writeInt(weights.length);
+    buf.writeInt(weights.length > 0 ? weights[0].length : 0);
+    for (int i = 0; i < weights.length; i++) {
+      for (int j = 0; j < weights[i].length; j++) {
+        buf.writeFloat(weights[i][j]);
+        buf.writeFloat(ns[i][j]);
+      }
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    startCol = buf.readLong();
+    int slotNum = buf.readInt();
+    int len = buf.readInt();
+    weights = new float[slotNum][len];
+    ns = new float[slotNum][len];
+    for (int i = 0; i < slotNum; i++) {
+      for (int j = 0; j < len; j++) {
+        weights[i][j] = buf.readFloat();
+        ns[i][j] = buf.readFloat();
+      }
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    int len = 8 + 4 + 4;
+    if (weights.length > 0) {
+      len += weights.length * weights[0].length * 8;
+    }
+    return len;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+
+/**
+ * Weights and n of a batch, the handle of it is used by {@link FTRLPush} to push the deltas
+ */
+public class FTRLPullResult extends GetResult {
+
+  private final FTRLPullParam param;
+  private final Vector[] weights;
+  private final Vector[] ns;
+
+  public FTRLPullResult(FTRLPullParam param, Vector[] weights, Vector[] ns) {
+    this.param = param;
+    this.weights = weights;
+    this.ns = ns;
+  }
+
+  public FTRLPullParam getParam() {
+    return param;
+  }
+
+  /**
+   * Get the weights of all slots
+   *
+   * @return weights, the weight of slot i is weights[i]
+   */
+  public Vector[] getWeights() {
+    return weights;
+  }
+
+  /**
+   * Get the n of all slots
+   *
+   * @return n, the n of slot i is ns[i]
+   */
+  public Vector[] getNs() {
+    return ns;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateFunc;
+import com.tencent.angel.ps.storage.vector.ServerLongFloatRow;
+import com.tencent.angel.ps.storage.vector.policy.ElementPolicy;
+
+/**
+ * Fused FTRL push, it applies the deltas of z and n of the batch pulled by {@link FTRLPull} and
+ * updates the weights on PS in the same pass. Only the handle and the deltas are sent.
+ */
+public class FTRLPush extends UpdateFunc {
+
+  public FTRLPush(FTRLPullResult pullResult, Vector[] deltaZ, Vector[] deltaN) {
+    super(new FTRLPushParam(pullResult.getParam(), deltaZ, deltaN));
+  }
+
+  public FTRLPush() {
+    super(null);
+  }
+
+  @Override
+  public void partitionUpdate(PartitionUpdateParam partParam) {
+    FTRLPushPartParam param = (FTRLPushPartParam) partParam;
+    PartitionKey partKey = param.getPartKey();
+    long[] keys = FTRLHandles.get(psContext)
+        .take(param.getMatrixId(), partKey.getPartitionId(), param.getHandle());
+    if (keys == null) {
+      throw new AngelException("FTRL handle " + param.getHandle() + " of partition " + partKey
+          + " does not exist, it may be expired");
+    }
+    if (keys.length == 0) {
+      // The push of the handle is applied already, this is a replay
+      return;
+    }
+
+    int offset = param.getOffset();
+    float[][] deltaZ = param.getDeltaZ();
+    float[][] deltaN = param.getDeltaN();
+    if (offset > 0 && deltaZ[0].length != keys.length) {
+      throw new AngelException("FTRL push size " + deltaZ[0].length
+          + " does not match the pull size " + keys.length);
+    }
+
+    // The same as the unfused increment, an index is admitted once for all the rows of the
+    // partition and the admitted indices are updated in z, n and w together
+    ElementPolicy.Admission admission = null;
+    for (int slot = 0; slot < offset; slot++) {
+      ServerLongFloatRow zRow = (ServerLongFloatRow) psContext.getMatrixStorageManager()
+          .getRow(partKey, slot);
+      ServerLongFloatRow nRow = (ServerLongFloatRow) psContext.getMatrixStorageManager()
+          .getRow(partKey, offset + slot);
+      ServerLongFloatRow wRow = (ServerLongFloatRow) psContext.getMatrixStorageManager()
+          .getRow(partKey, 2 * offset + slot);
+      if (admission == null && zRow.getElementPolicy() != null) {
+        admission = zRow.getElementPolicy().newAdmission();
+      }
+
+      zRow.startWrite();
+      nRow.startWrite();
+      wRow.startWrite();
+      try {
+        for (int i = 0; i < keys.length; i++) {
+          if (admission != null && !admission.admit(keys[i], zRow.exist(keys[i]))) {
+            continue;
+          }
+
+          float z = zRow.get(keys[i]) + deltaZ[slot][i];
+          float n = nRow.get(keys[i]) + deltaN[slot][i];
+          zRow.set(keys[i], z);
+          nRow.set(keys[i], n);
+
+          float w = FTRLPull.weight(z, n, param.getAlpha(), param.getBeta(), param.getLambda1(),
+              param.getLambda2(), 0.0);
+          if (w != 0.0f || wRow.exist(keys[i])) {
+            wRow.set(keys[i], w);
+          }
+        }
+      } finally {
+        wRow.endWrite();
+        nRow.endWrite();
+        zRow.endWrite();
+      }
+    }
+  }
+}
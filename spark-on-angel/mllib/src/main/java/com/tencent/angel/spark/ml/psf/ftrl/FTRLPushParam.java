@@ -0,0 +1,66 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateParam;
+import com.tencent.angel.psagent.PSAgentContext;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FTRLPushParam extends UpdateParam {
+
+  private final FTRLPullParam pullParam;
+  private final Vector[] deltaZ;
+  private final Vector[] deltaN;
+
+  public FTRLPushParam(FTRLPullParam pullParam, Vector[] deltaZ, Vector[] deltaN) {
+    super(pullParam.getMatrixId());
+    this.pullParam = pullParam;
+    this.deltaZ = deltaZ;
+    this.deltaN = deltaN;
+  }
+
+  @Override
+  public List<PartitionUpdateParam> split() {
+    // The keys are sorted by the pull, split them the same way as it
+    long[] keys = pullParam.getKeys();
+    List<PartitionUpdateParam> params = new ArrayList<>();
+    List<PartitionKey> parts = PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId);
+
+    int keyIndex = 0;
+    int partIndex = 0;
+    while (keyIndex < keys.length && partIndex < parts.size()) {
+      int length = 0;
+      long endOffset = parts.get(partIndex).getEndCol();
+      while (keyIndex < keys.length && keys[keyIndex] < endOffset) {
+        keyIndex++;
+        length++;
+      }
+
+      if (length > 0) {
+        params.add(new FTRLPushPartParam(matrixId, parts.get(partIndex), pullParam, deltaZ,
+            deltaN, keyIndex - length, keyIndex));
+      }
+      partIndex++;
+    }
+    return params;
+  }
+}
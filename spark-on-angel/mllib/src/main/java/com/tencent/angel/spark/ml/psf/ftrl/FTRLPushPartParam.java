@@ -0,0 +1,160 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.ftrl;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ml.math2.vector.LongDoubleVector;
+import com.tencent.angel.ml.math2.vector.LongFloatVector;
+import com.tencent.angel.ml.math2.vector.Vector;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Deltas of z and n of a partition, they are in the order of the indices kept by the handle, so
+ * the indices are not sent again
+ */
+public class FTRLPushPartParam extends PartitionUpdateParam {
+
+  private FTRLPullParam pullParam;
+  private Vector[] deltaZ;
+  private Vector[] deltaN;
+  private int startIndex;
+  private int endIndex;
+
+  private long handle;
+  private int offset;
+  private double alpha;
+  private double beta;
+  private double lambda1;
+  private double lambda2;
+  private float[][] zs;
+  private float[][] ns;
+
+  public FTRLPushPartParam(int matrixId, PartitionKey partKey, FTRLPullParam pullParam,
+      Vector[] deltaZ, Vector[] deltaN, int startIndex, int endIndex) {
+    super(matrixId, partKey);
+    this.pullParam = pullParam;
+    this.deltaZ = deltaZ;
+    this.deltaN = deltaN;
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+  }
+
+  public FTRLPushPartParam() {
+    this(0, null, null, null, null, 0, 0);
+  }
+
+  public long getHandle() {
+    return handle;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public double getAlpha() {
+    return alpha;
+  }
+
+  public double getBeta() {
+    return beta;
+  }
+
+  public double getLambda1() {
+    return lambda1;
+  }
+
+  public double getLambda2() {
+    return lambda2;
+  }
+
+  /**
+   * Get the deltas of z
+   *
+   * @return deltas, the delta of the i-th index of slot s is zs[s][i]
+   */
+  public float[][] getDeltaZ() {
+    return zs;
+  }
+
+  /**
+   * Get the deltas of n
+   *
+   * @return deltas, the delta of the i-th index of slot s is ns[s][i]
+   */
+  public float[][] getDeltaN() {
+    return ns;
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    long[] keys = pullParam.getKeys();
+    buf.writeLong(pullParam.getHandle());
+    buf.writeInt(pullParam.getOffset());
+    buf.writeDouble(pullParam.getAlpha());
+    buf.writeDouble(pullParam.getBeta());
+    buf.writeDouble(pullParam.getLambda1());
+    buf.writeDouble(pullParam.getLambda2());
+    buf.writeInt(endIndex - startIndex);
+    for (int slot = 0; slot < pullParam.getOffset(); slot++) {
+      for (int i = startIndex; i < endIndex; i++) {
+        buf.writeFloat(get(deltaZ[slot], keys[i]));
+        buf.writeFloat(get(deltaN[slot], keys[i]));
+      }
+    }
+  }
+
+  private static float get(Vector vector, long key) {
+    if (vector instanceof LongFloatVector) {
+      return ((LongFloatVector) vector).get(key);
+    } else if (vector instanceof LongDoubleVector) {
+      return (float) ((LongDoubleVector) vector).get(key);
+    } else {
+      throw new AngelException(
+          "FTRL push only supports long key float/double vectors, but is " + vector.getClass());
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    handle = buf.readLong();
+    offset = buf.readInt();
+    alpha = buf.readDouble();
+    beta = buf.readDouble();
+    lambda1 = buf.readDouble();
+    lambda2 = buf.readDouble();
+    int len = buf.readInt();
+    zs = new float[offset][len];
+    ns = new float[offset][len];
+    for (int slot = 0; slot < offset; slot++) {
+      for (int i = 0; i < len; i++) {
+        zs[slot][i] = buf.readFloat();
+        ns[slot][i] = buf.readFloat();
+      }
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    return super.bufferLen() + 8 + 4 + 8 * 4 + 4
+        + pullParam.getOffset() * (endIndex - startIndex) * 8;
+  }
+}
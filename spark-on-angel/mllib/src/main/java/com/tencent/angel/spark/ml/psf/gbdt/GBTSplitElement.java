@@ -0,0 +1,153 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.gbdt;
+
+import com.tencent.angel.exception.AngelException;
+import com.tencent.angel.ps.storage.vector.element.IElement;
+import com.tencent.angel.spark.ml.tree.gbdt.tree.GBTSplit;
+import io.netty.buffer.ByteBuf;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Best split of a tree node stored on PS, with the worker that owns the split feature and the
+ * feature index in that worker. The split is stored as its java serialized bytes.
+ */
+public class GBTSplitElement implements IElement {
+
+  private int treeId;
+  private int ownerId;
+  private int fidInWorker;
+  private GBTSplit split;
+  private byte[] bytes;
+
+  public GBTSplitElement(int treeId, int ownerId, int fidInWorker, GBTSplit split) {
+    this.treeId = treeId;
+    this.ownerId = ownerId;
+    this.fidInWorker = fidInWorker;
+    this.split = split;
+  }
+
+  public GBTSplitElement() {
+    this(-1, -1, -1, null);
+  }
+
+  public int getTreeId() {
+    return treeId;
+  }
+
+  public int getOwnerId() {
+    return ownerId;
+  }
+
+  public int getFidInWorker() {
+    return fidInWorker;
+  }
+
+  public GBTSplit getSplit() {
+    return split;
+  }
+
+  private byte[] getBytes() {
+    if (bytes == null) {
+      try {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(split);
+        oos.close();
+        bytes = bos.toByteArray();
+      } catch (IOException e) {
+        throw new AngelException("serialize split failed ", e);
+      }
+    }
+    return bytes;
+  }
+
+  private void setBytes(byte[] bytes) {
+    this.bytes = bytes;
+    try {
+      ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+      split = (GBTSplit) ois.readObject();
+      ois.close();
+    } catch (IOException | ClassNotFoundException e) {
+      throw new AngelException("deserialize split failed ", e);
+    }
+  }
+
+  @Override
+  public void serialize(ByteBuf output) {
+    byte[] data = getBytes();
+    output.writeInt(treeId);
+    output.writeInt(ownerId);
+    output.writeInt(fidInWorker);
+    output.writeInt(data.length);
+    output.writeBytes(data);
+  }
+
+  @Override
+  public void deserialize(ByteBuf input) {
+    treeId = input.readInt();
+    ownerId = input.readInt();
+    fidInWorker = input.readInt();
+    byte[] data = new byte[input.readInt()];
+    input.readBytes(data);
+    setBytes(data);
+  }
+
+  @Override
+  public int bufferLen() {
+    return 16 + getBytes().length;
+  }
+
+  @Override
+  public void serialize(DataOutputStream output) throws IOException {
+    byte[] data = getBytes();
+    output.writeInt(treeId);
+    output.writeInt(ownerId);
+    output.writeInt(fidInWorker);
+    output.writeInt(data.length);
+    output.write(data);
+  }
+
+  @Override
+  public void deserialize(DataInputStream input) throws IOException {
+    treeId = input.readInt();
+    ownerId = input.readInt();
+    fidInWorker = input.readInt();
+    byte[] data = new byte[input.readInt()];
+    input.readFully(data);
+    setBytes(data);
+  }
+
+  @Override
+  public int dataLen() {
+    return bufferLen();
+  }
+
+  @Override
+  public GBTSplitElement deepClone() {
+    GBTSplitElement clone = new GBTSplitElement(treeId, ownerId, fidInWorker, null);
+    clone.setBytes(getBytes());
+    return clone;
+  }
+}
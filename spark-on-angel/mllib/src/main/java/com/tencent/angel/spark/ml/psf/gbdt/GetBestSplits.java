@@ -0,0 +1,89 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.gbdt;
+
+import com.tencent.angel.ml.matrix.psf.get.base.GetFunc;
+import com.tencent.angel.ml.matrix.psf.get.base.GetResult;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetResult;
+import com.tencent.angel.ps.storage.vector.ServerIntAnyRow;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Get the best splits of the nodes over all workers, the nodes that have no split of the tree
+ * are not in the result
+ */
+public class GetBestSplits extends GetFunc {
+
+  public GetBestSplits(GetBestSplitsParam param) {
+    super(param);
+  }
+
+  public GetBestSplits(int matrixId, int treeId, int[] nids) {
+    this(new GetBestSplitsParam(matrixId, treeId, nids));
+  }
+
+  public GetBestSplits() {
+    super(null);
+  }
+
+  @Override
+  public PartitionGetResult partitionGet(PartitionGetParam partParam) {
+    GetBestSplitsPartParam param = (GetBestSplitsPartParam) partParam;
+    ServerIntAnyRow row = (ServerIntAnyRow) psContext.getMatrixStorageManager()
+        .getRow(param.getPartKey(), 0);
+    int[] nids = param.getNids();
+    List<Integer> resultNids = new ArrayList<>();
+    List<GBTSplitElement> splits = new ArrayList<>();
+    row.startRead();
+    try {
+      for (int nid : nids) {
+        GBTSplitElement split = (GBTSplitElement) row.get(nid);
+        if (split != null && split.getTreeId() == param.getTreeId()) {
+          resultNids.add(nid);
+          splits.add(split);
+        }
+      }
+    } finally {
+      row.endRead();
+    }
+
+    int[] resultNidArray = new int[resultNids.size()];
+    for (int i = 0; i < resultNidArray.length; i++) {
+      resultNidArray[i] = resultNids.get(i);
+    }
+    return new GetBestSplitsPartResult(resultNidArray,
+        splits.toArray(new GBTSplitElement[splits.size()]));
+  }
+
+  @Override
+  public GetResult merge(List<PartitionGetResult> partResults) {
+    Int2ObjectOpenHashMap<GBTSplitElement> splits = new Int2ObjectOpenHashMap<>();
+    for (PartitionGetResult partResult : partResults) {
+      GetBestSplitsPartResult result = (GetBestSplitsPartResult) partResult;
+      int[] nids = result.getNids();
+      GBTSplitElement[] partSplits = result.getSplits();
+      for (int i = 0; i < nids.length; i++) {
+        splits.put(nids[i], partSplits[i]);
+      }
+    }
+    return new GetBestSplitsResult(splits);
+  }
+}
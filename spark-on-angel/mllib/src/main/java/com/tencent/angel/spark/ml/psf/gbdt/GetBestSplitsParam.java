@@ -0,0 +1,59 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.gbdt;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.get.base.GetParam;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import com.tencent.angel.psagent.PSAgentContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class GetBestSplitsParam extends GetParam {
+
+  private final int treeId;
+  private final int[] nids;
+
+  public GetBestSplitsParam(int matrixId, int treeId, int[] nids) {
+    super(matrixId);
+    this.treeId = treeId;
+    this.nids = nids;
+  }
+
+  @Override
+  public List<PartitionGetParam> split() {
+    int[] sorted = nids.clone();
+    Arrays.sort(sorted);
+
+    List<PartitionGetParam> params = new ArrayList<>();
+    List<PartitionKey> parts = PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId);
+    int index = 0;
+    for (PartitionKey part : parts) {
+      int start = index;
+      while (index < sorted.length && sorted[index] < part.getEndCol()) {
+        index++;
+      }
+      if (index > start) {
+        params.add(new GetBestSplitsPartParam(matrixId, part, treeId,
+            Arrays.copyOfRange(sorted, start, index)));
+      }
+    }
+    return params;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.gbdt;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.get.base.PartitionGetParam;
+import io.netty.buffer.ByteBuf;
+
+public class GetBestSplitsPartParam extends PartitionGetParam {
+
+  private int treeId;
+  private int[] nids;
+
+  public GetBestSplitsPartParam(int matrixId, PartitionKey partKey, int treeId, int[] nids) {
+    super(matrixId, partKey);
+    this.treeId = treeId;
+    this.nids = nids;
+  }
+
+  public GetBestSplitsPartParam() {
+    this(0, null, -1, null);
+  }
+
+  public int getTreeId() {
+    return treeId;
+  }
+
+  public int[] getNids() {
+    return nids;
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    buf.writeInt(treeId);
+    buf.writeInt(nids.length);
+    for (int nid : nids) {
+      buf.writeInt(nid);
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    treeId = buf.readInt();
+    nids = new int[buf.readInt()];
+    for (int i = 0; i < nids.length; i++) {
+      nids[i] = buf.readInt();
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    return super.bufferLen() + 8 + 4 * nids.length;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.gbdt;
+
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateFunc;
+import com.tencent.angel.ps.storage.vector.ServerIntAnyRow;
+
+/**
+ * Push the local best splits of a worker, the PS keeps the best split of every node over all
+ * workers. The splits of the former trees are replaced directly, so the matrix does not need to
+ * be reset between trees.
+ */
+public class UpdateBestSplits extends UpdateFunc {
+
+  public UpdateBestSplits(UpdateBestSplitsParam param) {
+    super(param);
+  }
+
+  public UpdateBestSplits(int matrixId, int[] nids, GBTSplitElement[] splits) {
+    this(new UpdateBestSplitsParam(matrixId, nids, splits));
+  }
+
+  public UpdateBestSplits() {
+    super(null);
+  }
+
+  @Override
+  public void partitionUpdate(PartitionUpdateParam partParam) {
+    UpdateBestSplitsPartParam param = (UpdateBestSplitsPartParam) partParam;
+    ServerIntAnyRow row = (ServerIntAnyRow) psContext.getMatrixStorageManager()
+        .getRow(param.getPartKey(), 0);
+    int[] nids = param.getNids();
+    GBTSplitElement[] splits = param.getSplits();
+    row.startWrite();
+    try {
+      for (int i = 0; i < nids.length; i++) {
+        GBTSplitElement best = (GBTSplitElement) row.get(nids[i]);
+        if (best == null || best.getTreeId() < splits[i].getTreeId()
+            || best.getSplit().needReplace(splits[i].getSplit())) {
+          row.set(nids[i], splits[i]);
+        }
+      }
+    } finally {
+      row.endWrite();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.gbdt;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import com.tencent.angel.ml.matrix.psf.update.base.UpdateParam;
+import com.tencent.angel.psagent.PSAgentContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class UpdateBestSplitsParam extends UpdateParam {
+
+  private final int[] nids;
+  private final GBTSplitElement[] splits;
+
+  public UpdateBestSplitsParam(int matrixId, int[] nids, GBTSplitElement[] splits) {
+    super(matrixId);
+    this.nids = nids;
+    this.splits = splits;
+  }
+
+  @Override
+  public List<PartitionUpdateParam> split() {
+    // Sort the nodes with their splits
+    long[] sorted = new long[nids.length];
+    for (int i = 0; i < nids.length; i++) {
+      sorted[i] = ((long) nids[i] << 32) | i;
+    }
+    Arrays.sort(sorted);
+
+    List<PartitionUpdateParam> params = new ArrayList<>();
+    List<PartitionKey> parts = PSAgentContext.get().getMatrixMetaManager().getPartitions(matrixId);
+    int index = 0;
+    for (PartitionKey part : parts) {
+      int start = index;
+      while (index < sorted.length && (sorted[index] >> 32) < part.getEndCol()) {
+        index++;
+      }
+      if (index > start) {
+        int[] partNids = new int[index - start];
+        GBTSplitElement[] partSplits = new GBTSplitElement[index - start];
+        for (int i = start; i < index; i++) {
+          partNids[i - start] = (int) (sorted[i] >> 32);
+          partSplits[i - start] = splits[(int) sorted[i]];
+        }
+        params.add(new UpdateBestSplitsPartParam(matrixId, part, partNids, partSplits));
+      }
+    }
+    return params;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.psf.gbdt;
+
+import com.tencent.angel.PartitionKey;
+import com.tencent.angel.ml.matrix.psf.update.base.PartitionUpdateParam;
+import io.netty.buffer.ByteBuf;
+
+public class UpdateBestSplitsPartParam extends PartitionUpdateParam {
+
+  private int[] nids;
+  private GBTSplitElement[] splits;
+
+  public UpdateBestSplitsPartParam(int matrixId, PartitionKey partKey, int[] nids,
+      GBTSplitElement[] splits) {
+    super(matrixId, partKey);
+    this.nids = nids;
+    this.splits = splits;
+  }
+
+  public UpdateBestSplitsPartParam() {
+    this(0, null, null, null);
+  }
+
+  public int[] getNids() {
+    return nids;
+  }
+
+  public GBTSplitElement[] getSplits() {
+    return splits;
+  }
+
+  @Override
+  public void serialize(ByteBuf buf) {
+    super.serialize(buf);
+    buf.writeInt(nids.length);
+    for (int i = 0; i < nids.length; i++) {
+      buf.writeInt(nids[i]);
+      splits[i].serialize(buf);
+    }
+  }
+
+  @Override
+  public void deserialize(ByteBuf buf) {
+    super.deserialize(buf);
+    int size = buf.readInt();
+    nids = new int[size];
+    splits = new GBTSplitElement[size];
+    for (int i = 0; i < size; i++) {
+      nids[i] = buf.readInt();
+      splits[i] = new GBTSplitElement();
+      splits[i].deserialize(buf);
+    }
+  }
+
+  @Override
+  public int bufferLen() {
+    int len = super.bufferLen() + 4;
+    for (int i = 0; i < nids.length; i++) {
+      len += 4 + splits[i].bufferLen();
+    }
+    return len;
+  }
+}
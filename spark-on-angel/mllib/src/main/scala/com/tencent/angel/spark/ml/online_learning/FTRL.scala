@@ -29,7 +29,7 @@ import com.tencent.angel.model.output.format.{ColIdValueTextRowFormat, RowIdColI
 import com.tencent.angel.model.{MatrixLoadContext, MatrixSaveContext, ModelLoadContext, ModelSaveContext}
 import com.tencent.angel.ps.storage.partitioner.{ColumnRangePartitioner, Partitioner}
 import com.tencent.angel.spark.context.AngelPSContext
-import com.tencent.angel.spark.ml.psf.ftrl.ComputeW
+import com.tencent.angel.spark.ml.psf.ftrl.{ComputeW, FTRLPull, FTRLPullResult, FTRLPush}
 import com.tencent.angel.spark.ml.util.AutoPartitioner
 import com.tencent.angel.spark.models.impl.{PSMatrixImpl, PSVectorImpl}
 import com.tencent.angel.spark.models.{PSMatrix, PSVector}
@@ -45,6 +45,7 @@ class FTRL() extends Serializable {
   var name = "weights"
   var possionRate: Float = 1.0f
   var matrix: PSMatrix = _
+  var fused: Boolean = false
 
   def this(lambda1: Double, lambda2: Double, alpha: Double, beta: Double) {
     this()
@@ -168,6 +169,14 @@ class FTRL() extends Serializable {
   def setPossionRate(possionRate: Float): Unit =
     this.possionRate = possionRate
 
+  /**
+    * Use the fused pull and push, see [[FTRLPull]]. The batch indices are sent to PS only once,
+    * and z/n/w are updated on PS in the same pass. Only long key float rows support it, other
+    * row types keep the plain pull and push.
+    */
+  def setFused(fused: Boolean): Unit =
+    this.fused = fused
+
 
   /**
     * Optimize a batch of data with FTRL optimizer
@@ -188,6 +197,9 @@ class FTRL() extends Serializable {
         }
     }.distinct
 
+    if (fused && matrix.rowType.isLongKey && matrix.rowType.isFloat)
+      return optimizeFused(batch, indices)
+
     start = System.currentTimeMillis()
 
     // Fetch the dimensions of n/z
@@ -215,6 +227,62 @@ class FTRL() extends Serializable {
     deltaZ.clear()
     deltaN.clear()
 
+    val lossSum = accumulate(batch, weight, localN, deltaZ, deltaN)
+    end = System.currentTimeMillis()
+    val optimTime = end - start
+
+    // push delta z/n
+    start = System.currentTimeMillis()
+    matrix.increment(Array(0, 1), Array(deltaZ, deltaN))
+    end = System.currentTimeMillis()
+    val pushTime = end - start
+
+    println(s"${lossSum / batch.size} " +
+      s"pullTime=$pullTime " +
+      s"optimTime=$optimTime " +
+      s"pushTime=$pushTime")
+    lossSum
+  }
+
+  /**
+    * Optimize a batch with the fused pull and push
+    *
+    * @param batch   , data batch
+    * @param indices , distinct feature indices of the batch
+    * @return summation of loss for this batch
+    */
+  private def optimizeFused(batch: Array[LabeledData], indices: Array[Long]): Double = {
+    var start = System.currentTimeMillis()
+    val result = matrix.psfGet(new FTRLPull(matrix.id, indices, 1, alpha, beta, lambda1, lambda2, 0.0))
+      .asInstanceOf[FTRLPullResult]
+    val (weight, localN) = (result.getWeights()(0), result.getNs()(0))
+    val pullTime = System.currentTimeMillis() - start
+
+    start = System.currentTimeMillis()
+    val deltaZ = localN.emptyLike()
+    val deltaN = localN.emptyLike()
+    val lossSum = accumulate(batch, weight, localN, deltaZ, deltaN)
+    val optimTime = System.currentTimeMillis() - start
+
+    // push delta z/n by the handle of the pull, the weights are updated on PS
+    start = System.currentTimeMillis()
+    matrix.psfUpdate(new FTRLPush(result, Array(deltaZ), Array(deltaN))).get()
+    val pushTime = System.currentTimeMillis() - start
+
+    println(s"${lossSum / batch.size} " +
+      s"pullTime=$pullTime " +
+      s"optimTime=$optimTime " +
+      s"pushTime=$pushTime")
+    lossSum
+  }
+
+  /**
+    * Accumulate delta z/n of a batch
+    *
+    * @return summation of loss for this batch
+    */
+  private def accumulate(batch: Array[LabeledData], weight: Vector, localN: Vector,
+                         deltaZ: Vector, deltaN: Vector): Double = {
     val iter = batch.iterator
     var lossSum = 0.0
 
@@ -238,19 +306,6 @@ class FTRL() extends Serializable {
       val loss = if (label > 0) log1pExp(margin) else log1pExp(margin) - margin
       lossSum += loss
     }
-    end = System.currentTimeMillis()
-    val optimTime = end - start
-
-    // push delta z/n
-    start = System.currentTimeMillis()
-    matrix.increment(Array(0, 1), Array(deltaZ, deltaN))
-    end = System.currentTimeMillis()
-    val pushTime = end - start
-
-    println(s"${lossSum / batch.size} " +
-      s"pullTime=$pullTime " +
-      s"optimTime=$optimTime " +
-      s"pushTime=$pushTime")
     lossSum
   }
 
@@ -26,7 +26,7 @@ import com.tencent.angel.model.output.format.RowIdColIdValueTextRowFormat
 import com.tencent.angel.model.{MatrixLoadContext, MatrixSaveContext, ModelLoadContext, ModelSaveContext}
 import com.tencent.angel.ps.storage.partitioner.{ColumnRangePartitioner, Partitioner}
 import com.tencent.angel.spark.context.AngelPSContext
-import com.tencent.angel.spark.ml.psf.ftrl.ComputeW
+import com.tencent.angel.spark.ml.psf.ftrl.{ComputeW, FTRLPull, FTRLPullResult, FTRLPush}
 import com.tencent.angel.spark.models.PSMatrix
 import com.tencent.angel.spark.models.impl.PSMatrixImpl
 
@@ -41,6 +41,7 @@ class FtrlFM() extends Serializable {
   var first: PSMatrix = _
   var second: PSMatrix = _
   var factor: Int = 0
+  var fused: Boolean = false
 
   def this(lambda1: Double, lambda2: Double, alpha: Double, beta: Double) {
     this()
@@ -50,6 +51,12 @@ class FtrlFM() extends Serializable {
     this.beta = beta
   }
 
+  /**
+    * Use the fused pull and push, see [[FTRLPull]]. Only long key float rows support it.
+    */
+  def setFused(fused: Boolean): Unit =
+    this.fused = fused
+
   def init(dim: Long, factor: Int): Unit = {
     init(dim, RowType.T_FLOAT_SPARSE_LONGKEY, factor)
   }
@@ -136,6 +143,9 @@ class FtrlFM() extends Serializable {
         }
     }.distinct
 
+    if (fused && first.rowType.isLongKey && first.rowType.isFloat)
+      return optimizeFused(index, batch, indices)
+
     // fetch first
     val firsts = first.pull(Array(0, 1), indices)
     val (localZ, localN) = (firsts(0), firsts(1))
@@ -146,18 +156,75 @@ class FtrlFM() extends Serializable {
     val localV = (0 until factor).map(idx => Ufuncs.ftrlthresholdinit(seconds(idx), seconds(idx + factor),
       alpha, beta, lambda1, lambda2, 0.0, 0.01)).toArray
 
-    val localV2 = localV.map(v0 => v0.mul(v0))
-
     end = System.currentTimeMillis()
     val pullTime = end - start
 
-
     val deltaZ = localZ.emptyLike()
     val deltaN = localN.emptyLike()
 
     val deltaV = seconds.map(f => f.emptyLike())
 
     start = System.currentTimeMillis()
+    val lossSum = accumulate(batch, localW, localN, localV,
+      seconds.slice(factor, factor * 2), deltaZ, deltaN,
+      deltaV.slice(0, factor), deltaV.slice(factor, factor * 2))
+    end = System.currentTimeMillis()
+    val optimTime = end - start
+
+    start = System.currentTimeMillis()
+    first.increment(Array(0, 1), Array(deltaZ, deltaN))
+    second.increment((0 until factor * 2).toArray, deltaV)
+    val pushTime = System.currentTimeMillis() - start
+
+    println(s"batchId=$index loss=${lossSum / batch.size} pullTime=$pullTime optimTime=$optimTime pushTime=$pushTime")
+    lossSum
+  }
+
+  /**
+    * Optimize a batch with the fused pull and push, the factors of the new indices are
+    * initialized on PS
+    */
+  private def optimizeFused(index: Int, batch: Array[LabeledData], indices: Array[Long]): Double = {
+    var start = System.currentTimeMillis()
+    val firstResult = first.psfGet(new FTRLPull(first.id, indices, 1,
+      alpha, beta, lambda1, lambda2, 0.0)).asInstanceOf[FTRLPullResult]
+    val (localW, localN) = (firstResult.getWeights()(0), firstResult.getNs()(0))
+
+    val secondResult = second.psfGet(new FTRLPull(second.id, indices, factor,
+      alpha, beta, lambda1, lambda2, 0.01)).asInstanceOf[FTRLPullResult]
+    val (localV, localVN) = (secondResult.getWeights, secondResult.getNs)
+    val pullTime = System.currentTimeMillis() - start
+
+    val deltaZ = localN.emptyLike()
+    val deltaN = localN.emptyLike()
+    val deltaVZ = localVN.map(f => f.emptyLike())
+    val deltaVN = localVN.map(f => f.emptyLike())
+
+    start = System.currentTimeMillis()
+    val lossSum = accumulate(batch, localW, localN, localV, localVN,
+      deltaZ, deltaN, deltaVZ, deltaVN)
+    val optimTime = System.currentTimeMillis() - start
+
+    start = System.currentTimeMillis()
+    val futures = Array(first.asyncPsfUpdate(new FTRLPush(firstResult, Array(deltaZ), Array(deltaN))),
+      second.asyncPsfUpdate(new FTRLPush(secondResult, deltaVZ, deltaVN)))
+    futures.foreach(_.get())
+    val pushTime = System.currentTimeMillis() - start
+
+    println(s"batchId=$index loss=${lossSum / batch.size} pullTime=$pullTime optimTime=$optimTime pushTime=$pushTime")
+    lossSum
+  }
+
+  /**
+    * Accumulate the deltas of z/n of the first and second order weights of a batch
+    *
+    * @return summation of loss for this batch
+    */
+  private def accumulate(batch: Array[LabeledData], localW: Vector, localN: Vector,
+                         localV: Array[Vector], localVN: Array[Vector],
+                         deltaZ: Vector, deltaN: Vector,
+                         deltaVZ: Array[Vector], deltaVN: Array[Vector]): Double = {
+    val localV2 = localV.map(v0 => v0.mul(v0))
 
     val iter = batch.iterator
     var lossSum = 0.0
@@ -168,21 +235,11 @@ class FtrlFM() extends Serializable {
 
       delta(gradW, localN, localW, deltaZ, deltaN)
       (0 until factor).foreach { idx =>
-        delta(gradV(idx), seconds(idx + factor), localV(idx),
-          deltaV(idx), deltaV(idx + factor))
+        delta(gradV(idx), localVN(idx), localV(idx), deltaVZ(idx), deltaVN(idx))
       }
 
       lossSum += loss
     }
-    end = System.currentTimeMillis()
-    val optimTime = end - start
-
-    start = System.currentTimeMillis()
-    first.increment(Array(0, 1), Array(deltaZ, deltaN))
-    second.increment((0 until factor * 2).toArray, deltaV)
-    val pushTime = System.currentTimeMillis() - start
-
-    println(s"batchId=$index loss=${lossSum / batch.size} pullTime=$pullTime optimTime=$optimTime pushTime=$pushTime")
     lossSum
   }
 
@@ -0,0 +1,246 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml.tree.gbdt.predictor;
+
+import com.tencent.angel.spark.ml.tree.basic.TNode;
+import com.tencent.angel.spark.ml.tree.gbdt.tree.GBTNode;
+import com.tencent.angel.spark.ml.tree.gbdt.tree.GBTTree;
+import com.tencent.angel.spark.ml.tree.param.GBDTParam;
+import com.tencent.angel.spark.ml.tree.split.SplitEntry;
+import com.tencent.angel.spark.ml.tree.split.SplitPoint;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.spark.ml.linalg.DenseVector;
+import org.apache.spark.ml.linalg.SparseVector;
+import org.apache.spark.ml.linalg.Vector;
+
+/**
+ * A GBDT forest compiled into flat arrays. The nodes of all trees are stored in struct-of-arrays
+ * form: split feature, split value, child indices and leaf values, so a prediction walks primitive
+ * arrays instead of the node objects. {@link #predictRaw(Vector[])} evaluates a block of instances
+ * tree by tree, the arrays of a tree stay in cache while all instances of the block go through it.
+ * The predictions are the same as walking the {@link GBTTree}s.
+ */
+public class FlatForest implements Serializable {
+
+  private final int numTree;
+
+  /**
+   * Root node index of each tree
+   */
+  private final int[] roots;
+
+  /**
+   * Output index of each tree, -1 means the leaves of the tree contain the values of all outputs
+   */
+  private final int[] treeOutputs;
+
+  /**
+   * Split feature of each node, -1 for the leaves
+   */
+  private final int[] fids;
+
+  /**
+   * Split value of the split point nodes
+   */
+  private final float[] fvalues;
+
+  private final int[] lefts;
+  private final int[] rights;
+
+  /**
+   * Split entry of the split set nodes, null for the other nodes
+   */
+  private final SplitEntry[] splitSets;
+
+  /**
+   * Leaf values, the values of node i are in [i * valueDim, (i + 1) * valueDim)
+   */
+  private final float[] leafValues;
+  private final int valueDim;
+
+  /**
+   * Prediction dimension
+   */
+  private final int outputDim;
+
+  private FlatForest(int numTree, int[] roots, int[] treeOutputs, int[] fids, float[] fvalues,
+      int[] lefts, int[] rights, SplitEntry[] splitSets, float[] leafValues, int valueDim,
+      int outputDim) {
+    this.numTree = numTree;
+    this.roots = roots;
+    this.treeOutputs = treeOutputs;
+    this.fids = fids;
+    this.fvalues = fvalues;
+    this.lefts = lefts;
+    this.rights = rights;
+    this.splitSets = splitSets;
+    this.leafValues = leafValues;
+    this.valueDim = valueDim;
+    this.outputDim = outputDim;
+  }
+
+  /**
+   * Compile a forest
+   *
+   * @param forest trees
+   * @return compiled forest
+   */
+  public static FlatForest compile(List<GBTTree> forest) {
+    GBDTParam param = forest.get(0).getParam();
+    int numClass = param.numClass;
+    boolean singleOutput = param.isRegression() || numClass == 2;
+    int outputDim = numClass == 2 ? 1 : numClass;
+    int valueDim = singleOutput || param.isMultiClassMultiTree() ? 1 : numClass;
+
+    int numTree = forest.size();
+    int[] roots = new int[numTree];
+    int[] treeOutputs = new int[numTree];
+    List<GBTNode> nodes = new ArrayList<>();
+    List<Integer> lefts = new ArrayList<>();
+    List<Integer> rights = new ArrayList<>();
+    for (int t = 0; t < numTree; t++) {
+      roots[t] = nodes.size();
+      treeOutputs[t] = singleOutput ? 0 : (param.isMultiClassMultiTree() ? t % numClass : -1);
+
+      // Lay out the nodes of a tree in breadth-first order
+      nodes.add(forest.get(t).getRoot());
+      for (int i = roots[t]; i < nodes.size(); i++) {
+        GBTNode node = nodes.get(i);
+        if (node.isLeaf()) {
+          lefts.add(-1);
+          rights.add(-1);
+        } else {
+          lefts.add(nodes.size());
+          nodes.add((GBTNode) node.getLeftChild());
+          rights.add(nodes.size());
+          nodes.add((GBTNode) node.getRightChild());
+        }
+      }
+    }
+
+    int nodeNum = nodes.size();
+    int[] fidArray = new int[nodeNum];
+    float[] fvalueArray = new float[nodeNum];
+    int[] leftArray = new int[nodeNum];
+    int[] rightArray = new int[nodeNum];
+    SplitEntry[] splitSets = new SplitEntry[nodeNum];
+    float[] leafValues = new float[nodeNum * valueDim];
+    for (int i = 0; i < nodeNum; i++) {
+      TNode node = nodes.get(i);
+      leftArray[i] = lefts.get(i);
+      rightArray[i] = rights.get(i);
+      if (node.isLeaf()) {
+        fidArray[i] = -1;
+        if (valueDim == 1) {
+          leafValues[i] = ((GBTNode) node).getWeight() * param.learningRate;
+        } else {
+          System.arraycopy(((GBTNode) node).getWeights(), 0, leafValues, i * valueDim, valueDim);
+        }
+      } else {
+        SplitEntry splitEntry = node.getSplitEntry();
+        fidArray[i] = splitEntry.getFid();
+        if (splitEntry instanceof SplitPoint) {
+          fvalueArray[i] = ((SplitPoint) splitEntry).getFvalue();
+        } else {
+          splitSets[i] = splitEntry;
+        }
+      }
+    }
+
+    return new FlatForest(numTree, roots, treeOutputs, fidArray, fvalueArray, leftArray,
+        rightArray, splitSets, leafValues, valueDim, outputDim);
+  }
+
+  public int getOutputDim() {
+    return outputDim;
+  }
+
+  /**
+   * Predict an instance
+   *
+   * @param x instance
+   * @return raw predictions
+   */
+  public float[] predictRaw(Vector x) {
+    return predictRaw(new Vector[] {x})[0];
+  }
+
+  /**
+   * Predict a block of instances, the instances are evaluated tree by tree
+   *
+   * @param xs instances
+   * @return raw predictions of the instances
+   */
+  public float[][] predictRaw(Vector[] xs) {
+    int num = xs.length;
+    float[][] preds = new float[num][outputDim];
+    // Get the arrays of the instances once, not in every node
+    double[][] values = new double[num][];
+    int[][] indices = new int[num][];
+    for (int i = 0; i < num; i++) {
+      if (xs[i] instanceof SparseVector) {
+        indices[i] = ((SparseVector) xs[i]).indices();
+        values[i] = ((SparseVector) xs[i]).values();
+      } else if (xs[i] instanceof DenseVector) {
+        values[i] = ((DenseVector) xs[i]).values();
+      } else {
+        values[i] = xs[i].toArray();
+      }
+    }
+
+    for (int t = 0; t < numTree; t++) {
+      int root = roots[t];
+      int output = treeOutputs[t];
+      for (int i = 0; i < num; i++) {
+        int nid = root;
+        int fid;
+        while ((fid = fids[nid]) >= 0) {
+          int flow;
+          if (splitSets[nid] == null) {
+            flow = get(indices[i], values[i], fid) < fvalues[nid] ? 0 : 1;
+          } else {
+            flow = splitSets[nid].flowTo(xs[i]);
+          }
+          nid = flow == 0 ? lefts[nid] : rights[nid];
+        }
+
+        if (output >= 0) {
+          preds[i][output] += leafValues[nid];
+        } else {
+          float[] pred = preds[i];
+          int start = nid * valueDim;
+          for (int k = 0; k < valueDim; k++) {
+            pred[k] += leafValues[start + k];
+          }
+        }
+      }
+    }
+    return preds;
+  }
+
+  private static double get(int[] indices, double[] values, int fid) {
+    if (indices == null) {
+      return values[fid];
+    }
+    int index = Arrays.binarySearch(indices, fid);
+    return index >= 0 ? values[index] : 0.0;
+  }
+}
@@ -21,17 +21,31 @@ package com.tencent.angel.spark.ml.tree.gbdt.predictor
 import com.tencent.angel.conf.AngelConf
 import com.tencent.angel.spark.ml.core.ArgsUtil
 import com.tencent.angel.spark.ml.tree.data.Instance
-import com.tencent.angel.spark.ml.tree.gbdt.tree.{GBTNode, GBTTree}
+import com.tencent.angel.spark.ml.tree.gbdt.tree.GBTTree
 import com.tencent.angel.spark.ml.tree.util.DataLoader
 import org.apache.hadoop.fs.Path
 import org.apache.spark.ml.linalg.{Vector, Vectors}
 import org.apache.spark.rdd.RDD
 import org.apache.spark.{SparkConf, SparkContext}
 
+import scala.collection.JavaConverters._
+
 class GBDTPredictor extends Serializable {
 
   var forest: Seq[GBTTree] = _
 
+  // Forest compiled into flat arrays, it is compiled again if the forest is changed
+  @transient private var flatForest: FlatForest = _
+  @transient private var flatForestSource: Seq[GBTTree] = _
+
+  def getFlatForest: FlatForest = {
+    if (flatForest == null || (flatForestSource ne forest)) {
+      flatForest = FlatForest.compile(forest.asJava)
+      flatForestSource = forest
+    }
+    flatForest
+  }
+
   def loadModel(sc: SparkContext, modelPath: String): Unit = {
     forest = sc.objectFile[Seq[GBTTree]](modelPath + "/model").collect().head
     println(s"Reading model from $modelPath")
@@ -39,10 +53,14 @@ class GBDTPredictor extends Serializable {
 
   def predict(predictor: GBDTPredictor, instances: RDD[Instance]): RDD[(Long, Int, Array[Float])] = {
     val bcPredictor = instances.sparkContext.broadcast(predictor)
-    instances.map { instance =>
-      val predProbs = bcPredictor.value.predictRaw(instance.feature)
-      val predClass = bcPredictor.value.probToClass(predProbs)
-      (instance.label.toLong, predClass, predProbs)
+    instances.mapPartitions { iter =>
+      val predictor = bcPredictor.value
+      iter.grouped(GBDTPredictor.BLOCK_SIZE).flatMap { block =>
+        val preds = predictor.predictRaw(block.map(_.feature).toArray)
+        block.zip(preds).map { case (instance, predProbs) =>
+          (instance.label.toLong, predictor.probToClass(predProbs), predProbs)
+        }
+      }
     }
   }
 
@@ -78,29 +96,18 @@ class GBDTPredictor extends Serializable {
   def predictRaw(vec: Vector): Array[Float] = {
     val param = forest.head.getParam
     require(param.numFeature == vec.size, s"feature dimension should be ${param.numFeature}")
-    val preds = Array.ofDim[Float](if (param.numClass == 2) 1 else param.numClass)
-    forest.zipWithIndex.foreach { case (tree: GBTTree, index: Int) =>
-      var node = tree.getRoot
-      while (!node.isLeaf) {
-        if (node.getSplitEntry.flowTo(vec) == 0)
-          node = node.getLeftChild.asInstanceOf[GBTNode]
-        else
-          node = node.getRightChild.asInstanceOf[GBTNode]
-      }
-      if (param.isRegression || param.numClass == 2) {
-        preds(0) += node.getWeight * param.learningRate
-      } else {
-        if (param.isMultiClassMultiTree) {
-          val curClass = index % param.numClass
-          preds(curClass) += node.getWeight * param.learningRate
-        } else {
-          val weights = node.getWeights
-          for (k <- 0 until param.numClass)
-            preds(k) += weights(k)
-        }
-      }
+    getFlatForest.predictRaw(vec)
+  }
+
+  /**
+    * Predict a block of instances, the block is evaluated tree by tree
+    */
+  def predictRaw(vecs: Array[Vector]): Array[Array[Float]] = {
+    val param = forest.head.getParam
+    vecs.foreach { vec =>
+      require(param.numFeature == vec.size, s"feature dimension should be ${param.numFeature}")
     }
-    preds
+    getFlatForest.predictRaw(vecs)
   }
 
   def probToClass(preds: Array[Float]): Int = {
@@ -150,9 +157,15 @@ class GBDTPredictor extends Serializable {
 
 object GBDTPredictor {
 
+  // Instance number of a predict block
+  val BLOCK_SIZE: Int = 1024
+
   def predict(predictor: GBDTPredictor, instances: RDD[Vector]): RDD[Array[Float]] = {
     val bcPredictor = instances.sparkContext.broadcast(predictor)
-    instances.map(bcPredictor.value.predictRaw)
+    instances.mapPartitions { iter =>
+      val predictor = bcPredictor.value
+      iter.grouped(BLOCK_SIZE).flatMap(block => predictor.predictRaw(block.toArray))
+    }
   }
 
   def main(args: Array[String]): Unit = {
@@ -180,6 +180,47 @@ class FPGBDTTrainer(val workerId: Int, val param: GBDTParam,
     activeNodes.nonEmpty
   }
 
+  /**
+    * Build a whole tree in the ps sync mode, the best splits and the split results of every layer
+    * are exchanged through PS, see [[GBDTPSSync]]
+    *
+    * @param treeId       tree id
+    * @param sync         PS matrices of the ps sync mode
+    * @param groupIdToFid true feature ids of the features of this worker
+    * @return evaluation metrics of the tree
+    */
+  def trainTreeWithPS(treeId: Int, sync: GBDTPSSync,
+                      groupIdToFid: Array[Int]): Seq[(EvalMetric.Kind, Double, Double)] = {
+    createNewTree()
+    var depth = 0
+    while (activeNodes.nonEmpty) {
+      val nids = activeNodes.toArray
+      // 1. push local best splits, PS keeps the best one of every node
+      val localSplits = findSplits().map { case (nid, split) =>
+        val fidInWorker = split.getSplitEntry.getFid
+        split.getSplitEntry.setFid(groupIdToFid(fidInWorker))
+        (nid, fidInWorker, split)
+      }
+      sync.pushSplits(treeId, workerId, localSplits)
+      sync.barrier()
+
+      // 2. pull best splits, get split results of the nodes owned by this worker
+      val gatheredSplits = sync.pullSplits(treeId, nids)
+      val validSplits = gatheredSplits.filter(_._4.isValid(param.minSplitGain))
+      gatheredSplits.filter(!_._4.isValid(param.minSplitGain)).foreach(split => setAsLeaf(split._1))
+      if (validSplits.nonEmpty) {
+        sync.pushSplitResults(depth, getSplitResults(validSplits))
+        sync.barrier()
+
+        // 3. split nodes with the split results of all workers
+        splitNodes(sync.pullSplitResults(depth, validSplits.map(_._1), instanceInfo))
+      }
+      depth += 1
+    }
+    finishTree()
+    evaluate()
+  }
+
   /**
     *
     * @param nids: active tree nodes
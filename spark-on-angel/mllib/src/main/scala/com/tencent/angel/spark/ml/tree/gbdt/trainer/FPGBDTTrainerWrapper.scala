@@ -54,9 +54,16 @@ private[trainer] class FPGBDTTrainerWrapper private(private[trainer] val workerI
 
   private[trainer] def finishTree() = trainers(workerId).finishTree()
 
+  private[trainer] def trainTreeWithPS(treeId: Int, sync: GBDTPSSync, groupIdToFid: Array[Int]) =
+    trainers(workerId).trainTreeWithPS(treeId, sync, groupIdToFid)
+
   private[trainer] def evaluate() = trainers(workerId).evaluate()
 
-  private[trainer] def finalizeModel() = trainers(workerId).finalizeModel()
+  private[trainer] def finalizeModel() = {
+    // Release the trainer so that the id can be used by the next training
+    val trainer = trainers.synchronized(trainers.remove(workerId)).get
+    trainer.finalizeModel()
+  }
 
 }
 
@@ -0,0 +1,158 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package com.tencent.angel.spark.ml.tree.gbdt.trainer
+
+import com.tencent.angel.ml.math2.VFactory
+import com.tencent.angel.ml.math2.vector.IntIntVector
+import com.tencent.angel.ml.matrix.{MatrixContext, RowType}
+import com.tencent.angel.spark.ml.psf.gbdt.{GBTSplitElement, GetBestSplits, GetBestSplitsResult, UpdateBestSplits}
+import com.tencent.angel.spark.ml.tree.gbdt.metadata.InstanceInfo
+import com.tencent.angel.spark.ml.tree.gbdt.tree.GBTSplit
+import com.tencent.angel.spark.ml.tree.util.{Maths, RangeBitSet}
+import com.tencent.angel.spark.models.PSMatrix
+import org.apache.spark.BarrierTaskContext
+
+/**
+  * PS matrices of the ps sync mode, the workers exchange the best splits and the split results of
+  * a tree layer through them instead of driver round-trips, so a tree is built in one spark job.
+  * The job must run in barrier mode (`RDD.barrier()`), the workers wait for each other in
+  * `barrier` and spark restarts all of them together if one fails.
+  *
+  * @param numTrain  number of train instances
+  * @param maxDepth  maximum tree depth
+  */
+class GBDTPSSync(numTrain: Int, maxDepth: Int) extends Serializable {
+
+  // Best split of every tree node, the arg-max over the workers is done on PS
+  private val splitMat: PSMatrix = {
+    val maxInnerNodeNum = Maths.pow(2, maxDepth) - 1
+    val mc = new MatrixContext()
+    mc.setName(GBDTPSSync.SPLIT_MAT)
+    mc.setRowType(RowType.T_ANY_INTKEY_DENSE)
+    mc.setRowNum(1)
+    mc.setColNum(maxInnerNodeNum)
+    mc.setMaxColNumInBlock(maxInnerNodeNum)
+    mc.setValueType(classOf[GBTSplitElement])
+    PSMatrix.matrix(mc)
+  }
+
+  // Split results of the tree layers, row d holds the bits of the instance positions of layer d,
+  // the nodes of a layer cover disjoint position ranges so the increments of the workers never
+  // touch the same bit, adding them is the same as or-ing them
+  private val resultMat: PSMatrix = PSMatrix.dense(maxDepth, (numTrain + 31) / 32, RowType.T_INT_DENSE)
+
+  /**
+    * Reset the split results before a tree, called by the driver
+    */
+  def reset(): Unit = {
+    resultMat.reset()
+  }
+
+  /**
+    * Called by every worker at the start of a tree job. A retried attempt clears the split results
+    * the failed attempt left, the best splits are arg-max of the same candidates so they are kept
+    */
+  def startAttempt(): Unit = {
+    val context = BarrierTaskContext.get()
+    if (context.stageAttemptNumber() > 0) {
+      if (context.partitionId() == 0) reset()
+      context.barrier()
+    }
+  }
+
+  /**
+    * Wait until all workers of the job arrive, it times out after `spark.barrier.sync.timeout`
+    */
+  def barrier(): Unit = {
+    BarrierTaskContext.get().barrier()
+  }
+
+  /**
+    * Push the local best splits of a worker, the fids of the splits should be the true feature ids
+    *
+    * @param splits (nid, fidInWorker, split)
+    */
+  def pushSplits(treeId: Int, workerId: Int, splits: Seq[(Int, Int, GBTSplit)]): Unit = {
+    if (splits.nonEmpty) {
+      val elements = splits.map { case (_, fidInWorker, split) =>
+        new GBTSplitElement(treeId, workerId, fidInWorker, split)
+      }.toArray
+      splitMat.psfUpdate(new UpdateBestSplits(splitMat.id, splits.map(_._1).toArray, elements)).get()
+    }
+  }
+
+  /**
+    * Pull the best splits of the nodes over all workers
+    *
+    * @return (nid, ownerId, fidInWorker, split) of the nodes that have a split, sorted by nid
+    */
+  def pullSplits(treeId: Int, nids: Array[Int]): Array[(Int, Int, Int, GBTSplit)] = {
+    val splits = splitMat.psfGet(new GetBestSplits(splitMat.id, treeId, nids))
+      .asInstanceOf[GetBestSplitsResult].getSplits
+    nids.sorted.filter(splits.containsKey).map { nid =>
+      val element = splits.get(nid)
+      (nid, element.getOwnerId, element.getFidInWorker, element.getSplit)
+    }
+  }
+
+  /**
+    * Push the split results of the nodes owned by a worker
+    */
+  def pushSplitResults(depth: Int, splitResults: Seq[(Int, RangeBitSet)]): Unit = {
+    val words = new Array[Int]((numTrain + 31) / 32)
+    splitResults.foreach { case (_, result) =>
+      var pos = result.getRangeFrom
+      while (pos <= result.getRangeTo) {
+        if (result.get(pos)) words(pos >>> 5) |= 1 << (pos & 31)
+        pos += 1
+      }
+    }
+    val indices = words.indices.filter(words(_) != 0).toArray
+    if (indices.nonEmpty) {
+      resultMat.increment(depth, VFactory.sparseIntVector(words.length, indices, indices.map(words)))
+    }
+  }
+
+  /**
+    * Pull the split results of the nodes of a layer
+    */
+  def pullSplitResults(depth: Int, nids: Seq[Int], instanceInfo: InstanceInfo): Seq[(Int, RangeBitSet)] = {
+    val bits = resultMat.pull(depth).asInstanceOf[IntIntVector].getStorage.getValues
+    nids.map { nid =>
+      val from = instanceInfo.getNodePosStart(nid)
+      val to = instanceInfo.getNodePosEnd(nid)
+      val result = new RangeBitSet(from, to)
+      var pos = from
+      while (pos <= to) {
+        if ((bits(pos >>> 5) & (1 << (pos & 31))) != 0) result.set(pos)
+        pos += 1
+      }
+      (nid, result)
+    }
+  }
+
+  def destroy(): Unit = {
+    splitMat.destroy()
+    resultMat.destroy()
+  }
+}
+
+object GBDTPSSync {
+  val SPLIT_MAT: String = "gbdt.best.splits"
+}
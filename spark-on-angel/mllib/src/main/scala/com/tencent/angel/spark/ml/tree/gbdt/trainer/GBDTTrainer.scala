@@ -20,6 +20,7 @@ package com.tencent.angel.spark.ml.tree.gbdt.trainer
 
 import com.tencent.angel.conf.AngelConf
 import com.tencent.angel.ml.core.conf.{MLConf, SharedConf}
+import com.tencent.angel.spark.context.PSContext
 import com.tencent.angel.spark.ml.core.ArgsUtil
 import com.tencent.angel.spark.ml.tree.param.GBDTParam
 import com.tencent.angel.spark.ml.tree.gbdt.dataset.Dataset
@@ -115,6 +116,8 @@ object GBDTTrainer {
     param.regAlpha = params.getOrElse(MLConf.ML_GBDT_REG_ALPHA, "0.0").toFloat
     param.regLambda = params.getOrElse(MLConf.ML_GBDT_REG_LAMBDA, "1.0").toFloat
     param.maxLeafWeight = params.getOrElse(MLConf.ML_GBDT_MAX_LEAF_WEIGHT, "0.0").toFloat
+    param.psSync = params.getOrElse(MLConf.ML_GBDT_PS_SYNC,
+      MLConf.DEFAULT_ML_GBDT_PS_SYNC.toString).toBoolean
 
     println(s"Hyper-parameters:\n$param")
 
@@ -436,76 +439,99 @@ class GBDTTrainer(param: GBDTParam) extends Serializable {
 
     LogHelper.setLogLevel("info")
 
+    // In ps sync mode, the splits and split results are exchanged through PS
+    // and every tree is built in one spark job
+    val sync = if (param.psSync) {
+      PSContext.getOrCreate(sc)
+      new GBDTPSSync(numTrain, param.maxDepth)
+    } else {
+      null
+    }
+
     for (treeId <- 0 until param.numTree) {
       LogHelper.print(s"Start to train tree ${treeId + 1}")
 
-      // 1. create new tree
       val createStart = System.currentTimeMillis()
-      workers.foreach(_.createNewTree())
-      val bestSplits = new Array[GBTSplit](Maths.pow(2, param.maxDepth) - 1)
-      val bestOwnerIds = new Array[Int](Maths.pow(2, param.maxDepth) - 1)
-      val bestAliasFids = new Array[Int](Maths.pow(2, param.maxDepth) - 1)
-      LogHelper.print(s"Tree[${treeId + 1}] Create new tree cost ${System.currentTimeMillis() - createStart} ms")
-
-      // 2. iteratively build one tree
-      var hasActive = true
-      while (hasActive) {
-        // 2.1. build histograms and find local best splits
-        val findStart = System.currentTimeMillis()
-        val nids = collection.mutable.TreeSet[Int]()
-        workers.map(worker => (worker.workerId, worker.findSplits()))
-          .collect().foreach {
-          case (workerId, splits) =>
-            splits.foreach {
-              case (nid, split) =>
-                nids += nid
-                if (bestSplits(nid) == null || bestSplits(nid).needReplace(split)) {
-                  val fidInWorker = split.getSplitEntry.getFid
-                  val trueFid = bcGroupIdToFid.value(workerId)(fidInWorker)
-                  split.getSplitEntry.setFid(trueFid)
-                  bestSplits(nid) = split
-                  bestOwnerIds(nid) = workerId
-                  bestAliasFids(nid) = fidInWorker
-                }
-            }
-        }
-        // (nid, ownerId, fidInWorker, split)
-        val gatheredSplits = nids.toArray.map(nid => (nid,
-          bestOwnerIds(nid), bestAliasFids(nid), bestSplits(nid)))
-        val validSplits = gatheredSplits.filter(_._4.isValid(param.minSplitGain))
-        val leaves = gatheredSplits.filter(!_._4.isValid(param.minSplitGain)).map(_._1)
-        if (gatheredSplits.nonEmpty) {
-          LogHelper.print(s"Build histograms and find best splits cost " +
-            s"${System.currentTimeMillis() - findStart} ms, " +
-            s"${validSplits.length} node(s) to split")
-          val resultStart = System.currentTimeMillis()
-          val bcValidSplits = sc.broadcast(validSplits)
-          val bcLeaves = sc.broadcast(leaves)
-          val splitResults = workers.flatMap(worker => {
-            bcLeaves.value.foreach(worker.setAsLeaf)
-            worker.getSplitResults(bcValidSplits.value).iterator
-          }).collect()
-          val bcSplitResults = sc.broadcast(splitResults)
-          LogHelper.print(s"Get split results cost ${System.currentTimeMillis() - resultStart} ms")
-          // 2.3. split nodes
-          val splitStart = System.currentTimeMillis()
-          hasActive = workers.map(_.splitNodes(bcSplitResults.value)).collect()(0)
-          bcSplitResults.destroy()
-          LogHelper.print(s"Split nodes cost ${System.currentTimeMillis() - splitStart} ms")
-        } else {
-          // no active nodes
-          hasActive = false
+      var finishStart = createStart
+      val treeMetrics = if (param.psSync) {
+        // 1-3. build and finish the tree in one barrier job, all workers run at the same time
+        // and a failed worker fails the attempts of the others instead of leaving them waiting
+        sync.reset()
+        val bcGroupIdToFid = this.bcGroupIdToFid
+        workers.barrier().mapPartitions { iter =>
+          sync.startAttempt()
+          iter.map(worker => worker.trainTreeWithPS(treeId, sync,
+            bcGroupIdToFid.value(worker.workerId)))
+        }.collect()
+      } else {
+        // 1. create new tree
+        workers.foreach(_.createNewTree())
+        val bestSplits = new Array[GBTSplit](Maths.pow(2, param.maxDepth) - 1)
+        val bestOwnerIds = new Array[Int](Maths.pow(2, param.maxDepth) - 1)
+        val bestAliasFids = new Array[Int](Maths.pow(2, param.maxDepth) - 1)
+        LogHelper.print(s"Tree[${treeId + 1}] Create new tree cost ${System.currentTimeMillis() - createStart} ms")
+
+        // 2. iteratively build one tree
+        var hasActive = true
+        while (hasActive) {
+          // 2.1. build histograms and find local best splits
+          val findStart = System.currentTimeMillis()
+          val nids = collection.mutable.TreeSet[Int]()
+          workers.map(worker => (worker.workerId, worker.findSplits()))
+            .collect().foreach {
+            case (workerId, splits) =>
+              splits.foreach {
+                case (nid, split) =>
+                  nids += nid
+                  if (bestSplits(nid) == null || bestSplits(nid).needReplace(split)) {
+                    val fidInWorker = split.getSplitEntry.getFid
+                    val trueFid = bcGroupIdToFid.value(workerId)(fidInWorker)
+                    split.getSplitEntry.setFid(trueFid)
+                    bestSplits(nid) = split
+                    bestOwnerIds(nid) = workerId
+                    bestAliasFids(nid) = fidInWorker
+                  }
+              }
+          }
+          // (nid, ownerId, fidInWorker, split)
+          val gatheredSplits = nids.toArray.map(nid => (nid,
+            bestOwnerIds(nid), bestAliasFids(nid), bestSplits(nid)))
+          val validSplits = gatheredSplits.filter(_._4.isValid(param.minSplitGain))
+          val leaves = gatheredSplits.filter(!_._4.isValid(param.minSplitGain)).map(_._1)
+          if (gatheredSplits.nonEmpty) {
+            LogHelper.print(s"Build histograms and find best splits cost " +
+              s"${System.currentTimeMillis() - findStart} ms, " +
+              s"${validSplits.length} node(s) to split")
+            val resultStart = System.currentTimeMillis()
+            val bcValidSplits = sc.broadcast(validSplits)
+            val bcLeaves = sc.broadcast(leaves)
+            val splitResults = workers.flatMap(worker => {
+              bcLeaves.value.foreach(worker.setAsLeaf)
+              worker.getSplitResults(bcValidSplits.value).iterator
+            }).collect()
+            val bcSplitResults = sc.broadcast(splitResults)
+            LogHelper.print(s"Get split results cost ${System.currentTimeMillis() - resultStart} ms")
+            // 2.3. split nodes
+            val splitStart = System.currentTimeMillis()
+            hasActive = workers.map(_.splitNodes(bcSplitResults.value)).collect()(0)
+            bcSplitResults.destroy()
+            LogHelper.print(s"Split nodes cost ${System.currentTimeMillis() - splitStart} ms")
+          } else {
+            // no active nodes
+            hasActive = false
+          }
         }
-      }
 
-      // 3. finish tree
-      val finishStart = System.currentTimeMillis()
+        // 3. finish tree
+        finishStart = System.currentTimeMillis()
+        workers.map(worker => {
+          worker.finishTree()
+          worker.evaluate()
+        }).collect()
+      }
       val trainMetrics = new Array[Double](evalMetrics.length)
       val validMetrics = new Array[Double](evalMetrics.length)
-      workers.map(worker => {
-        worker.finishTree()
-        worker.evaluate()
-      }).collect().foreach(_.zipWithIndex.foreach {
+      treeMetrics.foreach(_.zipWithIndex.foreach {
         case ((kind, train, valid), index) =>
           require(kind == evalMetrics(index).getKind)
           trainMetrics(index) += train
@@ -539,6 +565,8 @@ class GBDTTrainer(param: GBDTParam) extends Serializable {
       //      }
     }
 
+    if (sync != null) sync.destroy()
+
     // TODO: check equality
     val forest = workers.map(_.finalizeModel()).collect()(0)
     forest.zipWithIndex.foreach {
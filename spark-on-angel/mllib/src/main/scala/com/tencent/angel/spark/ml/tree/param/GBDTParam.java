@@ -46,6 +46,8 @@ public class GBDTParam extends RegTParam {
 
   public String featureImportanceType; // used in saving feature importance
 
+  public boolean psSync; // exchange splits and split results through PS, one spark job per tree
+
   public boolean isClassification() {
     return taskType.equalsIgnoreCase("classification");
   }
@@ -246,6 +248,7 @@ public class GBDTParam extends RegTParam {
     sb.append(String.format("|maxLeafWeight = %s\n", maxLeafWeight));
     sb.append(String.format("|lossFunc = %s\n", lossFunc));
     sb.append(String.format("|evalMetrics = %s\n", Arrays.toString(evalMetrics)));
+    sb.append(String.format("|psSync = %s\n", psSync));
     return sb.toString();
   }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+/*
+ * Tencent is pleased to support the open source community by making Angel available.
+ *
+ * Copyright (C) 2017-2018 THL A29 Limited, a Tencent company. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * https://opensource.org/licenses/Apache-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.tencent.angel.spark.ml
+
+import scala.util.Random
+
+import com.tencent.angel.ml.feature.LabeledData
+import com.tencent.angel.ml.math2.VFactory
+import com.tencent.angel.ml.math2.vector.{LongFloatVector, Vector}
+import com.tencent.angel.ml.matrix.RowType
+import com.tencent.angel.spark.ml.online_learning.FTRL
+import com.tencent.angel.spark.ml.psf.ftrl.{FTRLPull, FTRLPullResult, FTRLPush}
+
+class FTRLFusedTest extends PSFunSuite with SharedPSContext {
+
+  private val dim = 1000L
+  private val all = (0L until dim).toArray
+
+  private def batches(seed: Long): Array[Array[LabeledData]] = {
+    val rand = new Random(seed)
+    Array.fill(10) {
+      Array.fill(64) {
+        val indices = Array.fill(20)(rand.nextInt(dim.toInt).toLong).distinct.sorted
+        val values = Array.fill(indices.length)(rand.nextFloat())
+        new LabeledData(VFactory.sparseLongKeyFloatVector(dim, indices, values),
+          if (rand.nextBoolean()) 1.0 else 0.0)
+      }
+    }
+  }
+
+  private def model(name: String, fused: Boolean): FTRL = {
+    val ftrl = new FTRL(0.1, 0.1, 0.1, 1.0)
+    ftrl.name = name
+    ftrl.setFused(fused)
+    ftrl.init(dim, RowType.T_FLOAT_SPARSE_LONGKEY)
+    ftrl
+  }
+
+  private def assertClose(expected: Vector, actual: Vector): Unit = {
+    all.foreach { i =>
+      val e = expected.asInstanceOf[LongFloatVector].get(i)
+      val a = actual.asInstanceOf[LongFloatVector].get(i)
+      assert(math.abs(e - a) <= 1e-4 * math.max(1.0, math.abs(e)), s"index $i: $e != $a")
+    }
+  }
+
+  test("fused pull and push match the unfused path") {
+    val unfused = model("ftrl_unfused", fused = false)
+    val fused = model("ftrl_fused", fused = true)
+
+    batches(42).foreach { batch =>
+      val loss1 = unfused.optimize(batch)
+      val loss2 = fused.optimize(batch)
+      assert(math.abs(loss1 - loss2) <= 1e-3 * math.max(1.0, loss1))
+    }
+
+    val expected = unfused.matrix.pull(Array(0, 1), all)
+    val actual = fused.matrix.pull(Array(0, 1), all)
+    assertClose(expected(0), actual(0))
+    assertClose(expected(1), actual(1))
+
+    // The fused push updates w on PS, the unfused path computes it from z and n
+    unfused.weight
+    assertClose(unfused.matrix.pull(2, all), fused.matrix.pull(2, all))
+  }
+
+  test("replayed fused push is applied once") {
+    val ftrl = model("ftrl_replay", fused = true)
+    val keys = Array(1L, 10L, 500L, 999L)
+    val result = ftrl.matrix.psfGet(new FTRLPull(ftrl.matrix.id, keys.clone(), 1,
+      ftrl.alpha, ftrl.beta, ftrl.lambda1, ftrl.lambda2, 0.0)).asInstanceOf[FTRLPullResult]
+    val deltaZ = VFactory.sparseLongKeyFloatVector(dim, keys, Array(1.0f, 2.0f, 3.0f, 4.0f))
+    val deltaN = VFactory.sparseLongKeyFloatVector(dim, keys, Array(0.5f, 0.5f, 0.5f, 0.5f))
+
+    val push = new FTRLPush(result, Array(deltaZ), Array(deltaN))
+    ftrl.matrix.psfUpdate(push).get()
+    ftrl.matrix.psfUpdate(push).get()
+
+    val vectors = ftrl.matrix.pull(Array(0, 1), keys)
+    val (z, n) = (vectors(0).asInstanceOf[LongFloatVector], vectors(1).asInstanceOf[LongFloatVector])
+    keys.foreach { key =>
+      assert(z.get(key) == deltaZ.get(key))
+      assert(n.get(key) == deltaN.get(key))
+    }
+  }
+}
@@ -18,11 +18,16 @@ package com.tencent.angel.spark.ml
 
 import com.tencent.angel.spark.ml.tree.gbdt.predictor.GBDTPredictor
 import com.tencent.angel.spark.ml.tree.gbdt.trainer.GBDTTrainer
+import com.tencent.angel.spark.ml.tree.gbdt.tree.{GBTNode, GBTTree}
 import com.tencent.angel.spark.ml.tree.param.GBDTParam
-import com.tencent.angel.spark.ml.tree.util.Maths
+import com.tencent.angel.spark.ml.tree.util.{DataLoader, Maths}
 import org.apache.hadoop.fs.Path
+import org.apache.spark.ml.linalg.{Vector, Vectors}
+
+import scala.util.Random
 
 class GBDTTest extends PSFunSuite with SharedPSContext {
+  private var param: GBDTParam = _
   private var trainer: GBDTTrainer = _
   private var predictor: GBDTPredictor = _
   private var trainPath: String = _
@@ -39,7 +44,7 @@ class GBDTTest extends PSFunSuite with SharedPSContext {
     modelPath = "../../tmp/model"
     predPath = "../../tmp/pred"
 
-    val param = new GBDTParam
+    param = new GBDTParam
     param.taskType = "classification"
     param.numClass = 2
     param.numFeature = 149
@@ -95,5 +100,92 @@ class GBDTTest extends PSFunSuite with SharedPSContext {
     }
   }
 
+  test("GBDT with ps sync") {
+    param.numWorker = 2
+    try {
+      // Both paths pick the best split of every node over the same candidates, the trees and so
+      // the predictions on the train data should be the same
+      val defaultModel = train(psSync = false)
+      val psModel = train(psSync = true)
+      assert(psModel.length == param.numTree)
+
+      val features = DataLoader.loadLibsvmDP(trainPath, param.numFeature)(sc)
+        .map(_.feature).collect()
+      val defaultPredictor = new GBDTPredictor
+      defaultPredictor.forest = defaultModel
+      val psPredictor = new GBDTPredictor
+      psPredictor.forest = psModel
+      val expected = defaultPredictor.predictRaw(features)
+      val actual = psPredictor.predictRaw(features)
+      expected.zip(actual).foreach { case (e, a) =>
+        assert(e.length == a.length)
+        e.zip(a).foreach { case (x, y) => assert(math.abs(x - y) < 1e-5, s"$x != $y") }
+      }
+    } finally {
+      param.psSync = false
+      param.numWorker = 1
+    }
+  }
+
+  test("flat forest predictions match the tree walk") {
+    val predictor = new GBDTPredictor
+    predictor.forest = train(psSync = false)
+
+    // Binary and continuous values, so both sides of the split values are reached
+    val rand = new Random(11)
+    val dense = Array.fill(2000) {
+      Vectors.dense(Array.fill(param.numFeature) {
+        if (rand.nextBoolean()) rand.nextInt(2).toDouble else rand.nextDouble() * 2 - 0.5
+      })
+    }
+    val sparse = dense.map(_.toSparse: Vector)
+
+    // Split sets send the features missing in a sparse vector to their default flow, so each
+    // representation is compared with the walk over the same vectors
+    Seq(dense, sparse).foreach { xs =>
+      val expected = xs.map(walk(predictor.forest, _))
+      val actual = predictor.predictRaw(xs)
+      expected.zip(actual).foreach { case (e, a) =>
+        assert(e.length == a.length)
+        e.zip(a).foreach { case (x, y) => assert(math.abs(x - y) < 1e-6, s"$x != $y") }
+      }
+      xs.zip(expected).take(10).foreach { case (x, e) =>
+        assert(predictor.predictRaw(x) === e)
+      }
+    }
+  }
+
+  // Walk the node objects of every tree
+  private def walk(forest: Seq[GBTTree], vec: Vector): Array[Float] = {
+    val param = forest.head.getParam
+    val preds = Array.ofDim[Float](if (param.numClass == 2) 1 else param.numClass)
+    forest.zipWithIndex.foreach { case (tree, index) =>
+      var node = tree.getRoot
+      while (!node.isLeaf) {
+        if (node.getSplitEntry.flowTo(vec) == 0)
+          node = node.getLeftChild.asInstanceOf[GBTNode]
+        else
+          node = node.getRightChild.asInstanceOf[GBTNode]
+      }
+      if (param.isRegression || param.numClass == 2) {
+        preds(0) += node.getWeight * param.learningRate
+      } else if (param.isMultiClassMultiTree) {
+        preds(index % param.numClass) += node.getWeight * param.learningRate
+      } else {
+        val weights = node.getWeights
+        for (k <- 0 until param.numClass)
+          preds(k) += weights(k)
+      }
+    }
+    preds
+  }
+
+  private def train(psSync: Boolean): Seq[GBTTree] = {
+    param.psSync = psSync
+    val trainer = new GBDTTrainer(param)
+    trainer.initialize(trainPath, testPath)(sc)
+    trainer.train()
+  }
+
 }
 